@@ -1,98 +1,491 @@
 package com.huskydreaming.claims.claims;
 
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.helpers.ClaimBucket;
 import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.jfr.ClaimAddEvent;
 import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
 import com.huskydreaming.claims.model.positions.BlockPosition;
 import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.registry.UuidDictionary;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public final class AreaClaims {
 
     private final UUID worldId;
+    private final int worldRef;
+    private final ClaimChangeFeed feed;
 
-    private final Map<Long, List<AreaClaim>> claims = new ConcurrentHashMap<>();
+    private final Map<UUID, AreaClaim> claimsById = new ConcurrentHashMap<>();
+    private volatile ClaimIndex<AreaClaim> index = ClaimIndex.areaGrid(SpatialGrid.CELL_SIZE);
+
+    // Writers share the lock; a migration only takes it alone to copy the claims and to switch
+    // indexes. Readers never take it.
+    private final ReentrantReadWriteLock writers = new ReentrantReadWriteLock();
+    private final Lock shared = writers.readLock();
+    private final Lock exclusive = writers.writeLock();
+
+    // Adds and resizes check for overlaps before their claim is indexed, so two of them sharing
+    // the lock could each miss the other. They take turns on this one instead.
+    private final Lock placing = new ReentrantLock();
+
+    // Ids written while a migration builds its index; null when none runs.
+    private volatile Set<UUID> migrating;
+
+    // Footprint and workload counters.
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private volatile Consumer<UUID> removalListener = id -> {};
+    private volatile Predicate<AreaClaim> resizeGuard = resized -> true;
+    private volatile ResidencyGuard residencyGuard = ResidencyGuard.NONE;
 
     public AreaClaims(UUID worldId) {
+        this(worldId, new ClaimChangeFeed());
+    }
+
+    AreaClaims(UUID worldId, ClaimChangeFeed feed) {
         this.worldId = Objects.requireNonNull(worldId, "worldId");
+        this.worldRef = UuidDictionary.intern(worldId);
+        this.feed = Objects.requireNonNull(feed, "feed");
+    }
+
+    public UUID worldId() {
+        return worldId;
+    }
+
+    public ClaimChangeFeed feed() {
+        return feed;
     }
 
     public boolean add(AreaClaim claim) {
         Objects.requireNonNull(claim, "claim");
 
-        if (!claim.worldId().equals(worldId)) {
+        ClaimAddEvent event = new ClaimAddEvent();
+        if (!event.isEnabled()) {
+            return insert(claim);
+        }
+
+        event.begin();
+        boolean added = insert(claim);
+        if (event.shouldCommit()) {
+            event.describe(worldId, ClaimType.AREA, claim.id(), SpatialGrid.touchedCellCount(claim.bounds()), added);
+            event.commit();
+        }
+        return added;
+    }
+
+    private boolean insert(AreaClaim claim) {
+        if (claim.worldRef() != worldRef) {
             throw new IllegalArgumentException("Claim belongs to another world");
         }
 
-        BoundingBox bounds = claim.bounds();
-        for (AreaClaim existing : potentialOverlaps(claim)) {
-            if (existing.bounds().intersects(bounds)) {
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(claim.bounds());
+        shared.lock();
+        placing.lock();
+        try {
+            touched(claim.id());
+            if (claimsById.putIfAbsent(claim.id(), claim) != null) {
                 return false;
             }
+
+            for (AreaClaim existing : potentialOverlaps(claim)) {
+                if (existing.overlaps(claim)) {
+                    claimsById.remove(claim.id(), claim);
+                    return false;
+                }
+            }
+
+            index(claim);
+            writes.increment();
+            feed.publish(new ClaimEvent.AreaAdded(claim));
+            return true;
+        } finally {
+            placing.unlock();
+            shared.unlock();
+            pin.release();
         }
+    }
+
+    public boolean remove(AreaClaim claim) {
+        Objects.requireNonNull(claim, "claim");
+
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(claim.bounds());
+        AreaClaim current;
+        shared.lock();
+        try {
+            touched(claim.id());
 
-        for (long cellKey : SpatialGrid.touchedCells(bounds)) {
-            claims.computeIfAbsent(cellKey, l -> new CopyOnWriteArrayList<>())
-                    .add(claim);
+            // Paged claims are reloaded as new instances, so resolve the stored one by id.
+            current = claimsById.get(claim.id());
+            if (current == null || !current.bounds().equals(claim.bounds()) || !unindex(current)) {
+                return false;
+            }
+
+            claimsById.remove(current.id(), current);
+            writes.increment();
+            feed.publish(new ClaimEvent.AreaRemoved(current));
+        } finally {
+            shared.unlock();
+            pin.release();
         }
 
+        // Outside the lock: removing plots may page regions in, which restores areas.
+        removalListener.accept(current.id());
         return true;
     }
 
-    public boolean remove(AreaClaim claim) {
+    // Swaps the claim for a copy with new bounds without taking it out of the index. Only the
+    // region it newly covers is checked for overlaps and only cells entering or leaving its
+    // coverage change. Null when the claim is unknown or stale, the new bounds overlap another
+    // claim, or a plot inside it would no longer fit. Polygon claims keep their outline, so
+    // their bounds may only move or change height.
+    public AreaClaim resize(AreaClaim claim, BoundingBox bounds) {
         Objects.requireNonNull(claim, "claim");
+        Objects.requireNonNull(bounds, "bounds");
+
+        AreaClaim current = claimsById.get(claim.id());
+        if (current == null || !current.bounds().equals(claim.bounds())) {
+            return null;
+        }
 
-        boolean removed = false;
+        if (current.bounds().equals(bounds)) {
+            return current;
+        }
+
+        AreaClaim resized = current.withBounds(bounds);
+
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(current.bounds(), bounds);
+        shared.lock();
+        placing.lock();
+        try {
+            // A moved outline covers new ground anywhere under its box, not just outside the old one.
+            if (current.isPolygon()) {
+                for (AreaClaim existing : potentialOverlaps(resized)) {
+                    if (!existing.id().equals(current.id()) && existing.overlaps(resized)) return null;
+                }
+            } else {
+                ClaimIndex<AreaClaim> index = this.index;
+                for (BoundingBox added : bounds.minus(current.bounds())) {
+                    for (long key : index.keys(added)) {
+                        ClaimBucket<AreaClaim> bucket = index.bucket(key);
+                        if (bucket == null) continue;
+
+                        for (AreaClaim existing : bucket.claims()) {
+                            if (!existing.id().equals(current.id()) && existing.overlaps(added)) return null;
+                        }
+                    }
+                }
+            }
 
-        for (long cellKey : SpatialGrid.touchedCells(claim.bounds())) {
-            List<AreaClaim> list = claims.get(cellKey);
-            if (list == null) continue;
+            if (!resizeGuard.test(resized)) {
+                return null;
+            }
 
-            removed |= list.remove(claim);
-            if (list.isEmpty()) {
-                claims.remove(cellKey);
+            touched(current.id());
+            if (!claimsById.replace(current.id(), current, resized)) {
+                return null;
             }
+
+            index.move(current, resized);
+            bytes.add(ClaimFootprint.areaBytes(resized) - ClaimFootprint.areaBytes(current));
+            writes.increment();
+            feed.publish(new ClaimEvent.AreaResized(current, resized));
+            return resized;
+        } finally {
+            placing.unlock();
+            shared.unlock();
+            pin.release();
         }
+    }
 
-        return removed;
+    public AreaClaim move(AreaClaim claim, int dx, int dy, int dz) {
+        Objects.requireNonNull(claim, "claim");
+        return resize(claim, claim.bounds().translate(dx, dy, dz));
     }
 
     public AreaClaim getAt(BlockPosition position) {
         Objects.requireNonNull(position, "position");
 
-        long cellKey = SpatialGrid.cellKey(position.x(), position.z());
-        List<AreaClaim> candidates = claims.get(cellKey);
-        if (candidates == null || candidates.isEmpty()) {
-            return null;
-        }
+        ClaimBucket<AreaClaim> bucket = bucketAt(index, position.x(), position.z());
+        return bucket == null ? null : bucket.find(position);
+    }
 
-        AreaClaim best = null;
-        for (AreaClaim claim : candidates) {
-            if (!claim.bounds().contains(position)) continue;
+    // See ChunkClaims.getById.
+    public AreaClaim getById(UUID id) {
+        Objects.requireNonNull(id, "id");
 
-            if (best == null || claim.priority() > best.priority()) {
-                best = claim;
+        while (true) {
+            AreaClaim resident = claimsById.get(id);
+            if (resident != null) {
+                return resident;
             }
+
+            AreaClaim[] found = new AreaClaim[2];
+            residencyGuard.scan(null, () -> found[0] = claimsById.get(id), contents -> {
+                for (AreaClaim claim : contents.areas()) {
+                    if (claim.id().equals(id)) found[1] = claim;
+                }
+            });
+
+            if (found[0] != null || found[1] == null) {
+                return found[0];
+            }
+            residencyGuard.beforeRead(found[1].bounds().minX(), found[1].bounds().minZ());
         }
+    }
 
-        return best;
+    // Paged-out claims are copies read from their region files. A claim stored in several
+    // regions is returned once, and the resident instance wins over stored copies.
+    public Set<AreaClaim> intersecting(BoundingBox bounds) {
+        Objects.requireNonNull(bounds, "bounds");
+
+        reads.increment();
+        Map<UUID, AreaClaim> out = new HashMap<>();
+        residencyGuard.scan(bounds, () -> intersectingResident(bounds).forEach(claim -> out.put(claim.id(), claim)), contents -> {
+            for (AreaClaim claim : contents.areas()) {
+                if (claim.bounds().intersects(bounds)) out.putIfAbsent(claim.id(), claim);
+            }
+        });
+        return new HashSet<>(out.values());
+    }
+
+    public Collection<AreaClaim> allClaims() {
+        Map<UUID, AreaClaim> out = new HashMap<>();
+        residencyGuard.scan(null, () -> out.putAll(claimsById), contents -> {
+            for (AreaClaim claim : contents.areas()) {
+                out.putIfAbsent(claim.id(), claim);
+            }
+        });
+        return List.copyOf(out.values());
     }
 
     public void clear() {
-        claims.clear();
+        residencyGuard.discard(ClaimType.AREA);
+
+        Set<UUID> removedIds;
+        shared.lock();
+        try {
+            removedIds = Set.copyOf(claimsById.keySet());
+            removedIds.forEach(this::touched);
+            index.clear();
+            claimsById.clear();
+            bytes.reset();
+            writes.increment();
+        } finally {
+            shared.unlock();
+        }
+
+        removedIds.forEach(removalListener);
+        feed.publish(new ClaimEvent.ClaimsCleared(worldId, ClaimType.AREA));
+    }
+
+    // Name of the engine currently answering lookups, e.g. grid-8.
+    public String indexName() {
+        return index.name();
+    }
+
+    // Rebuilds the index on another engine and switches readers over once it has caught up.
+    // Reads use the old index until then; writers only wait while the claims are copied and
+    // while writes made during the build are replayed. False when a migration is already
+    // running.
+    public boolean migrate(ClaimIndex<AreaClaim> target) {
+        Objects.requireNonNull(target, "target");
+        if (target.buckets() != 0) {
+            throw new IllegalArgumentException("Target index is not empty");
+        }
+
+        Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+        Map<UUID, AreaClaim> snapshot;
+        exclusive.lock();
+        try {
+            if (migrating != null) return false;
+            snapshot = Map.copyOf(claimsById);
+            migrating = dirty;
+        } finally {
+            exclusive.unlock();
+        }
+
+        try {
+            snapshot.values().forEach(target::add);
+
+            exclusive.lock();
+            try {
+                for (UUID id : dirty) {
+                    AreaClaim copied = snapshot.get(id);
+                    if (copied != null) target.remove(copied);
+
+                    AreaClaim current = claimsById.get(id);
+                    if (current != null) target.add(current);
+                }
+                index = target;
+                return true;
+            } finally {
+                exclusive.unlock();
+            }
+        } finally {
+            migrating = null;
+        }
+    }
+
+    ClaimIndex<AreaClaim> index() {
+        return index;
+    }
+
+    long reads() {
+        return reads.sum();
+    }
+
+    long writes() {
+        return writes.sum();
+    }
+
+    ClaimFootprint.Structure footprint() {
+        ClaimIndex<AreaClaim> index = this.index;
+        return ClaimFootprint.structure(claimsById.size(), index.buckets(), index.entries(), bytes.sum());
+    }
+
+    void removalListener(Consumer<UUID> removalListener) {
+        this.removalListener = Objects.requireNonNull(removalListener, "removalListener");
+    }
+
+    void resizeGuard(Predicate<AreaClaim> resizeGuard) {
+        this.resizeGuard = Objects.requireNonNull(resizeGuard, "resizeGuard");
+    }
+
+    ClaimBucket<AreaClaim> bucketAt(int blockX, int blockZ) {
+        return bucketAt(index, blockX, blockZ);
+    }
+
+    // Callers reusing one bucket for several positions pass the index they read it from, so
+    // a migration finishing in between never mixes two layouts.
+    ClaimBucket<AreaClaim> bucketAt(ClaimIndex<AreaClaim> index, int blockX, int blockZ) {
+        residencyGuard.beforeRead(blockX, blockZ);
+        reads.increment();
+        return index.bucket(index.keyAt(blockX, blockZ));
+    }
+
+    boolean hasBucketIn(BoundingBox bounds) {
+        ClaimIndex<AreaClaim> index = this.index;
+        for (long key : index.keys(bounds)) {
+            if (index.bucket(key) != null) return true;
+        }
+        return false;
+    }
+
+    void residencyGuard(ResidencyGuard residencyGuard) {
+        this.residencyGuard = Objects.requireNonNull(residencyGuard, "residencyGuard");
+    }
+
+    // Resident-only views for the pager, which calls them while holding its own lock.
+    Set<AreaClaim> intersectingResident(BoundingBox bounds) {
+        ClaimIndex<AreaClaim> index = this.index;
+        Set<AreaClaim> out = new HashSet<>();
+        for (long key : index.keys(bounds)) {
+            ClaimBucket<AreaClaim> bucket = index.bucket(key);
+            if (bucket == null) continue;
+
+            for (AreaClaim claim : bucket.claims()) {
+                if (claim.bounds().intersects(bounds)) out.add(claim);
+            }
+        }
+        return out;
+    }
+
+    Collection<AreaClaim> residentClaims() {
+        return List.copyOf(claimsById.values());
+    }
+
+    AreaClaim residentById(UUID id) {
+        return claimsById.get(id);
+    }
+
+    // Auditor repair: makes one bucket's entry for a claim id match the claim as currently
+    // stored. False when the index was replaced since the audit read it; the replacement was
+    // rebuilt from the stored claims.
+    boolean repair(ClaimIndex<AreaClaim> audited, long key, UUID id) {
+        shared.lock();
+        try {
+            if (index != audited) return false;
+
+            touched(id);
+            audited.repair(key, id, claimsById.get(id));
+            return true;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    // Pager paths: no overlap checks, events or cascades, the claim was validated when first added.
+    boolean restore(AreaClaim claim) {
+        shared.lock();
+        try {
+            touched(claim.id());
+            if (claimsById.putIfAbsent(claim.id(), claim) != null) {
+                return false;
+            }
+
+            index(claim);
+            return true;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    boolean evict(AreaClaim claim) {
+        shared.lock();
+        try {
+            touched(claim.id());
+            if (!claimsById.remove(claim.id(), claim)) {
+                return false;
+            }
+
+            unindex(claim);
+            return true;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    private void touched(UUID id) {
+        Set<UUID> dirty = migrating;
+        if (dirty != null) dirty.add(id);
+    }
+
+    private void index(AreaClaim claim) {
+        index.add(claim);
+        bytes.add(ClaimFootprint.areaBytes(claim));
+    }
+
+    private boolean unindex(AreaClaim claim) {
+        if (!index.remove(claim)) {
+            return false;
+        }
+
+        bytes.add(-ClaimFootprint.areaBytes(claim));
+        return true;
     }
 
     private Set<AreaClaim> potentialOverlaps(AreaClaim claim) {
         Set<AreaClaim> out = new HashSet<>();
 
-        BoundingBox bounds = claim.bounds();
-        for (long cellKey : SpatialGrid.touchedCells(bounds)) {
-            List<AreaClaim> list = claims.get(cellKey);
-            if (list != null) out.addAll(list);
+        ClaimIndex<AreaClaim> index = this.index;
+        for (long key : index.keys(claim.bounds())) {
+            ClaimBucket<AreaClaim> bucket = index.bucket(key);
+            if (bucket != null) out.addAll(bucket.claims());
         }
 
         return out;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Backing storage for a world's chunk claims, keyed by packed chunk key. The heap store keeps
+// the claim records themselves; the off-heap store keeps them as fixed-size slots in direct
+// memory and hands out fresh records with read-only permissions on every read, so edits go
+// through a copy that is written back with permissionsChanged.
+public interface ChunkClaimStore extends AutoCloseable {
+
+    static ChunkClaimStore onHeap() {
+        return new HeapChunkClaimStore();
+    }
+
+    static ChunkClaimStore offHeap() {
+        return new OffHeapChunkClaimStore(OffHeapChunkClaimStore.DEFAULT_CAPACITY);
+    }
+
+    static ChunkClaimStore offHeap(int expectedClaims) {
+        return new OffHeapChunkClaimStore(expectedClaims);
+    }
+
+    ChunkClaim get(long key);
+
+    boolean contains(long key);
+
+    ChunkClaim getById(UUID id);
+
+    // False when either the chunk or the claim id is already taken.
+    boolean insert(long key, ChunkClaim claim);
+
+    // All or nothing: false, with nothing inserted, when any chunk or claim id is already taken.
+    // The claims share one owner and claims.get(i) goes to keys[i].
+    boolean insertAll(long[] keys, List<ChunkClaim> claims);
+
+    ChunkClaim remove(long key);
+
+    // All or nothing: null, with nothing removed, when any chunk is unclaimed or claimed by
+    // another owner.
+    List<ChunkClaim> removeAll(long[] keys, int ownerRef);
+
+    // Removes the claim at key only if it is still the claim with this id.
+    boolean remove(long key, UUID id);
+
+    void permissionsChanged(long key, ChunkClaim claim);
+
+    int countOwned(int ownerRef);
+
+    // Owners whose entry in the owner index disagrees with the stored claims. Unlocked stores
+    // may report an owner mid-write, so callers confirm before acting on it.
+    Set<Integer> staleOwners();
+
+    // Rebuilds the owner index from the stored claims.
+    void rebuildOwners();
+
+    // Estimated heap held by the store, and direct memory for off-heap stores.
+    long heapBytes();
+
+    long offHeapBytes();
+
+    int size();
+
+    Collection<ChunkClaim> all();
+
+    Set<UUID> ids();
+
+    void clear();
+
+    // Releases the backing memory. Off-heap stores reject every call afterwards.
+    @Override
+    void close();
+}
@@ -1,24 +1,48 @@
 package com.huskydreaming.claims.claims;
 
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
 import com.huskydreaming.claims.helpers.SpatialGrid;
 import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
 import com.huskydreaming.claims.model.flags.ClaimFlag;
 import com.huskydreaming.claims.model.flags.ClaimPermissions;
 import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
 import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.model.positions.ChunkShape;
+import com.huskydreaming.claims.registry.UuidDictionary;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public final class ChunkClaims {
 
     private final UUID worldId;
+    private final int worldRef;
+    private final ClaimChangeFeed feed;
+    private final LongAdder writes = new LongAdder();
 
-    private final Map<Long, ChunkClaim> claims = new ConcurrentHashMap<>();
-    private final Map<UUID, Set<Long>> ownerKeys = new ConcurrentHashMap<>();
+    // Only replaced when a heap store moves off-heap.
+    private volatile ChunkClaimStore claims;
+
+    private volatile Consumer<UUID> removalListener = id -> {};
+    private volatile ResidencyGuard residencyGuard = ResidencyGuard.NONE;
 
     public ChunkClaims(UUID worldId) {
+        this(worldId, new ClaimChangeFeed(), ChunkClaimStore.onHeap());
+    }
+
+    public ChunkClaims(UUID worldId, ChunkClaimStore store) {
+        this(worldId, new ClaimChangeFeed(), store);
+    }
+
+    ChunkClaims(UUID worldId, ClaimChangeFeed feed, ChunkClaimStore store) {
         this.worldId = Objects.requireNonNull(worldId, "worldId");
+        this.worldRef = UuidDictionary.intern(worldId);
+        this.feed = Objects.requireNonNull(feed, "feed");
+        this.claims = Objects.requireNonNull(store, "store");
     }
 
     public UUID worldId() {
@@ -39,16 +63,69 @@ public final class ChunkClaims {
         Objects.requireNonNull(chunkPosition, "chunkPosition");
         Objects.requireNonNull(permissions, "permissions");
 
-        ChunkClaim claim = new ChunkClaim(worldId, ownerId, chunkPosition, permissions);
-        long key = SpatialGrid.chunkKey(chunkPosition);
+        return claim(new ChunkClaim(worldId, ownerId, chunkPosition, permissions));
+    }
 
-        ChunkClaim existing = claims.putIfAbsent(key, claim);
-        if (existing != null) {
-            return false;
+    public boolean claim(ChunkClaim claim) {
+        Objects.requireNonNull(claim, "claim");
+        Objects.requireNonNull(claim.chunkPosition(), "chunkPosition");
+
+        if (claim.worldRef() != worldRef) {
+            throw new IllegalArgumentException("Claim belongs to another world");
         }
 
-        ownerKeys.computeIfAbsent(ownerId, uuid -> ConcurrentHashMap.newKeySet()).add(key);
-        return true;
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(claim.chunkPosition().bounds());
+        try {
+            if (!index(claim)) {
+                return false;
+            }
+
+            writes.increment();
+            feed.publish(new ClaimEvent.ChunkClaimed(claim));
+            return true;
+        } finally {
+            pin.release();
+        }
+    }
+
+    // All or nothing: false, with nothing claimed, when any chunk of the shape is already
+    // claimed. Each chunk gets its own copy of permissions.
+    public boolean claim(UUID ownerId, ChunkShape shape, ClaimPermissions permissions) {
+        Objects.requireNonNull(ownerId, "ownerId");
+        Objects.requireNonNull(shape, "shape");
+        Objects.requireNonNull(permissions, "permissions");
+
+        long[] keys = shape.keys();
+        List<ChunkClaim> batch = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            batch.add(new ChunkClaim(worldId, ownerId, ChunkPosition.fromKey(key), permissions.copy()));
+        }
+        return claim(keys, batch, shape.bounds());
+    }
+
+    // Bulk form of claim(ChunkClaim) for claims of one owner, e.g. a replicated bulk claim.
+    public boolean claimAll(Collection<ChunkClaim> claims) {
+        Objects.requireNonNull(claims, "claims");
+
+        List<ChunkClaim> batch = List.copyOf(claims);
+        long[] keys = new long[batch.size()];
+        for (int i = 0; i < keys.length; i++) {
+            ChunkClaim claim = batch.get(i);
+            if (claim.worldRef() != worldRef) {
+                throw new IllegalArgumentException("Claim belongs to another world");
+            }
+            keys[i] = SpatialGrid.chunkKey(claim.chunkPosition());
+        }
+        return keys.length > 0 && claim(keys, batch, bounds(keys));
+    }
+
+    // All or nothing: false, with nothing unclaimed, when any chunk of the shape is unclaimed or
+    // claimed by someone else.
+    public boolean unclaim(UUID ownerId, ChunkShape shape) {
+        Objects.requireNonNull(ownerId, "ownerId");
+        Objects.requireNonNull(shape, "shape");
+
+        return unclaim(UuidDictionary.lookup(ownerId), shape.keys(), shape.bounds());
     }
 
     public boolean unclaim(BlockPosition blockPosition) {
@@ -59,27 +136,29 @@ public final class ChunkClaims {
     public boolean unclaim(ChunkPosition chunkPosition) {
         Objects.requireNonNull(chunkPosition, "chunkPosition");
 
-        long key = SpatialGrid.chunkKey(chunkPosition);
-        ChunkClaim removed = claims.remove(key);
-        if (removed == null) {
-            return false;
-        }
-
-        UUID ownerId = removed.ownerId();
-        Set<Long> set = ownerKeys.get(ownerId);
-        if (set != null) {
-            set.remove(key);
-            if (set.isEmpty()) {
-                ownerKeys.remove(ownerId);
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(chunkPosition.bounds());
+        ChunkClaim removed;
+        try {
+            removed = claims.remove(SpatialGrid.chunkKey(chunkPosition));
+            if (removed == null) {
+                return false;
             }
+
+            writes.increment();
+            feed.publish(new ClaimEvent.ChunkUnclaimed(removed));
+        } finally {
+            pin.release();
         }
 
+        removalListener.accept(removed.id());
         return true;
     }
 
     public ChunkClaim getAt(BlockPosition position) {
         Objects.requireNonNull(position, "position");
 
+        residencyGuard.beforeRead(position.x(), position.z());
+
         ChunkPosition chunkPosition = ChunkPosition.fromBlock(position);
         long key = SpatialGrid.chunkKey(chunkPosition);
         return claims.get(key);
@@ -87,14 +166,45 @@ public final class ChunkClaims {
 
     public ChunkClaim getAt(ChunkPosition chunkPosition) {
         Objects.requireNonNull(chunkPosition, "chunkPosition");
+        residencyGuard.beforeRead(chunkPosition.minBlockX(), chunkPosition.minBlockZ());
         long key = SpatialGrid.chunkKey(chunkPosition);
         return claims.get(key);
     }
 
+    ChunkClaim getAt(int blockX, int blockZ) {
+        residencyGuard.beforeRead(blockX, blockZ);
+        return claims.get(SpatialGrid.chunkKeyFromBlock(blockX, blockZ));
+    }
+
+    // A paged-out claim is faulted in, so the caller gets the instance later writes go through.
+    public ChunkClaim getById(UUID id) {
+        Objects.requireNonNull(id, "id");
+
+        while (true) {
+            ChunkClaim resident = claims.getById(id);
+            if (resident != null) {
+                return resident;
+            }
+
+            ChunkClaim[] found = new ChunkClaim[2];
+            residencyGuard.scan(null, () -> found[0] = claims.getById(id), contents -> {
+                for (ChunkClaim claim : contents.chunks()) {
+                    if (claim.id().equals(id)) found[1] = claim;
+                }
+            });
+
+            if (found[0] != null || found[1] == null) {
+                return found[0];
+            }
+            residencyGuard.beforeRead(found[1].chunkPosition().minBlockX(), found[1].chunkPosition().minBlockZ());
+        }
+    }
+
     public boolean isClaimed(ChunkPosition chunkPosition) {
         Objects.requireNonNull(chunkPosition, "chunkPosition");
+        residencyGuard.beforeRead(chunkPosition.minBlockX(), chunkPosition.minBlockZ());
         long key = SpatialGrid.chunkKey(chunkPosition);
-        return claims.containsKey(key);
+        return claims.contains(key);
     }
 
     public boolean canPerformAction(UUID playerId, BlockPosition position, ClaimFlag flag) {
@@ -107,15 +217,198 @@ public final class ChunkClaims {
 
     public int countOwned(UUID ownerId) {
         Objects.requireNonNull(ownerId, "ownerId");
-        return ownerKeys.getOrDefault(ownerId, Set.of()).size();
+
+        int[] count = new int[1];
+        residencyGuard.scan(null, () -> count[0] = claims.countOwned(UuidDictionary.lookup(ownerId)), contents -> {
+            for (ChunkClaim claim : contents.chunks()) {
+                if (claim.ownerId().equals(ownerId)) count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    public ClaimChangeFeed feed() {
+        return feed;
+    }
+
+    // Claims of regions that are paged out come back as copies read from their region files.
+    public List<ChunkClaim> intersecting(BoundingBox bounds) {
+        Objects.requireNonNull(bounds, "bounds");
+
+        List<ChunkClaim> out = new ArrayList<>();
+        residencyGuard.scan(bounds, () -> out.addAll(intersectingResident(bounds)), contents -> {
+            for (ChunkClaim claim : contents.chunks()) {
+                if (claim.chunkPosition().bounds().intersects(bounds)) out.add(claim);
+            }
+        });
+        return out;
     }
 
+    // Same as intersecting: paged-out claims are copies read from their region files.
     public Collection<ChunkClaim> allClaims() {
-        return List.copyOf(claims.values());
+        List<ChunkClaim> out = new ArrayList<>();
+        residencyGuard.scan(null, () -> out.addAll(claims.all()), contents -> out.addAll(contents.chunks()));
+        return List.copyOf(out);
     }
 
     public void clear() {
+        residencyGuard.discard(ClaimType.CHUNK);
+
+        Set<UUID> removedIds = claims.ids();
         claims.clear();
-        ownerKeys.clear();
+        writes.increment();
+        removedIds.forEach(removalListener);
+        feed.publish(new ClaimEvent.ClaimsCleared(worldId, ClaimType.CHUNK));
+    }
+
+    long writes() {
+        return writes.sum();
+    }
+
+    // Releases the backing store, off-heap memory included. Called once the world is unloaded;
+    // every read or write afterwards fails.
+    public void close() {
+        claims.close();
+    }
+
+    // Off-heap stores hand out read-only copies, so those are edited as a fresh copy and the
+    // claim carrying it is stored back and returned.
+    ChunkClaim updatePermissions(ChunkClaim claim, Consumer<ClaimPermissions> update) {
+        ChunkClaim updated = claim;
+        if (claim.permissions().isReadOnly()) {
+            updated = new ChunkClaim(claim.id(), claim.worldRef(), claim.ownerRef(), claim.chunkPosition(), claim.permissions().copy());
+        }
+
+        update.accept(updated.permissions());
+        claims.permissionsChanged(SpatialGrid.chunkKey(claim.chunkPosition()), updated);
+        return updated;
+    }
+
+    void removalListener(Consumer<UUID> removalListener) {
+        this.removalListener = Objects.requireNonNull(removalListener, "removalListener");
+    }
+
+    void residencyGuard(ResidencyGuard residencyGuard) {
+        this.residencyGuard = Objects.requireNonNull(residencyGuard, "residencyGuard");
+    }
+
+    // Resident-only views for the pager, which calls them while holding its own lock.
+    ChunkClaim residentById(UUID id) {
+        return claims.getById(id);
+    }
+
+    int residentCount() {
+        return claims.size();
+    }
+
+    List<ChunkClaim> intersectingResident(BoundingBox bounds) {
+        List<ChunkClaim> out = new ArrayList<>();
+        for (ChunkPosition chunkPosition : SpatialGrid.touchedChunks(bounds)) {
+            ChunkClaim claim = claims.get(SpatialGrid.chunkKey(chunkPosition));
+            if (claim != null) out.add(claim);
+        }
+        return out;
+    }
+
+    Collection<ChunkClaim> residentClaims() {
+        return claims.all();
+    }
+
+    boolean restore(ChunkClaim claim) {
+        return index(claim);
+    }
+
+    boolean evict(ChunkClaim claim) {
+        return claims.remove(SpatialGrid.chunkKey(claim.chunkPosition()), claim.id());
+    }
+
+    ChunkClaimStore store() {
+        return claims;
+    }
+
+    // False when the claims are already off-heap or more than one off-heap store can hold.
+    // Writers racing the move are forwarded by the old store, so none are lost.
+    boolean moveOffHeap() {
+        if (!(claims instanceof HeapChunkClaimStore heap) || heap.size() > OffHeapChunkClaimStore.MAX_CLAIMS) {
+            return false;
+        }
+
+        OffHeapChunkClaimStore target = new OffHeapChunkClaimStore(heap.size());
+        heap.moveTo(target);
+        claims = target;
+        return true;
+    }
+
+    boolean unclaimAll(UUID ownerId, long[] keys) {
+        return keys.length > 0 && unclaim(UuidDictionary.lookup(ownerId), keys, bounds(keys));
+    }
+
+    private boolean claim(long[] keys, List<ChunkClaim> batch, BoundingBox bounds) {
+        if (keys.length == 0) {
+            return false;
+        }
+
+        for (ChunkClaim claim : batch) {
+            if (claim.ownerRef() != batch.get(0).ownerRef()) {
+                throw new IllegalArgumentException("Bulk claims must share one owner");
+            }
+        }
+
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(bounds);
+        try {
+            if (!claims.insertAll(keys, batch)) {
+                return false;
+            }
+
+            writes.increment();
+            feed.publish(new ClaimEvent.ChunksClaimed(worldId, batch));
+            return true;
+        } finally {
+            pin.release();
+        }
+    }
+
+    private boolean unclaim(int ownerRef, long[] keys, BoundingBox bounds) {
+        if (keys.length == 0) {
+            return false;
+        }
+
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(bounds);
+        try {
+            List<ChunkClaim> removed = claims.removeAll(keys, ownerRef);
+            if (removed == null || removed.isEmpty()) {
+                return false;
+            }
+
+            writes.increment();
+            feed.publish(new ClaimEvent.ChunksUnclaimed(worldId, removed));
+            for (ChunkClaim claim : removed) {
+                removalListener.accept(claim.id());
+            }
+            return true;
+        } finally {
+            pin.release();
+        }
+    }
+
+    private static BoundingBox bounds(long[] keys) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (long key : keys) {
+            int x = SpatialGrid.unpackX(key);
+            int z = SpatialGrid.unpackZ(key);
+            minX = Math.min(minX, x);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxZ = Math.max(maxZ, z);
+        }
+        return new BoundingBox(
+                minX * SpatialGrid.CHUNK_SIZE, Integer.MIN_VALUE, minZ * SpatialGrid.CHUNK_SIZE,
+                maxX * SpatialGrid.CHUNK_SIZE + SpatialGrid.CHUNK_SIZE - 1, Integer.MAX_VALUE, maxZ * SpatialGrid.CHUNK_SIZE + SpatialGrid.CHUNK_SIZE - 1
+        );
+    }
+
+    private boolean index(ChunkClaim claim) {
+        return claims.insert(SpatialGrid.chunkKey(claim.chunkPosition()), claim);
     }
-}
\ No newline at end of file
+}
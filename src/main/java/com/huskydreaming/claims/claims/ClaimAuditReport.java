@@ -0,0 +1,60 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+// Outcome of one ClaimIndexAuditor pass. Incomplete when the time budget ran out before every
+// claim and bucket was visited; the issues found until then are still confirmed.
+public record ClaimAuditReport(
+        List<Issue> issues,
+        int claimsChecked,
+        int bucketsChecked,
+        int repaired,
+        boolean complete,
+        Duration elapsed
+) {
+
+    public enum Problem {
+        // A claim is absent from a bucket its bounds cover.
+        MISSING_ENTRY,
+        // A bucket holds a removed claim, an old copy of a claim, or a claim outside its bounds.
+        STALE_ENTRY,
+        // A polygon claim's partial flag disagrees with its outline.
+        WRONG_COVERAGE,
+        // Two claims of the same kind share a block. Reported only, never repaired.
+        OVERLAP,
+        // The chunk store's owner index disagrees with the stored claims.
+        OWNER_INDEX,
+        // A plot whose parent claim no longer exists.
+        ORPHAN_PLOT,
+        // A plot reaching outside its parent claim. Reported only, never repaired.
+        PLOT_OUTSIDE_PARENT,
+        // The plot-by-parent index is missing a plot or holds a stale one.
+        PARENT_INDEX
+    }
+
+    // id is the claim, or the owner for OWNER_INDEX. other is the second claim of an OVERLAP and
+    // the parent for plot parent problems. key is the bucket key in the audited index for bucket
+    // problems and the owner ref for OWNER_INDEX.
+    public record Issue(Problem problem, ClaimType type, UUID id, UUID other, long key) {
+
+        public Issue {
+            Objects.requireNonNull(problem, "problem");
+            Objects.requireNonNull(type, "type");
+            Objects.requireNonNull(id, "id");
+        }
+    }
+
+    public ClaimAuditReport {
+        issues = List.copyOf(issues);
+        Objects.requireNonNull(elapsed, "elapsed");
+    }
+
+    public boolean isClean() {
+        return complete && issues.isEmpty();
+    }
+}
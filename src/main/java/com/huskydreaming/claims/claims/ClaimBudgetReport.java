@@ -0,0 +1,24 @@
+package com.huskydreaming.claims.claims;
+
+import java.util.List;
+import java.util.UUID;
+
+// What one ClaimMemoryBudget.enforce() call did. Nothing is done while the total stays within
+// the budget; otherwise steps stop as soon as it falls below the low-water mark.
+public record ClaimBudgetReport(
+        long heapBytesBefore,
+        long heapBytesAfter,
+        int regionsEvicted,
+        List<UUID> movedOffHeap,
+        List<UUID> unloaded
+) {
+
+    public ClaimBudgetReport {
+        movedOffHeap = List.copyOf(movedOffHeap);
+        unloaded = List.copyOf(unloaded);
+    }
+
+    public boolean acted() {
+        return regionsEvicted > 0 || !movedOffHeap.isEmpty() || !unloaded.isEmpty();
+    }
+}
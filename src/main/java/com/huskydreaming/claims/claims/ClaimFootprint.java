@@ -0,0 +1,58 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+
+import java.util.Objects;
+import java.util.UUID;
+
+// Estimated memory held by one world's claims. The indexes keep their counts up to date as
+// claims come and go, so taking a footprint never walks a claim or a bucket. Byte figures
+// assume a 64-bit JVM with compressed oops and are meant for budgeting, not exact accounting.
+public record ClaimFootprint(UUID worldId, Structure chunks, Structure areas, Structure plots, long offHeapBytes) {
+
+    // Rough shallow sizes of the objects every index is made of.
+    static final long MAP_ENTRY = 56;
+    static final long BUCKET = 80;
+    static final long BUCKET_ENTRY = 28;
+    static final long CLAIM = 40;
+    static final long BOX = 40;
+    static final long UUID_BYTES = 32;
+    static final long PERMISSIONS = 160;
+
+    // claims are stored claims, buckets the cells or chunks holding at least one, and entries
+    // the claim references across all buckets.
+    public record Structure(long claims, long buckets, long entries, long heapBytes) {
+    }
+
+    public ClaimFootprint {
+        Objects.requireNonNull(worldId, "worldId");
+        Objects.requireNonNull(chunks, "chunks");
+        Objects.requireNonNull(areas, "areas");
+        Objects.requireNonNull(plots, "plots");
+    }
+
+    public long heapBytes() {
+        return chunks.heapBytes() + areas.heapBytes() + plots.heapBytes();
+    }
+
+    // claimBytes covers the claims themselves and their by-id entries; buckets and entries are
+    // priced here so every grid index is estimated the same way.
+    static Structure structure(long claims, long buckets, long entries, long claimBytes) {
+        return new Structure(claims, buckets, entries, claimBytes + buckets * (MAP_ENTRY + BUCKET) + entries * BUCKET_ENTRY);
+    }
+
+    static long areaBytes(AreaClaim claim) {
+        long bytes = CLAIM + BOX + UUID_BYTES + PERMISSIONS + MAP_ENTRY;
+        if (claim.isPolygon()) {
+            // Vertex arrays, the polygon itself and one coverage byte per cell under its box.
+            bytes += 2 * (16 + 4L * claim.outline().vertexCount()) + 64 + 16 + SpatialGrid.touchedCellCount(claim.bounds());
+        }
+        return bytes;
+    }
+
+    // Plots also sit in the plot-by-parent index.
+    static long plotBytes() {
+        return CLAIM + BOX + UUID_BYTES + PERMISSIONS + 2 * MAP_ENTRY;
+    }
+}
@@ -0,0 +1,62 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+import java.util.Set;
+import java.util.UUID;
+
+// Spatial index behind AreaClaims and PlotClaims. Engines bucket claims by square keys of their
+// own choosing and answer point lookups with one ClaimBucket, so readers never lock. Writes are
+// serialised by the owning collection, which also swaps engines through migrate() while reads
+// continue against the old one.
+//
+// Built-in engines are uniform grids: areas default to 8-block cells and plots to chunk-sized
+// squares. Both accept any power of two from 8 to 1024 blocks.
+public interface ClaimIndex<T extends BoundedClaim> {
+
+    static ClaimIndex<AreaClaim> areaGrid(int cellSize) {
+        return GridClaimIndex.areas(cellSize);
+    }
+
+    static ClaimIndex<PlotClaim> plotGrid(int cellSize) {
+        return GridClaimIndex.plots(cellSize);
+    }
+
+    String name();
+
+    long keyAt(int blockX, int blockZ);
+
+    // Keys of every square the box touches, whether or not a bucket exists there.
+    long[] keys(BoundingBox bounds);
+
+    // Weakly consistent view of the keys holding a bucket.
+    Set<Long> keys();
+
+    ClaimBucket<T> bucket(long key);
+
+    // BlockPolygon.OUTSIDE when the bucket at key should not hold the claim, PARTIAL when the
+    // entry has to be confirmed against the claim's own shape, FULL otherwise.
+    int coverage(T claim, long key);
+
+    void add(T claim);
+
+    // False when the claim was not indexed.
+    boolean remove(T claim);
+
+    // Swaps a claim for a copy with new bounds, never dropping it from squares both cover.
+    void move(T claim, T moved);
+
+    // Makes the bucket at key hold exactly what coverage says for current, dropping any other
+    // entry under the id. A null current only drops entries.
+    void repair(long key, UUID id, T current);
+
+    void clear();
+
+    long buckets();
+
+    long entries();
+}
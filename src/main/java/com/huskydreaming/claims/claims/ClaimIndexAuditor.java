@@ -0,0 +1,379 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.claims.ClaimAuditReport.Issue;
+import com.huskydreaming.claims.claims.ClaimAuditReport.Problem;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.registry.UuidDictionary;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cross-checks a world's indexes against its claims while the world stays live. Claims are
+// walked to find buckets missing them, buckets are walked to find stale entries and
+// overlaps, plots are checked against their parents and the parent index, and the chunk store
+// checks its owner index. Every pass is split over a fork-join pool of its own, so a server can
+// cap the threads it gives up, and stops taking work once the time budget is spent.
+//
+// Writers keep running during a pass, so a suspect is re-checked against the live indexes once
+// the parallel work is done and only reported, or repaired, if it still holds. Bucket keys in
+// a report belong to the index the collection used when the pass started; entry problems
+// found in an index that has since been migrated away are dropped, as the new index was
+// rebuilt from the claims. Paged-out regions are not in memory and are not audited.
+public final class ClaimIndexAuditor implements AutoCloseable {
+
+    private static final int LEAF = 256;
+
+    private final WorldClaims world;
+    private final ForkJoinPool pool;
+
+    public ClaimIndexAuditor(WorldClaims world) {
+        this(world, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public ClaimIndexAuditor(WorldClaims world, int parallelism) {
+        this.world = Objects.requireNonNull(world, "world");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+
+        String name = "claims-audit-" + world.worldId() + "-";
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName(name + threads.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    public ClaimAuditReport audit() {
+        return audit(null, false);
+    }
+
+    // A null budget runs to completion. With repair set, confirmed index problems are fixed in
+    // place and orphaned plots are removed through PlotClaims, so they reach the feed as usual.
+    public ClaimAuditReport audit(Duration budget, boolean repair) {
+        if (budget != null && budget.isNegative()) {
+            throw new IllegalArgumentException("budget < 0");
+        }
+
+        long start = System.nanoTime();
+        long budgetNanos = budget == null || budget.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : budget.toNanos();
+        Pass pass = new Pass(start, budgetNanos, world.area().index(), world.plot().index());
+
+        List<AreaClaim> areas = List.copyOf(world.area().allClaims());
+        List<PlotClaim> plots = List.copyOf(world.plot().allClaims());
+        List<Long> cells = List.copyOf(pass.areaIndex.keys());
+        List<Long> chunks = List.copyOf(pass.plotIndex.keys());
+        List<UUID> parents = List.copyOf(world.plot().parentIds());
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(
+                new Check<>(pass, areas, 0, areas.size(), this::checkArea),
+                new Check<>(pass, cells, 0, cells.size(), this::checkCell),
+                new Check<>(pass, plots, 0, plots.size(), this::checkPlot),
+                new Check<>(pass, chunks, 0, chunks.size(), this::checkChunk),
+                new Check<>(pass, parents, 0, parents.size(), this::checkParent),
+                ForkJoinTask.adapt(() -> checkOwners(pass))
+        )));
+
+        List<Issue> confirmed = new ArrayList<>();
+        Set<Integer> staleOwners = null;
+        for (Issue issue : pass.suspects) {
+            if (issue.problem() == Problem.OWNER_INDEX) {
+                if (staleOwners == null) staleOwners = world.chunk().store().staleOwners();
+                if (staleOwners.contains((int) issue.key())) confirmed.add(issue);
+            } else if (holds(pass, issue)) {
+                confirmed.add(issue);
+            }
+        }
+
+        int repaired = repair ? repair(pass, confirmed) : 0;
+        return new ClaimAuditReport(confirmed, pass.claims.get(), pass.buckets.get(), repaired, !pass.expired,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void checkArea(Pass pass, AreaClaim claim) {
+        pass.claims.incrementAndGet();
+        for (long cellKey : pass.areaIndex.keys(claim.bounds())) {
+            pass.suspect(cellProblem(pass.areaIndex, cellKey, claim.id()), ClaimType.AREA, claim.id(), null, cellKey);
+        }
+    }
+
+    private void checkCell(Pass pass, long cellKey) {
+        ClaimBucket<AreaClaim> bucket = pass.areaIndex.bucket(cellKey);
+        if (bucket == null) return;
+
+        pass.buckets.incrementAndGet();
+        List<AreaClaim> entries = bucket.claims();
+        for (int i = 0; i < entries.size(); i++) {
+            AreaClaim claim = entries.get(i);
+            pass.suspect(cellProblem(pass.areaIndex, cellKey, claim.id()), ClaimType.AREA, claim.id(), null, cellKey);
+
+            for (int j = i + 1; j < entries.size(); j++) {
+                AreaClaim other = entries.get(j);
+                if (!other.id().equals(claim.id()) && other.bounds().intersects(claim.bounds()) && other.overlaps(claim)) {
+                    pass.overlap(ClaimType.AREA, claim.id(), other.id(), cellKey);
+                }
+            }
+        }
+    }
+
+    private void checkPlot(Pass pass, PlotClaim plot) {
+        pass.claims.incrementAndGet();
+        for (long chunkKey : pass.plotIndex.keys(plot.bounds())) {
+            pass.suspect(chunkProblem(pass.plotIndex, chunkKey, plot.id()), ClaimType.PLOT, plot.id(), null, chunkKey);
+        }
+
+        pass.suspect(parentProblem(plot.id()), ClaimType.PLOT, plot.id(), plot.parentClaimId(), 0);
+        if (!isIndexedChild(plot.parentClaimId(), plot.id())) {
+            pass.suspect(Problem.PARENT_INDEX, ClaimType.PLOT, plot.id(), plot.parentClaimId(), 0);
+        }
+    }
+
+    private void checkChunk(Pass pass, long chunkKey) {
+        ClaimBucket<PlotClaim> bucket = pass.plotIndex.bucket(chunkKey);
+        if (bucket == null) return;
+
+        pass.buckets.incrementAndGet();
+        List<PlotClaim> entries = bucket.claims();
+        for (int i = 0; i < entries.size(); i++) {
+            PlotClaim plot = entries.get(i);
+            pass.suspect(chunkProblem(pass.plotIndex, chunkKey, plot.id()), ClaimType.PLOT, plot.id(), null, chunkKey);
+
+            for (int j = i + 1; j < entries.size(); j++) {
+                PlotClaim other = entries.get(j);
+                if (!other.id().equals(plot.id()) && other.bounds().intersects(plot.bounds())) {
+                    pass.overlap(ClaimType.PLOT, plot.id(), other.id(), chunkKey);
+                }
+            }
+        }
+    }
+
+    private void checkParent(Pass pass, UUID parentId) {
+        for (PlotClaim child : world.plot().indexedChildren(parentId)) {
+            if (!isIndexedChild(parentId, child.id())) {
+                pass.suspect(Problem.PARENT_INDEX, ClaimType.PLOT, child.id(), parentId, 0);
+            }
+        }
+    }
+
+    private void checkOwners(Pass pass) {
+        if (pass.expired()) return;
+
+        for (int ownerRef : world.chunk().store().staleOwners()) {
+            pass.suspect(Problem.OWNER_INDEX, ClaimType.CHUNK, UuidDictionary.uuid(ownerRef), null, ownerRef);
+        }
+    }
+
+    private Problem cellProblem(ClaimIndex<AreaClaim> index, long cellKey, UUID id) {
+        AreaClaim current = world.area().getById(id);
+        int coverage = current == null ? BlockPolygon.OUTSIDE : index.coverage(current, cellKey);
+        ClaimBucket<AreaClaim> bucket = index.bucket(cellKey);
+
+        Problem problem = entryProblem(bucket, id, current, coverage != BlockPolygon.OUTSIDE);
+        if (problem != null || coverage == BlockPolygon.OUTSIDE) {
+            return problem;
+        }
+
+        return bucket.isPartial(current) == (coverage == BlockPolygon.PARTIAL) ? null : Problem.WRONG_COVERAGE;
+    }
+
+    private Problem chunkProblem(ClaimIndex<PlotClaim> index, long chunkKey, UUID id) {
+        PlotClaim current = world.plot().getById(id);
+        boolean covered = current != null && index.coverage(current, chunkKey) != BlockPolygon.OUTSIDE;
+        return entryProblem(index.bucket(chunkKey), id, current, covered);
+    }
+
+    // A covered bucket must hold the current claim exactly once; any other entry under the id is stale.
+    private static <T extends BoundedClaim> Problem entryProblem(ClaimBucket<T> bucket, UUID id, T current, boolean covered) {
+        int matches = 0;
+        boolean stale = false;
+        if (bucket != null) {
+            for (T entry : bucket.claims()) {
+                if (!entry.id().equals(id)) continue;
+
+                matches++;
+                stale |= !covered || !entry.equals(current);
+            }
+        }
+
+        if (stale || matches > 1) return Problem.STALE_ENTRY;
+        return covered && matches == 0 ? Problem.MISSING_ENTRY : null;
+    }
+
+    private Problem parentProblem(UUID plotId) {
+        PlotClaim plot = world.plot().getById(plotId);
+        if (plot == null) return null;
+
+        boolean exists = switch (plot.parentClaimType()) {
+            case AREA -> world.area().getById(plot.parentClaimId()) != null;
+            case CHUNK -> world.chunk().getById(plot.parentClaimId()) != null;
+            case PLOT -> false;
+        };
+
+        if (!exists) return Problem.ORPHAN_PLOT;
+        return world.plot().isInsideParent(plot) ? null : Problem.PLOT_OUTSIDE_PARENT;
+    }
+
+    // The parent index must hold the current plot under its own parent and nowhere else.
+    private boolean isIndexedChild(UUID parentId, UUID plotId) {
+        PlotClaim current = world.plot().getById(plotId);
+        boolean belongs = current != null && current.parentClaimId().equals(parentId);
+
+        int matches = 0;
+        for (PlotClaim child : world.plot().indexedChildren(parentId)) {
+            if (!child.id().equals(plotId)) continue;
+            if (!belongs || !child.equals(current)) return false;
+            matches++;
+        }
+        return matches == (belongs ? 1 : 0);
+    }
+
+    private boolean holds(Pass pass, Issue issue) {
+        return switch (issue.problem()) {
+            case MISSING_ENTRY, STALE_ENTRY, WRONG_COVERAGE -> issue.type() == ClaimType.AREA
+                    ? world.area().index() == pass.areaIndex && issue.problem() == cellProblem(pass.areaIndex, issue.key(), issue.id())
+                    : world.plot().index() == pass.plotIndex && issue.problem() == chunkProblem(pass.plotIndex, issue.key(), issue.id());
+            case OVERLAP -> overlaps(issue.type(), issue.id(), issue.other());
+            case ORPHAN_PLOT, PLOT_OUTSIDE_PARENT -> issue.problem() == parentProblem(issue.id());
+            case PARENT_INDEX -> !isIndexedChild(issue.other(), issue.id());
+            case OWNER_INDEX -> throw new IllegalStateException("Owner issues are confirmed in bulk");
+        };
+    }
+
+    private boolean overlaps(ClaimType type, UUID a, UUID b) {
+        if (type == ClaimType.AREA) {
+            AreaClaim first = world.area().getById(a);
+            AreaClaim second = world.area().getById(b);
+            return first != null && second != null && first.overlaps(second);
+        }
+
+        PlotClaim first = world.plot().getById(a);
+        PlotClaim second = world.plot().getById(b);
+        return first != null && second != null && first.bounds().intersects(second.bounds());
+    }
+
+    private int repair(Pass pass, List<Issue> issues) {
+        int repaired = 0;
+        boolean owners = false;
+
+        for (Issue issue : issues) {
+            switch (issue.problem()) {
+                case MISSING_ENTRY, STALE_ENTRY, WRONG_COVERAGE -> {
+                    boolean fixed = issue.type() == ClaimType.AREA
+                            ? world.area().repair(pass.areaIndex, issue.key(), issue.id())
+                            : world.plot().repair(pass.plotIndex, issue.key(), issue.id());
+                    if (fixed) repaired++;
+                }
+                case PARENT_INDEX -> {
+                    world.plot().reindexChild(issue.other(), issue.id());
+                    PlotClaim current = world.plot().getById(issue.id());
+                    if (current != null) world.plot().reindexChild(current.parentClaimId(), issue.id());
+                    repaired++;
+                }
+                case ORPHAN_PLOT -> {
+                    PlotClaim plot = world.plot().getById(issue.id());
+                    if (plot != null && world.plot().remove(plot)) repaired++;
+                }
+                case OWNER_INDEX -> owners = true;
+                case OVERLAP, PLOT_OUTSIDE_PARENT -> {
+                }
+            }
+        }
+
+        if (owners) {
+            world.chunk().store().rebuildOwners();
+            repaired += (int) issues.stream().filter(issue -> issue.problem() == Problem.OWNER_INDEX).count();
+        }
+        return repaired;
+    }
+
+    private static final class Pass {
+
+        private final long start;
+        private final long budgetNanos;
+        private final ClaimIndex<AreaClaim> areaIndex;
+        private final ClaimIndex<PlotClaim> plotIndex;
+        private final Set<Issue> suspects = ConcurrentHashMap.newKeySet();
+        private final Set<List<UUID>> overlapPairs = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger claims = new AtomicInteger();
+        private final AtomicInteger buckets = new AtomicInteger();
+
+        private volatile boolean expired;
+
+        private Pass(long start, long budgetNanos, ClaimIndex<AreaClaim> areaIndex, ClaimIndex<PlotClaim> plotIndex) {
+            this.start = start;
+            this.budgetNanos = budgetNanos;
+            this.areaIndex = areaIndex;
+            this.plotIndex = plotIndex;
+        }
+
+        private boolean expired() {
+            if (!expired && System.nanoTime() - start > budgetNanos) expired = true;
+            return expired;
+        }
+
+        private void suspect(Problem problem, ClaimType type, UUID id, UUID other, long key) {
+            if (problem != null) suspects.add(new Issue(problem, type, id, other, key));
+        }
+
+        // Neighbouring claims share many buckets, so each pair is reported from the first one seen.
+        private void overlap(ClaimType type, UUID a, UUID b, long key) {
+            List<UUID> pair = a.compareTo(b) < 0 ? List.of(a, b) : List.of(b, a);
+            if (overlapPairs.add(pair)) suspects.add(new Issue(Problem.OVERLAP, type, pair.get(0), pair.get(1), key));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Checker<T> {
+        void check(Pass pass, T item);
+    }
+
+    // Tasks are never serialized; the fields are transient only because RecursiveAction is Serializable.
+    private static final class Check<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Pass pass;
+        private final transient List<T> items;
+        private final int from;
+        private final int to;
+        private final transient Checker<T> checker;
+
+        private Check(Pass pass, List<T> items, int from, int to, Checker<T> checker) {
+            this.pass = pass;
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.checker = checker;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Check<>(pass, items, from, middle, checker), new Check<>(pass, items, middle, to, checker));
+                return;
+            }
+
+            for (int i = from; i < to && !pass.expired(); i++) {
+                checker.check(pass, items.get(i));
+            }
+        }
+    }
+}
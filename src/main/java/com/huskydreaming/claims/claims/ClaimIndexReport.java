@@ -0,0 +1,44 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+
+import java.util.List;
+import java.util.Objects;
+
+// What one ClaimIndexTuner pass saw and did for the area and plot indexes of a world.
+public record ClaimIndexReport(Profile areas, Profile plots) {
+
+    // Estimated work at one grid size: squares per claim is what a write touches, occupancy
+    // the entries a lookup scans in the bucket it lands in, and buckets how many the index
+    // would hold. Cost weighs lookups and writes by the workload since the previous pass.
+    public record Candidate(int cellSize, double squaresPerClaim, double occupancy, long buckets, double cost) {
+    }
+
+    // Spans are the longer horizontal side of the sampled claims, in blocks. chosen equals
+    // engine unless the pass migrated.
+    public record Profile(
+            ClaimType type,
+            String engine,
+            String chosen,
+            int claims,
+            long reads,
+            long writes,
+            int medianSpan,
+            int p90Span,
+            List<Candidate> candidates,
+            boolean migrated
+    ) {
+
+        public Profile {
+            Objects.requireNonNull(type, "type");
+            Objects.requireNonNull(engine, "engine");
+            Objects.requireNonNull(chosen, "chosen");
+            candidates = List.copyOf(candidates);
+        }
+    }
+
+    public ClaimIndexReport {
+        Objects.requireNonNull(areas, "areas");
+        Objects.requireNonNull(plots, "plots");
+    }
+}
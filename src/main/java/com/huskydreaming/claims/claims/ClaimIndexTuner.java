@@ -0,0 +1,222 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.claims.ClaimIndexReport.Candidate;
+import com.huskydreaming.claims.claims.ClaimIndexReport.Profile;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.helpers.PeriodicTask;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+// Adaptive index selection for one world. Each pass samples the area and plot claims, estimates
+// at every candidate grid size how many squares a write touches and how many entries a lookup
+// scans, weighs the two by the reads and writes counted since the previous pass, and migrates
+// the index when another size is cheaper by at least a quarter. Migrations run on the calling
+// thread, or the tuner's own when scheduled, and never block lookups.
+//
+// Only the workload since the previous pass, or since the tuner was created, counts. Worlds with
+// none are left as they are, and so are collections running an engine other than the grid.
+public final class ClaimIndexTuner implements AutoCloseable {
+
+    public static final int DEFAULT_SAMPLE = 512;
+
+    static final int[] CELL_SIZES = {8, 16, 32, 64, 128};
+
+    // Nanosecond costs measured on the plain harness; only their ratios matter. A probe is cheap
+    // while the buckets stay cached and misses in proportion once there are more of them than
+    // about CACHED_BUCKETS. A write rebuilds one bucket per square, copying its entries.
+    private static final double PROBE = 20;
+    private static final double MISS = 400;
+    private static final double SCAN = 0.6;
+    private static final double WRITE = 1000;
+    private static final double COPY = 60;
+    private static final double CACHED_BUCKETS = 16384;
+
+    private static final double MARGIN = 0.25;
+
+    private final WorldClaims world;
+    private final int sampleSize;
+    private final PeriodicTask task;
+
+    private final Seen areasSeen;
+    private final Seen plotsSeen;
+
+    public ClaimIndexTuner(WorldClaims world) {
+        this(world, DEFAULT_SAMPLE, null);
+    }
+
+    public ClaimIndexTuner(WorldClaims world, int sampleSize, Duration interval) {
+        this.world = Objects.requireNonNull(world, "world");
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("sampleSize < 1");
+        }
+        this.sampleSize = sampleSize;
+        this.areasSeen = new Seen(world.area().reads(), world.area().writes());
+        this.plotsSeen = new Seen(world.plot().reads(), world.plot().writes());
+        this.task = new PeriodicTask("claims-index-tuner-" + world.worldId(), interval);
+        task.start(this::tune);
+    }
+
+    public Optional<Exception> lastFailure() {
+        return task.lastFailure();
+    }
+
+    public synchronized ClaimIndexReport tune() {
+        AreaClaims areas = world.area();
+        PlotClaims plots = world.plot();
+
+        Profile areaProfile = profile(ClaimType.AREA, areas.index(), areas.allClaims(), areasSeen.reads(areas.reads()),
+                areasSeen.writes(areas.writes()), ClaimIndex::areaGrid, areas::migrate);
+        Profile plotProfile = profile(ClaimType.PLOT, plots.index(), plots.allClaims(), plotsSeen.reads(plots.reads()),
+                plotsSeen.writes(plots.writes()), ClaimIndex::plotGrid, plots::migrate);
+        return new ClaimIndexReport(areaProfile, plotProfile);
+    }
+
+    @Override
+    public void close() {
+        task.close();
+    }
+
+    private <T extends BoundedClaim> Profile profile(
+            ClaimType type,
+            ClaimIndex<T> index,
+            Collection<T> claims,
+            long reads,
+            long writes,
+            IntFunction<ClaimIndex<T>> grid,
+            Predicate<ClaimIndex<T>> migrate
+    ) {
+        List<T> sample = sample(claims);
+        if (sample.isEmpty()) {
+            return new Profile(type, index.name(), index.name(), 0, reads, writes, 0, 0, List.of(), false);
+        }
+
+        int[] spans = new int[sample.size()];
+        int[] probeX = new int[sample.size()];
+        int[] probeZ = new int[sample.size()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < sample.size(); i++) {
+            BoundingBox bounds = sample.get(i).bounds();
+            spans[i] = Math.max(bounds.maxX() - bounds.minX(), bounds.maxZ() - bounds.minZ()) + 1;
+            probeX[i] = (int) (bounds.minX() + random.nextLong((long) bounds.maxX() - bounds.minX() + 1));
+            probeZ[i] = (int) (bounds.minZ() + random.nextLong((long) bounds.maxZ() - bounds.minZ() + 1));
+        }
+        Arrays.sort(spans);
+
+        int current = index instanceof GridClaimIndex<T> gridIndex ? gridIndex.cellSize() : -1;
+        SortedSet<Integer> sizes = new TreeSet<>();
+        for (int size : CELL_SIZES) sizes.add(size);
+        if (current > 0) sizes.add(current);
+
+        List<Candidate> candidates = new ArrayList<>(sizes.size());
+        Candidate best = null;
+        Candidate now = null;
+        for (int size : sizes) {
+            Candidate candidate = candidate(index, sample, claims.size(), probeX, probeZ, size, reads, writes);
+            candidates.add(candidate);
+            if (best == null || candidate.cost() < best.cost()) best = candidate;
+            if (size == current) now = candidate;
+        }
+
+        boolean migrated = false;
+        String chosen = index.name();
+        if (now != null && reads + writes > 0 && best.cellSize() != current && best.cost() < now.cost() * (1 - MARGIN)) {
+            ClaimIndex<T> target = grid.apply(best.cellSize());
+            migrated = migrate.test(target);
+            if (migrated) chosen = target.name();
+        }
+
+        return new Profile(type, index.name(), chosen, claims.size(), reads, writes,
+                spans[spans.length / 2], spans[spans.length * 9 / 10], candidates, migrated);
+    }
+
+    private static <T extends BoundedClaim> Candidate candidate(
+            ClaimIndex<T> index,
+            List<T> sample,
+            int claims,
+            int[] probeX,
+            int[] probeZ,
+            int cellSize,
+            long reads,
+            long writes
+    ) {
+        int shift = Integer.numberOfTrailingZeros(cellSize);
+
+        long squares = 0;
+        long occupied = 0;
+        for (int i = 0; i < sample.size(); i++) {
+            BoundingBox bounds = sample.get(i).bounds();
+            squares += (long) ((bounds.maxX() >> shift) - (bounds.minX() >> shift) + 1) * ((bounds.maxZ() >> shift) - (bounds.minZ() >> shift) + 1);
+
+            int minX = probeX[i] >> shift << shift;
+            int minZ = probeZ[i] >> shift << shift;
+            occupied += touching(index, new BoundingBox(minX, Integer.MIN_VALUE, minZ, minX + cellSize - 1, Integer.MAX_VALUE, minZ + cellSize - 1));
+        }
+
+        double squaresPerClaim = (double) squares / sample.size();
+        double occupancy = Math.max(1, (double) occupied / sample.size());
+        double buckets = claims * squaresPerClaim / occupancy;
+
+        double lookup = PROBE + MISS * Math.max(0, 1 - CACHED_BUCKETS / buckets) + SCAN * occupancy;
+        double write = squaresPerClaim * (WRITE + COPY * occupancy);
+        return new Candidate(cellSize, squaresPerClaim, occupancy, Math.round(buckets), reads * lookup + writes * write);
+    }
+
+    // Claims a bucket over this square would hold, found through whatever layout is live.
+    private static <T extends BoundedClaim> int touching(ClaimIndex<T> index, BoundingBox square) {
+        Set<UUID> seen = new HashSet<>();
+        for (long key : index.keys(square)) {
+            ClaimBucket<T> bucket = index.bucket(key);
+            if (bucket == null) continue;
+
+            for (T claim : bucket.claims()) {
+                if (claim.bounds().intersects(square)) seen.add(claim.id());
+            }
+        }
+        return seen.size();
+    }
+
+    private <T> List<T> sample(Collection<T> claims) {
+        List<T> all = List.copyOf(claims);
+        if (all.size() <= sampleSize) {
+            return all;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<T> out = new ArrayList<>(sampleSize);
+        for (int i = 0; i < sampleSize; i++) {
+            out.add(all.get(random.nextInt(all.size())));
+        }
+        return out;
+    }
+
+    // Counter values at the previous pass, so each pass weighs only the workload since.
+    private static final class Seen {
+
+        private long reads;
+        private long writes;
+
+        private Seen(long reads, long writes) {
+            this.reads = reads;
+            this.writes = writes;
+        }
+
+        private long reads(long total) {
+            long delta = total - reads;
+            reads = total;
+            return delta;
+        }
+
+        private long writes(long total) {
+            long delta = total - writes;
+            writes = total;
+            return delta;
+        }
+    }
+}
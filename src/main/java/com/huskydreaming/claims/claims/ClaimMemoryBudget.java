@@ -0,0 +1,173 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.helpers.PeriodicTask;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Keeps the estimated claim heap of every registered world under one limit. Once the total goes
+// over, enforce() frees memory in escalating steps until it drops below a low-water mark 10%
+// under the limit: pagers evict half their resident regions, then heap chunk stores move
+// off-heap, then worlds idle for at least idleAfter are handed to the unloader. Each step visits
+// the least recently active worlds first.
+//
+// A world is active when its claims changed since the previous enforce() or markActive was
+// called for it, so servers can keep worlds with players in them from being unloaded. Writes to
+// other worlds sharing its feed don't count.
+public final class ClaimMemoryBudget implements AutoCloseable {
+
+    public static final Duration DEFAULT_IDLE_AFTER = Duration.ofMinutes(10);
+
+    private final long maxHeapBytes;
+    private final long lowWaterBytes;
+    private final long idleAfterNanos;
+    private final Consumer<WorldClaims> unloader;
+    private final PeriodicTask task;
+
+    private final Map<UUID, Tracked> worlds = new ConcurrentHashMap<>();
+
+    // The unloader owns everything after the world leaves the budget: flushing, dropping the
+    // server's references, and calling WorldClaims.unload(). There is no default, since closing
+    // a world the server still looks claims up in makes every later lookup fail.
+    public ClaimMemoryBudget(long maxHeapBytes, Consumer<WorldClaims> unloader) {
+        this(maxHeapBytes, DEFAULT_IDLE_AFTER, unloader, null);
+    }
+
+    public ClaimMemoryBudget(long maxHeapBytes, Duration idleAfter, Consumer<WorldClaims> unloader, Duration interval) {
+        if (maxHeapBytes < 1) {
+            throw new IllegalArgumentException("maxHeapBytes < 1");
+        }
+        Objects.requireNonNull(idleAfter, "idleAfter");
+        if (idleAfter.isNegative()) {
+            throw new IllegalArgumentException("idleAfter < 0");
+        }
+
+        this.maxHeapBytes = maxHeapBytes;
+        this.lowWaterBytes = maxHeapBytes - maxHeapBytes / 10;
+        this.idleAfterNanos = idleAfter.toNanos();
+        this.unloader = Objects.requireNonNull(unloader, "unloader");
+        this.task = new PeriodicTask("claims-budget", interval);
+        task.start(this::enforce);
+    }
+
+    public void register(WorldClaims world) {
+        Objects.requireNonNull(world, "world");
+        if (worlds.putIfAbsent(world.worldId(), new Tracked(world)) != null) {
+            throw new IllegalStateException("World " + world.worldId() + " is already registered");
+        }
+    }
+
+    public boolean unregister(UUID worldId) {
+        Objects.requireNonNull(worldId, "worldId");
+        return worlds.remove(worldId) != null;
+    }
+
+    public void markActive(UUID worldId) {
+        Objects.requireNonNull(worldId, "worldId");
+        Tracked tracked = worlds.get(worldId);
+        if (tracked != null) tracked.lastActive = System.nanoTime();
+    }
+
+    public long heapBytes() {
+        long total = 0;
+        for (Tracked tracked : worlds.values()) total += tracked.world.footprint().heapBytes();
+        return total;
+    }
+
+    public List<ClaimFootprint> footprints() {
+        List<ClaimFootprint> out = new ArrayList<>(worlds.size());
+        for (Tracked tracked : worlds.values()) out.add(tracked.world.footprint());
+        return out;
+    }
+
+    public Optional<Exception> lastFailure() {
+        return task.lastFailure();
+    }
+
+    public synchronized ClaimBudgetReport enforce() {
+        long now = System.nanoTime();
+        for (Tracked tracked : worlds.values()) {
+            long writes = tracked.world.writes();
+            if (writes != tracked.lastWrites) {
+                tracked.lastWrites = writes;
+                tracked.lastActive = now;
+            }
+        }
+
+        long before = heapBytes();
+        if (before <= maxHeapBytes) {
+            return new ClaimBudgetReport(before, before, 0, List.of(), List.of());
+        }
+
+        // markActive can move lastActive mid-sort, which breaks the comparator's contract, so
+        // sort a snapshot of it instead.
+        List<Candidate> candidates = new ArrayList<>(worlds.size());
+        for (Tracked tracked : worlds.values()) candidates.add(new Candidate(tracked.lastActive, tracked));
+        candidates.sort(Comparator.comparingLong(Candidate::lastActive));
+
+        List<Tracked> order = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) order.add(candidate.tracked());
+
+        long used = before;
+        int evicted = 0;
+        for (Tracked tracked : order) {
+            if (used <= lowWaterBytes) break;
+
+            Optional<RegionPager> pager = tracked.world.pager();
+            if (pager.isEmpty()) continue;
+
+            long footprint = tracked.world.footprint().heapBytes();
+            evicted += pager.get().maintain(pager.get().residentRegions() / 2);
+            used += tracked.world.footprint().heapBytes() - footprint;
+        }
+
+        List<UUID> movedOffHeap = new ArrayList<>();
+        for (Tracked tracked : order) {
+            if (used <= lowWaterBytes) break;
+
+            long footprint = tracked.world.footprint().heapBytes();
+            if (tracked.world.moveChunksOffHeap()) {
+                movedOffHeap.add(tracked.world.worldId());
+                used += tracked.world.footprint().heapBytes() - footprint;
+            }
+        }
+
+        List<UUID> unloaded = new ArrayList<>();
+        for (Tracked tracked : order) {
+            if (used <= lowWaterBytes) break;
+            if (now - tracked.lastActive < idleAfterNanos) continue;
+
+            long footprint = tracked.world.footprint().heapBytes();
+            worlds.remove(tracked.world.worldId(), tracked);
+            unloader.accept(tracked.world);
+            unloaded.add(tracked.world.worldId());
+            used -= footprint;
+        }
+
+        return new ClaimBudgetReport(before, used, evicted, movedOffHeap, unloaded);
+    }
+
+    @Override
+    public void close() {
+        task.close();
+    }
+
+    private record Candidate(long lastActive, Tracked tracked) {
+    }
+
+    private static final class Tracked {
+
+        private final WorldClaims world;
+
+        private long lastWrites;
+        private volatile long lastActive;
+
+        private Tracked(WorldClaims world) {
+            this.world = world;
+            this.lastWrites = world.writes();
+            this.lastActive = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.model.mutations.ClaimMutation;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Applies a world's claim mutations in batches on one writer, holding the world monitor for each
+// batch. The monitor only keeps out other code that takes it, such as another queue or a pager
+// sweep; calls made straight through chunk(), area() or plot() still run alongside. A world
+// that relies on the queue for ordering must send all of its writes through it.
+public final class ClaimMutationQueue implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final WorldClaims worldClaims;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int batchSize;
+
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    public ClaimMutationQueue(WorldClaims worldClaims) {
+        this(worldClaims, DEFAULT_BATCH_SIZE);
+    }
+
+    public ClaimMutationQueue(WorldClaims worldClaims, int batchSize) {
+        this(worldClaims, newWriterExecutor(worldClaims), batchSize, true);
+    }
+
+    public ClaimMutationQueue(WorldClaims worldClaims, Executor executor, int batchSize) {
+        this(worldClaims, executor, batchSize, false);
+    }
+
+    private ClaimMutationQueue(WorldClaims worldClaims, Executor executor, int batchSize, boolean owned) {
+        this.worldClaims = Objects.requireNonNull(worldClaims, "worldClaims");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize < 1");
+        }
+
+        this.batchSize = batchSize;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+    }
+
+    public UUID worldId() {
+        return worldClaims.worldId();
+    }
+
+    public CompletableFuture<Boolean> submit(ClaimMutation mutation) {
+        Objects.requireNonNull(mutation, "mutation");
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("Mutation queue is closed"));
+            return future;
+        }
+
+        pending.add(new Pending(mutation, future));
+        scheduleDrain();
+        return future;
+    }
+
+    public List<CompletableFuture<Boolean>> submitAll(Collection<? extends ClaimMutation> mutations) {
+        Objects.requireNonNull(mutations, "mutations");
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(mutations.size());
+        for (ClaimMutation mutation : mutations) {
+            Objects.requireNonNull(mutation, "mutation");
+
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("Mutation queue is closed"));
+            } else {
+                pending.add(new Pending(mutation, future));
+            }
+            futures.add(future);
+        }
+
+        scheduleDrain();
+        return futures;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (pending.isEmpty() || !draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            failPending(e);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            Pending next;
+            while ((next = pending.poll()) != null) {
+                batch.add(next);
+                if (batch.size() == batchSize) {
+                    commit(batch);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+        } finally {
+            draining.set(false);
+            scheduleDrain();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        Object[] results = new Object[batch.size()];
+
+        synchronized (worldClaims) {
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    results[i] = apply(batch.get(i).mutation());
+                } catch (Throwable t) {
+                    results[i] = t;
+                }
+            }
+        }
+
+        // Every future completes, errors included; an error is rethrown once the batch is settled.
+        Error error = null;
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<Boolean> future = batch.get(i).future();
+            if (results[i] instanceof Throwable t) {
+                future.completeExceptionally(t);
+                if (t instanceof Error e && error == null) {
+                    error = e;
+                }
+            } else {
+                future.complete((Boolean) results[i]);
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private boolean apply(ClaimMutation mutation) {
+        return switch (mutation) {
+            case ClaimMutation.ClaimChunk c -> worldClaims.chunk().claim(c.ownerId(), c.chunkPosition(), c.permissions());
+            case ClaimMutation.UnclaimChunk c -> worldClaims.chunk().unclaim(c.chunkPosition());
+            case ClaimMutation.AddArea a -> worldClaims.area().add(a.claim());
+            case ClaimMutation.RemoveArea a -> worldClaims.area().remove(a.claim());
+            case ClaimMutation.AddPlot p -> worldClaims.plot().add(p.plot());
+            case ClaimMutation.RemovePlot p -> worldClaims.plot().remove(p.plot());
+        };
+    }
+
+    private void failPending(Throwable cause) {
+        Pending next;
+        while ((next = pending.poll()) != null) {
+            next.future().completeExceptionally(cause);
+        }
+    }
+
+    private static ExecutorService newWriterExecutor(WorldClaims worldClaims) {
+        Objects.requireNonNull(worldClaims, "worldClaims");
+
+        String name = "claims-writer-" + worldClaims.worldId();
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record Pending(ClaimMutation mutation, CompletableFuture<Boolean> future) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimRole;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+
+// Maps a player to their role in a claim. Trust and membership live in the server plugin; the
+// default only knows owners.
+@FunctionalInterface
+public interface ClaimRoleResolver {
+
+    ClaimRoleResolver OWNER_ONLY = (claim, playerRef) ->
+            claim.ownerRef() == playerRef ? ClaimRole.OWNER : ClaimRole.VISITOR;
+
+    ClaimRole roleOf(ResolvedClaim claim, int playerRef);
+}
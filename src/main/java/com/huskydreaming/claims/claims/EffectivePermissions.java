@@ -0,0 +1,238 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimRole;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Permission layers of a world, compiled into one long per claim and role: world defaults,
+// then the parent claim for plots, then the claim itself, then the role overrides. Compiled
+// masks are cached on the claim's ClaimPermissions and tagged with its version, the parent's
+// base mask and the world layer generation, so a check is a role lookup and a bit test.
+// Editing a claim recompiles it and its plots; editing the world layers bumps the generation
+// and each claim recompiles on its next check.
+public final class EffectivePermissions {
+
+    private static final int ROLES = ClaimRole.values().length;
+
+    private final AreaClaims areaClaims;
+    private final ChunkClaims chunkClaims;
+    private final PlotClaims plotClaims;
+
+    private final LongAdder compilations = new LongAdder();
+
+    // Off-heap chunk stores hand out a fresh read-only layer per read, so there is nothing to
+    // cache on; those masks live here by claim id, tagged with the layer's words.
+    private final Map<UUID, Detached> detached = new ConcurrentHashMap<>();
+
+    // Unclaimed land allows everything and owners may do anything in their claims until the
+    // world says otherwise.
+    private volatile Layers layers = new Layers(0L, -1L, overrides(-1L), new long[ROLES]);
+    private volatile ClaimRoleResolver roleResolver = ClaimRoleResolver.OWNER_ONLY;
+
+    private record Layers(long generation, long defaults, long[] allow, long[] deny) {
+    }
+
+    private record Detached(long allowed, long inherited, ClaimPermissions.Compiled compiled) {
+    }
+
+    EffectivePermissions(AreaClaims areaClaims, ChunkClaims chunkClaims, PlotClaims plotClaims) {
+        this.areaClaims = Objects.requireNonNull(areaClaims, "areaClaims");
+        this.chunkClaims = Objects.requireNonNull(chunkClaims, "chunkClaims");
+        this.plotClaims = Objects.requireNonNull(plotClaims, "plotClaims");
+    }
+
+    public boolean allows(ResolvedClaim claim, int playerRef, ClaimFlag flag) {
+        Objects.requireNonNull(flag, "flag");
+
+        long bit = 1L << ClaimFlagRegistry.indexOf(flag);
+        Layers layers = this.layers;
+        if (claim == null) {
+            return (layers.defaults() & bit) != 0;
+        }
+
+        ClaimRole role = roleResolver.roleOf(claim, playerRef);
+        return (compiled(claim, layers).roles()[role.ordinal()] & bit) != 0;
+    }
+
+    // Effective mask for a role in a claim, or the world defaults when claim is null.
+    public long mask(ResolvedClaim claim, ClaimRole role) {
+        Objects.requireNonNull(role, "role");
+
+        Layers layers = this.layers;
+        return claim == null ? layers.defaults() : compiled(claim, layers).roles()[role.ordinal()];
+    }
+
+    public boolean defaultAllows(ClaimFlag flag) {
+        return (layers.defaults() & bit(flag)) != 0;
+    }
+
+    public void allowByDefault(ClaimFlag flag) {
+        long bit = bit(flag);
+        synchronized (this) {
+            Layers current = layers;
+            layers = new Layers(current.generation() + 1, current.defaults() | bit, current.allow(), current.deny());
+        }
+    }
+
+    public void denyByDefault(ClaimFlag flag) {
+        long bit = bit(flag);
+        synchronized (this) {
+            Layers current = layers;
+            layers = new Layers(current.generation() + 1, current.defaults() & ~bit, current.allow(), current.deny());
+        }
+    }
+
+    public void allowForRole(ClaimRole role, ClaimFlag flag) {
+        override(role, bit(flag), 0L);
+    }
+
+    public void denyForRole(ClaimRole role, ClaimFlag flag) {
+        override(role, 0L, bit(flag));
+    }
+
+    // Leaves the flag to the claim's own layers for this role.
+    public void clearRoleOverride(ClaimRole role, ClaimFlag flag) {
+        override(role, 0L, 0L, bit(flag));
+    }
+
+    public void roleResolver(ClaimRoleResolver roleResolver) {
+        this.roleResolver = Objects.requireNonNull(roleResolver, "roleResolver");
+    }
+
+    public long generation() {
+        return layers.generation();
+    }
+
+    public long compilations() {
+        return compilations.sum();
+    }
+
+    // Called after a claim's own layer changed: recompiles it and every plot inheriting from it.
+    void recompile(ResolvedClaim claim) {
+        Layers layers = this.layers;
+        compiled(claim, layers);
+
+        if (claim instanceof ResolvedClaim.Plot) {
+            return;
+        }
+
+        for (PlotClaim child : plotClaims.childrenOf(claim.id())) {
+            compiled(ResolvedClaim.of(child), layers);
+        }
+    }
+
+    private ClaimPermissions.Compiled compiled(ResolvedClaim claim, Layers layers) {
+        long parentBase = parentBase(claim, layers);
+        ClaimPermissions permissions = claim.permissions();
+        if (permissions == null) {
+            return new ClaimPermissions.Compiled(0, parentBase, layers.generation(), parentBase, roles(parentBase, layers));
+        }
+        if (permissions.isReadOnly()) {
+            return detached(claim.id(), permissions, parentBase, layers);
+        }
+
+        ClaimPermissions.Compiled compiled = permissions.compiled();
+        if (compiled != null && compiled.version() == permissions.version()
+                && compiled.parentBase() == parentBase && compiled.generation() == layers.generation()) {
+            return compiled;
+        }
+
+        // Read the version before the bits: an edit racing this compile leaves a stale tag.
+        int version = permissions.version();
+        compiled = compile(version, permissions.word(0), permissions.inheritedWord(0), parentBase, layers);
+        permissions.compiled(compiled);
+        compilations.increment();
+        return compiled;
+    }
+
+    private ClaimPermissions.Compiled detached(UUID id, ClaimPermissions permissions, long parentBase, Layers layers) {
+        long allowed = permissions.word(0);
+        long inherited = permissions.inheritedWord(0);
+        Detached cached = detached.get(id);
+        if (cached != null && cached.allowed() == allowed && cached.inherited() == inherited
+                && cached.compiled().parentBase() == parentBase && cached.compiled().generation() == layers.generation()) {
+            return cached.compiled();
+        }
+
+        // Entries of unclaimed or evicted chunks are only dropped here, once they could make
+        // up half the cache.
+        if (detached.size() >= 2 * chunkClaims.residentCount() + 64) {
+            detached.keySet().removeIf(key -> chunkClaims.residentById(key) == null);
+        }
+
+        ClaimPermissions.Compiled compiled = compile(0, allowed, inherited, parentBase, layers);
+        detached.put(id, new Detached(allowed, inherited, compiled));
+        compilations.increment();
+        return compiled;
+    }
+
+    private static ClaimPermissions.Compiled compile(int version, long allowed, long inherited, long parentBase, Layers layers) {
+        long base = (allowed & ~inherited) | (parentBase & inherited);
+        return new ClaimPermissions.Compiled(version, parentBase, layers.generation(), base, roles(base, layers));
+    }
+
+    private long parentBase(ResolvedClaim claim, Layers layers) {
+        if (!(claim instanceof ResolvedClaim.Plot plot)) {
+            return layers.defaults();
+        }
+
+        PlotClaim child = plot.unwrap();
+        ResolvedClaim parent = switch (child.parentClaimType()) {
+            case AREA -> {
+                AreaClaim area = areaClaims.getById(child.parentClaimId());
+                yield area == null ? null : ResolvedClaim.of(area);
+            }
+            case CHUNK -> {
+                ChunkClaim chunk = chunkClaims.getById(child.parentClaimId());
+                yield chunk == null ? null : ResolvedClaim.of(chunk);
+            }
+            case PLOT -> null;
+        };
+        return parent == null ? layers.defaults() : compiled(parent, layers).base();
+    }
+
+    private static long[] roles(long base, Layers layers) {
+        long[] roles = new long[ROLES];
+        for (int role = 0; role < ROLES; role++) {
+            roles[role] = (base | layers.allow()[role]) & ~layers.deny()[role];
+        }
+        return roles;
+    }
+
+    private void override(ClaimRole role, long allow, long deny) {
+        override(role, allow, deny, allow | deny);
+    }
+
+    private synchronized void override(ClaimRole role, long allow, long deny, long touched) {
+        Objects.requireNonNull(role, "role");
+
+        Layers current = layers;
+        long[] allowed = current.allow().clone();
+        long[] denied = current.deny().clone();
+        allowed[role.ordinal()] = (allowed[role.ordinal()] & ~touched) | allow;
+        denied[role.ordinal()] = (denied[role.ordinal()] & ~touched) | deny;
+        layers = new Layers(current.generation() + 1, current.defaults(), allowed, denied);
+    }
+
+    private static long[] overrides(long owner) {
+        long[] overrides = new long[ROLES];
+        overrides[ClaimRole.OWNER.ordinal()] = owner;
+        return overrides;
+    }
+
+    private static long bit(ClaimFlag flag) {
+        Objects.requireNonNull(flag, "flag");
+        return 1L << ClaimFlagRegistry.indexOf(flag);
+    }
+}
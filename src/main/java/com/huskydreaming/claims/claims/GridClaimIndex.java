@@ -0,0 +1,233 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+// Uniform grid of square buckets. Shaped claims carry per-cell coverage at SpatialGrid.CELL_SIZE,
+// so a coarser square is full only when every cell of it under the claim's box is full, and
+// left out only when none of them is covered.
+final class GridClaimIndex<T extends BoundedClaim> implements ClaimIndex<T> {
+
+    static final int MIN_CELL_SIZE = SpatialGrid.CELL_SIZE;
+    static final int MAX_CELL_SIZE = 1024;
+
+    private final int cellSize;
+    private final int shift;
+    private final int cellsPerSide;
+    private final Predicate<T> shaped;
+    private final ClaimBucket.Coverage<T> cells;
+
+    private final Map<Long, ClaimBucket<T>> buckets = new ConcurrentHashMap<>();
+    private final LongAdder entries = new LongAdder();
+
+    private GridClaimIndex(int cellSize, Predicate<T> shaped, ClaimBucket.Coverage<T> cells) {
+        if (cellSize < MIN_CELL_SIZE || cellSize > MAX_CELL_SIZE || Integer.bitCount(cellSize) != 1) {
+            throw new IllegalArgumentException("cellSize must be a power of two from " + MIN_CELL_SIZE + " to " + MAX_CELL_SIZE);
+        }
+
+        this.cellSize = cellSize;
+        this.shift = Integer.numberOfTrailingZeros(cellSize);
+        this.cellsPerSide = cellSize / SpatialGrid.CELL_SIZE;
+        this.shaped = shaped;
+        this.cells = cells;
+    }
+
+    static GridClaimIndex<AreaClaim> areas(int cellSize) {
+        return new GridClaimIndex<>(cellSize, AreaClaim::isPolygon, AreaClaim::cellCoverage);
+    }
+
+    static GridClaimIndex<PlotClaim> plots(int cellSize) {
+        return new GridClaimIndex<>(cellSize, plot -> false, null);
+    }
+
+    int cellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public String name() {
+        return "grid-" + cellSize;
+    }
+
+    @Override
+    public long keyAt(int blockX, int blockZ) {
+        return SpatialGrid.pack(blockX >> shift, blockZ >> shift);
+    }
+
+    @Override
+    public long[] keys(BoundingBox bounds) {
+        Objects.requireNonNull(bounds, "bounds");
+
+        int minX = bounds.minX() >> shift, maxX = bounds.maxX() >> shift;
+        int minZ = bounds.minZ() >> shift, maxZ = bounds.maxZ() >> shift;
+        long[] out = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+        int count = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                out[count++] = SpatialGrid.pack(x, z);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public Set<Long> keys() {
+        return buckets.keySet();
+    }
+
+    @Override
+    public ClaimBucket<T> bucket(long key) {
+        return buckets.get(key);
+    }
+
+    @Override
+    public int coverage(T claim, long key) {
+        return coverage(claim, SpatialGrid.unpackX(key), SpatialGrid.unpackZ(key));
+    }
+
+    @Override
+    public void add(T claim) {
+        BoundingBox bounds = claim.bounds();
+        long added = 0;
+        for (int x = bounds.minX() >> shift; x <= bounds.maxX() >> shift; x++) {
+            for (int z = bounds.minZ() >> shift; z <= bounds.maxZ() >> shift; z++) {
+                int covered = coverage(claim, x, z);
+                if (covered == BlockPolygon.OUTSIDE) continue;
+
+                boolean partial = covered == BlockPolygon.PARTIAL;
+                buckets.compute(SpatialGrid.pack(x, z), (key, bucket) -> bucket == null ? ClaimBucket.of(claim, partial) : bucket.with(claim, partial));
+                added++;
+            }
+        }
+        entries.add(added);
+    }
+
+    @Override
+    public boolean remove(T claim) {
+        BoundingBox bounds = claim.bounds();
+        long removed = 0;
+        for (int x = bounds.minX() >> shift; x <= bounds.maxX() >> shift; x++) {
+            for (int z = bounds.minZ() >> shift; z <= bounds.maxZ() >> shift; z++) {
+                long key = SpatialGrid.pack(x, z);
+                ClaimBucket<T> bucket = buckets.get(key);
+                if (bucket == null || !bucket.contains(claim)) continue;
+
+                buckets.computeIfPresent(key, (k, current) -> current.without(claim));
+                removed++;
+            }
+        }
+        entries.add(-removed);
+        return removed > 0;
+    }
+
+    @Override
+    public void move(T claim, T moved) {
+        ClaimBucket.move(buckets, claim, moved, coord -> coord >> shift, this::coverage);
+        entries.add(squares(moved) - squares(claim));
+    }
+
+    @Override
+    public void repair(long key, UUID id, T current) {
+        long[] delta = new long[1];
+        buckets.compute(key, (k, bucket) -> {
+            ClaimBucket<T> next = bucket;
+            if (bucket != null) {
+                for (T entry : bucket.claims()) {
+                    if (next != null && entry.id().equals(id)) {
+                        next = next.without(entry);
+                        delta[0]--;
+                    }
+                }
+            }
+
+            int covered = current == null ? BlockPolygon.OUTSIDE : coverage(current, key);
+            if (covered == BlockPolygon.OUTSIDE) return next;
+
+            boolean partial = covered == BlockPolygon.PARTIAL;
+            delta[0]++;
+            return next == null ? ClaimBucket.of(current, partial) : next.with(current, partial);
+        });
+        entries.add(delta[0]);
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+        entries.reset();
+    }
+
+    @Override
+    public long buckets() {
+        return buckets.size();
+    }
+
+    @Override
+    public long entries() {
+        return entries.sum();
+    }
+
+    private int coverage(T claim, int squareX, int squareZ) {
+        BoundingBox bounds = claim.bounds();
+        if (squareX < bounds.minX() >> shift || squareX > bounds.maxX() >> shift
+                || squareZ < bounds.minZ() >> shift || squareZ > bounds.maxZ() >> shift) {
+            return BlockPolygon.OUTSIDE;
+        }
+
+        if (!shaped.test(claim)) {
+            return BlockPolygon.FULL;
+        }
+
+        if (cellsPerSide == 1) {
+            return cells.of(claim, squareX, squareZ);
+        }
+
+        // Cells outside the claim's box are ignored; the packed box already rejects them.
+        int minX = Math.max(squareX * cellsPerSide, SpatialGrid.cellCoord(bounds.minX()));
+        int maxX = Math.min(squareX * cellsPerSide + cellsPerSide - 1, SpatialGrid.cellCoord(bounds.maxX()));
+        int minZ = Math.max(squareZ * cellsPerSide, SpatialGrid.cellCoord(bounds.minZ()));
+        int maxZ = Math.min(squareZ * cellsPerSide + cellsPerSide - 1, SpatialGrid.cellCoord(bounds.maxZ()));
+
+        boolean any = false;
+        boolean all = true;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                int covered = cells.of(claim, x, z);
+                any |= covered != BlockPolygon.OUTSIDE;
+                all &= covered == BlockPolygon.FULL;
+            }
+        }
+
+        if (!any) return BlockPolygon.OUTSIDE;
+        return all ? BlockPolygon.FULL : BlockPolygon.PARTIAL;
+    }
+
+    private long squares(T claim) {
+        BoundingBox bounds = claim.bounds();
+        int minX = bounds.minX() >> shift, maxX = bounds.maxX() >> shift;
+        int minZ = bounds.minZ() >> shift, maxZ = bounds.maxZ() >> shift;
+        if (!shaped.test(claim)) {
+            return (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+        }
+
+        long count = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (coverage(claim, x, z) != BlockPolygon.OUTSIDE) count++;
+            }
+        }
+        return count;
+    }
+}
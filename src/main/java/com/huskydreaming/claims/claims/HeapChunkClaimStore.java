@@ -0,0 +1,267 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reads go straight to the maps. Writes are serialised on the store so a bulk insert or removal
+// is validated and applied without a single write slipping in between.
+final class HeapChunkClaimStore implements ChunkClaimStore {
+
+    // Claim, chunk position, id, permissions and one entry in each of the three maps.
+    private static final long CLAIM_BYTES = ClaimFootprint.CLAIM + 24 + ClaimFootprint.UUID_BYTES
+            + ClaimFootprint.PERMISSIONS + 3 * ClaimFootprint.MAP_ENTRY;
+
+    private final Map<Long, ChunkClaim> claims = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Long>> ownerKeys = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> keysById = new ConcurrentHashMap<>();
+
+    // Set once the claims have moved to another store; writers that still hold this one follow them.
+    private ChunkClaimStore movedTo;
+
+    @Override
+    public ChunkClaim get(long key) {
+        return claims.get(key);
+    }
+
+    @Override
+    public boolean contains(long key) {
+        return claims.containsKey(key);
+    }
+
+    @Override
+    public ChunkClaim getById(UUID id) {
+        Long key = keysById.get(id);
+        return key == null ? null : claims.get(key);
+    }
+
+    @Override
+    public synchronized boolean insert(long key, ChunkClaim claim) {
+        if (movedTo != null) return movedTo.insert(key, claim);
+
+        if (keysById.putIfAbsent(claim.id(), key) != null) {
+            return false;
+        }
+
+        ChunkClaim existing = claims.putIfAbsent(key, claim);
+        if (existing != null) {
+            keysById.remove(claim.id(), key);
+            return false;
+        }
+
+        ownerKeys.computeIfAbsent(claim.ownerRef(), ref -> ConcurrentHashMap.newKeySet()).add(key);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean insertAll(long[] keys, List<ChunkClaim> batch) {
+        if (movedTo != null) return movedTo.insertAll(keys, batch);
+
+        if (keys.length != batch.size()) {
+            throw new IllegalArgumentException("keys and claims differ in length");
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (batch.get(i).ownerRef() != batch.get(0).ownerRef()) {
+                throw new IllegalArgumentException("Bulk claims must share one owner");
+            }
+            if (claims.containsKey(keys[i]) || keysById.containsKey(batch.get(i).id())) {
+                return false;
+            }
+        }
+
+        int inserted = 0;
+        for (; inserted < keys.length; inserted++) {
+            ChunkClaim claim = batch.get(inserted);
+            if (claims.putIfAbsent(keys[inserted], claim) != null || keysById.putIfAbsent(claim.id(), keys[inserted]) != null) {
+                break;
+            }
+        }
+
+        // Only a key or id repeated within the batch itself gets here.
+        if (inserted < keys.length) {
+            for (int i = 0; i <= inserted && i < keys.length; i++) {
+                claims.remove(keys[i], batch.get(i));
+                keysById.remove(batch.get(i).id(), keys[i]);
+            }
+            return false;
+        }
+
+        if (keys.length > 0) {
+            Set<Long> owned = ownerKeys.computeIfAbsent(batch.get(0).ownerRef(), ref -> ConcurrentHashMap.newKeySet());
+            for (long key : keys) owned.add(key);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized ChunkClaim remove(long key) {
+        if (movedTo != null) return movedTo.remove(key);
+
+        ChunkClaim removed = claims.remove(key);
+        if (removed != null) {
+            unindex(removed, key);
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized List<ChunkClaim> removeAll(long[] keys, int ownerRef) {
+        if (movedTo != null) return movedTo.removeAll(keys, ownerRef);
+
+        List<ChunkClaim> removed = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            ChunkClaim claim = claims.get(key);
+            if (claim == null || claim.ownerRef() != ownerRef) {
+                return null;
+            }
+            removed.add(claim);
+        }
+
+        Set<Long> owned = ownerKeys.get(ownerRef);
+        for (int i = 0; i < keys.length; i++) {
+            if (claims.remove(keys[i], removed.get(i))) {
+                keysById.remove(removed.get(i).id(), keys[i]);
+                if (owned != null) owned.remove(keys[i]);
+            } else {
+                // A key listed twice: the first pass already took it.
+                removed.set(i, null);
+            }
+        }
+        if (owned != null && owned.isEmpty()) {
+            ownerKeys.remove(ownerRef, owned);
+        }
+
+        removed.removeIf(Objects::isNull);
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean remove(long key, UUID id) {
+        if (movedTo != null) return movedTo.remove(key, id);
+
+        ChunkClaim current = claims.get(key);
+        if (current == null || !current.id().equals(id) || !claims.remove(key, current)) {
+            return false;
+        }
+
+        unindex(current, key);
+        return true;
+    }
+
+    // Readers hold the stored record, so an in-place edit is already visible. Once moved, the
+    // target holds its own copy and has to be told.
+    @Override
+    public synchronized void permissionsChanged(long key, ChunkClaim claim) {
+        if (movedTo != null) movedTo.permissionsChanged(key, claim);
+    }
+
+    @Override
+    public int countOwned(int ownerRef) {
+        return ownerKeys.getOrDefault(ownerRef, Set.of()).size();
+    }
+
+    @Override
+    public Set<Integer> staleOwners() {
+        Map<Integer, Set<Long>> expected = ownerKeysFromClaims();
+
+        Set<Integer> stale = new HashSet<>();
+        expected.forEach((ownerRef, keys) -> {
+            if (!keys.equals(ownerKeys.get(ownerRef))) stale.add(ownerRef);
+        });
+        for (int ownerRef : ownerKeys.keySet()) {
+            if (!expected.containsKey(ownerRef)) stale.add(ownerRef);
+        }
+        return stale;
+    }
+
+    @Override
+    public synchronized void rebuildOwners() {
+        Map<Integer, Set<Long>> expected = ownerKeysFromClaims();
+        ownerKeys.keySet().retainAll(expected.keySet());
+        expected.forEach((ownerRef, keys) -> {
+            Set<Long> owned = ConcurrentHashMap.newKeySet(keys.size());
+            owned.addAll(keys);
+            ownerKeys.put(ownerRef, owned);
+        });
+    }
+
+    @Override
+    public int size() {
+        return claims.size();
+    }
+
+    @Override
+    public Collection<ChunkClaim> all() {
+        return List.copyOf(claims.values());
+    }
+
+    @Override
+    public Set<UUID> ids() {
+        return Set.copyOf(keysById.keySet());
+    }
+
+    @Override
+    public synchronized void clear() {
+        if (movedTo != null) {
+            movedTo.clear();
+            return;
+        }
+
+        claims.clear();
+        ownerKeys.clear();
+        keysById.clear();
+    }
+
+    // A moved store leaves its claims in place for readers still holding it.
+    @Override
+    public synchronized void close() {
+        if (movedTo == null) clear();
+    }
+
+    @Override
+    public long heapBytes() {
+        return claims.size() * CLAIM_BYTES;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return 0;
+    }
+
+    // Copies every claim into an empty target, then forwards writes to it. Readers keep seeing
+    // this store's claims until the caller switches them over.
+    synchronized void moveTo(ChunkClaimStore target) {
+        if (movedTo != null) {
+            throw new IllegalStateException("Store has already moved");
+        }
+        if (target.size() != 0) {
+            throw new IllegalArgumentException("Target store is not empty");
+        }
+
+        claims.forEach((key, claim) -> {
+            if (!target.insert(key, claim)) throw new IllegalStateException("Could not move chunk claim " + claim.id());
+        });
+        movedTo = target;
+    }
+
+    private Map<Integer, Set<Long>> ownerKeysFromClaims() {
+        Map<Integer, Set<Long>> out = new HashMap<>();
+        claims.forEach((key, claim) -> out.computeIfAbsent(claim.ownerRef(), ref -> new HashSet<>()).add(key));
+        return out;
+    }
+
+    private void unindex(ChunkClaim removed, long key) {
+        int ownerRef = removed.ownerRef();
+        Set<Long> set = ownerKeys.get(ownerRef);
+        if (set != null) {
+            set.remove(key);
+            if (set.isEmpty()) {
+                ownerKeys.remove(ownerRef);
+            }
+        }
+
+        keysById.remove(removed.id(), key);
+    }
+}
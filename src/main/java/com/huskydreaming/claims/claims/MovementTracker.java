@@ -0,0 +1,166 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimTransition;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Turns player movement into claim enter/leave transitions. Each player keeps the result of
+// its last lookup together with how far it stays valid: the whole chunk when no area or plot
+// touches it, the cell when only areas elsewhere in the chunk do, otherwise the exact block. Any
+// claim written in this world invalidates every cached result; other worlds on a shared feed don't.
+//
+// Moves for one player must not race each other; different players may move concurrently.
+public final class MovementTracker {
+
+    private static final int SCOPE_BLOCK = 0;
+    private static final int SCOPE_CELL = 1;
+    private static final int SCOPE_CHUNK = 2;
+
+    private final WorldClaims world;
+    private final Map<UUID, Tracked> players = new ConcurrentHashMap<>();
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder resolutions = new LongAdder();
+
+    private volatile Consumer<ClaimTransition> listener = transition -> {};
+
+    public MovementTracker(WorldClaims world) {
+        this.world = Objects.requireNonNull(world, "world");
+    }
+
+    public void listener(Consumer<ClaimTransition> listener) {
+        this.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    public Optional<ClaimTransition> move(UUID playerId, BlockPosition position) {
+        Objects.requireNonNull(playerId, "playerId");
+        Objects.requireNonNull(position, "position");
+
+        moves.increment();
+
+        Tracked tracked = players.computeIfAbsent(playerId, id -> new Tracked());
+        long writes = world.writes();
+        if (tracked.covers(position, writes)) {
+            return Optional.empty();
+        }
+
+        // Writes are counted after indexing and read before resolving, so a change landing mid-lookup
+        // forces another one.
+        resolutions.increment();
+        Resolution resolution = world.readConsistent(() -> resolve(position));
+
+        ResolvedClaim previous = tracked.claim;
+        tracked.update(position, writes, resolution);
+
+        if (sameClaim(previous, resolution.claim())) {
+            return Optional.empty();
+        }
+
+        ClaimTransition transition = new ClaimTransition(playerId, world.worldId(), previous, resolution.claim());
+        listener.accept(transition);
+        return Optional.of(transition);
+    }
+
+    // Stops tracking a player, e.g. on quit or world change, leaving the claim it was in.
+    public Optional<ClaimTransition> remove(UUID playerId) {
+        Objects.requireNonNull(playerId, "playerId");
+
+        Tracked tracked = players.remove(playerId);
+        if (tracked == null || tracked.claim == null) {
+            return Optional.empty();
+        }
+
+        ClaimTransition transition = new ClaimTransition(playerId, world.worldId(), tracked.claim, null);
+        listener.accept(transition);
+        return Optional.of(transition);
+    }
+
+    public Optional<ResolvedClaim> current(UUID playerId) {
+        Objects.requireNonNull(playerId, "playerId");
+
+        Tracked tracked = players.get(playerId);
+        return tracked == null ? Optional.empty() : Optional.ofNullable(tracked.claim);
+    }
+
+    public int trackedPlayers() {
+        return players.size();
+    }
+
+    // Moves seen versus moves that needed a lookup; the difference is what the cache saved.
+    public long moveCount() {
+        return moves.sum();
+    }
+
+    public long resolutionCount() {
+        return resolutions.sum();
+    }
+
+    private Resolution resolve(BlockPosition position) {
+        ResolvedClaim claim = world.resolve(position).orElse(null);
+
+        // Any plot in the chunk pins the result to the block. Buckets are checked rather than
+        // claims, which stays correct, if less precise, when an index uses coarser squares.
+        BoundingBox chunk = new ChunkPosition(SpatialGrid.chunkCoord(position.x()), SpatialGrid.chunkCoord(position.z())).bounds();
+        int cellX = SpatialGrid.cellCoord(position.x()) * SpatialGrid.CELL_SIZE;
+        int cellZ = SpatialGrid.cellCoord(position.z()) * SpatialGrid.CELL_SIZE;
+        BoundingBox cell = new BoundingBox(cellX, position.y(), cellZ, cellX + SpatialGrid.CELL_SIZE - 1, position.y(), cellZ + SpatialGrid.CELL_SIZE - 1);
+        if (world.plot().hasBucketIn(chunk) || world.area().hasBucketIn(cell)) {
+            return new Resolution(claim, SCOPE_BLOCK);
+        }
+
+        return new Resolution(claim, world.area().hasBucketIn(chunk) ? SCOPE_CELL : SCOPE_CHUNK);
+    }
+
+    private static boolean sameClaim(ResolvedClaim a, ResolvedClaim b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.type() == b.type() && a.id().equals(b.id());
+    }
+
+    private record Resolution(ResolvedClaim claim, int scope) {
+    }
+
+    private static final class Tracked {
+
+        private boolean resolved;
+        private int scope;
+        private int x;
+        private int y;
+        private int z;
+        private long writes;
+        private ResolvedClaim claim;
+
+        boolean covers(BlockPosition position, long currentWrites) {
+            if (!resolved || writes != currentWrites) {
+                return false;
+            }
+
+            return switch (scope) {
+                case SCOPE_CHUNK -> SpatialGrid.chunkCoord(position.x()) == SpatialGrid.chunkCoord(x)
+                        && SpatialGrid.chunkCoord(position.z()) == SpatialGrid.chunkCoord(z);
+                case SCOPE_CELL -> SpatialGrid.cellCoord(position.x()) == SpatialGrid.cellCoord(x)
+                        && SpatialGrid.cellCoord(position.z()) == SpatialGrid.cellCoord(z);
+                default -> position.x() == x && position.y() == y && position.z() == z;
+            };
+        }
+
+        void update(BlockPosition position, long currentWrites, Resolution resolution) {
+            resolved = true;
+            scope = resolution.scope();
+            x = position.x();
+            y = position.y();
+            z = position.z();
+            writes = currentWrites;
+            claim = resolution.claim();
+        }
+    }
+}
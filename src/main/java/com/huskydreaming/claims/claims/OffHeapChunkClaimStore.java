@@ -0,0 +1,649 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+// Chunk claims as fixed-size slots in two open-addressed, linear-probed tables held in direct
+// memory: one keyed by chunk key with the claim itself, one keyed by claim id pointing back at
+// the chunk key. Millions of claims cost the collector nothing to trace; the price is a fresh
+// ChunkClaim per read. Permission layers within the 64 registrable flags live inline as an
+// allow word and an inherit word; anything wider spills into a small heap map. Writers take
+// the lock exclusively, readers go optimistic first.
+final class OffHeapChunkClaimStore implements ChunkClaimStore {
+
+    static final int DEFAULT_CAPACITY = 1 << 12;
+
+    // Buffers are indexed by int, so 56-byte slots cap a table at 2^25 entries.
+    private static final int MAX_CAPACITY = 1 << 25;
+    static final int MAX_CLAIMS = MAX_CAPACITY / 4 * 3;
+
+    private static final int SLOT = 56;
+    private static final int KEY = 0;
+    private static final int ID_MSB = 8;
+    private static final int ID_LSB = 16;
+    private static final int OWNER = 24;
+    private static final int WORLD = 28;
+    private static final int STATE = 32;
+    private static final int ALLOWED = 40;
+    private static final int INHERITED = 48;
+
+    private static final int ID_SLOT = 32;
+    private static final int ENTRY_MSB = 0;
+    private static final int ENTRY_LSB = 8;
+    private static final int ENTRY_KEY = 16;
+    private static final int ENTRY_STATE = 24;
+
+    private static final int EMPTY = 0;
+    private static final int FULL = 1;
+    private static final int TOMBSTONE = 2;
+    private static final int OCCUPANCY = 3;
+    private static final int NO_PERMISSIONS = 4;
+    private static final int SPILLED = 8;
+
+    private final StampedLock lock = new StampedLock();
+    private final int initialCapacity;
+
+    private final Map<Long, ClaimPermissions> spilled = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> owners = new HashMap<>();
+
+    private ByteBuffer slots;
+    private ByteBuffer idSlots;
+    private int mask;
+    private int size;
+    private int used;
+    private int idUsed;
+
+    OffHeapChunkClaimStore(int expectedClaims) {
+        if (expectedClaims < 0 || expectedClaims > MAX_CLAIMS) {
+            throw new IllegalArgumentException("expectedClaims must be between 0 and " + MAX_CLAIMS);
+        }
+
+        this.initialCapacity = capacityFor(expectedClaims);
+        allocate(initialCapacity);
+    }
+
+    @Override
+    public ChunkClaim get(long key) {
+        return read(() -> {
+            int index = slotOf(key);
+            return index < 0 ? null : materialize(index);
+        });
+    }
+
+    @Override
+    public boolean contains(long key) {
+        return read(() -> slotOf(key) >= 0);
+    }
+
+    @Override
+    public ChunkClaim getById(UUID id) {
+        return read(() -> {
+            int idIndex = idSlotOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (idIndex < 0) return null;
+
+            int index = slotOf(idSlots.getLong(idIndex * ID_SLOT + ENTRY_KEY));
+            return index < 0 ? null : materialize(index);
+        });
+    }
+
+    @Override
+    public boolean insert(long key, ChunkClaim claim) {
+        long msb = claim.id().getMostSignificantBits();
+        long lsb = claim.id().getLeastSignificantBits();
+
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            if (slotOf(key) >= 0 || idSlotOf(msb, lsb) >= 0) {
+                return false;
+            }
+
+            if (size >= MAX_CLAIMS) {
+                throw new IllegalStateException("Off-heap chunk store is full");
+            }
+
+            reserve(1);
+            put(key, msb, lsb, claim.worldRef(), claim.ownerRef(), claim.permissions());
+            size++;
+            owners.merge(claim.ownerRef(), 1, Integer::sum);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean insertAll(long[] keys, List<ChunkClaim> claims) {
+        if (keys.length != claims.size()) {
+            throw new IllegalArgumentException("keys and claims differ in length");
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            for (int i = 0; i < keys.length; i++) {
+                UUID id = claims.get(i).id();
+                if (claims.get(i).ownerRef() != claims.get(0).ownerRef()) {
+                    throw new IllegalArgumentException("Bulk claims must share one owner");
+                }
+                if (slotOf(keys[i]) >= 0 || idSlotOf(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0) {
+                    return false;
+                }
+            }
+
+            if ((long) size + keys.length > MAX_CLAIMS) {
+                throw new IllegalStateException("Off-heap chunk store is full");
+            }
+
+            // One resize for the whole batch; a key or id repeated within it is caught while
+            // inserting and undone.
+            reserve(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                ChunkClaim claim = claims.get(i);
+                long msb = claim.id().getMostSignificantBits();
+                long lsb = claim.id().getLeastSignificantBits();
+                if (slotOf(keys[i]) >= 0 || idSlotOf(msb, lsb) >= 0) {
+                    // delete takes each claim off its owner's count again.
+                    if (i > 0) owners.merge(claim.ownerRef(), i, Integer::sum);
+                    for (int j = 0; j < i; j++) delete(slotOf(keys[j]), keys[j]);
+                    return false;
+                }
+
+                put(keys[i], msb, lsb, claim.worldRef(), claim.ownerRef(), claim.permissions());
+                size++;
+            }
+
+            if (keys.length > 0) {
+                owners.merge(claims.get(0).ownerRef(), keys.length, Integer::sum);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public ChunkClaim remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            int index = slotOf(key);
+            if (index < 0) {
+                return null;
+            }
+
+            ChunkClaim removed = materialize(index);
+            delete(index, key);
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<ChunkClaim> removeAll(long[] keys, int ownerRef) {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            for (long key : keys) {
+                int index = slotOf(key);
+                if (index < 0 || slots.getInt(index * SLOT + OWNER) != ownerRef) {
+                    return null;
+                }
+            }
+
+            List<ChunkClaim> removed = new ArrayList<>(keys.length);
+            for (long key : keys) {
+                int index = slotOf(key);
+                if (index < 0) continue;
+
+                removed.add(materialize(index));
+                delete(index, key);
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(long key, UUID id) {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            int index = slotOf(key);
+            if (index < 0 || !hasId(index, id)) {
+                return false;
+            }
+
+            delete(index, key);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // A claim evicted or replaced since it was read is left alone.
+    @Override
+    public void permissionsChanged(long key, ChunkClaim claim) {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            int index = slotOf(key);
+            if (index >= 0 && hasId(index, claim.id())) {
+                writePermissions(index * SLOT, key, claim.permissions());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int countOwned(int ownerRef) {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            return owners.getOrDefault(ownerRef, 0);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Set<Integer> staleOwners() {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            Map<Integer, Integer> expected = ownersFromSlots();
+
+            Set<Integer> stale = new HashSet<>();
+            expected.forEach((ownerRef, count) -> {
+                if (!count.equals(owners.get(ownerRef))) stale.add(ownerRef);
+            });
+            for (int ownerRef : owners.keySet()) {
+                if (!expected.containsKey(ownerRef)) stale.add(ownerRef);
+            }
+            return stale;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void rebuildOwners() {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            Map<Integer, Integer> expected = ownersFromSlots();
+            owners.clear();
+            owners.putAll(expected);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Slots are direct memory; the heap only holds spilled permissions and the owner counts.
+    @Override
+    public long heapBytes() {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            return spilled.size() * (ClaimFootprint.MAP_ENTRY + ClaimFootprint.PERMISSIONS) + owners.size() * ClaimFootprint.MAP_ENTRY;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long offHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            return (long) slots.capacity() + idSlots.capacity();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Collection<ChunkClaim> all() {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            List<ChunkClaim> out = new ArrayList<>(size);
+            for (int index = 0; index <= mask; index++) {
+                if (occupancy(slots.getInt(index * SLOT + STATE)) == FULL) out.add(materialize(index));
+            }
+            return Collections.unmodifiableList(out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Set<UUID> ids() {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            Set<UUID> out = HashSet.newHashSet(size);
+            for (int index = 0; index <= mask; index++) {
+                int offset = index * SLOT;
+                if (occupancy(slots.getInt(offset + STATE)) == FULL) {
+                    out.add(new UUID(slots.getLong(offset + ID_MSB), slots.getLong(offset + ID_LSB)));
+                }
+            }
+            return Collections.unmodifiableSet(out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            allocate(initialCapacity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Direct buffers have no explicit free; dropping the last reference hands them to their
+    // cleaner, and every later call fails fast instead of touching a released table.
+    @Override
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            slots = null;
+            idSlots = null;
+            mask = 0;
+            size = 0;
+            used = 0;
+            idUsed = 0;
+            spilled.clear();
+            owners.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Map<Integer, Integer> ownersFromSlots() {
+        Map<Integer, Integer> out = new HashMap<>();
+        for (int index = 0; index <= mask; index++) {
+            int offset = index * SLOT;
+            if (occupancy(slots.getInt(offset + STATE)) == FULL) out.merge(slots.getInt(offset + OWNER), 1, Integer::sum);
+        }
+        return out;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException torn) {
+                // A writer moved slots under the read; the locked retry below settles it.
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            ensureOpen();
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int slotOf(long key) {
+        ByteBuffer slots = this.slots;
+        int mask = this.mask;
+        if (slots == null) {
+            throw new IllegalStateException("Chunk claim store is closed");
+        }
+
+        int index = (int) mix(key) & mask;
+        for (int probe = 0; probe <= mask; probe++) {
+            int offset = index * SLOT;
+            int occupancy = occupancy(slots.getInt(offset + STATE));
+            if (occupancy == EMPTY) return -1;
+            if (occupancy == FULL && slots.getLong(offset + KEY) == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int idSlotOf(long msb, long lsb) {
+        ByteBuffer idSlots = this.idSlots;
+        int mask = this.mask;
+        if (idSlots == null) {
+            throw new IllegalStateException("Chunk claim store is closed");
+        }
+
+        int index = (int) mix(msb ^ Long.rotateLeft(lsb, 32)) & mask;
+        for (int probe = 0; probe <= mask; probe++) {
+            int offset = index * ID_SLOT;
+            int occupancy = idSlots.getInt(offset + ENTRY_STATE);
+            if (occupancy == EMPTY) return -1;
+            if (occupancy == FULL && idSlots.getLong(offset + ENTRY_MSB) == msb && idSlots.getLong(offset + ENTRY_LSB) == lsb) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private ChunkClaim materialize(int index) {
+        int offset = index * SLOT;
+        long key = slots.getLong(offset + KEY);
+        int state = slots.getInt(offset + STATE);
+
+        ClaimPermissions permissions;
+        if ((state & NO_PERMISSIONS) != 0) {
+            permissions = null;
+        } else if ((state & SPILLED) != 0) {
+            ClaimPermissions stored = spilled.get(key);
+            permissions = ClaimPermissions.readOnly(stored.toBitSet(), stored.inheritedBits());
+        } else {
+            permissions = inline(slots, offset);
+        }
+
+        return new ChunkClaim(
+                new UUID(slots.getLong(offset + ID_MSB), slots.getLong(offset + ID_LSB)),
+                slots.getInt(offset + WORLD),
+                slots.getInt(offset + OWNER),
+                new ChunkPosition(SpatialGrid.unpackX(key), SpatialGrid.unpackZ(key)),
+                permissions
+        );
+    }
+
+    private boolean hasId(int index, UUID id) {
+        int offset = index * SLOT;
+        return slots.getLong(offset + ID_MSB) == id.getMostSignificantBits()
+                && slots.getLong(offset + ID_LSB) == id.getLeastSignificantBits();
+    }
+
+    // Callers have checked that neither the key nor the id is present.
+    private void put(long key, long msb, long lsb, int worldRef, int ownerRef, ClaimPermissions permissions) {
+        int index = (int) mix(key) & mask;
+        while (occupancy(slots.getInt(index * SLOT + STATE)) == FULL) {
+            index = (index + 1) & mask;
+        }
+
+        int offset = index * SLOT;
+        if (occupancy(slots.getInt(offset + STATE)) == EMPTY) used++;
+        slots.putLong(offset + KEY, key);
+        slots.putLong(offset + ID_MSB, msb);
+        slots.putLong(offset + ID_LSB, lsb);
+        slots.putInt(offset + OWNER, ownerRef);
+        slots.putInt(offset + WORLD, worldRef);
+        writePermissions(offset, key, permissions);
+
+        int idIndex = (int) mix(msb ^ Long.rotateLeft(lsb, 32)) & mask;
+        while (idSlots.getInt(idIndex * ID_SLOT + ENTRY_STATE) == FULL) {
+            idIndex = (idIndex + 1) & mask;
+        }
+
+        int idOffset = idIndex * ID_SLOT;
+        if (idSlots.getInt(idOffset + ENTRY_STATE) == EMPTY) idUsed++;
+        idSlots.putLong(idOffset + ENTRY_MSB, msb);
+        idSlots.putLong(idOffset + ENTRY_LSB, lsb);
+        idSlots.putLong(idOffset + ENTRY_KEY, key);
+        idSlots.putInt(idOffset + ENTRY_STATE, FULL);
+    }
+
+    private void writePermissions(int offset, long key, ClaimPermissions permissions) {
+        int state = FULL;
+        long allowed = 0L;
+        long inherited = 0L;
+
+        spilled.remove(key);
+        if (permissions == null) {
+            state |= NO_PERMISSIONS;
+        } else if (permissions.wordCount() > 1 || permissions.inheritedWordCount() > 1) {
+            spilled.put(key, permissions.copy());
+            state |= SPILLED;
+        } else {
+            allowed = permissions.word(0);
+            inherited = permissions.inheritedWord(0);
+        }
+
+        slots.putLong(offset + ALLOWED, allowed);
+        slots.putLong(offset + INHERITED, inherited);
+        slots.putInt(offset + STATE, state);
+    }
+
+    private void delete(int index, long key) {
+        int offset = index * SLOT;
+        int ownerRef = slots.getInt(offset + OWNER);
+        int idIndex = idSlotOf(slots.getLong(offset + ID_MSB), slots.getLong(offset + ID_LSB));
+
+        // A slot followed by an empty one ends every probe chain through it, so it can be
+        // emptied outright instead of leaving a tombstone.
+        if (occupancy(slots.getInt(((index + 1) & mask) * SLOT + STATE)) == EMPTY) {
+            slots.putInt(offset + STATE, EMPTY);
+            used--;
+        } else {
+            slots.putInt(offset + STATE, TOMBSTONE);
+        }
+
+        if (idIndex >= 0) {
+            int idOffset = idIndex * ID_SLOT;
+            if (idSlots.getInt(((idIndex + 1) & mask) * ID_SLOT + ENTRY_STATE) == EMPTY) {
+                idSlots.putInt(idOffset + ENTRY_STATE, EMPTY);
+                idUsed--;
+            } else {
+                idSlots.putInt(idOffset + ENTRY_STATE, TOMBSTONE);
+            }
+        }
+
+        spilled.remove(key);
+        owners.computeIfPresent(ownerRef, (ref, count) -> count == 1 ? null : count - 1);
+        size--;
+    }
+
+    private void reserve(int adding) {
+        long threshold = (mask + 1) / 4 * 3;
+        if (used + adding > threshold || idUsed + adding > threshold) {
+            rehash(adding);
+        }
+    }
+
+    // Grows when live claims fill more than half the table, otherwise only sweeps tombstones.
+    private void rehash(int adding) {
+        ByteBuffer old = slots;
+        int oldCapacity = mask + 1;
+
+        int capacity = Math.max(capacityFor(size + adding), oldCapacity);
+        if (capacity == oldCapacity && size + adding > oldCapacity / 2 && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+
+        Map<Long, ClaimPermissions> spilled = Map.copyOf(this.spilled);
+        allocate(capacity);
+
+        for (int index = 0; index < oldCapacity; index++) {
+            int offset = index * SLOT;
+            int state = old.getInt(offset + STATE);
+            if (occupancy(state) != FULL) continue;
+
+            long key = old.getLong(offset + KEY);
+            ClaimPermissions permissions;
+            if ((state & NO_PERMISSIONS) != 0) {
+                permissions = null;
+            } else if ((state & SPILLED) != 0) {
+                permissions = spilled.get(key);
+            } else {
+                permissions = inline(old, offset);
+            }
+
+            int ownerRef = old.getInt(offset + OWNER);
+            put(key, old.getLong(offset + ID_MSB), old.getLong(offset + ID_LSB), old.getInt(offset + WORLD), ownerRef, permissions);
+            owners.merge(ownerRef, 1, Integer::sum);
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * SLOT).order(ByteOrder.nativeOrder());
+        idSlots = ByteBuffer.allocateDirect(capacity * ID_SLOT).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+        size = 0;
+        used = 0;
+        idUsed = 0;
+        spilled.clear();
+        owners.clear();
+    }
+
+    private void ensureOpen() {
+        if (slots == null) {
+            throw new IllegalStateException("Chunk claim store is closed");
+        }
+    }
+
+    private static ClaimPermissions inline(ByteBuffer slots, int offset) {
+        return ClaimPermissions.readOnly(
+                BitSet.valueOf(new long[]{slots.getLong(offset + ALLOWED)}),
+                BitSet.valueOf(new long[]{slots.getLong(offset + INHERITED)})
+        );
+    }
+
+    private static int occupancy(int state) {
+        return state & OCCUPANCY;
+    }
+
+    private static int capacityFor(int claims) {
+        long wanted = Math.max(16L, (long) claims * 4 / 3 + 1);
+        return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(wanted - 1) << 1);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -1,100 +1,509 @@
 package com.huskydreaming.claims.claims;
 
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.helpers.ClaimBucket;
 import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.jfr.ClaimAddEvent;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
 import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
 import com.huskydreaming.claims.model.positions.BlockPosition;
 import com.huskydreaming.claims.model.positions.BoundingBox;
-import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.UuidDictionary;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public final class PlotClaims {
 
     private final UUID worldId;
+    private final int worldRef;
+    private final ClaimChangeFeed feed;
 
-    private final Map<Long, List<PlotClaim>> plots = new ConcurrentHashMap<>();
+    private final AreaClaims areaClaims;
+    private final ChunkClaims chunkClaims;
 
-    public PlotClaims(UUID worldId) {
+    private final Map<UUID, PlotClaim> plotsById = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<PlotClaim>> plotsByParent = new ConcurrentHashMap<>();
+    private volatile ClaimIndex<PlotClaim> index = ClaimIndex.plotGrid(SpatialGrid.CHUNK_SIZE);
+
+    // Same locking as AreaClaims: shared by writers, taken alone by a migration, and adds and
+    // resizes take turns on placing.
+    private final ReentrantReadWriteLock writers = new ReentrantReadWriteLock();
+    private final Lock shared = writers.readLock();
+    private final Lock exclusive = writers.writeLock();
+    private final Lock placing = new ReentrantLock();
+
+    private volatile Set<UUID> migrating;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private volatile ResidencyGuard residencyGuard = ResidencyGuard.NONE;
+
+    public PlotClaims(UUID worldId, AreaClaims areaClaims, ChunkClaims chunkClaims) {
+        this(worldId, areaClaims, chunkClaims, new ClaimChangeFeed());
+    }
+
+    PlotClaims(UUID worldId, AreaClaims areaClaims, ChunkClaims chunkClaims, ClaimChangeFeed feed) {
         this.worldId = Objects.requireNonNull(worldId, "worldId");
+        this.worldRef = UuidDictionary.intern(worldId);
+        this.areaClaims = Objects.requireNonNull(areaClaims, "areaClaims");
+        this.chunkClaims = Objects.requireNonNull(chunkClaims, "chunkClaims");
+        this.feed = Objects.requireNonNull(feed, "feed");
     }
 
     public UUID worldId() {
         return worldId;
     }
 
+    public ClaimChangeFeed feed() {
+        return feed;
+    }
 
     public boolean add(PlotClaim plot) {
         Objects.requireNonNull(plot, "plot");
 
-        if (!plot.worldId().equals(worldId)) {
+        ClaimAddEvent event = new ClaimAddEvent();
+        if (!event.isEnabled()) {
+            return insert(plot);
+        }
+
+        event.begin();
+        boolean added = insert(plot);
+        if (event.shouldCommit()) {
+            event.describe(worldId, ClaimType.PLOT, plot.id(), SpatialGrid.touchedChunkCount(plot.bounds()), added);
+            event.commit();
+        }
+        return added;
+    }
+
+    private boolean insert(PlotClaim plot) {
+        if (plot.worldRef() != worldRef) {
             throw new IllegalArgumentException("Plot belongs to a different world");
         }
 
-        BoundingBox bounds = plot.bounds();
-        for (PlotClaim existing : getPotentialOverlaps(bounds)) {
-            if (existing.bounds().intersects(bounds)) {
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(plot.bounds());
+        shared.lock();
+        placing.lock();
+        try {
+            if (!isInsideParent(plot)) {
                 return false;
             }
-        }
 
-        for (ChunkPosition chunkPosition : SpatialGrid.touchedChunks(bounds)) {
-            long key = SpatialGrid.chunkKey(chunkPosition);
-            plots.computeIfAbsent(key, l -> new CopyOnWriteArrayList<>())
-                    .add(plot);
-        }
+            touched(plot.id());
+            if (plotsById.putIfAbsent(plot.id(), plot) != null) {
+                return false;
+            }
 
-        return true;
+            BoundingBox bounds = plot.bounds();
+            for (PlotClaim existing : getPotentialOverlaps(bounds)) {
+                if (existing.bounds().intersects(bounds)) {
+                    plotsById.remove(plot.id(), plot);
+                    return false;
+                }
+            }
+
+            index(plot);
+            writes.increment();
+            feed.publish(new ClaimEvent.PlotAdded(plot));
+            return true;
+        } finally {
+            placing.unlock();
+            shared.unlock();
+            pin.release();
+        }
     }
 
     public boolean remove(PlotClaim plot) {
         Objects.requireNonNull(plot, "plot");
 
-        boolean removed = false;
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(plot.bounds());
+        shared.lock();
+        try {
+            touched(plot.id());
+
+            PlotClaim current = plotsById.get(plot.id());
+            if (current == null || !current.bounds().equals(plot.bounds()) || !unindex(current)) {
+                return false;
+            }
+
+            plotsById.remove(current.id(), current);
+            writes.increment();
+            feed.publish(new ClaimEvent.PlotRemoved(current));
+            return true;
+        } finally {
+            shared.unlock();
+            pin.release();
+        }
+    }
+
+    // Same as AreaClaims.resize; the new bounds must also stay inside the parent claim.
+    public PlotClaim resize(PlotClaim plot, BoundingBox bounds) {
+        Objects.requireNonNull(plot, "plot");
+        Objects.requireNonNull(bounds, "bounds");
+
+        PlotClaim current = plotsById.get(plot.id());
+        if (current == null || !current.bounds().equals(plot.bounds())) {
+            return null;
+        }
+
+        if (current.bounds().equals(bounds)) {
+            return current;
+        }
+
+        PlotClaim resized = new PlotClaim(current.id(), current.worldRef(), current.ownerRef(), bounds, current.permissions(),
+                current.priority(), current.parentClaimType(), current.parentClaimId());
+
+        ResidencyGuard.Pin pin = residencyGuard.beforeWrite(current.bounds(), bounds);
+        shared.lock();
+        placing.lock();
+        try {
+            if (!isInsideParent(resized)) {
+                return null;
+            }
 
-        for (ChunkPosition chunkPosition : SpatialGrid.touchedChunks(plot.bounds())) {
-            long key = SpatialGrid.chunkKey(chunkPosition);
-            List<PlotClaim> list = plots.get(key);
-            if (list == null) continue;
+            ClaimIndex<PlotClaim> index = this.index;
+            for (BoundingBox added : bounds.minus(current.bounds())) {
+                for (long key : index.keys(added)) {
+                    ClaimBucket<PlotClaim> bucket = index.bucket(key);
+                    if (bucket == null) continue;
 
-            removed |= list.remove(plot);
-            if (list.isEmpty()) {
-                plots.remove(key);
+                    for (PlotClaim existing : bucket.claims()) {
+                        if (!existing.id().equals(current.id()) && existing.bounds().intersects(added)) return null;
+                    }
+                }
             }
+
+            touched(current.id());
+            if (!plotsById.replace(current.id(), current, resized)) {
+                return null;
+            }
+
+            index.move(current, resized);
+            plotsByParent.computeIfPresent(current.parentClaimId(), (parentId, children) -> {
+                children.remove(current);
+                children.add(resized);
+                return children;
+            });
+            writes.increment();
+            feed.publish(new ClaimEvent.PlotResized(current, resized));
+            return resized;
+        } finally {
+            placing.unlock();
+            shared.unlock();
+            pin.release();
         }
+    }
 
-        return removed;
+    public PlotClaim move(PlotClaim plot, int dx, int dy, int dz) {
+        Objects.requireNonNull(plot, "plot");
+        return resize(plot, plot.bounds().translate(dx, dy, dz));
     }
 
     public PlotClaim getAt(BlockPosition position) {
         Objects.requireNonNull(position, "position");
 
-        long key = SpatialGrid.chunkKeyFromBlock(position.x(), position.z());
-        List<PlotClaim> candidates = plots.get(key);
-        if (candidates == null || candidates.isEmpty()) {
-            return null;
+        ClaimBucket<PlotClaim> bucket = bucketAt(index, position.x(), position.z());
+        return bucket == null ? null : bucket.find(position);
+    }
+
+    // See ChunkClaims.getById.
+    public PlotClaim getById(UUID id) {
+        Objects.requireNonNull(id, "id");
+
+        while (true) {
+            PlotClaim resident = plotsById.get(id);
+            if (resident != null) {
+                return resident;
+            }
+
+            PlotClaim[] found = new PlotClaim[2];
+            residencyGuard.scan(null, () -> found[0] = plotsById.get(id), contents -> {
+                for (PlotClaim plot : contents.plots()) {
+                    if (plot.id().equals(id)) found[1] = plot;
+                }
+            });
+
+            if (found[0] != null || found[1] == null) {
+                return found[0];
+            }
+            residencyGuard.beforeRead(found[1].bounds().minX(), found[1].bounds().minZ());
+        }
+    }
+
+    public Collection<PlotClaim> childrenOf(UUID parentClaimId) {
+        Objects.requireNonNull(parentClaimId, "parentClaimId");
+        return List.copyOf(plotsByParent.getOrDefault(parentClaimId, Set.of()));
+    }
+
+    public int removeChildren(UUID parentClaimId) {
+        Objects.requireNonNull(parentClaimId, "parentClaimId");
+
+        Set<PlotClaim> children = plotsByParent.remove(parentClaimId);
+        if (children == null) {
+            return 0;
         }
 
-        PlotClaim best = null;
-        for (PlotClaim plot : candidates) {
-            if (!plot.bounds().contains(position)) continue;
+        int removed = 0;
+        for (PlotClaim child : children) {
+            if (remove(child)) removed++;
+        }
+
+        return removed;
+    }
+
+    // See AreaClaims.intersecting.
+    public Set<PlotClaim> intersecting(BoundingBox bounds) {
+        Objects.requireNonNull(bounds, "bounds");
+
+        reads.increment();
+        Map<UUID, PlotClaim> out = new HashMap<>();
+        residencyGuard.scan(bounds, () -> intersectingResident(bounds).forEach(plot -> out.put(plot.id(), plot)), contents -> {
+            for (PlotClaim plot : contents.plots()) {
+                if (plot.bounds().intersects(bounds)) out.putIfAbsent(plot.id(), plot);
+            }
+        });
+        return new HashSet<>(out.values());
+    }
 
-            if (best == null || plot.priority() > best.priority()) {
-                best = plot;
+    public Collection<PlotClaim> allClaims() {
+        Map<UUID, PlotClaim> out = new HashMap<>();
+        residencyGuard.scan(null, () -> out.putAll(plotsById), contents -> {
+            for (PlotClaim plot : contents.plots()) {
+                out.putIfAbsent(plot.id(), plot);
             }
+        });
+        return List.copyOf(out.values());
+    }
+
+    public String indexName() {
+        return index.name();
+    }
+
+    // See AreaClaims.migrate.
+    public boolean migrate(ClaimIndex<PlotClaim> target) {
+        Objects.requireNonNull(target, "target");
+        if (target.buckets() != 0) {
+            throw new IllegalArgumentException("Target index is not empty");
         }
 
-        return best;
+        Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+        Map<UUID, PlotClaim> snapshot;
+        exclusive.lock();
+        try {
+            if (migrating != null) return false;
+            snapshot = Map.copyOf(plotsById);
+            migrating = dirty;
+        } finally {
+            exclusive.unlock();
+        }
+
+        try {
+            snapshot.values().forEach(target::add);
+
+            exclusive.lock();
+            try {
+                for (UUID id : dirty) {
+                    PlotClaim copied = snapshot.get(id);
+                    if (copied != null) target.remove(copied);
+
+                    PlotClaim current = plotsById.get(id);
+                    if (current != null) target.add(current);
+                }
+                index = target;
+                return true;
+            } finally {
+                exclusive.unlock();
+            }
+        } finally {
+            migrating = null;
+        }
+    }
+
+    ClaimIndex<PlotClaim> index() {
+        return index;
+    }
+
+    long reads() {
+        return reads.sum();
+    }
+
+    long writes() {
+        return writes.sum();
+    }
+
+    // Resident-only views for the pager, which calls them while holding its own lock.
+    Set<PlotClaim> intersectingResident(BoundingBox bounds) {
+        ClaimIndex<PlotClaim> index = this.index;
+        Set<PlotClaim> out = new HashSet<>();
+        for (long key : index.keys(bounds)) {
+            ClaimBucket<PlotClaim> bucket = index.bucket(key);
+            if (bucket == null) continue;
+
+            for (PlotClaim plot : bucket.claims()) {
+                if (plot.bounds().intersects(bounds)) out.add(plot);
+            }
+        }
+        return out;
+    }
+
+    Collection<PlotClaim> residentClaims() {
+        return List.copyOf(plotsById.values());
+    }
+
+    boolean childrenFit(AreaClaim parent) {
+        for (PlotClaim child : plotsByParent.getOrDefault(parent.id(), Set.of())) {
+            if (!parent.contains(child.bounds())) return false;
+        }
+        return true;
+    }
+
+    ClaimBucket<PlotClaim> bucketAt(int blockX, int blockZ) {
+        return bucketAt(index, blockX, blockZ);
+    }
+
+    ClaimBucket<PlotClaim> bucketAt(ClaimIndex<PlotClaim> index, int blockX, int blockZ) {
+        residencyGuard.beforeRead(blockX, blockZ);
+        reads.increment();
+        return index.bucket(index.keyAt(blockX, blockZ));
+    }
+
+    boolean hasBucketIn(BoundingBox bounds) {
+        ClaimIndex<PlotClaim> index = this.index;
+        for (long key : index.keys(bounds)) {
+            if (index.bucket(key) != null) return true;
+        }
+        return false;
+    }
+
+    void residencyGuard(ResidencyGuard residencyGuard) {
+        this.residencyGuard = Objects.requireNonNull(residencyGuard, "residencyGuard");
+    }
+
+    ClaimFootprint.Structure footprint() {
+        ClaimIndex<PlotClaim> index = this.index;
+        int count = plotsById.size();
+        return ClaimFootprint.structure(count, index.buckets(), index.entries(), count * ClaimFootprint.plotBytes());
+    }
+
+    // Auditor paths, as on AreaClaims. The parent index is repaired one plot id at a time.
+    Set<UUID> parentIds() {
+        return plotsByParent.keySet();
+    }
+
+    Set<PlotClaim> indexedChildren(UUID parentId) {
+        return Set.copyOf(plotsByParent.getOrDefault(parentId, Set.of()));
+    }
+
+    boolean repair(ClaimIndex<PlotClaim> audited, long key, UUID id) {
+        shared.lock();
+        try {
+            if (index != audited) return false;
+
+            touched(id);
+            audited.repair(key, id, plotsById.get(id));
+            return true;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    void reindexChild(UUID parentId, UUID id) {
+        plotsByParent.compute(parentId, (key, children) -> {
+            Set<PlotClaim> next = children == null ? ConcurrentHashMap.newKeySet() : children;
+            next.removeIf(child -> child.id().equals(id));
+
+            PlotClaim current = plotsById.get(id);
+            if (current != null && current.parentClaimId().equals(key)) next.add(current);
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    boolean restore(PlotClaim plot) {
+        shared.lock();
+        try {
+            touched(plot.id());
+            if (plotsById.putIfAbsent(plot.id(), plot) != null) {
+                return false;
+            }
+
+            index(plot);
+            return true;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    boolean evict(PlotClaim plot) {
+        shared.lock();
+        try {
+            touched(plot.id());
+            if (!plotsById.remove(plot.id(), plot)) {
+                return false;
+            }
+
+            unindex(plot);
+            return true;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    private void touched(UUID id) {
+        Set<UUID> dirty = migrating;
+        if (dirty != null) dirty.add(id);
+    }
+
+    private void index(PlotClaim plot) {
+        index.add(plot);
+        plotsByParent.computeIfAbsent(plot.parentClaimId(), parentId -> ConcurrentHashMap.newKeySet())
+                .add(plot);
+    }
+
+    private boolean unindex(PlotClaim plot) {
+        if (!index.remove(plot)) {
+            return false;
+        }
+
+        plotsByParent.computeIfPresent(plot.parentClaimId(), (parentId, children) -> {
+            children.remove(plot);
+            return children.isEmpty() ? null : children;
+        });
+        return true;
+    }
+
+    // The plot's regions are pinned, so a parent that contains it is resident.
+    boolean isInsideParent(PlotClaim plot) {
+        UUID parentId = plot.parentClaimId();
+
+        return switch (plot.parentClaimType()) {
+            case AREA -> {
+                AreaClaim parent = areaClaims.residentById(parentId);
+                yield parent != null && parent.contains(plot.bounds());
+            }
+            case CHUNK -> {
+                ChunkClaim parent = chunkClaims.residentById(parentId);
+                yield parent != null && parent.chunkPosition().contains(plot.bounds());
+            }
+            case PLOT -> false;
+        };
     }
 
     private Set<PlotClaim> getPotentialOverlaps(BoundingBox bounds) {
         Set<PlotClaim> out = new HashSet<>();
 
-        for (ChunkPosition chunkPosition : SpatialGrid.touchedChunks(bounds)) {
-            List<PlotClaim> list = plots.get(SpatialGrid.chunkKey(chunkPosition));
-            if (list != null) {
-                out.addAll(list);
+        ClaimIndex<PlotClaim> index = this.index;
+        for (long key : index.keys(bounds)) {
+            ClaimBucket<PlotClaim> bucket = index.bucket(key);
+            if (bucket != null) {
+                out.addAll(bucket.claims());
             }
         }
 
@@ -102,6 +511,19 @@ public final class PlotClaims {
     }
 
     public void clear() {
-        plots.clear();
+        residencyGuard.discard(ClaimType.PLOT);
+
+        shared.lock();
+        try {
+            plotsById.keySet().forEach(this::touched);
+            index.clear();
+            plotsById.clear();
+            plotsByParent.clear();
+            writes.increment();
+        } finally {
+            shared.unlock();
+        }
+
+        feed.publish(new ClaimEvent.ClaimsCleared(worldId, ClaimType.PLOT));
     }
 }
@@ -0,0 +1,511 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.jfr.ClaimBulkEvent;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.storage.RegionFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+// Keeps only recently used regions of a world in the claim indexes. Regions are faulted in on
+// first read or write and written back when evicted, so lookups stay exact for the whole world.
+// Queries by id, owner or over the whole world also read the stored regions through scan().
+// Eviction only happens in maintain(), which holds the world monitor like ClaimMutationQueue
+// batches do; readers detect a concurrent load or eviction through the stamp and retry. Writers
+// pin the regions they touch, and pinned regions are skipped until the write has been indexed.
+//
+// Recency is coarse: reads stamp a region with the clock value current at the time, and only
+// loads, writes and sweeps advance the clock, so hot lookups never contend on it.
+public final class RegionPager implements ResidencyGuard, AutoCloseable {
+
+    public static final int DEFAULT_MAX_RESIDENT_REGIONS = 256;
+
+    private final WorldClaims worldClaims;
+    private final Path directory;
+    private final int maxResidentRegions;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    private final Map<Long, Region> resident = new ConcurrentHashMap<>();
+    private final Set<Long> populated = ConcurrentHashMap.newKeySet();
+    private final StampedLock lock = new StampedLock();
+    private final AtomicLong clock = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public RegionPager(WorldClaims worldClaims, Path directory) {
+        this(worldClaims, directory, DEFAULT_MAX_RESIDENT_REGIONS);
+    }
+
+    public RegionPager(WorldClaims worldClaims, Path directory, int maxResidentRegions) {
+        this(worldClaims, directory, maxResidentRegions, newPrefetchExecutor(worldClaims), true);
+    }
+
+    public RegionPager(WorldClaims worldClaims, Path directory, int maxResidentRegions, Executor executor) {
+        this(worldClaims, directory, maxResidentRegions, executor, false);
+    }
+
+    private RegionPager(WorldClaims worldClaims, Path directory, int maxResidentRegions, Executor executor, boolean owned) {
+        this.worldClaims = Objects.requireNonNull(worldClaims, "worldClaims");
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        if (maxResidentRegions < 1) {
+            throw new IllegalArgumentException("maxResidentRegions < 1");
+        }
+
+        this.maxResidentRegions = maxResidentRegions;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+
+        try {
+            populated.addAll(RegionFile.scan(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan region directory " + directory, e);
+        }
+
+        synchronized (worldClaims) {
+            // Claims already on heap were never written, so their regions start dirty.
+            for (ChunkClaim claim : worldClaims.chunk().residentClaims()) {
+                adopt(SpatialGrid.regionKeyFromChunk(claim.chunkPosition().x(), claim.chunkPosition().z()));
+            }
+            for (AreaClaim claim : worldClaims.area().residentClaims()) {
+                SpatialGrid.touchedRegions(claim.bounds()).forEach(this::adopt);
+            }
+            for (PlotClaim plot : worldClaims.plot().residentClaims()) {
+                SpatialGrid.touchedRegions(plot.bounds()).forEach(this::adopt);
+            }
+
+            worldClaims.pager(this);
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public int residentRegions() {
+        return resident.size();
+    }
+
+    public boolean isResident(long regionKey) {
+        return resident.containsKey(regionKey);
+    }
+
+    @Override
+    public void beforeRead(int blockX, int blockZ) {
+        long regionKey = SpatialGrid.regionKeyFromBlock(blockX, blockZ);
+
+        Region region = resident.get(regionKey);
+        if (region != null) {
+            long now = clock.get();
+            if (region.lastAccess != now) region.lastAccess = now;
+            return;
+        }
+
+        if (populated.contains(regionKey)) {
+            load(regionKey);
+        }
+    }
+
+    @Override
+    public Pin beforeWrite(BoundingBox... bounds) {
+        Set<Long> regionKeys = new LinkedHashSet<>();
+        for (BoundingBox box : bounds) {
+            SpatialGrid.touchedRegions(box).forEach(regionKeys::add);
+        }
+
+        List<Region> pinned = new ArrayList<>(regionKeys.size());
+        try {
+            for (long regionKey : regionKeys) {
+                pinned.add(pin(regionKey));
+            }
+        } catch (RuntimeException e) {
+            pinned.forEach(region -> region.pins.decrementAndGet());
+            throw e;
+        }
+
+        // Dirty once the write is indexed, so a flush racing it cannot clear the mark early.
+        return () -> {
+            for (Region region : pinned) {
+                region.dirty = true;
+                region.pins.decrementAndGet();
+            }
+        };
+    }
+
+    // Holds the read lock for the whole pass, so regions neither load nor evict while files are read.
+    @Override
+    public void scan(BoundingBox bounds, Runnable residentScan, Consumer<RegionFile.Contents> stored) {
+        long stamp = lock.readLock();
+        try {
+            residentScan.run();
+
+            Iterable<Long> regionKeys = bounds == null ? List.copyOf(populated) : SpatialGrid.touchedRegions(bounds);
+            for (long regionKey : regionKeys) {
+                if (resident.containsKey(regionKey) || !populated.contains(regionKey)) continue;
+                stored.accept(RegionFile.read(RegionFile.path(directory, regionKey)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read claim regions in " + directory, e);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Stored regions are rewritten now; resident ones are written back once the caller has
+    // cleared the type from the indexes.
+    @Override
+    public void discard(ClaimType type) {
+        Objects.requireNonNull(type, "type");
+
+        long stamp = lock.writeLock();
+        try {
+            for (long regionKey : List.copyOf(populated)) {
+                if (resident.containsKey(regionKey)) continue;
+
+                Path file = RegionFile.path(directory, regionKey);
+                RegionFile.Contents contents = RegionFile.read(file);
+                RegionFile.Contents kept = contents(
+                        type == ClaimType.CHUNK ? List.of() : contents.chunks(),
+                        type == ClaimType.AREA ? List.of() : contents.areas(),
+                        type == ClaimType.PLOT ? List.of() : contents.plots().stream()
+                                .filter(plot -> plot.parentClaimType() != type)
+                                .toList()
+                );
+                if (kept.chunks().size() == contents.chunks().size() && kept.areas().size() == contents.areas().size()
+                        && kept.plots().size() == contents.plots().size()) {
+                    continue;
+                }
+
+                RegionFile.write(file, kept);
+                if (kept.isEmpty()) {
+                    populated.remove(regionKey);
+                }
+            }
+
+            resident.values().forEach(region -> region.dirty = true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not discard " + type + " claims in " + directory, e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void prefetch(BlockPosition center, int radiusRegions) {
+        Objects.requireNonNull(center, "center");
+        if (radiusRegions < 0) {
+            throw new IllegalArgumentException("radiusRegions < 0");
+        }
+
+        if (closed) {
+            return;
+        }
+
+        int centerX = SpatialGrid.regionCoord(center.x());
+        int centerZ = SpatialGrid.regionCoord(center.z());
+
+        List<Long> missing = new ArrayList<>();
+        for (int rx = centerX - radiusRegions; rx <= centerX + radiusRegions; rx++) {
+            for (int rz = centerZ - radiusRegions; rz <= centerZ + radiusRegions; rz++) {
+                long regionKey = SpatialGrid.pack(rx, rz);
+                if (populated.contains(regionKey) && !resident.containsKey(regionKey)) {
+                    missing.add(regionKey);
+                }
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> missing.forEach(regionKey -> {
+                if (!resident.containsKey(regionKey)) load(regionKey);
+            }));
+        } catch (RejectedExecutionException ignored) {
+            // Prefetch is best effort, the next read faults the region in anyway.
+        }
+    }
+
+    // Evicts least recently used regions beyond the limit and returns how many were dropped.
+    // Regions pinned by a write in flight stay, so the limit may briefly be exceeded.
+    public int maintain() {
+        return maintain(maxResidentRegions);
+    }
+
+    // Same, down to a tighter limit for this sweep only, e.g. under memory pressure.
+    public int maintain(int maxResident) {
+        if (maxResident < 0) {
+            throw new IllegalArgumentException("maxResident < 0");
+        }
+
+        synchronized (worldClaims) {
+            if (resident.size() <= maxResident) {
+                return 0;
+            }
+
+            ClaimBulkEvent event = new ClaimBulkEvent();
+            event.begin();
+
+            long stamp = lock.writeLock();
+            try {
+                // Readers keep stamping regions, so sort a snapshot of the stamps.
+                long[][] ages = new long[resident.size()][];
+                int count = 0;
+                for (Map.Entry<Long, Region> entry : resident.entrySet()) {
+                    ages[count++] = new long[]{entry.getValue().lastAccess, entry.getKey()};
+                }
+                Arrays.sort(ages, 0, count, Comparator.comparingLong(age -> age[0]));
+
+                // New pins wait for the lock, so an unpinned region has no write in flight.
+                int excess = count - maxResident;
+                int regions = 0;
+                int evicted = 0;
+                for (int i = 0; i < count && regions < excess; i++) {
+                    long regionKey = ages[i][1];
+                    Region region = resident.get(regionKey);
+                    if (region.pins.get() > 0) continue;
+
+                    if (region.dirty) {
+                        write(regionKey);
+                    }
+
+                    resident.remove(regionKey);
+                    evicted += evict(regionKey);
+                    regions++;
+                }
+
+                if (event.shouldCommit()) {
+                    event.describe(worldClaims.worldId(), ClaimBulkEvent.REGION_SWEEP, evicted, regions);
+                    event.commit();
+                }
+                clock.incrementAndGet();
+                return regions;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public void flush() {
+        synchronized (worldClaims) {
+            ClaimBulkEvent event = new ClaimBulkEvent();
+            event.begin();
+
+            long stamp = lock.readLock();
+            try {
+                int regions = 0;
+                int claims = 0;
+                for (Map.Entry<Long, Region> entry : resident.entrySet()) {
+                    Region region = entry.getValue();
+                    if (region.dirty) {
+                        // Cleared first, so a write indexed after the region was read is flushed next time.
+                        region.dirty = false;
+                        try {
+                            claims += write(entry.getKey());
+                        } catch (RuntimeException e) {
+                            region.dirty = true;
+                            throw e;
+                        }
+                        regions++;
+                    }
+                }
+
+                if (regions > 0 && event.shouldCommit()) {
+                    event.describe(worldClaims.worldId(), ClaimBulkEvent.REGION_FLUSH, claims, regions);
+                    event.commit();
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    long optimisticStamp() {
+        return lock.tryOptimisticRead();
+    }
+
+    boolean validate(long stamp) {
+        return lock.validate(stamp);
+    }
+
+    void awaitWriter() {
+        lock.unlockRead(lock.readLock());
+    }
+
+    // Called by WorldClaims.clear() before the indexes are emptied.
+    void discardAll() {
+        long stamp = lock.writeLock();
+        try {
+            for (long regionKey : populated) {
+                Files.deleteIfExists(RegionFile.path(directory, regionKey));
+            }
+            populated.clear();
+            resident.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete region files in " + directory, e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void adopt(long regionKey) {
+        Region region = resident.computeIfAbsent(regionKey, key -> new Region());
+        region.lastAccess = clock.incrementAndGet();
+        region.dirty = true;
+    }
+
+    // Pinned under the read lock, so a sweep either sees the pin or has already evicted the region.
+    private Region pin(long regionKey) {
+        while (true) {
+            load(regionKey);
+
+            long stamp = lock.readLock();
+            try {
+                Region region = resident.get(regionKey);
+                if (region != null) {
+                    region.pins.incrementAndGet();
+                    region.lastAccess = clock.incrementAndGet();
+                    return region;
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private void load(long regionKey) {
+        if (!resident.containsKey(regionKey)) {
+            long stamp = lock.writeLock();
+            try {
+                if (!resident.containsKey(regionKey)) {
+                    if (populated.contains(regionKey)) {
+                        ClaimBulkEvent event = new ClaimBulkEvent();
+                        event.begin();
+
+                        int restored = restore(RegionFile.read(RegionFile.path(directory, regionKey)));
+                        if (event.shouldCommit()) {
+                            event.describe(worldClaims.worldId(), ClaimBulkEvent.REGION_LOAD, restored, 1);
+                            event.commit();
+                        }
+                    }
+
+                    Region region = new Region();
+                    region.lastAccess = clock.incrementAndGet();
+                    resident.put(regionKey, region);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load claim region " + regionKey, e);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    // Parents are restored before plots; restore is a no-op for claims already resident
+    // through a neighbouring region.
+    private int restore(RegionFile.Contents contents) {
+        contents.chunks().forEach(worldClaims.chunk()::restore);
+        contents.areas().forEach(worldClaims.area()::restore);
+        contents.plots().forEach(worldClaims.plot()::restore);
+        return contents.chunks().size() + contents.areas().size() + contents.plots().size();
+    }
+
+    private int write(long regionKey) {
+        BoundingBox bounds = SpatialGrid.regionBounds(regionKey);
+        RegionFile.Contents contents = contents(
+                worldClaims.chunk().intersectingResident(bounds),
+                worldClaims.area().intersectingResident(bounds),
+                worldClaims.plot().intersectingResident(bounds)
+        );
+
+        try {
+            RegionFile.write(RegionFile.path(directory, regionKey), contents);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write claim region " + regionKey, e);
+        }
+
+        if (contents.isEmpty()) {
+            populated.remove(regionKey);
+        } else {
+            populated.add(regionKey);
+        }
+        return contents.chunks().size() + contents.areas().size() + contents.plots().size();
+    }
+
+    // Chunk claims live in exactly one region; areas and plots stay while any region they touch is resident.
+    private int evict(long regionKey) {
+        BoundingBox bounds = SpatialGrid.regionBounds(regionKey);
+        int evicted = 0;
+
+        for (ChunkClaim claim : worldClaims.chunk().intersectingResident(bounds)) {
+            if (worldClaims.chunk().evict(claim)) evicted++;
+        }
+
+        for (PlotClaim plot : worldClaims.plot().intersectingResident(bounds)) {
+            if (!touchesResident(plot) && worldClaims.plot().evict(plot)) evicted++;
+        }
+
+        for (AreaClaim claim : worldClaims.area().intersectingResident(bounds)) {
+            if (!touchesResident(claim) && worldClaims.area().evict(claim)) evicted++;
+        }
+        return evicted;
+    }
+
+    private boolean touchesResident(BoundedClaim claim) {
+        for (long regionKey : SpatialGrid.touchedRegions(claim.bounds())) {
+            if (resident.containsKey(regionKey)) return true;
+        }
+        return false;
+    }
+
+    private RegionFile.Contents contents(
+            Collection<ChunkClaim> chunks,
+            Collection<AreaClaim> areas,
+            Collection<PlotClaim> plots
+    ) {
+        return new RegionFile.Contents(worldClaims.worldId(), List.copyOf(chunks), List.copyOf(areas), List.copyOf(plots));
+    }
+
+    private static ExecutorService newPrefetchExecutor(WorldClaims worldClaims) {
+        Objects.requireNonNull(worldClaims, "worldClaims");
+
+        String name = "claims-pager-" + worldClaims.worldId();
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Region {
+        // Plain field: an access stamp seen late only makes eviction order slightly less exact.
+        long lastAccess;
+        volatile boolean dirty;
+        final AtomicInteger pins = new AtomicInteger();
+    }
+}
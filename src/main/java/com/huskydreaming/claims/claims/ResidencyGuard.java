@@ -0,0 +1,52 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.storage.RegionFile;
+
+import java.util.function.Consumer;
+
+// Lets a pager fault regions into the indexes before they are read or mutated. Writers release
+// the pin only once the change is indexed, so the regions under it cannot be evicted mid-write
+// and are marked for write-back afterwards.
+//
+// Queries over the whole world go through scan(): the resident indexes first, then the stored
+// contents of every region that is not resident, with no load or eviction in between.
+interface ResidencyGuard {
+
+    Pin NO_PIN = () -> {};
+
+    ResidencyGuard NONE = new ResidencyGuard() {
+        @Override
+        public void beforeRead(int blockX, int blockZ) {
+        }
+
+        @Override
+        public Pin beforeWrite(BoundingBox... bounds) {
+            return NO_PIN;
+        }
+
+        @Override
+        public void scan(BoundingBox bounds, Runnable resident, Consumer<RegionFile.Contents> stored) {
+            resident.run();
+        }
+
+        @Override
+        public void discard(ClaimType type) {
+        }
+    };
+
+    void beforeRead(int blockX, int blockZ);
+
+    Pin beforeWrite(BoundingBox... bounds);
+
+    // A null bounds visits every stored region. The resident pass must not go through the guard.
+    void scan(BoundingBox bounds, Runnable resident, Consumer<RegionFile.Contents> stored);
+
+    // Drops one claim type, and plots whose parent has that type, from every stored region.
+    void discard(ClaimType type);
+
+    interface Pin {
+        void release();
+    }
+}
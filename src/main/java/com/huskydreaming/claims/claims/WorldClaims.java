@@ -1,29 +1,66 @@
 package com.huskydreaming.claims.claims;
 
+import com.huskydreaming.claims.enumeration.BlockFace;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.jfr.ClaimLookupEvent;
 import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
 import com.huskydreaming.claims.model.claims.ChunkClaim;
 import com.huskydreaming.claims.model.claims.PlotClaim;
 import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
 import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
 import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.registry.UuidDictionary;
+import com.huskydreaming.claims.trace.ClaimTracer;
 
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public final class WorldClaims {
 
+    private static final BlockFace[] FACES = BlockFace.values();
+
     private final UUID worldId;
+    private final ClaimChangeFeed feed;
 
     private final AreaClaims areaClaims;
     private final ChunkClaims chunkClaims;
     private final PlotClaims plotClaims;
+    private final EffectivePermissions permissions;
+    private final LongAdder permissionWrites = new LongAdder();
+
+    private volatile RegionPager pager;
+    private volatile ClaimTracer tracer;
 
     public WorldClaims(UUID worldId) {
+        this(worldId, new ClaimChangeFeed());
+    }
+
+    public WorldClaims(UUID worldId, ClaimChangeFeed feed) {
+        this(worldId, feed, ChunkClaimStore.onHeap());
+    }
+
+    public WorldClaims(UUID worldId, ClaimChangeFeed feed, ChunkClaimStore chunkStore) {
         this.worldId = Objects.requireNonNull(worldId, "worldId");
-        this.areaClaims = new AreaClaims(worldId);
-        this.chunkClaims = new ChunkClaims(worldId);
-        this.plotClaims = new PlotClaims(worldId);
+        this.feed = Objects.requireNonNull(feed, "feed");
+        this.areaClaims = new AreaClaims(worldId, feed);
+        this.chunkClaims = new ChunkClaims(worldId, feed, chunkStore);
+        this.plotClaims = new PlotClaims(worldId, areaClaims, chunkClaims, feed);
+        this.permissions = new EffectivePermissions(areaClaims, chunkClaims, plotClaims);
+
+        areaClaims.removalListener(plotClaims::removeChildren);
+        chunkClaims.removalListener(plotClaims::removeChildren);
+        areaClaims.resizeGuard(plotClaims::childrenFit);
     }
 
     public UUID worldId() {
@@ -33,6 +70,58 @@ public final class WorldClaims {
     public Optional<ResolvedClaim> getClaimAt(BlockPosition position) {
         Objects.requireNonNull(position, "position");
 
+        ClaimTracer tracer = this.tracer;
+        if (tracer == null || !tracer.sample()) {
+            return lookup(position);
+        }
+
+        long start = System.nanoTime();
+        Optional<ResolvedClaim> resolved = lookup(position);
+        tracer.lookup(position, start, System.nanoTime() - start);
+        return resolved;
+    }
+
+    // Without a recording the JIT folds isEnabled() and drops the event allocation, so the
+    // untimed branch is the whole cost.
+    private Optional<ResolvedClaim> lookup(BlockPosition position) {
+        ClaimLookupEvent event = new ClaimLookupEvent();
+        if (!event.isEnabled()) {
+            return readConsistent(() -> resolve(position));
+        }
+
+        event.begin();
+        Optional<ResolvedClaim> resolved = readConsistent(() -> resolve(position));
+        if (event.shouldCommit()) {
+            event.describe(worldId, ClaimLookupEvent.GET_CLAIM_AT, position, resolved.orElse(null), true);
+            event.commit();
+        }
+        return resolved;
+    }
+
+    // Runs a read against the indexes. A region loaded or evicted mid-read invalidates the
+    // stamp, so a torn read is never returned. Reads spanning several collections, like a map
+    // tile, go through here too.
+    public <T> T readConsistent(Supplier<T> read) {
+        RegionPager pager = this.pager;
+        if (pager == null) {
+            return read.get();
+        }
+
+        while (true) {
+            long stamp = pager.optimisticStamp();
+            if (stamp == 0L) {
+                pager.awaitWriter();
+                continue;
+            }
+
+            T result = read.get();
+            if (pager.validate(stamp)) {
+                return result;
+            }
+        }
+    }
+
+    Optional<ResolvedClaim> resolve(BlockPosition position) {
         PlotClaim plot = plotClaims.getAt(position);
         if (plot != null) {
             return Optional.of(ResolvedClaim.of(plot));
@@ -51,6 +140,104 @@ public final class WorldClaims {
         return Optional.empty();
     }
 
+    // True when both positions resolve to the same claim, or both to none. Positions sharing a
+    // cell share their index probes, which is the usual case for flow, spread and pistons.
+    public boolean sameClaim(BlockPosition a, BlockPosition b) {
+        Objects.requireNonNull(a, "a");
+        Objects.requireNonNull(b, "b");
+
+        ClaimTracer tracer = this.tracer;
+        if (tracer == null || !tracer.sample()) {
+            return sameClaimConsistent(a, b);
+        }
+
+        long start = System.nanoTime();
+        boolean same = sameClaimConsistent(a, b);
+        tracer.pair(a, b, start, System.nanoTime() - start);
+        return same;
+    }
+
+    // Bit face.bit() is set for every neighbour resolving to the same claim as the centre.
+    public int sameClaimNeighbours(BlockPosition center) {
+        Objects.requireNonNull(center, "center");
+
+        ClaimTracer tracer = this.tracer;
+        if (tracer == null || !tracer.sample()) {
+            return sameClaimNeighboursConsistent(center);
+        }
+
+        long start = System.nanoTime();
+        int mask = sameClaimNeighboursConsistent(center);
+        tracer.neighbours(center, start, System.nanoTime() - start);
+        return mask;
+    }
+
+    private boolean sameClaimConsistent(BlockPosition a, BlockPosition b) {
+        return readConsistent(() -> {
+            ClaimIndex<PlotClaim> plotIndex = plotClaims.index();
+            ClaimIndex<AreaClaim> areaIndex = areaClaims.index();
+            ClaimBucket<PlotClaim> plots = plotClaims.bucketAt(plotIndex, a.x(), a.z());
+            ClaimBucket<AreaClaim> areas = areaClaims.bucketAt(areaIndex, a.x(), a.z());
+            return sameClaimAs(plotIndex, areaIndex, a, plots, areas, volumeAt(a, plots, areas), b);
+        });
+    }
+
+    private int sameClaimNeighboursConsistent(BlockPosition center) {
+        return readConsistent(() -> {
+            ClaimIndex<PlotClaim> plotIndex = plotClaims.index();
+            ClaimIndex<AreaClaim> areaIndex = areaClaims.index();
+            ClaimBucket<PlotClaim> plots = plotClaims.bucketAt(plotIndex, center.x(), center.z());
+            ClaimBucket<AreaClaim> areas = areaClaims.bucketAt(areaIndex, center.x(), center.z());
+            BoundedClaim volume = volumeAt(center, plots, areas);
+
+            int mask = 0;
+            for (BlockFace face : FACES) {
+                if (sameClaimAs(plotIndex, areaIndex, center, plots, areas, volume, face.relative(center))) {
+                    mask |= face.bit();
+                }
+            }
+            return mask;
+        });
+    }
+
+    private boolean sameClaimAs(
+            ClaimIndex<PlotClaim> plotIndex,
+            ClaimIndex<AreaClaim> areaIndex,
+            BlockPosition a,
+            ClaimBucket<PlotClaim> plotsA,
+            ClaimBucket<AreaClaim> areasA,
+            BoundedClaim volumeA,
+            BlockPosition b
+    ) {
+        // Positions sharing a square share its bucket, whatever layout each index uses.
+        boolean sameChunk = SpatialGrid.chunkKeyFromBlock(a.x(), a.z()) == SpatialGrid.chunkKeyFromBlock(b.x(), b.z());
+        ClaimBucket<PlotClaim> plotsB = plotIndex.keyAt(a.x(), a.z()) == plotIndex.keyAt(b.x(), b.z())
+                ? plotsA
+                : plotClaims.bucketAt(plotIndex, b.x(), b.z());
+        ClaimBucket<AreaClaim> areasB = areaIndex.keyAt(a.x(), a.z()) == areaIndex.keyAt(b.x(), b.z())
+                ? areasA
+                : areaClaims.bucketAt(areaIndex, b.x(), b.z());
+
+        BoundedClaim volumeB = volumeAt(b, plotsB, areasB);
+        if (volumeA != null || volumeB != null) {
+            return volumeA == volumeB;
+        }
+
+        // Chunk claims cover whole columns, so one chunk always holds a single claim or none.
+        if (sameChunk) {
+            return true;
+        }
+        return chunkClaims.getAt(a.x(), a.z()) == null && chunkClaims.getAt(b.x(), b.z()) == null;
+    }
+
+    private static BoundedClaim volumeAt(BlockPosition position, ClaimBucket<PlotClaim> plots, ClaimBucket<AreaClaim> areas) {
+        if (plots != null) {
+            PlotClaim plot = plots.find(position);
+            if (plot != null) return plot;
+        }
+        return areas == null ? null : areas.find(position);
+    }
+
     public boolean canPerformAction(
             UUID playerId,
             BlockPosition position,
@@ -60,9 +247,152 @@ public final class WorldClaims {
         Objects.requireNonNull(position, "position");
         Objects.requireNonNull(flag, "flag");
 
-        return getClaimAt(position)
-                .map(c -> c.can(playerId, flag))
-                .orElse(true);
+        return canPerformAction(UuidDictionary.lookup(playerId), position, flag);
+    }
+
+    public boolean canPerformAction(int playerRef, BlockPosition position, ClaimFlag flag) {
+        Objects.requireNonNull(position, "position");
+        Objects.requireNonNull(flag, "flag");
+
+        ClaimTracer tracer = this.tracer;
+        if (tracer == null || !tracer.sample()) {
+            return can(playerRef, position, flag);
+        }
+
+        long start = System.nanoTime();
+        boolean allowed = can(playerRef, position, flag);
+        tracer.check(playerRef, flag, position, start, System.nanoTime() - start);
+        return allowed;
+    }
+
+    private boolean can(int playerRef, BlockPosition position, ClaimFlag flag) {
+        ClaimLookupEvent event = new ClaimLookupEvent();
+        if (!event.isEnabled()) {
+            return permissions.allows(readConsistent(() -> resolve(position)).orElse(null), playerRef, flag);
+        }
+
+        event.begin();
+        Optional<ResolvedClaim> resolved = readConsistent(() -> resolve(position));
+        boolean allowed = permissions.allows(resolved.orElse(null), playerRef, flag);
+        if (event.shouldCommit()) {
+            event.describe(worldId, ClaimLookupEvent.CAN_PERFORM_ACTION, position, resolved.orElse(null), allowed);
+            event.commit();
+        }
+        return allowed;
+    }
+
+    public void updatePermissions(ResolvedClaim claim, Consumer<ClaimPermissions> update) {
+        Objects.requireNonNull(claim, "claim");
+        Objects.requireNonNull(update, "update");
+
+        if (!claim.worldId().equals(worldId)) {
+            throw new IllegalArgumentException("Claim belongs to another world");
+        }
+
+        ClaimPermissions permissions = claim.permissions();
+        if (permissions == null) {
+            throw new IllegalStateException("Claim has no permissions");
+        }
+
+        RegionPager pager = this.pager;
+        ResidencyGuard.Pin pin = pager == null ? ResidencyGuard.NO_PIN : pager.beforeWrite(boundsOf(claim));
+        try {
+            ResolvedClaim changed = claim;
+            if (claim instanceof ResolvedClaim.Chunk chunk) {
+                changed = ResolvedClaim.of(chunkClaims.updatePermissions(chunk.unwrap(), update));
+            } else {
+                update.accept(permissions);
+            }
+            this.permissions.recompile(changed);
+            permissionWrites.increment();
+            feed.publish(new ClaimEvent.PermissionsChanged(changed));
+        } finally {
+            pin.release();
+        }
+    }
+
+    // Applies an event published by another copy of this world, e.g. a replication leader or
+    // a recorded trace. Safe to replay: adds reserve ids, removals and permission changes
+    // resolve the local claim by id first.
+    public void apply(ClaimEvent event) {
+        Objects.requireNonNull(event, "event");
+
+        if (!event.worldId().equals(worldId)) {
+            throw new IllegalArgumentException("Event belongs to another world");
+        }
+
+        switch (event) {
+            case ClaimEvent.ChunkClaimed e -> chunkClaims.claim(e.claim());
+            case ClaimEvent.ChunkUnclaimed e -> {
+                ChunkClaim local = chunkClaims.getById(e.claim().id());
+                if (local != null) chunkClaims.unclaim(local.chunkPosition());
+            }
+            case ClaimEvent.ChunksClaimed e -> chunkClaims.claimAll(e.claims());
+            case ClaimEvent.ChunksUnclaimed e -> {
+                // Only the chunks still held by the same claims; the rest already went.
+                long[] keys = new long[e.claims().size()];
+                int count = 0;
+                for (ChunkClaim claim : e.claims()) {
+                    ChunkClaim local = chunkClaims.getById(claim.id());
+                    if (local != null) keys[count++] = SpatialGrid.chunkKey(local.chunkPosition());
+                }
+                if (count > 0) {
+                    chunkClaims.unclaimAll(e.claims().get(0).ownerId(), Arrays.copyOf(keys, count));
+                }
+            }
+            case ClaimEvent.AreaAdded e -> areaClaims.add(e.claim());
+            case ClaimEvent.AreaRemoved e -> areaClaims.remove(e.claim());
+            case ClaimEvent.AreaResized e -> {
+                AreaClaim local = areaClaims.getById(e.claim().id());
+                if (local != null) areaClaims.resize(local, e.claim().bounds());
+            }
+            case ClaimEvent.PlotAdded e -> plotClaims.add(e.plot());
+            case ClaimEvent.PlotRemoved e -> plotClaims.remove(e.plot());
+            case ClaimEvent.PlotResized e -> {
+                PlotClaim local = plotClaims.getById(e.plot().id());
+                if (local != null) plotClaims.resize(local, e.plot().bounds());
+            }
+            case ClaimEvent.PermissionsChanged e -> {
+                ResolvedClaim local = local(e.claim());
+                ClaimPermissions permissions = e.claim().permissions();
+                if (local != null && local.permissions() != null && permissions != null) {
+                    updatePermissions(local, p -> p.replace(permissions));
+                }
+            }
+            case ClaimEvent.ClaimsCleared e -> {
+                switch (e.type()) {
+                    case CHUNK -> chunkClaims.clear();
+                    case AREA -> areaClaims.clear();
+                    case PLOT -> plotClaims.clear();
+                }
+            }
+        }
+    }
+
+    private ResolvedClaim local(ResolvedClaim remote) {
+        return switch (remote.type()) {
+            case CHUNK -> {
+                ChunkClaim claim = chunkClaims.getById(remote.id());
+                yield claim == null ? null : ResolvedClaim.of(claim);
+            }
+            case AREA -> {
+                AreaClaim claim = areaClaims.getById(remote.id());
+                yield claim == null ? null : ResolvedClaim.of(claim);
+            }
+            case PLOT -> {
+                PlotClaim plot = plotClaims.getById(remote.id());
+                yield plot == null ? null : ResolvedClaim.of(plot);
+            }
+        };
+    }
+
+    public ClaimChangeFeed feed() {
+        return feed;
+    }
+
+    // World defaults, role overrides and the compiled masks canPerformAction checks against.
+    public EffectivePermissions permissions() {
+        return permissions;
     }
 
     public AreaClaims area() {
@@ -77,9 +407,76 @@ public final class WorldClaims {
         return plotClaims;
     }
 
+    // Attaches a tracer to every query, or detaches it when null.
+    public void tracer(ClaimTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public Optional<RegionPager> pager() {
+        return Optional.ofNullable(pager);
+    }
+
+    // Claim and permission changes in this world, counted once they are visible to lookups.
+    // Unlike the feed head, writes to other worlds sharing the feed leave it alone.
+    long writes() {
+        return chunkClaims.writes() + areaClaims.writes() + plotClaims.writes() + permissionWrites.sum();
+    }
+
+    // Counts are kept by the indexes, so this is cheap enough to poll.
+    public ClaimFootprint footprint() {
+        ChunkClaimStore store = chunkClaims.store();
+        int chunks = store.size();
+        return new ClaimFootprint(worldId, new ClaimFootprint.Structure(chunks, chunks, chunks, store.heapBytes()),
+                areaClaims.footprint(), plotClaims.footprint(), store.offHeapBytes());
+    }
+
+    // Moves chunk claims from the heap into direct memory. Lookups keep working throughout;
+    // false when they are already off-heap.
+    public boolean moveChunksOffHeap() {
+        synchronized (this) {
+            return chunkClaims.moveOffHeap();
+        }
+    }
+
     public void clear() {
+        RegionPager pager = this.pager;
+        if (pager != null) {
+            pager.discardAll();
+        }
+
         plotClaims.clear();
         areaClaims.clear();
         chunkClaims.clear();
     }
-}
\ No newline at end of file
+
+    // Flushes the pager and releases the chunk store's memory when the world unloads. Nothing
+    // is published, so followers keep their copy; the world itself is unusable afterwards.
+    public void unload() {
+        RegionPager pager = this.pager;
+        if (pager != null) {
+            pager.close();
+        }
+
+        chunkClaims.close();
+    }
+
+    void pager(RegionPager pager) {
+        Objects.requireNonNull(pager, "pager");
+        if (this.pager != null) {
+            throw new IllegalStateException("World already has a region pager");
+        }
+
+        this.pager = pager;
+        areaClaims.residencyGuard(pager);
+        chunkClaims.residencyGuard(pager);
+        plotClaims.residencyGuard(pager);
+    }
+
+    private static BoundingBox boundsOf(ResolvedClaim claim) {
+        return switch (claim) {
+            case ResolvedClaim.Plot plot -> plot.unwrap().bounds();
+            case ResolvedClaim.Area area -> area.unwrap().bounds();
+            case ResolvedClaim.Chunk chunk -> chunk.unwrap().chunkPosition().bounds();
+        };
+    }
+}
@@ -0,0 +1,596 @@
+package com.huskydreaming.claims.codec;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Binary layout shared by region files, replication and snapshots. Writers encode straight
+// into the caller's buffer and readers decode straight out of it.
+//
+// Every record is prefixed with its varint length. Readers skip bytes past the fields they
+// know, so a newer writer can append fields without breaking older readers; removing or
+// reordering fields needs a VERSION bump.
+public final class ClaimCodec {
+
+    public static final int VERSION = 4;
+
+    private static final int MAX_VARINT = 5;
+    private static final int MAX_VARLONG = 10;
+    private static final int UUID_SIZE = 16;
+    private static final int BOUNDS_MAX_SIZE = 3 * MAX_VARINT + 3 * MAX_VARINT;
+
+    // Set in a permission head when an inherit section follows the allow words (version 3).
+    // Earlier heads are bounded by the buffer size, so they never carry it.
+    private static final long INHERITS = 1L << 31;
+
+    private static final int CHUNK_CLAIMED = 0;
+    private static final int CHUNK_UNCLAIMED = 1;
+    private static final int AREA_ADDED = 2;
+    private static final int AREA_REMOVED = 3;
+    private static final int PLOT_ADDED = 4;
+    private static final int PLOT_REMOVED = 5;
+    private static final int PERMISSIONS_CHANGED = 6;
+    private static final int CLAIMS_CLEARED = 7;
+    private static final int CHUNKS_CLAIMED = 8;
+    private static final int CHUNKS_UNCLAIMED = 9;
+    private static final int AREA_RESIZED = 10;
+    private static final int PLOT_RESIZED = 11;
+
+    private ClaimCodec() {}
+
+    public static void writeHeader(ByteBuffer out) {
+        out.put((byte) VERSION);
+    }
+
+    public static int readHeader(ByteBuffer in) {
+        int version = Byte.toUnsignedInt(get(in));
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported codec version " + version);
+        }
+        return version;
+    }
+
+    public static int maxSize(ChunkClaim claim) {
+        return MAX_VARINT + 2 * UUID_SIZE + 2 * MAX_VARINT + maxPermissionsSize(claim.permissions());
+    }
+
+    public static int maxSize(AreaClaim claim) {
+        return maxBoundedSize(claim.permissions()) + maxSize(claim.outline());
+    }
+
+    public static int maxSize(BlockPolygon outline) {
+        return outline == null ? 1 : 3 * MAX_VARINT + outline.vertexCount() * 2 * MAX_VARLONG;
+    }
+
+    public static int maxSize(PlotClaim plot) {
+        return maxBoundedSize(plot.permissions()) + 1 + UUID_SIZE;
+    }
+
+    public static void writeChunk(ByteBuffer out, ChunkClaim claim) {
+        int start = beginRecord(out);
+        writeUuid(out, claim.id());
+        writeUuid(out, claim.ownerId());
+        writeVarInt(out, claim.chunkPosition().x());
+        writeVarInt(out, claim.chunkPosition().z());
+        writePermissions(out, claim.permissions());
+        endRecord(out, start);
+    }
+
+    public static ChunkClaim readChunk(ByteBuffer in, UUID worldId) {
+        int end = recordEnd(in);
+        UUID id = readUuid(in);
+        UUID ownerId = readUuid(in);
+        ChunkPosition chunkPosition = new ChunkPosition(readVarInt(in), readVarInt(in));
+        ClaimPermissions permissions = readPermissions(in);
+        skipTo(in, end);
+        return new ChunkClaim(id, worldId, ownerId, chunkPosition, permissions);
+    }
+
+    public static void writeArea(ByteBuffer out, AreaClaim claim) {
+        int start = beginRecord(out);
+        writeUuid(out, claim.id());
+        writeUuid(out, claim.ownerId());
+        writeBounds(out, claim.bounds());
+        writeVarInt(out, claim.priority());
+        writePermissions(out, claim.permissions());
+        writeOutline(out, claim.outline());
+        endRecord(out, start);
+    }
+
+    // Records from before version 4 end at the permissions and are always boxes.
+    public static AreaClaim readArea(ByteBuffer in, UUID worldId) {
+        int end = recordEnd(in);
+        UUID id = readUuid(in);
+        UUID ownerId = readUuid(in);
+        BoundingBox bounds = readBounds(in);
+        int priority = readVarInt(in);
+        ClaimPermissions permissions = readPermissions(in);
+        BlockPolygon outline = in.position() < end ? readOutline(in) : null;
+        skipTo(in, end);
+        return new AreaClaim(id, worldId, ownerId, bounds, permissions, priority, outline);
+    }
+
+    public static void writePlot(ByteBuffer out, PlotClaim plot) {
+        int start = beginRecord(out);
+        writeUuid(out, plot.id());
+        writeUuid(out, plot.ownerId());
+        writeBounds(out, plot.bounds());
+        writeVarInt(out, plot.priority());
+        writePermissions(out, plot.permissions());
+        writeType(out, plot.parentClaimType());
+        writeUuid(out, plot.parentClaimId());
+        endRecord(out, start);
+    }
+
+    public static PlotClaim readPlot(ByteBuffer in, UUID worldId) {
+        int end = recordEnd(in);
+        UUID id = readUuid(in);
+        UUID ownerId = readUuid(in);
+        BoundingBox bounds = readBounds(in);
+        int priority = readVarInt(in);
+        ClaimPermissions permissions = readPermissions(in);
+        ClaimType parentType = readType(in);
+        UUID parentId = readUuid(in);
+        skipTo(in, end);
+        return new PlotClaim(id, worldId, ownerId, bounds, permissions, priority, parentType, parentId);
+    }
+
+    public static int maxChunkBatchSize(Collection<ChunkClaim> claims) {
+        int size = MAX_VARINT;
+        for (ChunkClaim claim : claims) {
+            size += MAX_VARLONG + maxSize(claim);
+        }
+        return size;
+    }
+
+    // Sorted by morton key, each key written as the delta from the previous one; chunk
+    // records in a batch then drop their own coordinates. Version 1 used packed chunk keys,
+    // whose deltas cost five bytes at every row change.
+    public static void writeChunkBatch(ByteBuffer out, Collection<ChunkClaim> claims) {
+        ChunkClaim[] sorted = claims.toArray(new ChunkClaim[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(claim -> SpatialGrid.mortonKey(claim.chunkPosition())));
+
+        writeVarLong(out, sorted.length);
+
+        long previous = 0L;
+        for (ChunkClaim claim : sorted) {
+            long key = SpatialGrid.mortonKey(claim.chunkPosition());
+            writeVarLong(out, key - previous);
+            previous = key;
+
+            int start = beginRecord(out);
+            writeUuid(out, claim.id());
+            writeUuid(out, claim.ownerId());
+            writePermissions(out, claim.permissions());
+            endRecord(out, start);
+        }
+    }
+
+    public static List<ChunkClaim> readChunkBatch(ByteBuffer in, UUID worldId) {
+        return readChunkBatch(in, worldId, VERSION);
+    }
+
+    public static List<ChunkClaim> readChunkBatch(ByteBuffer in, UUID worldId, int version) {
+        int count = readCount(in);
+        List<ChunkClaim> claims = new ArrayList<>(count);
+
+        long key = 0L;
+        for (int i = 0; i < count; i++) {
+            key += readVarLong(in);
+
+            int end = recordEnd(in);
+            UUID id = readUuid(in);
+            UUID ownerId = readUuid(in);
+            ClaimPermissions permissions = readPermissions(in);
+            skipTo(in, end);
+
+            ChunkPosition position = version == 1
+                    ? ChunkPosition.fromKey(key)
+                    : new ChunkPosition(SpatialGrid.mortonX(key), SpatialGrid.mortonZ(key));
+            claims.add(new ChunkClaim(id, worldId, ownerId, position, permissions));
+        }
+        return claims;
+    }
+
+    // Events are a tag byte followed by the affected record, so a reader can rebuild the
+    // event without the world it came from.
+    public static int maxSize(ClaimEvent event) {
+        return 1 + switch (event) {
+            case ClaimEvent.ChunkClaimed e -> maxSize(e.claim());
+            case ClaimEvent.ChunkUnclaimed e -> maxSize(e.claim());
+            case ClaimEvent.ChunksClaimed e -> maxChunkBatchSize(e.claims());
+            case ClaimEvent.ChunksUnclaimed e -> maxChunkBatchSize(e.claims());
+            case ClaimEvent.AreaAdded e -> maxSize(e.claim());
+            case ClaimEvent.AreaRemoved e -> maxSize(e.claim());
+            case ClaimEvent.AreaResized e -> maxSize(e.previous()) + maxSize(e.claim());
+            case ClaimEvent.PlotAdded e -> maxSize(e.plot());
+            case ClaimEvent.PlotRemoved e -> maxSize(e.plot());
+            case ClaimEvent.PlotResized e -> maxSize(e.previous()) + maxSize(e.plot());
+            case ClaimEvent.PermissionsChanged e -> 1 + switch (e.claim()) {
+                case ResolvedClaim.Chunk chunk -> maxSize(chunk.unwrap());
+                case ResolvedClaim.Area area -> maxSize(area.unwrap());
+                case ResolvedClaim.Plot plot -> maxSize(plot.unwrap());
+            };
+            case ClaimEvent.ClaimsCleared e -> 1;
+        };
+    }
+
+    public static void writeEvent(ByteBuffer out, ClaimEvent event) {
+        switch (event) {
+            case ClaimEvent.ChunkClaimed e -> {
+                out.put((byte) CHUNK_CLAIMED);
+                writeChunk(out, e.claim());
+            }
+            case ClaimEvent.ChunkUnclaimed e -> {
+                out.put((byte) CHUNK_UNCLAIMED);
+                writeChunk(out, e.claim());
+            }
+            case ClaimEvent.ChunksClaimed e -> {
+                out.put((byte) CHUNKS_CLAIMED);
+                writeChunkBatch(out, e.claims());
+            }
+            case ClaimEvent.ChunksUnclaimed e -> {
+                out.put((byte) CHUNKS_UNCLAIMED);
+                writeChunkBatch(out, e.claims());
+            }
+            case ClaimEvent.AreaAdded e -> {
+                out.put((byte) AREA_ADDED);
+                writeArea(out, e.claim());
+            }
+            case ClaimEvent.AreaRemoved e -> {
+                out.put((byte) AREA_REMOVED);
+                writeArea(out, e.claim());
+            }
+            case ClaimEvent.AreaResized e -> {
+                out.put((byte) AREA_RESIZED);
+                writeArea(out, e.previous());
+                writeArea(out, e.claim());
+            }
+            case ClaimEvent.PlotAdded e -> {
+                out.put((byte) PLOT_ADDED);
+                writePlot(out, e.plot());
+            }
+            case ClaimEvent.PlotRemoved e -> {
+                out.put((byte) PLOT_REMOVED);
+                writePlot(out, e.plot());
+            }
+            case ClaimEvent.PlotResized e -> {
+                out.put((byte) PLOT_RESIZED);
+                writePlot(out, e.previous());
+                writePlot(out, e.plot());
+            }
+            case ClaimEvent.PermissionsChanged e -> {
+                out.put((byte) PERMISSIONS_CHANGED);
+                switch (e.claim()) {
+                    case ResolvedClaim.Chunk chunk -> {
+                        writeType(out, ClaimType.CHUNK);
+                        writeChunk(out, chunk.unwrap());
+                    }
+                    case ResolvedClaim.Area area -> {
+                        writeType(out, ClaimType.AREA);
+                        writeArea(out, area.unwrap());
+                    }
+                    case ResolvedClaim.Plot plot -> {
+                        writeType(out, ClaimType.PLOT);
+                        writePlot(out, plot.unwrap());
+                    }
+                }
+            }
+            case ClaimEvent.ClaimsCleared e -> {
+                out.put((byte) CLAIMS_CLEARED);
+                writeType(out, e.type());
+            }
+        }
+    }
+
+    public static ClaimEvent readEvent(ByteBuffer in, UUID worldId) {
+        int tag = Byte.toUnsignedInt(get(in));
+        return switch (tag) {
+            case CHUNK_CLAIMED -> new ClaimEvent.ChunkClaimed(readChunk(in, worldId));
+            case CHUNK_UNCLAIMED -> new ClaimEvent.ChunkUnclaimed(readChunk(in, worldId));
+            case AREA_ADDED -> new ClaimEvent.AreaAdded(readArea(in, worldId));
+            case AREA_REMOVED -> new ClaimEvent.AreaRemoved(readArea(in, worldId));
+            case PLOT_ADDED -> new ClaimEvent.PlotAdded(readPlot(in, worldId));
+            case PLOT_REMOVED -> new ClaimEvent.PlotRemoved(readPlot(in, worldId));
+            case PERMISSIONS_CHANGED -> new ClaimEvent.PermissionsChanged(switch (readType(in)) {
+                case CHUNK -> ResolvedClaim.of(readChunk(in, worldId));
+                case AREA -> ResolvedClaim.of(readArea(in, worldId));
+                case PLOT -> ResolvedClaim.of(readPlot(in, worldId));
+            });
+            case CLAIMS_CLEARED -> new ClaimEvent.ClaimsCleared(worldId, readType(in));
+            case CHUNKS_CLAIMED -> new ClaimEvent.ChunksClaimed(worldId, readChunkBatch(in, worldId));
+            case CHUNKS_UNCLAIMED -> new ClaimEvent.ChunksUnclaimed(worldId, readChunkBatch(in, worldId));
+            case AREA_RESIZED -> new ClaimEvent.AreaResized(readArea(in, worldId), readArea(in, worldId));
+            case PLOT_RESIZED -> new ClaimEvent.PlotResized(readPlot(in, worldId), readPlot(in, worldId));
+            default -> throw new IllegalArgumentException("Unknown event tag " + tag);
+        };
+    }
+
+    // The max corner is written as an extent from the min corner, usually one or two bytes.
+    public static void writeBounds(ByteBuffer out, BoundingBox bounds) {
+        writeVarInt(out, bounds.minX());
+        writeVarInt(out, bounds.minY());
+        writeVarInt(out, bounds.minZ());
+        writeVarLong(out, (long) bounds.maxX() - bounds.minX());
+        writeVarLong(out, (long) bounds.maxY() - bounds.minY());
+        writeVarLong(out, (long) bounds.maxZ() - bounds.minZ());
+    }
+
+    public static BoundingBox readBounds(ByteBuffer in) {
+        int minX = readVarInt(in);
+        int minY = readVarInt(in);
+        int minZ = readVarInt(in);
+        long maxX = minX + readVarLong(in);
+        long maxY = minY + readVarLong(in);
+        long maxZ = minZ + readVarLong(in);
+        if (maxX > Integer.MAX_VALUE || maxY > Integer.MAX_VALUE || maxZ > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bounds extent out of range");
+        }
+        return new BoundingBox(minX, minY, minZ, (int) maxX, (int) maxY, (int) maxZ);
+    }
+
+    // Vertex count, zero for a box, then the min corner and each vertex as an offset from it.
+    public static void writeOutline(ByteBuffer out, BlockPolygon outline) {
+        if (outline == null) {
+            writeVarLong(out, 0L);
+            return;
+        }
+
+        BoundingBox bounds = outline.bounds(0, 0);
+        writeVarLong(out, outline.vertexCount());
+        writeVarInt(out, bounds.minX());
+        writeVarInt(out, bounds.minZ());
+        for (int i = 0; i < outline.vertexCount(); i++) {
+            writeVarLong(out, (long) outline.x(i) - bounds.minX());
+            writeVarLong(out, (long) outline.z(i) - bounds.minZ());
+        }
+    }
+
+    public static BlockPolygon readOutline(ByteBuffer in) {
+        int count = readCount(in);
+        if (count == 0) {
+            return null;
+        }
+
+        int minX = readVarInt(in);
+        int minZ = readVarInt(in);
+        List<BlockPosition> corners = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long x = minX + readVarLong(in);
+            long z = minZ + readVarLong(in);
+            if (x > Integer.MAX_VALUE || z > Integer.MAX_VALUE || x < minX || z < minZ) {
+                throw new IllegalArgumentException("Outline vertex out of range");
+            }
+            corners.add(new BlockPosition((int) x, 0, (int) z));
+        }
+        return BlockPolygon.of(corners);
+    }
+
+    // Word count + 1 followed by the raw allow words; zero marks a claim without permissions.
+    // Layers that inherit flags set INHERITS in the head and append a counted inherit section.
+    public static void writePermissions(ByteBuffer out, ClaimPermissions permissions) {
+        if (permissions == null) {
+            writeVarLong(out, 0L);
+            return;
+        }
+
+        int words = permissions.wordCount();
+        int inheritedWords = permissions.inheritedWordCount();
+        writeVarLong(out, (words + 1L) | (inheritedWords > 0 ? INHERITS : 0L));
+        for (int i = 0; i < words; i++) {
+            out.putLong(permissions.word(i));
+        }
+
+        if (inheritedWords > 0) {
+            writeVarLong(out, inheritedWords);
+            for (int i = 0; i < inheritedWords; i++) {
+                out.putLong(permissions.inheritedWord(i));
+            }
+        }
+    }
+
+    public static ClaimPermissions readPermissions(ByteBuffer in) {
+        long head = readVarLong(in);
+        boolean inherits = (head & INHERITS) != 0;
+        head &= ~INHERITS;
+        if (head == 0L) {
+            return null;
+        }
+        if (head < 0L || head - 1 > in.remaining() / Long.BYTES) {
+            throw new IllegalArgumentException("Permission words exceed the buffer");
+        }
+
+        long[] bits = readWords(in, (int) head - 1);
+        long[] inherited = inherits ? readWords(in, readCount(in)) : new long[0];
+        return new ClaimPermissions(BitSet.valueOf(bits), BitSet.valueOf(inherited));
+    }
+
+    public static void writeType(ByteBuffer out, ClaimType type) {
+        out.put((byte) type.ordinal());
+    }
+
+    public static ClaimType readType(ByteBuffer in) {
+        int ordinal = Byte.toUnsignedInt(get(in));
+        ClaimType[] types = ClaimType.values();
+        if (ordinal >= types.length) {
+            throw new IllegalArgumentException("Unknown claim type " + ordinal);
+        }
+        return types[ordinal];
+    }
+
+    public static void writeUuid(ByteBuffer out, UUID uuid) {
+        out.putLong(uuid.getMostSignificantBits());
+        out.putLong(uuid.getLeastSignificantBits());
+    }
+
+    public static UUID readUuid(ByteBuffer in) {
+        if (in.remaining() < UUID_SIZE) {
+            throw new IllegalArgumentException("Truncated uuid");
+        }
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    // UTF-8 takes at most three bytes per UTF-16 char.
+    public static int maxSize(String value) {
+        return MAX_VARINT + 3 * value.length();
+    }
+
+    public static void writeString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.put(bytes);
+    }
+
+    public static String readString(ByteBuffer in) {
+        int length = readCount(in);
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Truncated string");
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Zigzag, so small negative coordinates stay small.
+    public static void writeVarInt(ByteBuffer out, int value) {
+        writeVarLong(out, Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+    }
+
+    public static int readVarInt(ByteBuffer in) {
+        long zigzag = readVarLong(in);
+        if ((zigzag >>> 32) != 0) {
+            throw new IllegalArgumentException("Varint out of int range");
+        }
+        int value = (int) zigzag;
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Unsigned LEB128.
+    public static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static long readVarLong(ByteBuffer in) {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = get(in);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static int readCount(ByteBuffer in) {
+        long count = readVarLong(in);
+        if (count < 0 || count > in.remaining() + 1L) {
+            throw new IllegalArgumentException("Count exceeds the buffer: " + count);
+        }
+        return (int) count;
+    }
+
+    private static int maxBoundedSize(ClaimPermissions permissions) {
+        return MAX_VARINT + 2 * UUID_SIZE + BOUNDS_MAX_SIZE + MAX_VARINT + maxPermissionsSize(permissions);
+    }
+
+    private static int maxPermissionsSize(ClaimPermissions permissions) {
+        if (permissions == null) {
+            return MAX_VARINT;
+        }
+        return 2 * MAX_VARINT + (permissions.wordCount() + permissions.inheritedWordCount()) * Long.BYTES;
+    }
+
+    private static long[] readWords(ByteBuffer in, int count) {
+        if (count > in.remaining() / Long.BYTES) {
+            throw new IllegalArgumentException("Permission words exceed the buffer");
+        }
+
+        long[] words = new long[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = in.getLong();
+        }
+        return words;
+    }
+
+    // Reserves one length byte; endRecord widens it in place for records of 128 bytes or more.
+    private static int beginRecord(ByteBuffer out) {
+        int start = out.position();
+        out.put((byte) 0);
+        return start;
+    }
+
+    private static void endRecord(ByteBuffer out, int start) {
+        int bodyStart = start + 1;
+        int length = out.position() - bodyStart;
+
+        int lengthSize = varLongSize(length);
+        if (lengthSize > 1) {
+            int shift = lengthSize - 1;
+            if (out.remaining() < shift) {
+                throw new BufferOverflowException();
+            }
+            for (int i = out.position() - 1; i >= bodyStart; i--) {
+                out.put(i + shift, out.get(i));
+            }
+            out.position(out.position() + shift);
+        }
+
+        int position = out.position();
+        out.position(start);
+        writeVarLong(out, length);
+        out.position(position);
+    }
+
+    private static int recordEnd(ByteBuffer in) {
+        int length = readCount(in);
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Record exceeds the buffer");
+        }
+        return in.position() + length;
+    }
+
+    private static void skipTo(ByteBuffer in, int end) {
+        if (in.position() > end) {
+            throw new IllegalArgumentException("Record overran its length");
+        }
+        in.position(end);
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static byte get(ByteBuffer in) {
+        try {
+            return in.get();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated input", e);
+        }
+    }
+}
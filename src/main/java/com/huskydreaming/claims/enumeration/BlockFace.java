@@ -0,0 +1,36 @@
+package com.huskydreaming.claims.enumeration;
+
+import com.huskydreaming.claims.model.positions.BlockPosition;
+
+public enum BlockFace {
+    DOWN(0, -1, 0),
+    UP(0, 1, 0),
+    NORTH(0, 0, -1),
+    SOUTH(0, 0, 1),
+    WEST(-1, 0, 0),
+    EAST(1, 0, 0);
+
+    public static final int ALL = (1 << 6) - 1;
+
+    private final int offsetX;
+    private final int offsetY;
+    private final int offsetZ;
+
+    BlockFace(int offsetX, int offsetY, int offsetZ) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.offsetZ = offsetZ;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean in(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public BlockPosition relative(BlockPosition position) {
+        return new BlockPosition(position.x() + offsetX, position.y() + offsetY, position.z() + offsetZ);
+    }
+}
@@ -0,0 +1,7 @@
+package com.huskydreaming.claims.enumeration;
+
+public enum ClaimRole {
+    OWNER,
+    MEMBER,
+    VISITOR
+}
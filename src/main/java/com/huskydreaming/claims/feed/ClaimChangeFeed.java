@@ -0,0 +1,119 @@
+package com.huskydreaming.claims.feed;
+
+import com.huskydreaming.claims.model.events.ClaimEvent;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public final class ClaimChangeFeed {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long UNPUBLISHED = -1L;
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicReferenceArray<ClaimEvent> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray times;
+    private final AtomicLong next = new AtomicLong();
+
+    public ClaimChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ClaimChangeFeed(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 2");
+        }
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.times = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, UNPUBLISHED);
+        }
+    }
+
+    // Never blocks on consumers: a slow cursor is overrun and told so on its next drain.
+    public long publish(ClaimEvent event) {
+        Objects.requireNonNull(event, "event");
+
+        long sequence = next.getAndIncrement();
+        int index = (int) (sequence & mask);
+
+        // Only wait for the producer of the previous lap of this slot, never for a reader.
+        long previous = sequence - capacity;
+        if (previous >= 0) {
+            while (sequences.get(index) != previous) {
+                Thread.onSpinWait();
+            }
+        }
+
+        sequences.set(index, UNPUBLISHED);
+        events.set(index, event);
+        times.set(index, System.nanoTime());
+        sequences.set(index, sequence);
+        return sequence;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long headSequence() {
+        return next.get();
+    }
+
+    public long oldestSequence() {
+        return Math.max(0L, next.get() - capacity);
+    }
+
+    public ClaimFeedCursor cursor() {
+        return new ClaimFeedCursor(this, next.get());
+    }
+
+    public ClaimFeedCursor cursor(long fromSequence) {
+        if (fromSequence < 0) {
+            throw new IllegalArgumentException("fromSequence < 0");
+        }
+        return new ClaimFeedCursor(this, fromSequence);
+    }
+
+    // Also stores the System.nanoTime() the event was published at into times[at].
+    ClaimEvent read(long sequence, long[] times, int at) {
+        int index = (int) (sequence & mask);
+
+        long published = sequences.get(index);
+        if (published == sequence) {
+            ClaimEvent event = events.get(index);
+            long time = this.times.get(index);
+            if (sequences.get(index) == sequence) {
+                times[at] = time;
+                return event;
+            }
+            throw new Overrun();
+        }
+
+        if (published > sequence || sequence < next.get() - capacity) {
+            throw new Overrun();
+        }
+
+        return null;
+    }
+
+    static final class Overrun extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        Overrun() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.huskydreaming.claims.feed;
+
+import com.huskydreaming.claims.model.events.ClaimEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+public final class ClaimFeedCursor {
+
+    private final ClaimChangeFeed feed;
+    private final List<ClaimEvent> batch = new ArrayList<>();
+
+    private long[] times = new long[16];
+
+    private long nextSequence;
+
+    ClaimFeedCursor(ClaimChangeFeed feed, long nextSequence) {
+        this.feed = Objects.requireNonNull(feed, "feed");
+        this.nextSequence = nextSequence;
+    }
+
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    public long lag() {
+        return Math.max(0L, feed.headSequence() - nextSequence);
+    }
+
+    public int drain(ClaimFeedSubscriber subscriber, int maxBatch) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch < 1");
+        }
+
+        long firstSequence = nextSequence;
+        batch.clear();
+
+        try {
+            while (batch.size() < maxBatch) {
+                if (batch.size() == times.length) {
+                    times = Arrays.copyOf(times, times.length * 2);
+                }
+
+                ClaimEvent event = feed.read(nextSequence, times, batch.size());
+                if (event == null) break;
+
+                batch.add(event);
+                nextSequence++;
+            }
+        } catch (ClaimChangeFeed.Overrun overrun) {
+            deliver(subscriber, firstSequence);
+
+            long lostFrom = nextSequence;
+            nextSequence = feed.oldestSequence();
+            subscriber.onOverrun(lostFrom, nextSequence);
+            return batch.size();
+        }
+
+        deliver(subscriber, firstSequence);
+        return batch.size();
+    }
+
+    private void deliver(ClaimFeedSubscriber subscriber, long firstSequence) {
+        if (!batch.isEmpty()) {
+            subscriber.onBatch(firstSequence, batch, times);
+        }
+    }
+}
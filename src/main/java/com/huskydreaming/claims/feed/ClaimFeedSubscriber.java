@@ -0,0 +1,21 @@
+package com.huskydreaming.claims.feed;
+
+import com.huskydreaming.claims.model.events.ClaimEvent;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface ClaimFeedSubscriber {
+
+    // The list is reused between batches and must not be retained.
+    void onBatch(long firstSequence, List<ClaimEvent> events);
+
+    // Same batch with the System.nanoTime() each event was published at. The array is reused
+    // too and may be longer than the batch.
+    default void onBatch(long firstSequence, List<ClaimEvent> events, long[] publishedNanos) {
+        onBatch(firstSequence, events);
+    }
+
+    default void onOverrun(long lostFromSequence, long resumeSequence) {
+    }
+}
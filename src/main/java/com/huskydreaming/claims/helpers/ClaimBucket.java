@@ -0,0 +1,331 @@
+package com.huskydreaming.claims.helpers;
+
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+// Immutable set of claims sharing one grid cell. Writers replace the bucket, readers never lock.
+// Entries are kept in descending priority order so the first containing entry wins, and their
+// bounds are packed into one int array so a probe never dereferences claims it does not return.
+// Entries flagged partial only cover part of the cell, so a hit inside their box is confirmed
+// against the claim's own shape.
+public final class ClaimBucket<T extends BoundedClaim> {
+
+    // BlockPolygon.OUTSIDE, PARTIAL or FULL for a claim over one grid square.
+    @FunctionalInterface
+    public interface Coverage<T> {
+        int of(T claim, int gridX, int gridZ);
+    }
+
+    public static final int VERTICAL_THRESHOLD = 8;
+
+    private static final int STRIDE = 6;
+
+    private final Object[] claims;
+    private final int[] bounds;
+    private final boolean[] partial;
+
+    // Y slabs are only built for dense, vertically stacked buckets; slab i covers [slabStarts[i], slabStarts[i + 1]).
+    private final long[] slabStarts;
+    private final int[][] slabMembers;
+
+    private ClaimBucket(Object[] claims, boolean[] partial) {
+        this.claims = claims;
+        this.bounds = pack(claims);
+        this.partial = anyTrue(partial) ? partial : null;
+
+        int[][] members = null;
+        long[] starts = null;
+        if (claims.length > VERTICAL_THRESHOLD) {
+            starts = slabStarts(bounds, claims.length);
+            members = slabMembers(bounds, claims.length, starts);
+        }
+
+        this.slabStarts = members == null ? null : starts;
+        this.slabMembers = members;
+    }
+
+    public static <T extends BoundedClaim> ClaimBucket<T> of(T claim) {
+        return of(claim, false);
+    }
+
+    public static <T extends BoundedClaim> ClaimBucket<T> of(T claim, boolean partial) {
+        Objects.requireNonNull(claim, "claim");
+        return new ClaimBucket<>(new Object[]{claim}, new boolean[]{partial});
+    }
+
+    public ClaimBucket<T> with(T claim) {
+        return with(claim, false);
+    }
+
+    public ClaimBucket<T> with(T claim, boolean partial) {
+        Objects.requireNonNull(claim, "claim");
+
+        // After every entry of equal or higher priority, so ties keep insertion order.
+        int index = 0;
+        while (index < claims.length && ((BoundedClaim) claims[index]).priority() >= claim.priority()) {
+            index++;
+        }
+
+        Object[] next = new Object[claims.length + 1];
+        System.arraycopy(claims, 0, next, 0, index);
+        next[index] = claim;
+        System.arraycopy(claims, index, next, index + 1, claims.length - index);
+
+        boolean[] flags = new boolean[next.length];
+        if (this.partial != null) {
+            System.arraycopy(this.partial, 0, flags, 0, index);
+            System.arraycopy(this.partial, index, flags, index + 1, claims.length - index);
+        }
+        flags[index] = partial;
+        return new ClaimBucket<>(next, flags);
+    }
+
+    // Returns this bucket when the claim is absent and null when the bucket becomes empty.
+    public ClaimBucket<T> without(T claim) {
+        Objects.requireNonNull(claim, "claim");
+
+        int index = indexOf(claim);
+        if (index < 0) {
+            return this;
+        }
+
+        if (claims.length == 1) {
+            return null;
+        }
+
+        Object[] next = new Object[claims.length - 1];
+        System.arraycopy(claims, 0, next, 0, index);
+        System.arraycopy(claims, index + 1, next, index, claims.length - index - 1);
+
+        boolean[] flags = null;
+        if (partial != null) {
+            flags = new boolean[next.length];
+            System.arraycopy(partial, 0, flags, 0, index);
+            System.arraycopy(partial, index + 1, flags, index, claims.length - index - 1);
+        }
+        return new ClaimBucket<>(next, flags);
+    }
+
+    // Swaps an entry for a resized copy in one step, keeping its position. Returns this bucket
+    // when the claim is absent.
+    public ClaimBucket<T> replace(T claim, T replacement) {
+        return replace(claim, replacement, false);
+    }
+
+    public ClaimBucket<T> replace(T claim, T replacement, boolean partial) {
+        Objects.requireNonNull(claim, "claim");
+        Objects.requireNonNull(replacement, "replacement");
+
+        int index = indexOf(claim);
+        if (index < 0) {
+            return this;
+        }
+
+        if (claim.priority() != replacement.priority()) {
+            ClaimBucket<T> without = without(claim);
+            return without == null ? of(replacement, partial) : without.with(replacement, partial);
+        }
+
+        Object[] next = claims.clone();
+        next[index] = replacement;
+        boolean[] flags = this.partial == null ? new boolean[next.length] : this.partial.clone();
+        flags[index] = partial;
+        return new ClaimBucket<>(next, flags);
+    }
+
+    // Re-buckets a claim whose bounds changed, touching only the delta: grid squares covered
+    // before and after swap the entry, entering squares gain it and leaving squares lose it.
+    // Kept and entering squares go first so the claim never drops out of one it still covers.
+    public static <T extends BoundedClaim> void move(Map<Long, ClaimBucket<T>> buckets, T claim, T moved, IntUnaryOperator gridCoord) {
+        move(buckets, claim, moved, gridCoord, (target, x, z) -> BlockPolygon.FULL);
+    }
+
+    // Squares the moved claim's box touches but its shape misses count as leaving.
+    public static <T extends BoundedClaim> void move(Map<Long, ClaimBucket<T>> buckets, T claim, T moved, IntUnaryOperator gridCoord, Coverage<T> coverage) {
+        BoundingBox from = claim.bounds();
+        BoundingBox to = moved.bounds();
+        int fromMinX = gridCoord.applyAsInt(from.minX()), fromMaxX = gridCoord.applyAsInt(from.maxX());
+        int fromMinZ = gridCoord.applyAsInt(from.minZ()), fromMaxZ = gridCoord.applyAsInt(from.maxZ());
+        int toMinX = gridCoord.applyAsInt(to.minX()), toMaxX = gridCoord.applyAsInt(to.maxX());
+        int toMinZ = gridCoord.applyAsInt(to.minZ()), toMaxZ = gridCoord.applyAsInt(to.maxZ());
+
+        for (int x = toMinX; x <= toMaxX; x++) {
+            for (int z = toMinZ; z <= toMaxZ; z++) {
+                boolean kept = x >= fromMinX && x <= fromMaxX && z >= fromMinZ && z <= fromMaxZ;
+                int covered = coverage.of(moved, x, z);
+                if (covered == BlockPolygon.OUTSIDE) {
+                    if (kept) buckets.computeIfPresent(SpatialGrid.pack(x, z), (key, bucket) -> bucket.without(claim));
+                    continue;
+                }
+
+                boolean partial = covered == BlockPolygon.PARTIAL;
+                buckets.compute(SpatialGrid.pack(x, z), (key, bucket) -> {
+                    if (bucket == null) return of(moved, partial);
+                    return kept && bucket.contains(claim) ? bucket.replace(claim, moved, partial) : bucket.with(moved, partial);
+                });
+            }
+        }
+
+        for (int x = fromMinX; x <= fromMaxX; x++) {
+            for (int z = fromMinZ; z <= fromMaxZ; z++) {
+                if (x >= toMinX && x <= toMaxX && z >= toMinZ && z <= toMaxZ) continue;
+                buckets.computeIfPresent(SpatialGrid.pack(x, z), (key, bucket) -> bucket.without(claim));
+            }
+        }
+    }
+
+    public boolean contains(T claim) {
+        return indexOf(claim) >= 0;
+    }
+
+    public int size() {
+        return claims.length;
+    }
+
+    public boolean isVerticallyPartitioned() {
+        return slabMembers != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T find(BlockPosition position) {
+        int x = position.x();
+        int y = position.y();
+        int z = position.z();
+
+        if (slabMembers == null) {
+            for (int i = 0, offset = 0; i < claims.length; i++, offset += STRIDE) {
+                if (contains(offset, x, y, z) && confirms(i, position)) {
+                    return (T) claims[i];
+                }
+            }
+            return null;
+        }
+
+        int slab = slabOf(y);
+        if (slab < 0) {
+            return null;
+        }
+
+        for (int index : slabMembers[slab]) {
+            if (contains(index * STRIDE, x, y, z) && confirms(index, position)) {
+                return (T) claims[index];
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> claims() {
+        return (List<T>) (List<?>) List.of(claims);
+    }
+
+    private boolean contains(int offset, int x, int y, int z) {
+        return x >= bounds[offset] && x <= bounds[offset + 3]
+                && z >= bounds[offset + 2] && z <= bounds[offset + 5]
+                && y >= bounds[offset + 1] && y <= bounds[offset + 4];
+    }
+
+    public boolean isPartial(T claim) {
+        int index = indexOf(claim);
+        return index >= 0 && partial != null && partial[index];
+    }
+
+    private boolean confirms(int index, BlockPosition position) {
+        return partial == null || !partial[index] || ((BoundedClaim) claims[index]).contains(position);
+    }
+
+    private int indexOf(T claim) {
+        for (int i = 0; i < claims.length; i++) {
+            if (claims[i].equals(claim)) return i;
+        }
+        return -1;
+    }
+
+    private int slabOf(int y) {
+        int index = Arrays.binarySearch(slabStarts, y);
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        return index >= slabMembers.length ? -1 : index;
+    }
+
+    private static boolean anyTrue(boolean[] flags) {
+        if (flags == null) return false;
+        for (boolean flag : flags) {
+            if (flag) return true;
+        }
+        return false;
+    }
+
+    private static int[] pack(Object[] claims) {
+        int[] packed = new int[claims.length * STRIDE];
+        for (int i = 0, offset = 0; i < claims.length; i++, offset += STRIDE) {
+            BoundingBox box = ((BoundedClaim) claims[i]).bounds();
+            packed[offset] = box.minX();
+            packed[offset + 1] = box.minY();
+            packed[offset + 2] = box.minZ();
+            packed[offset + 3] = box.maxX();
+            packed[offset + 4] = box.maxY();
+            packed[offset + 5] = box.maxZ();
+        }
+        return packed;
+    }
+
+    private static long[] slabStarts(int[] bounds, int count) {
+        long[] edges = new long[count * 2];
+        for (int i = 0; i < count; i++) {
+            edges[i * 2] = bounds[i * STRIDE + 1];
+            edges[i * 2 + 1] = bounds[i * STRIDE + 4] + 1L;
+        }
+
+        Arrays.sort(edges);
+
+        int distinct = 0;
+        for (int i = 0; i < edges.length; i++) {
+            if (i == 0 || edges[i] != edges[distinct - 1]) {
+                edges[distinct++] = edges[i];
+            }
+        }
+        return Arrays.copyOf(edges, distinct);
+    }
+
+    // Null when the claims overlap vertically so much that slabs would not narrow the scan.
+    // Members are listed in entry order, so each slab keeps the priority ordering.
+    private static int[][] slabMembers(int[] bounds, int count, long[] starts) {
+        int slabCount = starts.length - 1;
+        int[] counts = new int[slabCount];
+        int[] firstSlab = new int[count];
+        int[] lastSlab = new int[count];
+
+        int limit = count / 2;
+        for (int i = 0; i < count; i++) {
+            firstSlab[i] = Arrays.binarySearch(starts, bounds[i * STRIDE + 1]);
+            lastSlab[i] = Arrays.binarySearch(starts, bounds[i * STRIDE + 4] + 1L) - 1;
+
+            for (int slab = firstSlab[i]; slab <= lastSlab[i]; slab++) {
+                if (++counts[slab] > limit) {
+                    return null;
+                }
+            }
+        }
+
+        int[][] members = new int[slabCount][];
+        for (int slab = 0; slab < slabCount; slab++) {
+            members[slab] = new int[counts[slab]];
+            counts[slab] = 0;
+        }
+
+        for (int i = 0; i < count; i++) {
+            for (int slab = firstSlab[i]; slab <= lastSlab[i]; slab++) {
+                members[slab][counts[slab]++] = i;
+            }
+        }
+        return members;
+    }
+}
@@ -0,0 +1,95 @@
+package com.huskydreaming.claims.helpers;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Background pass shared by the feed followers and world maintenance jobs: runs the body with a
+// fixed delay on a daemon thread of its own. A failed run is kept in lastFailure() and the next
+// one tries again. A null interval schedules nothing and leaves every run to the owner.
+public final class PeriodicTask implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Body {
+        void run() throws Exception;
+    }
+
+    private final String threadName;
+    private final Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile Exception lastFailure;
+
+    // Only checks the interval, so owners can reject it before acquiring anything.
+    public PeriodicTask(String threadName, Duration interval) {
+        this.threadName = Objects.requireNonNull(threadName, "threadName");
+
+        if (interval != null && (interval.isNegative() || interval.isZero())) {
+            throw new IllegalArgumentException("interval <= 0");
+        }
+        this.interval = interval;
+    }
+
+    // Call it last in the owner's constructor; the first run starts one interval later.
+    public synchronized void start(Body body) {
+        Objects.requireNonNull(body, "body");
+        if (scheduler != null) {
+            throw new IllegalStateException("Task already started");
+        }
+
+        if (interval == null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long nanos = interval.toNanos();
+        scheduler.scheduleWithFixedDelay(() -> runQuietly(body), nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Optional<Exception> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    // For owners that also run the body directly and report those runs in lastFailure() too.
+    public void succeeded() {
+        lastFailure = null;
+    }
+
+    public void failed(Exception failure) {
+        lastFailure = Objects.requireNonNull(failure, "failure");
+    }
+
+    // Stops scheduling and waits for a run in progress, so the owner can make a last pass alone.
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runQuietly(Body body) {
+        try {
+            body.run();
+            succeeded();
+        } catch (Exception e) {
+            // Kept in lastFailure; the next run tries again.
+            failed(e);
+        }
+    }
+}
@@ -5,12 +5,18 @@ import com.huskydreaming.claims.model.positions.BoundingBox;
 import com.huskydreaming.claims.model.positions.ChunkPosition;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public final class SpatialGrid {
 
     public static final int CHUNK_SIZE = 32;
     public static final int CELL_SIZE = 8;
+    public static final int REGION_CHUNKS = 16;
+    public static final int REGION_SIZE = REGION_CHUNKS * CHUNK_SIZE;
+
+    private static final long MORTON_EVEN = 0x5555_5555_5555_5555L;
+    private static final long MORTON_ODD = 0xAAAA_AAAA_AAAA_AAAAL;
 
     public static int chunkCoord(int blockCoord) {
         return Math.floorDiv(blockCoord, CHUNK_SIZE);
@@ -45,6 +51,27 @@ public final class SpatialGrid {
         return pack(cellCoord(blockX), cellCoord(blockZ));
     }
 
+    public static int regionCoord(int blockCoord) {
+        return Math.floorDiv(blockCoord, REGION_SIZE);
+    }
+
+    public static long regionKeyFromBlock(int blockX, int blockZ) {
+        return pack(regionCoord(blockX), regionCoord(blockZ));
+    }
+
+    public static long regionKeyFromChunk(int chunkX, int chunkZ) {
+        return pack(Math.floorDiv(chunkX, REGION_CHUNKS), Math.floorDiv(chunkZ, REGION_CHUNKS));
+    }
+
+    public static BoundingBox regionBounds(long regionKey) {
+        int minX = unpackX(regionKey) * REGION_SIZE;
+        int minZ = unpackZ(regionKey) * REGION_SIZE;
+        return new BoundingBox(
+                minX, Integer.MIN_VALUE, minZ,
+                minX + REGION_SIZE - 1, Integer.MAX_VALUE, minZ + REGION_SIZE - 1
+        );
+    }
+
     public static long pack(int x, int z) {
         return (((long) x) << 32) ^ (z & 0xFFFF_FFFFL);
     }
@@ -57,6 +84,168 @@ public final class SpatialGrid {
         return (int) key;
     }
 
+    // Z-order key: the bits of x and z interleaved, x on the even bits. Sign bits are flipped
+    // first and the key's top bit afterwards, so keys sort by plain signed comparison and
+    // neighbouring coordinates mostly get nearby keys.
+    public static long mortonKey(int x, int z) {
+        long ux = Integer.toUnsignedLong(x ^ Integer.MIN_VALUE);
+        long uz = Integer.toUnsignedLong(z ^ Integer.MIN_VALUE);
+        return (Long.expand(ux, MORTON_EVEN) | Long.expand(uz, MORTON_ODD)) ^ Long.MIN_VALUE;
+    }
+
+    public static int mortonX(long key) {
+        return (int) Long.compress(key ^ Long.MIN_VALUE, MORTON_EVEN) ^ Integer.MIN_VALUE;
+    }
+
+    public static int mortonZ(long key) {
+        return (int) Long.compress(key ^ Long.MIN_VALUE, MORTON_ODD) ^ Integer.MIN_VALUE;
+    }
+
+    public static long mortonKey(ChunkPosition chunkPosition) {
+        return mortonKey(chunkPosition.x(), chunkPosition.z());
+    }
+
+    public static List<KeyRange> chunkMortonRanges(BoundingBox bounds, int maxRanges) {
+        return mortonRanges(chunkCoord(bounds.minX()), chunkCoord(bounds.minZ()),
+                chunkCoord(bounds.maxX()), chunkCoord(bounds.maxZ()), maxRanges);
+    }
+
+    public static List<KeyRange> cellMortonRanges(BoundingBox bounds, int maxRanges) {
+        return mortonRanges(cellCoord(bounds.minX()), cellCoord(bounds.minZ()),
+                cellCoord(bounds.maxX()), cellCoord(bounds.maxZ()), maxRanges);
+    }
+
+    // Splits a rectangle of grid coordinates into at most maxRanges sorted, disjoint key
+    // intervals covering it. With a tight budget the intervals may also cover keys outside the
+    // rectangle, so callers still filter what a scan returns.
+    public static List<KeyRange> mortonRanges(int minX, int minZ, int maxX, int maxZ, int maxRanges) {
+        if (minX > maxX || minZ > maxZ) {
+            throw new IllegalArgumentException("min > max");
+        }
+        if (maxRanges < 1) {
+            throw new IllegalArgumentException("maxRanges < 1");
+        }
+
+        long queryMinX = Integer.toUnsignedLong(minX ^ Integer.MIN_VALUE);
+        long queryMinZ = Integer.toUnsignedLong(minZ ^ Integer.MIN_VALUE);
+        long queryMaxX = Integer.toUnsignedLong(maxX ^ Integer.MIN_VALUE);
+        long queryMaxZ = Integer.toUnsignedLong(maxZ ^ Integer.MIN_VALUE);
+
+        // Below this level partially covered quadrants are taken whole, which bounds the
+        // walk by the rectangle's perimeter rather than its area.
+        long perimeter = (queryMaxX - queryMinX + 1) + (queryMaxZ - queryMinZ + 1);
+        int stopLevel = Math.max(0, 64 - Long.numberOfLeadingZeros((perimeter - 1) / (4L * maxRanges)));
+
+        List<long[]> ranges = new ArrayList<>();
+        long[] stack = new long[3 * (4 * 32 + 1)];
+        int top = 0;
+        stack[top++] = 0L;
+        stack[top++] = 0L;
+        stack[top++] = 32L;
+
+        while (top > 0) {
+            int level = (int) stack[--top];
+            long nodeZ = stack[--top];
+            long nodeX = stack[--top];
+            long size = 1L << level;
+
+            if (nodeX > queryMaxX || nodeX + size - 1 < queryMinX || nodeZ > queryMaxZ || nodeZ + size - 1 < queryMinZ) {
+                continue;
+            }
+
+            boolean covered = nodeX >= queryMinX && nodeX + size - 1 <= queryMaxX
+                    && nodeZ >= queryMinZ && nodeZ + size - 1 <= queryMaxZ;
+            if (covered || level <= stopLevel) {
+                long first = Long.expand(nodeX, MORTON_EVEN) | Long.expand(nodeZ, MORTON_ODD);
+                long last = level == 32 ? -1L : first | ((1L << (2 * level)) - 1);
+                append(ranges, first, last);
+                continue;
+            }
+
+            // Pushed in reverse so quadrants pop in key order: (x, z), (x+1, z), (x, z+1), (x+1, z+1).
+            long half = size >>> 1;
+            for (int quadrant = 3; quadrant >= 0; quadrant--) {
+                stack[top++] = nodeX + ((quadrant & 1) == 0 ? 0 : half);
+                stack[top++] = nodeZ + ((quadrant & 2) == 0 ? 0 : half);
+                stack[top++] = level - 1;
+            }
+        }
+
+        coalesce(ranges, maxRanges);
+
+        List<KeyRange> out = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            out.add(new KeyRange(range[0] ^ Long.MIN_VALUE, range[1] ^ Long.MIN_VALUE));
+        }
+        return out;
+    }
+
+    // Inclusive interval of morton keys.
+    public record KeyRange(long min, long max) {
+
+        public KeyRange {
+            if (min > max) {
+                throw new IllegalArgumentException("min > max");
+            }
+        }
+
+        public boolean contains(long key) {
+            return key >= min && key <= max;
+        }
+    }
+
+    private static void append(List<long[]> ranges, long first, long last) {
+        if (!ranges.isEmpty()) {
+            long[] previous = ranges.get(ranges.size() - 1);
+            if (previous[1] + 1 == first) {
+                previous[1] = last;
+                return;
+            }
+        }
+        ranges.add(new long[]{first, last});
+    }
+
+    // Merges across the smallest gaps until at most maxRanges intervals remain.
+    private static void coalesce(List<long[]> ranges, int maxRanges) {
+        int excess = ranges.size() - maxRanges;
+        if (excess <= 0) {
+            return;
+        }
+
+        long[] gaps = new long[ranges.size() - 1];
+        for (int i = 0; i < gaps.length; i++) {
+            gaps[i] = ranges.get(i + 1)[0] - ranges.get(i)[1];
+        }
+
+        long[] sorted = gaps.clone();
+        for (int i = 0; i < sorted.length; i++) sorted[i] ^= Long.MIN_VALUE;
+        Arrays.sort(sorted);
+        long threshold = sorted[excess - 1] ^ Long.MIN_VALUE;
+
+        // Gaps below the threshold all merge, ties at it only until the excess is used up.
+        int ties = 0;
+        for (long gap : gaps) {
+            if (Long.compareUnsigned(gap, threshold) < 0) excess--;
+        }
+
+        List<long[]> merged = new ArrayList<>(maxRanges);
+        long[] current = ranges.get(0);
+        for (int i = 0; i < gaps.length; i++) {
+            long[] next = ranges.get(i + 1);
+            int cmp = Long.compareUnsigned(gaps[i], threshold);
+            if (cmp < 0 || (cmp == 0 && ties++ < excess)) {
+                current = new long[]{current[0], next[1]};
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+
+        ranges.clear();
+        ranges.addAll(merged);
+    }
+
     public static Iterable<Long> touchedCells(BoundingBox boundingBox) {
         int minX = cellCoord(boundingBox.minX());
         int minZ = cellCoord(boundingBox.minZ());
@@ -74,6 +263,16 @@ public final class SpatialGrid {
         return out;
     }
 
+    public static long touchedCellCount(BoundingBox boundingBox) {
+        long width = (long) cellCoord(boundingBox.maxX()) - cellCoord(boundingBox.minX()) + 1;
+        return width * ((long) cellCoord(boundingBox.maxZ()) - cellCoord(boundingBox.minZ()) + 1);
+    }
+
+    public static long touchedChunkCount(BoundingBox boundingBox) {
+        long width = (long) chunkCoord(boundingBox.maxX()) - chunkCoord(boundingBox.minX()) + 1;
+        return width * ((long) chunkCoord(boundingBox.maxZ()) - chunkCoord(boundingBox.minZ()) + 1);
+    }
+
     public static Iterable<ChunkPosition> touchedChunks(BoundingBox boundingBox) {
         int minChunkX = Math.floorDiv(boundingBox.minX(), CHUNK_SIZE);
         int minChunkZ = Math.floorDiv(boundingBox.minZ(), CHUNK_SIZE);
@@ -88,4 +287,19 @@ public final class SpatialGrid {
         }
         return out;
     }
+
+    public static Iterable<Long> touchedRegions(BoundingBox boundingBox) {
+        int minX = regionCoord(boundingBox.minX());
+        int minZ = regionCoord(boundingBox.minZ());
+        int maxX = regionCoord(boundingBox.maxX());
+        int maxZ = regionCoord(boundingBox.maxZ());
+
+        List<Long> out = new ArrayList<>((maxX - minX + 1) * (maxZ - minZ + 1));
+        for (int rx = minX; rx <= maxX; rx++) {
+            for (int rz = minZ; rz <= maxZ; rz++) {
+                out.add(pack(rx, rz));
+            }
+        }
+        return out;
+    }
 }
\ No newline at end of file
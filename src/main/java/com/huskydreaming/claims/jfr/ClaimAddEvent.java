@@ -0,0 +1,41 @@
+package com.huskydreaming.claims.jfr;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import jdk.jfr.*;
+
+import java.util.UUID;
+
+// Area and plot adds. Their cost grows with the number of index buckets the bounds cover, so
+// that is recorded alongside the outcome.
+@Name("atlas.ClaimAdd")
+@Label("Claim Add")
+@Category({"Atlas", "Claims"})
+@Description("Area or plot claim added to the spatial index")
+@StackTrace(false)
+public final class ClaimAddEvent extends Event {
+
+    @Label("World")
+    String world;
+
+    @Label("Claim Type")
+    String claimType;
+
+    @Label("Claim Id")
+    String claimId;
+
+    @Label("Touched Cells")
+    @Description("Index buckets covered by the bounds: 8-block cells for areas, chunks for plots")
+    long touchedCells;
+
+    @Label("Added")
+    @Description("False when the claim overlapped another or its id was taken")
+    boolean added;
+
+    public void describe(UUID worldId, ClaimType type, UUID claimId, long touchedCells, boolean added) {
+        this.world = worldId.toString();
+        this.claimType = type.name();
+        this.claimId = claimId.toString();
+        this.touchedCells = touchedCells;
+        this.added = added;
+    }
+}
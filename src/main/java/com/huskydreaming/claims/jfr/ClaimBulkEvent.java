@@ -0,0 +1,42 @@
+package com.huskydreaming.claims.jfr;
+
+import jdk.jfr.*;
+
+import java.util.UUID;
+
+// Operations that touch many claims at once: loading from storage, paging regions in and
+// sweeping them out, flushing.
+@Name("atlas.ClaimBulkOperation")
+@Label("Claim Bulk Operation")
+@Category({"Atlas", "Claims"})
+@Description("Load, page-in, sweep or flush covering many claims")
+@StackTrace(false)
+public final class ClaimBulkEvent extends Event {
+
+    public static final String SQL_LOAD = "sqlLoad";
+    public static final String SQL_REPLACE = "sqlReplaceAll";
+    public static final String REGION_LOAD = "regionLoad";
+    public static final String REGION_SWEEP = "regionSweep";
+    public static final String REGION_FLUSH = "regionFlush";
+
+    @Label("World")
+    String world;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Claims")
+    @Description("Claims loaded, restored or written")
+    int claims;
+
+    @Label("Regions")
+    @Description("Regions read, evicted or written; zero for storage outside the pager")
+    int regions;
+
+    public void describe(UUID worldId, String operation, int claims, int regions) {
+        this.world = worldId.toString();
+        this.operation = operation;
+        this.claims = claims;
+        this.regions = regions;
+    }
+}
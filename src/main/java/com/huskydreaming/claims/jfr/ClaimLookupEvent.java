@@ -0,0 +1,54 @@
+package com.huskydreaming.claims.jfr;
+
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import jdk.jfr.*;
+
+import java.util.UUID;
+
+// A getClaimAt or canPerformAction call that took longer than the threshold. Override it per
+// recording with atlas.ClaimLookup#threshold in a .jfc file or -XX:StartFlightRecording.
+@Name("atlas.ClaimLookup")
+@Label("Slow Claim Lookup")
+@Category({"Atlas", "Claims"})
+@Description("Claim lookup or permission check slower than the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class ClaimLookupEvent extends Event {
+
+    public static final String GET_CLAIM_AT = "getClaimAt";
+    public static final String CAN_PERFORM_ACTION = "canPerformAction";
+
+    @Label("World")
+    String world;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Z")
+    int z;
+
+    @Label("Claim Type")
+    @Description("Type of the resolved claim, absent when the position is unclaimed")
+    String claimType;
+
+    @Label("Allowed")
+    @Description("Outcome of a permission check, always true for plain lookups")
+    boolean allowed;
+
+    public void describe(UUID worldId, String operation, BlockPosition position, ResolvedClaim claim, boolean allowed) {
+        this.world = worldId.toString();
+        this.operation = operation;
+        this.x = position.x();
+        this.y = position.y();
+        this.z = position.z();
+        this.claimType = claim == null ? null : claim.type().name();
+        this.allowed = allowed;
+    }
+}
@@ -1,25 +1,68 @@
 package com.huskydreaming.claims.model.claims;
 
+import com.huskydreaming.claims.helpers.SpatialGrid;
 import com.huskydreaming.claims.model.flags.ClaimFlag;
 import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
 import com.huskydreaming.claims.model.positions.BlockPosition;
 import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.registry.UuidDictionary;
 
 import java.util.Objects;
 import java.util.UUID;
 
 public record AreaClaim(
-        UUID worldId,
-        UUID ownerId,
+        UUID id,
+        int worldRef,
+        int ownerRef,
         BoundingBox bounds,
         ClaimPermissions permissions,
-        int priority
-) {
+        int priority,
+        BlockPolygon outline
+) implements BoundedClaim {
 
+    // A null outline is a plain box; otherwise bounds span exactly the outline's columns.
     public AreaClaim {
-        Objects.requireNonNull(worldId, "worldId");
-        Objects.requireNonNull(ownerId, "ownerId");
+        Objects.requireNonNull(id, "id");
+        if (worldRef < 0) throw new IllegalArgumentException("worldRef < 0");
+        if (ownerRef < 0) throw new IllegalArgumentException("ownerRef < 0");
         Objects.requireNonNull(bounds, "bounds");
+        if (outline != null && !outline.bounds(bounds.minY(), bounds.maxY()).equals(bounds)) {
+            throw new IllegalArgumentException("bounds do not match the outline");
+        }
+    }
+
+    public AreaClaim(UUID id, int worldRef, int ownerRef, BoundingBox bounds, ClaimPermissions permissions, int priority) {
+        this(id, worldRef, ownerRef, bounds, permissions, priority, null);
+    }
+
+    public AreaClaim(UUID id, UUID worldId, UUID ownerId, BoundingBox bounds, ClaimPermissions permissions, int priority) {
+        this(id, worldId, ownerId, bounds, permissions, priority, null);
+    }
+
+    public AreaClaim(UUID id, UUID worldId, UUID ownerId, BoundingBox bounds, ClaimPermissions permissions, int priority, BlockPolygon outline) {
+        this(id, intern(worldId, "worldId"), intern(ownerId, "ownerId"), bounds, permissions, priority, outline);
+    }
+
+    public AreaClaim(UUID worldId, UUID ownerId, BoundingBox bounds, ClaimPermissions permissions, int priority) {
+        this(UUID.randomUUID(), worldId, ownerId, bounds, permissions, priority);
+    }
+
+    public static AreaClaim polygon(UUID worldId, UUID ownerId, BlockPolygon outline, int minY, int maxY, ClaimPermissions permissions, int priority) {
+        Objects.requireNonNull(outline, "outline");
+        return new AreaClaim(UUID.randomUUID(), worldId, ownerId, outline.bounds(minY, maxY), permissions, priority, outline);
+    }
+
+    public boolean isPolygon() {
+        return outline != null;
+    }
+
+    public UUID worldId() {
+        return UuidDictionary.uuid(worldRef);
+    }
+
+    public UUID ownerId() {
+        return UuidDictionary.uuid(ownerRef);
     }
 
     public boolean allows(ClaimFlag flag) {
@@ -29,16 +72,110 @@ public record AreaClaim(
     public boolean can(UUID playerId, ClaimFlag flag) {
         Objects.requireNonNull(playerId, "playerId");
         Objects.requireNonNull(flag, "flag");
-        return ownerId.equals(playerId) || allows(flag);
+        return ownerId().equals(playerId) || allows(flag);
     }
 
+    public boolean can(int playerRef, ClaimFlag flag) {
+        Objects.requireNonNull(flag, "flag");
+        return ownerRef == playerRef || allows(flag);
+    }
+
+    @Override
     public boolean contains(BlockPosition pos) {
         Objects.requireNonNull(pos, "pos");
-        return bounds.contains(pos);
+        return bounds.contains(pos) && (outline == null || outline.contains(pos.x(), pos.z()));
+    }
+
+    public boolean contains(BoundingBox box) {
+        Objects.requireNonNull(box, "box");
+        return bounds.contains(box) && (outline == null || outline.containsAll(box.minX(), box.minZ(), box.maxX(), box.maxZ()));
     }
 
+    // BlockPolygon.OUTSIDE, PARTIAL or FULL for one 8x8 grid cell.
+    public int cellCoverage(int cellX, int cellZ) {
+        return coverage(bounds, outline, cellX, cellZ);
+    }
+
+    // Bounding boxes only; see overlaps for the exact footprint test.
     public boolean intersects(AreaClaim other) {
         Objects.requireNonNull(other, "other");
-        return worldId.equals(other.worldId) && bounds.intersects(other.bounds);
+        return worldRef == other.worldRef && bounds.intersects(other.bounds);
+    }
+
+    public boolean overlaps(AreaClaim other) {
+        Objects.requireNonNull(other, "other");
+        return worldRef == other.worldRef && overlaps(other.bounds, other.outline);
+    }
+
+    public boolean overlaps(BoundingBox box) {
+        Objects.requireNonNull(box, "box");
+        return overlaps(box, null);
+    }
+
+    // Same claim with new bounds. Outlines can only be moved, so a polygon claim keeps its
+    // horizontal size.
+    public AreaClaim withBounds(BoundingBox box) {
+        Objects.requireNonNull(box, "box");
+        if (outline == null) {
+            return new AreaClaim(id, worldRef, ownerRef, box, permissions, priority);
+        }
+
+        if (box.maxX() - box.minX() != bounds.maxX() - bounds.minX() || box.maxZ() - box.minZ() != bounds.maxZ() - bounds.minZ()) {
+            throw new IllegalArgumentException("A polygon claim can only be moved, not resized horizontally");
+        }
+        BlockPolygon moved = outline.translate(box.minX() - bounds.minX(), box.minZ() - bounds.minZ());
+        return new AreaClaim(id, worldRef, ownerRef, box, permissions, priority, moved);
+    }
+
+    // Boxes agree on height across their whole footprint, so once they intersect only the
+    // horizontal shapes matter. Cells full on one side and covered at all on the other overlap
+    // outright; only cells partial on both sides are compared block by block.
+    private boolean overlaps(BoundingBox box, BlockPolygon shape) {
+        if (!bounds.intersects(box)) return false;
+        if (outline == null && shape == null) return true;
+
+        int minX = Math.max(bounds.minX(), box.minX()), maxX = Math.min(bounds.maxX(), box.maxX());
+        int minZ = Math.max(bounds.minZ(), box.minZ()), maxZ = Math.min(bounds.maxZ(), box.maxZ());
+        for (int cellZ = SpatialGrid.cellCoord(minZ); cellZ <= SpatialGrid.cellCoord(maxZ); cellZ++) {
+            for (int cellX = SpatialGrid.cellCoord(minX); cellX <= SpatialGrid.cellCoord(maxX); cellX++) {
+                int mine = coverage(bounds, outline, cellX, cellZ);
+                int theirs = coverage(box, shape, cellX, cellZ);
+                if (mine == BlockPolygon.OUTSIDE || theirs == BlockPolygon.OUTSIDE) continue;
+                if (mine == BlockPolygon.FULL || theirs == BlockPolygon.FULL) return true;
+
+                int fromX = Math.max(minX, cellX * SpatialGrid.CELL_SIZE);
+                int toX = Math.min(maxX, cellX * SpatialGrid.CELL_SIZE + SpatialGrid.CELL_SIZE - 1);
+                int toZ = Math.min(maxZ, cellZ * SpatialGrid.CELL_SIZE + SpatialGrid.CELL_SIZE - 1);
+                for (int z = Math.max(minZ, cellZ * SpatialGrid.CELL_SIZE); z <= toZ; z++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        if (covers(outline, x, z) && covers(shape, x, z)) return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean covers(BlockPolygon shape, int x, int z) {
+        return shape == null || shape.contains(x, z);
+    }
+
+    private static int coverage(BoundingBox box, BlockPolygon shape, int cellX, int cellZ) {
+        if (shape != null) {
+            return shape.coverage(cellX, cellZ);
+        }
+
+        long minX = (long) cellX * SpatialGrid.CELL_SIZE, maxX = minX + SpatialGrid.CELL_SIZE - 1;
+        long minZ = (long) cellZ * SpatialGrid.CELL_SIZE, maxZ = minZ + SpatialGrid.CELL_SIZE - 1;
+        if (maxX < box.minX() || minX > box.maxX() || maxZ < box.minZ() || minZ > box.maxZ()) {
+            return BlockPolygon.OUTSIDE;
+        }
+        return minX >= box.minX() && maxX <= box.maxX() && minZ >= box.minZ() && maxZ <= box.maxZ()
+                ? BlockPolygon.FULL
+                : BlockPolygon.PARTIAL;
+    }
+
+    private static int intern(UUID uuid, String name) {
+        return UuidDictionary.intern(Objects.requireNonNull(uuid, name));
     }
 }
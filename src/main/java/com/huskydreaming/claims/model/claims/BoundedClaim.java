@@ -0,0 +1,17 @@
+package com.huskydreaming.claims.model.claims;
+
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+import java.util.UUID;
+
+public interface BoundedClaim {
+
+    UUID id();
+
+    BoundingBox bounds();
+
+    int priority();
+
+    boolean contains(BlockPosition position);
+}
@@ -3,20 +3,39 @@ package com.huskydreaming.claims.model.claims;
 import com.huskydreaming.claims.model.flags.ClaimFlag;
 import com.huskydreaming.claims.model.flags.ClaimPermissions;
 import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.UuidDictionary;
 
 import java.util.Objects;
 import java.util.UUID;
 
 public record ChunkClaim(
-        UUID worldId,
-        UUID ownerId,
+        UUID id,
+        int worldRef,
+        int ownerRef,
         ChunkPosition chunkPosition,
         ClaimPermissions permissions
 ) {
 
     public ChunkClaim {
-        Objects.requireNonNull(worldId, "worldId");
-        Objects.requireNonNull(ownerId, "ownerId");
+        Objects.requireNonNull(id, "id");
+        if (worldRef < 0) throw new IllegalArgumentException("worldRef < 0");
+        if (ownerRef < 0) throw new IllegalArgumentException("ownerRef < 0");
+    }
+
+    public ChunkClaim(UUID id, UUID worldId, UUID ownerId, ChunkPosition chunkPosition, ClaimPermissions permissions) {
+        this(id, intern(worldId, "worldId"), intern(ownerId, "ownerId"), chunkPosition, permissions);
+    }
+
+    public ChunkClaim(UUID worldId, UUID ownerId, ChunkPosition chunkPosition, ClaimPermissions permissions) {
+        this(UUID.randomUUID(), worldId, ownerId, chunkPosition, permissions);
+    }
+
+    public UUID worldId() {
+        return UuidDictionary.uuid(worldRef);
+    }
+
+    public UUID ownerId() {
+        return UuidDictionary.uuid(ownerRef);
     }
 
     public boolean allows(ClaimFlag flag) {
@@ -26,6 +45,15 @@ public record ChunkClaim(
     public boolean can(UUID playerId, ClaimFlag flag) {
         Objects.requireNonNull(playerId, "playerId");
         Objects.requireNonNull(flag, "flag");
-        return ownerId.equals(playerId) || allows(flag);
+        return ownerId().equals(playerId) || allows(flag);
+    }
+
+    public boolean can(int playerRef, ClaimFlag flag) {
+        Objects.requireNonNull(flag, "flag");
+        return ownerRef == playerRef || allows(flag);
+    }
+
+    private static int intern(UUID uuid, String name) {
+        return UuidDictionary.intern(Objects.requireNonNull(uuid, name));
     }
 }
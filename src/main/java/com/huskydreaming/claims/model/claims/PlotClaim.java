@@ -5,28 +5,65 @@ import com.huskydreaming.claims.model.flags.ClaimFlag;
 import com.huskydreaming.claims.model.flags.ClaimPermissions;
 import com.huskydreaming.claims.model.positions.BlockPosition;
 import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.registry.UuidDictionary;
 
 import java.util.Objects;
 import java.util.UUID;
 
 public record PlotClaim(
-        UUID worldId,
-        UUID ownerId,
+        UUID id,
+        int worldRef,
+        int ownerRef,
         BoundingBox bounds,
         ClaimPermissions permissions,
         int priority,
         ClaimType parentClaimType,
         UUID parentClaimId
-) {
+) implements BoundedClaim {
 
     public PlotClaim {
-        Objects.requireNonNull(worldId, "worldId");
-        Objects.requireNonNull(ownerId, "ownerId");
+        Objects.requireNonNull(id, "id");
+        if (worldRef < 0) throw new IllegalArgumentException("worldRef < 0");
+        if (ownerRef < 0) throw new IllegalArgumentException("ownerRef < 0");
         Objects.requireNonNull(bounds, "bounds");
         Objects.requireNonNull(parentClaimType, "parentClaimType");
         Objects.requireNonNull(parentClaimId, "parentClaimId");
     }
 
+    public PlotClaim(
+            UUID id,
+            UUID worldId,
+            UUID ownerId,
+            BoundingBox bounds,
+            ClaimPermissions permissions,
+            int priority,
+            ClaimType parentClaimType,
+            UUID parentClaimId
+    ) {
+        this(id, intern(worldId, "worldId"), intern(ownerId, "ownerId"), bounds, permissions, priority,
+                parentClaimType, parentClaimId);
+    }
+
+    public PlotClaim(
+            UUID worldId,
+            UUID ownerId,
+            BoundingBox bounds,
+            ClaimPermissions permissions,
+            int priority,
+            ClaimType parentClaimType,
+            UUID parentClaimId
+    ) {
+        this(UUID.randomUUID(), worldId, ownerId, bounds, permissions, priority, parentClaimType, parentClaimId);
+    }
+
+    public UUID worldId() {
+        return UuidDictionary.uuid(worldRef);
+    }
+
+    public UUID ownerId() {
+        return UuidDictionary.uuid(ownerRef);
+    }
+
     public boolean allows(ClaimFlag flag) {
         return permissions.allows(flag);
     }
@@ -34,9 +71,15 @@ public record PlotClaim(
     public boolean can(UUID playerId, ClaimFlag flag) {
         Objects.requireNonNull(playerId, "playerId");
         Objects.requireNonNull(flag, "flag");
-        return ownerId.equals(playerId) || allows(flag);
+        return ownerId().equals(playerId) || allows(flag);
+    }
+
+    public boolean can(int playerRef, ClaimFlag flag) {
+        Objects.requireNonNull(flag, "flag");
+        return ownerRef == playerRef || allows(flag);
     }
 
+    @Override
     public boolean contains(BlockPosition pos) {
         return bounds.contains(pos);
     }
@@ -48,4 +91,8 @@ public record PlotClaim(
     public boolean isAreaPlot() {
         return parentClaimType == ClaimType.AREA;
     }
+
+    private static int intern(UUID uuid, String name) {
+        return UuidDictionary.intern(Objects.requireNonNull(uuid, name));
+    }
 }
@@ -2,6 +2,7 @@ package com.huskydreaming.claims.model.claims;
 
 import com.huskydreaming.claims.enumeration.ClaimType;
 import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -10,12 +11,20 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
 
     ClaimType type();
 
+    UUID id();
+
     UUID worldId();
 
     UUID ownerId();
 
+    int ownerRef();
+
+    ClaimPermissions permissions();
+
     boolean can(UUID playerId, ClaimFlag claimFlag);
 
+    boolean can(int playerRef, ClaimFlag claimFlag);
+
     record Plot(PlotClaim claim) implements ResolvedClaim {
 
         public Plot {
@@ -27,6 +36,11 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return ClaimType.PLOT;
         }
 
+        @Override
+        public UUID id() {
+            return claim.id();
+        }
+
         @Override
         public UUID worldId() {
             return claim.worldId();
@@ -37,6 +51,16 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return claim.ownerId();
         }
 
+        @Override
+        public int ownerRef() {
+            return claim.ownerRef();
+        }
+
+        @Override
+        public ClaimPermissions permissions() {
+            return claim.permissions();
+        }
+
         @Override
         public boolean can(UUID playerId, ClaimFlag flag) {
             Objects.requireNonNull(playerId, "playerId");
@@ -44,6 +68,12 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return claim.can(playerId, flag);
         }
 
+        @Override
+        public boolean can(int playerRef, ClaimFlag flag) {
+            Objects.requireNonNull(flag, "flag");
+            return claim.can(playerRef, flag);
+        }
+
         public PlotClaim unwrap() {
             return claim;
         }
@@ -60,6 +90,11 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return ClaimType.AREA;
         }
 
+        @Override
+        public UUID id() {
+            return claim.id();
+        }
+
         @Override
         public UUID worldId() {
             return claim.worldId();
@@ -70,6 +105,16 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return claim.ownerId();
         }
 
+        @Override
+        public int ownerRef() {
+            return claim.ownerRef();
+        }
+
+        @Override
+        public ClaimPermissions permissions() {
+            return claim.permissions();
+        }
+
         @Override
         public boolean can(UUID playerId, ClaimFlag flag) {
             Objects.requireNonNull(playerId, "playerId");
@@ -77,6 +122,12 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return claim.can(playerId, flag);
         }
 
+        @Override
+        public boolean can(int playerRef, ClaimFlag flag) {
+            Objects.requireNonNull(flag, "flag");
+            return claim.can(playerRef, flag);
+        }
+
         public AreaClaim unwrap() {
             return claim;
         }
@@ -93,6 +144,11 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return ClaimType.CHUNK;
         }
 
+        @Override
+        public UUID id() {
+            return claim.id();
+        }
+
         @Override
         public UUID worldId() {
             return claim.worldId();
@@ -103,6 +159,16 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return claim.ownerId();
         }
 
+        @Override
+        public int ownerRef() {
+            return claim.ownerRef();
+        }
+
+        @Override
+        public ClaimPermissions permissions() {
+            return claim.permissions();
+        }
+
         @Override
         public boolean can(UUID playerId, ClaimFlag flag) {
             Objects.requireNonNull(playerId, "playerId");
@@ -110,6 +176,12 @@ public sealed interface ResolvedClaim permits ResolvedClaim.Plot, ResolvedClaim.
             return claim.can(playerId, flag);
         }
 
+        @Override
+        public boolean can(int playerRef, ClaimFlag flag) {
+            Objects.requireNonNull(flag, "flag");
+            return claim.can(playerRef, flag);
+        }
+
         public ChunkClaim unwrap() {
             return claim;
         }
@@ -0,0 +1,221 @@
+package com.huskydreaming.claims.model.events;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+public sealed interface ClaimEvent permits
+        ClaimEvent.ChunkClaimed,
+        ClaimEvent.ChunkUnclaimed,
+        ClaimEvent.ChunksClaimed,
+        ClaimEvent.ChunksUnclaimed,
+        ClaimEvent.AreaAdded,
+        ClaimEvent.AreaRemoved,
+        ClaimEvent.AreaResized,
+        ClaimEvent.PlotAdded,
+        ClaimEvent.PlotRemoved,
+        ClaimEvent.PlotResized,
+        ClaimEvent.PermissionsChanged,
+        ClaimEvent.ClaimsCleared {
+
+    UUID worldId();
+
+    ClaimType type();
+
+    record ChunkClaimed(ChunkClaim claim) implements ClaimEvent {
+
+        public ChunkClaimed {
+            Objects.requireNonNull(claim, "claim");
+        }
+
+        @Override
+        public UUID worldId() {
+            return claim.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.CHUNK;
+        }
+    }
+
+    record ChunkUnclaimed(ChunkClaim claim) implements ClaimEvent {
+
+        public ChunkUnclaimed {
+            Objects.requireNonNull(claim, "claim");
+        }
+
+        @Override
+        public UUID worldId() {
+            return claim.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.CHUNK;
+        }
+    }
+
+    // One event for a whole bulk claim, so consumers see the shape land at once.
+    record ChunksClaimed(UUID worldId, List<ChunkClaim> claims) implements ClaimEvent {
+
+        public ChunksClaimed {
+            Objects.requireNonNull(worldId, "worldId");
+            claims = List.copyOf(Objects.requireNonNull(claims, "claims"));
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.CHUNK;
+        }
+    }
+
+    record ChunksUnclaimed(UUID worldId, List<ChunkClaim> claims) implements ClaimEvent {
+
+        public ChunksUnclaimed {
+            Objects.requireNonNull(worldId, "worldId");
+            claims = List.copyOf(Objects.requireNonNull(claims, "claims"));
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.CHUNK;
+        }
+    }
+
+    record AreaAdded(AreaClaim claim) implements ClaimEvent {
+
+        public AreaAdded {
+            Objects.requireNonNull(claim, "claim");
+        }
+
+        @Override
+        public UUID worldId() {
+            return claim.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.AREA;
+        }
+    }
+
+    record AreaRemoved(AreaClaim claim) implements ClaimEvent {
+
+        public AreaRemoved {
+            Objects.requireNonNull(claim, "claim");
+        }
+
+        @Override
+        public UUID worldId() {
+            return claim.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.AREA;
+        }
+    }
+
+    // Same claim id and permissions, new bounds.
+    record AreaResized(AreaClaim previous, AreaClaim claim) implements ClaimEvent {
+
+        public AreaResized {
+            Objects.requireNonNull(previous, "previous");
+            Objects.requireNonNull(claim, "claim");
+        }
+
+        @Override
+        public UUID worldId() {
+            return claim.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.AREA;
+        }
+    }
+
+    record PlotAdded(PlotClaim plot) implements ClaimEvent {
+
+        public PlotAdded {
+            Objects.requireNonNull(plot, "plot");
+        }
+
+        @Override
+        public UUID worldId() {
+            return plot.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.PLOT;
+        }
+    }
+
+    record PlotRemoved(PlotClaim plot) implements ClaimEvent {
+
+        public PlotRemoved {
+            Objects.requireNonNull(plot, "plot");
+        }
+
+        @Override
+        public UUID worldId() {
+            return plot.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.PLOT;
+        }
+    }
+
+    record PlotResized(PlotClaim previous, PlotClaim plot) implements ClaimEvent {
+
+        public PlotResized {
+            Objects.requireNonNull(previous, "previous");
+            Objects.requireNonNull(plot, "plot");
+        }
+
+        @Override
+        public UUID worldId() {
+            return plot.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.PLOT;
+        }
+    }
+
+    record PermissionsChanged(ResolvedClaim claim) implements ClaimEvent {
+
+        public PermissionsChanged {
+            Objects.requireNonNull(claim, "claim");
+        }
+
+        @Override
+        public UUID worldId() {
+            return claim.worldId();
+        }
+
+        @Override
+        public ClaimType type() {
+            return claim.type();
+        }
+    }
+
+    record ClaimsCleared(UUID worldId, ClaimType type) implements ClaimEvent {
+
+        public ClaimsCleared {
+            Objects.requireNonNull(worldId, "worldId");
+            Objects.requireNonNull(type, "type");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.huskydreaming.claims.model.events;
+
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+// A player moved from one claim (or the wilderness) to another. At most one side is absent.
+public record ClaimTransition(UUID playerId, UUID worldId, ResolvedClaim from, ResolvedClaim to) {
+
+    public ClaimTransition {
+        Objects.requireNonNull(playerId, "playerId");
+        Objects.requireNonNull(worldId, "worldId");
+
+        if (from == null && to == null) {
+            throw new IllegalArgumentException("Transition needs at least one claim");
+        }
+    }
+
+    public Optional<ResolvedClaim> left() {
+        return Optional.ofNullable(from);
+    }
+
+    public Optional<ResolvedClaim> entered() {
+        return Optional.ofNullable(to);
+    }
+}
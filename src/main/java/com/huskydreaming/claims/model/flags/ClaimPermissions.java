@@ -3,28 +3,158 @@ package com.huskydreaming.claims.model.flags;
 import com.huskydreaming.claims.registry.ClaimFlagRegistry;
 
 import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// One permission layer. Each flag is allowed, denied, or inherited from the layer below: the
+// parent claim for plots, the world defaults otherwise. A fresh layer denies everything.
 public final class ClaimPermissions {
 
     private final BitSet bits;
+    private final BitSet inherited;
+    private final boolean readOnly;
+
+    // Bumped on every edit so compiled masks built from an older state are never trusted.
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile Compiled compiled;
+
+    // Effective masks for this layer, indexed by ClaimRole ordinal, as compiled by the world
+    // that owns the claim. Only valid while the version, the parent's base mask and the world
+    // generation still match.
+    public record Compiled(int version, long parentBase, long generation, long base, long[] roles) {
+    }
 
     public ClaimPermissions() {
-        this.bits = new BitSet();
+        this(new BitSet(), new BitSet(), false);
+    }
+
+    public ClaimPermissions(BitSet bits) {
+        this(bits, new BitSet(), false);
+    }
+
+    public ClaimPermissions(BitSet bits, BitSet inherited) {
+        this(bits, inherited, false);
+    }
+
+    private ClaimPermissions(BitSet bits, BitSet inherited, boolean readOnly) {
+        this.bits = (BitSet) bits.clone();
+        this.inherited = (BitSet) inherited.clone();
+        this.readOnly = readOnly;
+    }
+
+    // A snapshot that rejects edits, for stores that hand out copies which would otherwise
+    // swallow in-place changes.
+    public static ClaimPermissions readOnly(BitSet bits, BitSet inherited) {
+        return new ClaimPermissions(bits, inherited, true);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
     }
 
     public void allow(ClaimFlag flag) {
-        bits.set(ClaimFlagRegistry.indexOf(flag));
+        checkWritable();
+        int index = ClaimFlagRegistry.indexOf(flag);
+        bits.set(index);
+        inherited.clear(index);
+        version.incrementAndGet();
     }
 
     public void deny(ClaimFlag flag) {
-        bits.clear(ClaimFlagRegistry.indexOf(flag));
+        checkWritable();
+        int index = ClaimFlagRegistry.indexOf(flag);
+        bits.clear(index);
+        inherited.clear(index);
+        version.incrementAndGet();
+    }
+
+    public void inherit(ClaimFlag flag) {
+        checkWritable();
+        int index = ClaimFlagRegistry.indexOf(flag);
+        bits.clear(index);
+        inherited.set(index);
+        version.incrementAndGet();
+    }
+
+    // Replaces the whole layer: flags not in bits are denied, none inherited.
+    public void replace(BitSet bits) {
+        checkWritable();
+        this.bits.clear();
+        this.bits.or(bits);
+        inherited.clear();
+        version.incrementAndGet();
     }
 
+    public void replace(ClaimPermissions other) {
+        checkWritable();
+        bits.clear();
+        bits.or(other.bits);
+        inherited.clear();
+        inherited.or(other.inherited);
+        version.incrementAndGet();
+    }
+
+    // Only this layer's own answer; inherited flags read as denied here.
     public boolean allows(ClaimFlag flag) {
         return bits.get(ClaimFlagRegistry.indexOf(flag));
     }
 
+    public boolean inherits(ClaimFlag flag) {
+        return inherited.get(ClaimFlagRegistry.indexOf(flag));
+    }
+
+    public int wordCount() {
+        return (bits.length() + 63) >>> 6;
+    }
+
+    public long word(int index) {
+        return word(bits, index);
+    }
+
+    public int inheritedWordCount() {
+        return (inherited.length() + 63) >>> 6;
+    }
+
+    public long inheritedWord(int index) {
+        return word(inherited, index);
+    }
+
     public BitSet toBitSet() {
         return (BitSet) bits.clone();
     }
-}
\ No newline at end of file
+
+    public BitSet inheritedBits() {
+        return (BitSet) inherited.clone();
+    }
+
+    // Always writable, so a read-only snapshot can be edited and stored back.
+    public ClaimPermissions copy() {
+        return new ClaimPermissions(bits, inherited);
+    }
+
+    public int version() {
+        return version.get();
+    }
+
+    public Compiled compiled() {
+        return compiled;
+    }
+
+    public void compiled(Compiled compiled) {
+        this.compiled = compiled;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("Permissions are read-only; change them through WorldClaims.updatePermissions");
+        }
+    }
+
+    private static long word(BitSet set, int index) {
+        long word = 0L;
+        int end = (index + 1) << 6;
+        for (int bit = set.nextSetBit(index << 6); bit >= 0 && bit < end; bit = set.nextSetBit(bit + 1)) {
+            word |= 1L << bit;
+        }
+        return word;
+    }
+}
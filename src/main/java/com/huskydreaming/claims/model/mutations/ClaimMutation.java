@@ -0,0 +1,86 @@
+package com.huskydreaming.claims.model.mutations;
+
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+
+import java.util.Objects;
+import java.util.UUID;
+
+public sealed interface ClaimMutation permits
+        ClaimMutation.ClaimChunk,
+        ClaimMutation.UnclaimChunk,
+        ClaimMutation.AddArea,
+        ClaimMutation.RemoveArea,
+        ClaimMutation.AddPlot,
+        ClaimMutation.RemovePlot {
+
+    record ClaimChunk(UUID ownerId, ChunkPosition chunkPosition, ClaimPermissions permissions) implements ClaimMutation {
+
+        public ClaimChunk {
+            Objects.requireNonNull(ownerId, "ownerId");
+            Objects.requireNonNull(chunkPosition, "chunkPosition");
+            Objects.requireNonNull(permissions, "permissions");
+        }
+    }
+
+    record UnclaimChunk(ChunkPosition chunkPosition) implements ClaimMutation {
+
+        public UnclaimChunk {
+            Objects.requireNonNull(chunkPosition, "chunkPosition");
+        }
+    }
+
+    record AddArea(AreaClaim claim) implements ClaimMutation {
+
+        public AddArea {
+            Objects.requireNonNull(claim, "claim");
+        }
+    }
+
+    record RemoveArea(AreaClaim claim) implements ClaimMutation {
+
+        public RemoveArea {
+            Objects.requireNonNull(claim, "claim");
+        }
+    }
+
+    record AddPlot(PlotClaim plot) implements ClaimMutation {
+
+        public AddPlot {
+            Objects.requireNonNull(plot, "plot");
+        }
+    }
+
+    record RemovePlot(PlotClaim plot) implements ClaimMutation {
+
+        public RemovePlot {
+            Objects.requireNonNull(plot, "plot");
+        }
+    }
+
+    static ClaimMutation claimChunk(UUID ownerId, ChunkPosition chunkPosition, ClaimPermissions permissions) {
+        return new ClaimChunk(ownerId, chunkPosition, permissions);
+    }
+
+    static ClaimMutation unclaimChunk(ChunkPosition chunkPosition) {
+        return new UnclaimChunk(chunkPosition);
+    }
+
+    static ClaimMutation addArea(AreaClaim claim) {
+        return new AddArea(claim);
+    }
+
+    static ClaimMutation removeArea(AreaClaim claim) {
+        return new RemoveArea(claim);
+    }
+
+    static ClaimMutation addPlot(PlotClaim plot) {
+        return new AddPlot(plot);
+    }
+
+    static ClaimMutation removePlot(PlotClaim plot) {
+        return new RemovePlot(plot);
+    }
+}
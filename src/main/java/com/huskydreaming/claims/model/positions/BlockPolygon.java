@@ -0,0 +1,257 @@
+package com.huskydreaming.claims.model.positions;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Horizontal outline of a polygonal area claim. Vertices are block corners, so (0, 0) (10, 0)
+// (10, 10) (0, 10) covers blocks 0..9 on both axes; a column is inside when its center is, by
+// the even-odd rule. Every grid cell under the outline is classified once, up front, as
+// outside, partially or fully covered, so lookups only run the polygon test in partial cells.
+public final class BlockPolygon {
+
+    public static final int OUTSIDE = 0;
+    public static final int PARTIAL = 1;
+    public static final int FULL = 2;
+
+    public static final int MAX_VERTICES = 1024;
+    public static final int MAX_CELLS = 1 << 22;
+
+    private static final int CELL_BLOCKS = SpatialGrid.CELL_SIZE * SpatialGrid.CELL_SIZE;
+
+    private final int[] xs;
+    private final int[] zs;
+
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    private final int cellMinX;
+    private final int cellMinZ;
+    private final int cellsX;
+    private final int cellsZ;
+    private final byte[] coverage;
+    private final int coveredCells;
+
+    private BlockPolygon(int[] xs, int[] zs) {
+        this.xs = xs;
+        this.zs = zs;
+
+        long minX = Long.MAX_VALUE, minZ = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxZ = Long.MIN_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minZ = Math.min(minZ, zs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxZ = Math.max(maxZ, zs[i]);
+        }
+        if (minX == maxX || minZ == maxZ) {
+            throw new IllegalArgumentException("A polygon must enclose at least one block");
+        }
+
+        this.minX = (int) minX;
+        this.minZ = (int) minZ;
+        this.maxX = (int) maxX - 1;
+        this.maxZ = (int) maxZ - 1;
+
+        this.cellMinX = SpatialGrid.cellCoord(this.minX);
+        this.cellMinZ = SpatialGrid.cellCoord(this.minZ);
+        long cellsX = (long) SpatialGrid.cellCoord(this.maxX) - cellMinX + 1;
+        long cellsZ = (long) SpatialGrid.cellCoord(this.maxZ) - cellMinZ + 1;
+        if (cellsX * cellsZ > MAX_CELLS) {
+            throw new IllegalArgumentException("A polygon may span at most " + MAX_CELLS + " cells");
+        }
+
+        this.cellsX = (int) cellsX;
+        this.cellsZ = (int) cellsZ;
+        this.coverage = classify();
+
+        // Thin slivers can have a box but no column centers inside them.
+        int covered = 0;
+        for (byte state : coverage) {
+            if (state != OUTSIDE) covered++;
+        }
+        this.coveredCells = covered;
+        if (covered == 0) {
+            throw new IllegalArgumentException("A polygon must enclose at least one block");
+        }
+    }
+
+    public static BlockPolygon of(List<BlockPosition> corners) {
+        Objects.requireNonNull(corners, "corners");
+        if (corners.size() < 3 || corners.size() > MAX_VERTICES) {
+            throw new IllegalArgumentException("A polygon needs between 3 and " + MAX_VERTICES + " vertices");
+        }
+
+        int[] xs = new int[corners.size()];
+        int[] zs = new int[corners.size()];
+        for (int i = 0; i < xs.length; i++) {
+            BlockPosition corner = Objects.requireNonNull(corners.get(i), "corner");
+            xs[i] = corner.x();
+            zs[i] = corner.z();
+        }
+        return new BlockPolygon(xs, zs);
+    }
+
+    public int vertexCount() {
+        return xs.length;
+    }
+
+    // Cells the outline reaches at all, so the cells an index holds it in.
+    public int coveredCells() {
+        return coveredCells;
+    }
+
+    public int x(int vertex) {
+        return xs[vertex];
+    }
+
+    public int z(int vertex) {
+        return zs[vertex];
+    }
+
+    // Covered columns, with the given height.
+    public BoundingBox bounds(int minY, int maxY) {
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public BlockPolygon translate(int dx, int dz) {
+        int[] movedX = new int[xs.length];
+        int[] movedZ = new int[zs.length];
+        for (int i = 0; i < xs.length; i++) {
+            movedX[i] = shift(xs[i], dx, "x");
+            movedZ[i] = shift(zs[i], dz, "z");
+        }
+        return new BlockPolygon(movedX, movedZ);
+    }
+
+    public int coverage(int cellX, int cellZ) {
+        long column = (long) cellX - cellMinX;
+        long row = (long) cellZ - cellMinZ;
+        if (column < 0 || column >= cellsX || row < 0 || row >= cellsZ) {
+            return OUTSIDE;
+        }
+        return coverage[(int) (row * cellsX + column)];
+    }
+
+    public boolean contains(int x, int z) {
+        return switch (coverage(SpatialGrid.cellCoord(x), SpatialGrid.cellCoord(z))) {
+            case FULL -> true;
+            case OUTSIDE -> false;
+            default -> inside(x, z);
+        };
+    }
+
+    // Whether every column of the rectangle is covered.
+    public boolean containsAll(int fromX, int fromZ, int toX, int toZ) {
+        if (fromX < minX || fromZ < minZ || toX > maxX || toZ > maxZ) {
+            return false;
+        }
+
+        for (int cellZ = SpatialGrid.cellCoord(fromZ); cellZ <= SpatialGrid.cellCoord(toZ); cellZ++) {
+            for (int cellX = SpatialGrid.cellCoord(fromX); cellX <= SpatialGrid.cellCoord(toX); cellX++) {
+                int state = coverage(cellX, cellZ);
+                if (state == FULL) continue;
+                if (state == OUTSIDE) return false;
+
+                int cellMaxX = Math.min(toX, cellX * SpatialGrid.CELL_SIZE + SpatialGrid.CELL_SIZE - 1);
+                int cellMaxZ = Math.min(toZ, cellZ * SpatialGrid.CELL_SIZE + SpatialGrid.CELL_SIZE - 1);
+                for (int z = Math.max(fromZ, cellZ * SpatialGrid.CELL_SIZE); z <= cellMaxZ; z++) {
+                    for (int x = Math.max(fromX, cellX * SpatialGrid.CELL_SIZE); x <= cellMaxX; x++) {
+                        if (!inside(x, z)) return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // Even-odd test on the column center, with the same arithmetic as the row scan in classify
+    // so the two always agree.
+    private boolean inside(int x, int z) {
+        if (x < minX || x > maxX || z < minZ || z > maxZ) {
+            return false;
+        }
+
+        boolean inside = false;
+        double center = x + 0.5;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((zs[i] <= z) != (zs[j] <= z) && center >= crossing(i, j, z)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private double crossing(int i, int j, int z) {
+        return xs[i] + (z + 0.5 - zs[i]) * ((double) xs[j] - xs[i]) / ((double) zs[j] - zs[i]);
+    }
+
+    // Scans one block row at a time, counting covered columns per cell; a cell with all its
+    // columns covered is full, with none outside.
+    private byte[] classify() {
+        byte[] out = new byte[cellsX * cellsZ];
+        int[] counts = new int[cellsX];
+        double[] crossings = new double[xs.length];
+
+        for (int row = 0; row < cellsZ; row++) {
+            Arrays.fill(counts, 0);
+            int rowStart = (cellMinZ + row) * SpatialGrid.CELL_SIZE;
+
+            for (int z = Math.max(rowStart, minZ); z <= Math.min(rowStart + SpatialGrid.CELL_SIZE - 1, maxZ); z++) {
+                int found = 0;
+                for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                    if ((zs[i] <= z) != (zs[j] <= z)) crossings[found++] = crossing(i, j, z);
+                }
+                Arrays.sort(crossings, 0, found);
+
+                for (int k = 0; k + 1 < found; k += 2) {
+                    long from = (long) Math.ceil(crossings[k] - 0.5);
+                    long to = (long) Math.ceil(crossings[k + 1] - 0.5) - 1;
+                    for (long x = from; x <= to; ) {
+                        int cell = SpatialGrid.cellCoord((int) x);
+                        long cellEnd = Math.min(to, (long) cell * SpatialGrid.CELL_SIZE + SpatialGrid.CELL_SIZE - 1);
+                        counts[cell - cellMinX] += (int) (cellEnd - x + 1);
+                        x = cellEnd + 1;
+                    }
+                }
+            }
+
+            for (int column = 0; column < cellsX; column++) {
+                int count = counts[column];
+                out[row * cellsX + column] = (byte) (count == 0 ? OUTSIDE : count == CELL_BLOCKS ? FULL : PARTIAL);
+            }
+        }
+        return out;
+    }
+
+    private static int shift(int value, int delta, String axis) {
+        long shifted = (long) value + delta;
+        if (shifted < Integer.MIN_VALUE || shifted > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Translation overflows the " + axis + " axis");
+        }
+        return (int) shifted;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BlockPolygon polygon && Arrays.equals(xs, polygon.xs) && Arrays.equals(zs, polygon.zs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(xs) + Arrays.hashCode(zs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("BlockPolygon[");
+        for (int i = 0; i < xs.length; i++) {
+            if (i > 0) out.append(", ");
+            out.append('(').append(xs[i]).append(", ").append(zs[i]).append(')');
+        }
+        return out.append(']').toString();
+    }
+}
@@ -1,5 +1,8 @@
 package com.huskydreaming.claims.model.positions;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public record BoundingBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
 
     public BoundingBox {
@@ -26,9 +29,52 @@ public record BoundingBox(int minX, int minY, int minZ, int maxX, int maxY, int
                 && position.z() >= minZ && position.z() <= maxZ;
     }
 
+    public boolean contains(BoundingBox other) {
+        return other.minX >= minX && other.maxX <= maxX
+                && other.minY >= minY && other.maxY <= maxY
+                && other.minZ >= minZ && other.maxZ <= maxZ;
+    }
+
     public boolean intersects(BoundingBox other) {
         return this.minX <= other.maxX && this.maxX >= other.minX
                 && this.minY <= other.maxY && this.maxY >= other.minY
                 && this.minZ <= other.maxZ && this.maxZ >= other.minZ;
     }
-}
\ No newline at end of file
+
+    public BoundingBox translate(int dx, int dy, int dz) {
+        return new BoundingBox(
+                shift(minX, dx, "x"), shift(minY, dy, "y"), shift(minZ, dz, "z"),
+                shift(maxX, dx, "x"), shift(maxY, dy, "y"), shift(maxZ, dz, "z")
+        );
+    }
+
+    // The part of this box outside other, as at most six disjoint boxes: slabs along x first,
+    // then z, then y within what is left.
+    public List<BoundingBox> minus(BoundingBox other) {
+        List<BoundingBox> out = new ArrayList<>(6);
+        if (!intersects(other)) {
+            out.add(this);
+            return out;
+        }
+
+        int x0 = Math.max(minX, other.minX), x1 = Math.min(maxX, other.maxX);
+        int z0 = Math.max(minZ, other.minZ), z1 = Math.min(maxZ, other.maxZ);
+        int y0 = Math.max(minY, other.minY), y1 = Math.min(maxY, other.maxY);
+
+        if (minX < x0) out.add(new BoundingBox(minX, minY, minZ, x0 - 1, maxY, maxZ));
+        if (x1 < maxX) out.add(new BoundingBox(x1 + 1, minY, minZ, maxX, maxY, maxZ));
+        if (minZ < z0) out.add(new BoundingBox(x0, minY, minZ, x1, maxY, z0 - 1));
+        if (z1 < maxZ) out.add(new BoundingBox(x0, minY, z1 + 1, x1, maxY, maxZ));
+        if (minY < y0) out.add(new BoundingBox(x0, minY, z0, x1, y0 - 1, z1));
+        if (y1 < maxY) out.add(new BoundingBox(x0, y1 + 1, z0, x1, maxY, z1));
+        return out;
+    }
+
+    private static int shift(int value, int delta, String axis) {
+        long shifted = (long) value + delta;
+        if (shifted < Integer.MIN_VALUE || shifted > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Translation overflows the " + axis + " axis");
+        }
+        return (int) shifted;
+    }
+}
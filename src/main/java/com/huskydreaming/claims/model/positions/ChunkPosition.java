@@ -36,10 +36,24 @@ public record ChunkPosition(int x, int z) {
         return minBlockZ() + SpatialGrid.CHUNK_SIZE - 1;
     }
 
+    public BoundingBox bounds() {
+        return new BoundingBox(
+                minBlockX(), Integer.MIN_VALUE, minBlockZ(),
+                maxBlockX(), Integer.MAX_VALUE, maxBlockZ()
+        );
+    }
+
     public boolean contains(BlockPosition block) {
         Objects.requireNonNull(block, "block");
 
         return block.x() >= minBlockX() && block.x() <= maxBlockX()
                 && block.z() >= minBlockZ() && block.z() <= maxBlockZ();
     }
+
+    public boolean contains(BoundingBox bounds) {
+        Objects.requireNonNull(bounds, "bounds");
+
+        return bounds.minX() >= minBlockX() && bounds.maxX() <= maxBlockX()
+                && bounds.minZ() >= minBlockZ() && bounds.maxZ() <= maxBlockZ();
+    }
 }
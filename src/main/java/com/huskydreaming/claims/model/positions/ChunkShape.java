@@ -0,0 +1,190 @@
+package com.huskydreaming.claims.model.positions;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// A set of chunks claimed or unclaimed in one bulk operation. Shapes are rasterised row by row
+// into packed chunk keys, so a territory of thousands of chunks never becomes thousands of
+// ChunkPosition records.
+public sealed interface ChunkShape permits ChunkShape.Rectangle, ChunkShape.Radius, ChunkShape.Polygon {
+
+    int MAX_CHUNKS = 1 << 20;
+
+    static ChunkShape rectangle(ChunkPosition a, ChunkPosition b) {
+        Objects.requireNonNull(a, "a");
+        Objects.requireNonNull(b, "b");
+
+        return new Rectangle(
+                new ChunkPosition(Math.min(a.x(), b.x()), Math.min(a.z(), b.z())),
+                new ChunkPosition(Math.max(a.x(), b.x()), Math.max(a.z(), b.z()))
+        );
+    }
+
+    static ChunkShape radius(ChunkPosition center, int radius) {
+        return new Radius(center, radius);
+    }
+
+    static ChunkShape polygon(List<ChunkPosition> vertices) {
+        return new Polygon(vertices);
+    }
+
+    ChunkPosition min();
+
+    ChunkPosition max();
+
+    // Row-major packed chunk keys, each chunk at most once.
+    long[] keys();
+
+    default BoundingBox bounds() {
+        return new BoundingBox(
+                min().minBlockX(), Integer.MIN_VALUE, min().minBlockZ(),
+                max().maxBlockX(), Integer.MAX_VALUE, max().maxBlockZ()
+        );
+    }
+
+    record Rectangle(ChunkPosition min, ChunkPosition max) implements ChunkShape {
+
+        public Rectangle {
+            Objects.requireNonNull(min, "min");
+            Objects.requireNonNull(max, "max");
+
+            if (min.x() > max.x() || min.z() > max.z()) {
+                throw new IllegalArgumentException("min must not exceed max");
+            }
+            checkArea(min, max);
+        }
+
+        @Override
+        public long[] keys() {
+            long[] keys = new long[(max.x() - min.x() + 1) * (max.z() - min.z() + 1)];
+            int count = 0;
+            for (int z = min.z(); z <= max.z(); z++) {
+                for (int x = min.x(); x <= max.x(); x++) {
+                    keys[count++] = SpatialGrid.chunkKey(x, z);
+                }
+            }
+            return keys;
+        }
+    }
+
+    // Every chunk whose offset from the center is within radius chunks.
+    record Radius(ChunkPosition center, int radius) implements ChunkShape {
+
+        public Radius {
+            Objects.requireNonNull(center, "center");
+
+            if (radius < 0) {
+                throw new IllegalArgumentException("radius < 0");
+            }
+            checkArea(new ChunkPosition(center.x() - radius, center.z() - radius), new ChunkPosition(center.x() + radius, center.z() + radius));
+        }
+
+        @Override
+        public ChunkPosition min() {
+            return new ChunkPosition(center.x() - radius, center.z() - radius);
+        }
+
+        @Override
+        public ChunkPosition max() {
+            return new ChunkPosition(center.x() + radius, center.z() + radius);
+        }
+
+        @Override
+        public long[] keys() {
+            long[] keys = new long[(2 * radius + 1) * (2 * radius + 1)];
+            int count = 0;
+            long limit = (long) radius * radius;
+            for (int dz = -radius; dz <= radius; dz++) {
+                // Half-width of this row, so the inner loop needs no distance test.
+                int span = (int) Math.sqrt(limit - (long) dz * dz);
+                while ((long) (span + 1) * (span + 1) + (long) dz * dz <= limit) span++;
+                while ((long) span * span + (long) dz * dz > limit) span--;
+
+                for (int dx = -span; dx <= span; dx++) {
+                    keys[count++] = SpatialGrid.chunkKey(center.x() + dx, center.z() + dz);
+                }
+            }
+            return Arrays.copyOf(keys, count);
+        }
+    }
+
+    // Vertices are chunk corners, so (0, 0) (4, 0) (4, 4) (0, 4) covers chunks 0..3 on both
+    // axes; the last edge closes back to the first vertex. A chunk is inside when its center is,
+    // by the even-odd rule, so self-intersecting outlines leave holes.
+    record Polygon(List<ChunkPosition> vertices) implements ChunkShape {
+
+        public Polygon {
+            vertices = List.copyOf(Objects.requireNonNull(vertices, "vertices"));
+
+            if (vertices.size() < 3) {
+                throw new IllegalArgumentException("A polygon needs at least 3 vertices");
+            }
+            checkArea(corner(vertices, true), corner(vertices, false));
+        }
+
+        @Override
+        public ChunkPosition min() {
+            return corner(vertices, true);
+        }
+
+        // The last chunk row and column lie before the largest vertex coordinates.
+        @Override
+        public ChunkPosition max() {
+            ChunkPosition corner = corner(vertices, false);
+            return new ChunkPosition(corner.x() - 1, corner.z() - 1);
+        }
+
+        @Override
+        public long[] keys() {
+            ChunkPosition min = min();
+            ChunkPosition max = max();
+            int size = vertices.size();
+            long[] keys = new long[Math.max(0, max.x() - min.x() + 1) * Math.max(0, max.z() - min.z() + 1)];
+            double[] crossings = new double[size];
+            int count = 0;
+
+            for (int z = min.z(); z <= max.z(); z++) {
+                double row = z + 0.5;
+                int found = 0;
+                for (int i = 0; i < size; i++) {
+                    ChunkPosition a = vertices.get(i);
+                    ChunkPosition b = vertices.get((i + 1) % size);
+                    if ((a.z() <= z) != (b.z() <= z)) {
+                        crossings[found++] = a.x() + (row - a.z()) * (b.x() - a.x()) / (b.z() - a.z());
+                    }
+                }
+                Arrays.sort(crossings, 0, found);
+
+                for (int i = 0; i + 1 < found; i += 2) {
+                    int from = (int) Math.ceil(crossings[i] - 0.5);
+                    int to = (int) Math.ceil(crossings[i + 1] - 0.5);
+                    for (int x = from; x < to; x++) {
+                        keys[count++] = SpatialGrid.chunkKey(x, z);
+                    }
+                }
+            }
+            return Arrays.copyOf(keys, count);
+        }
+
+        private static ChunkPosition corner(List<ChunkPosition> vertices, boolean min) {
+            int x = min ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            int z = x;
+            for (ChunkPosition vertex : vertices) {
+                Objects.requireNonNull(vertex, "vertex");
+                x = min ? Math.min(x, vertex.x()) : Math.max(x, vertex.x());
+                z = min ? Math.min(z, vertex.z()) : Math.max(z, vertex.z());
+            }
+            return new ChunkPosition(x, z);
+        }
+    }
+
+    private static void checkArea(ChunkPosition min, ChunkPosition max) {
+        long area = ((long) max.x() - min.x() + 1) * ((long) max.z() - min.z() + 1);
+        if (area > MAX_CHUNKS) {
+            throw new IllegalArgumentException("Shape spans more than " + MAX_CHUNKS + " chunks");
+        }
+    }
+}
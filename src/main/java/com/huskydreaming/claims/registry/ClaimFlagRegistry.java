@@ -7,6 +7,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public final class ClaimFlagRegistry {
 
+    // Effective permissions are compiled into one long per claim and role.
+    public static final int MAX_FLAGS = Long.SIZE;
+
     private static final Map<String, Integer> indexById = new ConcurrentHashMap<>();
     private static final List<ClaimFlag> flags = new ArrayList<>();
 
@@ -22,6 +25,10 @@ public final class ClaimFlagRegistry {
         }
 
         int index = flags.size();
+        if (index == MAX_FLAGS) {
+            throw new IllegalStateException("At most " + MAX_FLAGS + " flags can be registered");
+        }
+
         indexById.put(flag.id(), index);
         flags.add(flag);
         return flag;
@@ -0,0 +1,66 @@
+package com.huskydreaming.claims.registry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Global UUID <-> dense int mapping for worlds and claim owners. Ids are never reused, so only
+// ids from small, long-lived sets belong here; claim ids and parent claim ids stay UUIDs.
+public final class UuidDictionary {
+
+    public static final int ABSENT = -1;
+
+    private static final Map<UUID, Integer> idsByUuid = new ConcurrentHashMap<>();
+    private static volatile UUID[] uuids = new UUID[1024];
+    private static int size;
+
+    private UuidDictionary() {}
+
+    public static int intern(UUID uuid) {
+        Integer id = idsByUuid.get(uuid);
+        if (id != null) {
+            return id;
+        }
+        return internSlow(Objects.requireNonNull(uuid, "uuid"));
+    }
+
+    public static int lookup(UUID uuid) {
+        Integer id = idsByUuid.get(uuid);
+        return id == null ? ABSENT : id;
+    }
+
+    public static UUID uuid(int id) {
+        UUID[] snapshot = uuids;
+        if (id < 0 || id >= snapshot.length || snapshot[id] == null) {
+            throw new IllegalArgumentException("Unknown dictionary id: " + id);
+        }
+        return snapshot[id];
+    }
+
+    public static synchronized int size() {
+        return size;
+    }
+
+    private static synchronized int internSlow(UUID uuid) {
+        Integer existing = idsByUuid.get(uuid);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = size;
+        UUID[] current = uuids;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+
+        // Publish the slot before the map entry so a reader that finds the id can always resolve it.
+        current[id] = uuid;
+        uuids = current;
+        size = id + 1;
+
+        idsByUuid.put(uuid, id);
+        return id;
+    }
+}
@@ -0,0 +1,419 @@
+package com.huskydreaming.claims.render;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.feed.ClaimFeedSubscriber;
+import com.huskydreaming.claims.helpers.PeriodicTask;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Follows a world's change feed and keeps a directory of map tiles coloured by owner up to
+// date. Events only mark the zoom 0 tiles under the changed claim dirty; a render pass
+// repaints those from the index in parallel, then rebuilds their ancestors level by level by
+// downsampling the four children, reading untouched children back from disk.
+//
+// Tiles live at <directory>/<zoom>/<x>_<z>.<ext>. Fully transparent tiles are not written,
+// and a tile that becomes empty is deleted.
+public final class ClaimTileRenderer implements ClaimFeedSubscriber, AutoCloseable {
+
+    public static final int DEFAULT_ZOOM_LEVELS = 4;
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final int SIZE = TileKey.TILE_SIZE;
+    private static final int HALF = SIZE / 2;
+    private static final int TRANSPARENT = 0;
+
+    private static final Pattern NAME = Pattern.compile("(-?\\d+)_(-?\\d+)\\.\\w+");
+
+    private final WorldClaims world;
+    private final Path directory;
+    private final TileFormat format;
+    private final int zoomLevels;
+    private final ToIntFunction<UUID> palette;
+    private final ClaimFeedCursor cursor;
+
+    private final ExecutorService workers;
+    private final PeriodicTask task;
+
+    private final Set<TileKey> dirty = new HashSet<>();
+
+    private boolean resync = true;
+    private final AtomicLong tilesWritten = new AtomicLong();
+    private final AtomicLong tilesDeleted = new AtomicLong();
+
+    public ClaimTileRenderer(WorldClaims world, Path directory) {
+        this(world, directory, TileFormat.PNG, DEFAULT_ZOOM_LEVELS, ClaimTileRenderer::defaultColor, null);
+    }
+
+    // The first pass repaints everything, so tiles left by an earlier run are brought up to date.
+    public ClaimTileRenderer(WorldClaims world, Path directory, TileFormat format, int zoomLevels, ToIntFunction<UUID> palette, Duration interval) {
+        this.world = Objects.requireNonNull(world, "world");
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.format = Objects.requireNonNull(format, "format");
+        this.palette = Objects.requireNonNull(palette, "palette");
+        if (zoomLevels < 1 || zoomLevels > TileKey.MAX_ZOOM + 1) {
+            throw new IllegalArgumentException("zoomLevels out of range: " + zoomLevels);
+        }
+
+        this.zoomLevels = zoomLevels;
+        this.cursor = world.feed().cursor();
+
+        String name = "claims-tiles-" + world.worldId();
+        this.task = new PeriodicTask(name, interval);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        task.start(this::render);
+    }
+
+    public Path path(TileKey key) {
+        return directory.resolve(Integer.toString(key.zoom())).resolve(key.x() + "_" + key.z() + "." + format.extension());
+    }
+
+    // Drains the feed and repaints every dirty tile and its ancestors. Dirty tiles are taken
+    // one top-level tile at a time, so a pass never holds more than one subtree of rasters.
+    // Returns the number of tiles redrawn, including ones that turned out empty. On failure
+    // the unfinished tiles stay dirty for the next pass.
+    public synchronized int render() throws IOException {
+        drain();
+
+        try {
+            if (resync) {
+                markAll();
+                resync = false;
+            }
+
+            Map<TileKey, Set<TileKey>> subtrees = new HashMap<>();
+            for (TileKey tile : dirty) {
+                subtrees.computeIfAbsent(tile.ancestor(zoomLevels - 1), top -> new HashSet<>()).add(tile);
+            }
+
+            int changed = 0;
+            for (Set<TileKey> tiles : subtrees.values()) {
+                changed += renderSubtree(tiles);
+                dirty.removeAll(tiles);
+            }
+
+            task.succeeded();
+            return changed;
+        } catch (IOException | RuntimeException e) {
+            task.failed(e);
+            throw e;
+        }
+    }
+
+    // Zoom 0 tiles waiting for the next pass, not counting a pending full repaint.
+    public synchronized int dirtyCount() {
+        drain();
+        return dirty.size();
+    }
+
+    public long tilesWritten() {
+        return tilesWritten.get();
+    }
+
+    public long tilesDeleted() {
+        return tilesDeleted.get();
+    }
+
+    public Optional<Exception> lastFailure() {
+        return task.lastFailure();
+    }
+
+    // Repaints every tile on the next pass.
+    public synchronized void invalidateAll() {
+        resync = true;
+    }
+
+    @Override
+    public void onBatch(long firstSequence, List<ClaimEvent> events) {
+        for (ClaimEvent event : events) {
+            if (event.worldId().equals(world.worldId())) {
+                apply(event);
+            }
+        }
+    }
+
+    @Override
+    public void onOverrun(long lostFromSequence, long resumeSequence) {
+        resync = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        task.close();
+        try {
+            render();
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    // Owners get evenly spread hues from their id, so neighbours rarely share a colour.
+    public static int defaultColor(UUID ownerId) {
+        long bits = ownerId.getMostSignificantBits() ^ ownerId.getLeastSignificantBits();
+        float hue = (float) ((bits * 0x9E3779B97F4A7C15L >>> 40) / (double) (1L << 24));
+        return Color.HSBtoRGB(hue, 0.65f, 0.9f) | 0xFF00_0000;
+    }
+
+    private void drain() {
+        while (cursor.drain(this, DRAIN_BATCH) > 0) {
+        }
+    }
+
+    private void apply(ClaimEvent event) {
+        switch (event) {
+            case ClaimEvent.ChunkClaimed e -> mark(e.claim().chunkPosition().bounds());
+            case ClaimEvent.ChunkUnclaimed e -> mark(e.claim().chunkPosition().bounds());
+            case ClaimEvent.ChunksClaimed e -> e.claims().forEach(claim -> mark(claim.chunkPosition().bounds()));
+            case ClaimEvent.ChunksUnclaimed e -> e.claims().forEach(claim -> mark(claim.chunkPosition().bounds()));
+            case ClaimEvent.AreaAdded e -> mark(e.claim().bounds());
+            case ClaimEvent.AreaRemoved e -> mark(e.claim().bounds());
+            case ClaimEvent.AreaResized e -> {
+                mark(e.previous().bounds());
+                mark(e.claim().bounds());
+            }
+            case ClaimEvent.PlotAdded e -> mark(e.plot().bounds());
+            case ClaimEvent.PlotRemoved e -> mark(e.plot().bounds());
+            case ClaimEvent.PlotResized e -> {
+                mark(e.previous().bounds());
+                mark(e.plot().bounds());
+            }
+            // Colours only depend on owners, which permission changes never touch.
+            case ClaimEvent.PermissionsChanged e -> {
+            }
+            case ClaimEvent.ClaimsCleared e -> resync = true;
+        }
+    }
+
+    private void mark(BoundingBox bounds) {
+        TileKey min = TileKey.containing(0, bounds.minX(), bounds.minZ());
+        TileKey max = TileKey.containing(0, bounds.maxX(), bounds.maxZ());
+        for (int x = min.x(); x <= max.x(); x++) {
+            for (int z = min.z(); z <= max.z(); z++) {
+                dirty.add(new TileKey(0, x, z));
+            }
+        }
+    }
+
+    // Everything drawn before plus everything that should be drawn now.
+    private void markAll() throws IOException {
+        Path zoomZero = directory.resolve("0");
+        if (Files.isDirectory(zoomZero)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(zoomZero, "*." + format.extension())) {
+                for (Path file : stream) {
+                    Matcher matcher = NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        dirty.add(new TileKey(0, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                    }
+                }
+            }
+        }
+
+        world.chunk().allClaims().forEach(claim -> mark(claim.chunkPosition().bounds()));
+        world.area().allClaims().forEach(claim -> mark(claim.bounds()));
+        world.plot().allClaims().forEach(plot -> mark(plot.bounds()));
+    }
+
+    // Each level's tiles are drawn in parallel and hand their parent a half-size copy.
+    private int renderSubtree(Set<TileKey> tiles) throws IOException {
+        Map<TileKey, int[]> halves = parallel(tiles, this::paint);
+        int changed = tiles.size();
+
+        for (int zoom = 1; zoom < zoomLevels; zoom++) {
+            Set<TileKey> parents = new HashSet<>();
+            for (TileKey tile : halves.keySet()) parents.add(tile.parent());
+
+            Map<TileKey, int[]> children = halves;
+            halves = parallel(parents, parent -> compose(parent, children));
+            changed += parents.size();
+        }
+        return changed;
+    }
+
+    private Map<TileKey, int[]> parallel(Set<TileKey> tiles, TileTask task) throws IOException {
+        List<TileKey> keys = List.copyOf(tiles);
+        List<Callable<int[]>> calls = new ArrayList<>(keys.size());
+        for (TileKey key : keys) {
+            calls.add(() -> {
+                int[] pixels = task.draw(key);
+                store(key, pixels);
+                return pixels == null || key.zoom() == zoomLevels - 1 ? null : half(pixels);
+            });
+        }
+
+        List<Future<int[]>> futures;
+        try {
+            futures = workers.invokeAll(calls);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering tiles", e);
+        }
+
+        Map<TileKey, int[]> out = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            try {
+                out.put(keys.get(i), futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while rendering tiles", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                throw new IOException("Tile rendering failed", e.getCause());
+            }
+        }
+        return out;
+    }
+
+    // Null for a tile with nothing on it. Chunks go first, then areas, then plots, matching
+    // the order getClaimAt resolves them in.
+    private int[] paint(TileKey key) {
+        int minX = key.minBlockX();
+        int minZ = key.minBlockZ();
+        BoundingBox bounds = key.bounds();
+
+        // A zoom 0 tile never straddles a region, so one residency check covers it.
+        world.pager().ifPresent(pager -> pager.beforeRead(minX, minZ));
+
+        // One consistent view of all three indexes, so a sweep between them cannot tear the tile.
+        TileClaims claims = world.readConsistent(() -> new TileClaims(
+                world.chunk().intersecting(bounds),
+                world.area().intersecting(bounds),
+                world.plot().intersecting(bounds)
+        ));
+
+        int[] pixels = new int[SIZE * SIZE];
+        boolean empty = true;
+
+        for (ChunkClaim claim : claims.chunks()) {
+            empty &= !fill(pixels, minX, minZ, claim.chunkPosition().bounds(), null, palette.applyAsInt(claim.ownerId()));
+        }
+        for (AreaClaim claim : claims.areas()) {
+            empty &= !fill(pixels, minX, minZ, claim.bounds(), claim.outline(), palette.applyAsInt(claim.ownerId()));
+        }
+        for (PlotClaim plot : claims.plots()) {
+            empty &= !fill(pixels, minX, minZ, plot.bounds(), null, palette.applyAsInt(plot.ownerId()));
+        }
+        return empty ? null : pixels;
+    }
+
+    private record TileClaims(List<ChunkClaim> chunks, Set<AreaClaim> areas, Set<PlotClaim> plots) {
+    }
+
+    private static boolean fill(int[] pixels, int minX, int minZ, BoundingBox box, BlockPolygon outline, int color) {
+        int fromX = Math.max(box.minX(), minX) - minX, toX = (int) Math.min((long) box.maxX() - minX, SIZE - 1);
+        int fromZ = Math.max(box.minZ(), minZ) - minZ, toZ = (int) Math.min((long) box.maxZ() - minZ, SIZE - 1);
+
+        boolean painted = false;
+        for (int z = fromZ; z <= toZ; z++) {
+            for (int x = fromX; x <= toX; x++) {
+                if (outline != null && !outline.contains(minX + x, minZ + z)) continue;
+                pixels[z * SIZE + x] = color;
+                painted = true;
+            }
+        }
+        return painted;
+    }
+
+    private int[] compose(TileKey parent, Map<TileKey, int[]> halves) throws IOException {
+        int[] pixels = new int[SIZE * SIZE];
+        boolean empty = true;
+
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            TileKey child = parent.child(quadrant);
+            int[] half = halves.containsKey(child) ? halves.get(child) : halfFromDisk(child);
+            if (half == null) continue;
+
+            int offsetX = (quadrant & 1) * HALF;
+            int offsetZ = (quadrant >> 1) * HALF;
+            for (int z = 0; z < HALF; z++) {
+                System.arraycopy(half, z * HALF, pixels, (offsetZ + z) * SIZE + offsetX, HALF);
+            }
+            empty = false;
+        }
+        return empty ? null : pixels;
+    }
+
+    private int[] halfFromDisk(TileKey tile) throws IOException {
+        Path file = path(tile);
+        return Files.exists(file) ? half(format.read(file)) : null;
+    }
+
+    // Each 2x2 block becomes its most common opaque colour, so owners keep their own colours
+    // instead of blending at borders. Ties go to the first in row-major order.
+    private static int[] half(int[] pixels) {
+        int[] out = new int[HALF * HALF];
+        int[] block = new int[4];
+        for (int z = 0; z < HALF; z++) {
+            for (int x = 0; x < HALF; x++) {
+                int top = 2 * z * SIZE + 2 * x;
+                block[0] = pixels[top];
+                block[1] = pixels[top + 1];
+                block[2] = pixels[top + SIZE];
+                block[3] = pixels[top + SIZE + 1];
+                out[z * HALF + x] = dominant(block);
+            }
+        }
+        return out;
+    }
+
+    private static int dominant(int[] block) {
+        int best = TRANSPARENT;
+        int bestCount = 0;
+        for (int i = 0; i < 4; i++) {
+            if (block[i] == TRANSPARENT) continue;
+
+            int count = 0;
+            for (int j = 0; j < 4; j++) {
+                if (block[j] == block[i]) count++;
+            }
+            if (count > bestCount) {
+                best = block[i];
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private void store(TileKey key, int[] pixels) throws IOException {
+        Path file = path(key);
+        if (pixels == null) {
+            if (Files.deleteIfExists(file)) tilesDeleted.incrementAndGet();
+            return;
+        }
+
+        format.write(file, pixels);
+        tilesWritten.incrementAndGet();
+    }
+
+    @FunctionalInterface
+    private interface TileTask {
+        int[] draw(TileKey key) throws IOException;
+    }
+}
@@ -0,0 +1,80 @@
+package com.huskydreaming.claims.render;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// On-disk encoding of a TILE_SIZE x TILE_SIZE ARGB tile. RAW is the pixels as big-endian ints
+// with no header, for consumers that upload textures themselves.
+public enum TileFormat {
+    PNG("png"),
+    RAW("raw");
+
+    private static final int PIXELS = TileKey.TILE_SIZE * TileKey.TILE_SIZE;
+
+    private final String extension;
+
+    TileFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    // Written to a temporary file first, so map servers never see a half-written tile.
+    void write(Path file, int[] pixels) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                switch (this) {
+                    case PNG -> {
+                        BufferedImage image = new BufferedImage(TileKey.TILE_SIZE, TileKey.TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+                        image.setRGB(0, 0, TileKey.TILE_SIZE, TileKey.TILE_SIZE, pixels, 0, TileKey.TILE_SIZE);
+                        if (!ImageIO.write(image, "png", out)) {
+                            throw new IOException("No PNG writer available");
+                        }
+                    }
+                    case RAW -> {
+                        ByteBuffer buffer = ByteBuffer.allocate(PIXELS * Integer.BYTES);
+                        buffer.asIntBuffer().put(pixels);
+                        out.write(buffer.array());
+                    }
+                }
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    int[] read(Path file) throws IOException {
+        int[] pixels = new int[PIXELS];
+        switch (this) {
+            case PNG -> {
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image == null || image.getWidth() != TileKey.TILE_SIZE || image.getHeight() != TileKey.TILE_SIZE) {
+                    throw new IOException("Not a map tile: " + file);
+                }
+                image.getRGB(0, 0, TileKey.TILE_SIZE, TileKey.TILE_SIZE, pixels, 0, TileKey.TILE_SIZE);
+            }
+            case RAW -> {
+                byte[] bytes = Files.readAllBytes(file);
+                if (bytes.length != PIXELS * Integer.BYTES) {
+                    throw new IOException("Not a map tile: " + file);
+                }
+                ByteBuffer.wrap(bytes).asIntBuffer().get(pixels);
+            }
+        }
+        return pixels;
+    }
+}
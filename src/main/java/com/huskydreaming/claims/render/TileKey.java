@@ -0,0 +1,55 @@
+package com.huskydreaming.claims.render;
+
+import com.huskydreaming.claims.model.positions.BoundingBox;
+
+// One map tile. Zoom 0 draws one block per pixel; every level up halves the detail, so a
+// tile at zoom z spans TILE_SIZE << z blocks on each axis.
+public record TileKey(int zoom, int x, int z) {
+
+    public static final int TILE_SIZE = 256;
+    public static final int MAX_ZOOM = 8;
+
+    public TileKey {
+        if (zoom < 0 || zoom > MAX_ZOOM) throw new IllegalArgumentException("zoom out of range: " + zoom);
+    }
+
+    public static TileKey containing(int zoom, int blockX, int blockZ) {
+        int span = TILE_SIZE << zoom;
+        return new TileKey(zoom, Math.floorDiv(blockX, span), Math.floorDiv(blockZ, span));
+    }
+
+    public int blockSpan() {
+        return TILE_SIZE << zoom;
+    }
+
+    public int minBlockX() {
+        return x * blockSpan();
+    }
+
+    public int minBlockZ() {
+        return z * blockSpan();
+    }
+
+    public BoundingBox bounds() {
+        return new BoundingBox(
+                minBlockX(), Integer.MIN_VALUE, minBlockZ(),
+                minBlockX() + blockSpan() - 1, Integer.MAX_VALUE, minBlockZ() + blockSpan() - 1
+        );
+    }
+
+    public TileKey parent() {
+        return new TileKey(zoom + 1, Math.floorDiv(x, 2), Math.floorDiv(z, 2));
+    }
+
+    public TileKey ancestor(int targetZoom) {
+        if (targetZoom < zoom) throw new IllegalArgumentException("targetZoom < zoom");
+        int shift = targetZoom - zoom;
+        return new TileKey(targetZoom, x >> shift, z >> shift);
+    }
+
+    // Quadrant 0..3 in row-major order: (0, 0), (1, 0), (0, 1), (1, 1).
+    public TileKey child(int quadrant) {
+        if (zoom == 0) throw new IllegalStateException("Zoom 0 tiles have no children");
+        return new TileKey(zoom - 1, 2 * x + (quadrant & 1), 2 * z + (quadrant >> 1));
+    }
+}
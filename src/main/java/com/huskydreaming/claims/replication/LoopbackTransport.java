@@ -0,0 +1,47 @@
+package com.huskydreaming.claims.replication;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-process stand-in for a network link: frames are encoded payloads delivered synchronously.
+public final class LoopbackTransport implements ReplicationTransport {
+
+    private final List<ReplicationFollower> followers = new CopyOnWriteArrayList<>();
+
+    private volatile long framesSent;
+    private volatile long bytesSent;
+
+    public void connect(ReplicationFollower follower) {
+        followers.add(Objects.requireNonNull(follower, "follower"));
+    }
+
+    public void disconnect(ReplicationFollower follower) {
+        followers.remove(follower);
+    }
+
+    public long framesSent() {
+        return framesSent;
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    @Override
+    public synchronized void send(ReplicationFrame frame) {
+        Objects.requireNonNull(frame, "frame");
+
+        framesSent++;
+        bytesSent += switch (frame) {
+            case ReplicationFrame.Batch batch -> batch.payload().length;
+            case ReplicationFrame.Snapshot snapshot -> snapshot.payload().length;
+        };
+
+        for (ReplicationFollower follower : followers) {
+            if (follower.worldId().equals(frame.worldId())) {
+                follower.receive(frame);
+            }
+        }
+    }
+}
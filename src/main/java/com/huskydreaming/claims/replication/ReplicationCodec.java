@@ -0,0 +1,92 @@
+package com.huskydreaming.claims.replication;
+
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+// Replication frame payloads: a codec header, then tagged events or a snapshot. Claim
+// records themselves use the shared ClaimCodec layout.
+final class ReplicationCodec {
+
+    // Header and count, and per event its sequence offset.
+    private static final int FRAME_OVERHEAD = 16;
+    private static final int EVENT_OVERHEAD = 10;
+
+    private ReplicationCodec() {}
+
+    record SequencedEvent(long sequence, ClaimEvent event) {
+    }
+
+    record SnapshotContents(List<ChunkClaim> chunks, List<AreaClaim> areas, List<PlotClaim> plots) {
+    }
+
+    static byte[] encodeBatch(long firstSequence, List<SequencedEvent> events) {
+        int capacity = FRAME_OVERHEAD;
+        for (SequencedEvent sequenced : events) {
+            capacity += EVENT_OVERHEAD + ClaimCodec.maxSize(sequenced.event());
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(capacity);
+        ClaimCodec.writeHeader(out);
+        ClaimCodec.writeVarLong(out, events.size());
+
+        for (SequencedEvent sequenced : events) {
+            ClaimCodec.writeVarLong(out, sequenced.sequence() - firstSequence);
+            ClaimCodec.writeEvent(out, sequenced.event());
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    static List<SequencedEvent> decodeBatch(UUID worldId, long firstSequence, byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        ClaimCodec.readHeader(in);
+
+        int count = ClaimCodec.readCount(in);
+        List<SequencedEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long sequence = firstSequence + ClaimCodec.readVarLong(in);
+            events.add(new SequencedEvent(sequence, ClaimCodec.readEvent(in, worldId)));
+        }
+        return events;
+    }
+
+    static byte[] encodeSnapshot(Collection<ChunkClaim> chunks, Collection<AreaClaim> areas, Collection<PlotClaim> plots) {
+        int capacity = FRAME_OVERHEAD + ClaimCodec.maxChunkBatchSize(chunks);
+        for (AreaClaim claim : areas) capacity += ClaimCodec.maxSize(claim);
+        for (PlotClaim plot : plots) capacity += ClaimCodec.maxSize(plot);
+
+        ByteBuffer out = ByteBuffer.allocate(capacity);
+        ClaimCodec.writeHeader(out);
+        ClaimCodec.writeChunkBatch(out, chunks);
+
+        ClaimCodec.writeVarLong(out, areas.size());
+        for (AreaClaim claim : areas) ClaimCodec.writeArea(out, claim);
+
+        ClaimCodec.writeVarLong(out, plots.size());
+        for (PlotClaim plot : plots) ClaimCodec.writePlot(out, plot);
+
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    static SnapshotContents decodeSnapshot(UUID worldId, byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        int version = ClaimCodec.readHeader(in);
+
+        List<ChunkClaim> chunks = ClaimCodec.readChunkBatch(in, worldId, version);
+
+        int areaCount = ClaimCodec.readCount(in);
+        List<AreaClaim> areas = new ArrayList<>(areaCount);
+        for (int i = 0; i < areaCount; i++) areas.add(ClaimCodec.readArea(in, worldId));
+
+        int plotCount = ClaimCodec.readCount(in);
+        List<PlotClaim> plots = new ArrayList<>(plotCount);
+        for (int i = 0; i < plotCount; i++) plots.add(ClaimCodec.readPlot(in, worldId));
+
+        return new SnapshotContents(chunks, areas, plots);
+    }
+}
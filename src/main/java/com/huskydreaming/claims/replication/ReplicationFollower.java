@@ -0,0 +1,100 @@
+package com.huskydreaming.claims.replication;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+// Applies a leader's batches to a local world. Frames may arrive duplicated or overlapping;
+// anything below nextSequence is skipped, and a gap triggers a snapshot catch-up.
+public final class ReplicationFollower {
+
+    private static final long UNSYNCED = -1L;
+
+    private final WorldClaims world;
+    private final SnapshotSource snapshotSource;
+
+    private long nextSequence = UNSYNCED;
+    private long snapshots;
+
+    public ReplicationFollower(WorldClaims world, SnapshotSource snapshotSource) {
+        this.world = Objects.requireNonNull(world, "world");
+        this.snapshotSource = Objects.requireNonNull(snapshotSource, "snapshotSource");
+    }
+
+    public UUID worldId() {
+        return world.worldId();
+    }
+
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    public synchronized long snapshotsApplied() {
+        return snapshots;
+    }
+
+    public synchronized void receive(ReplicationFrame frame) {
+        Objects.requireNonNull(frame, "frame");
+
+        if (!frame.worldId().equals(world.worldId())) {
+            throw new IllegalArgumentException("Frame belongs to another world");
+        }
+
+        switch (frame) {
+            case ReplicationFrame.Snapshot snapshot -> applySnapshot(snapshot);
+            case ReplicationFrame.Batch batch -> {
+                if (nextSequence == UNSYNCED || batch.firstSequence() > nextSequence) {
+                    catchUp();
+                }
+
+                if (batch.endSequence() <= nextSequence) {
+                    return;
+                }
+
+                // A snapshot taken past this batch leaves nextSequence beyond its end; otherwise apply the tail.
+                if (batch.firstSequence() <= nextSequence) {
+                    applyBatch(batch);
+                }
+            }
+        }
+    }
+
+    public synchronized void catchUp() {
+        applySnapshot(snapshotSource.requestSnapshot(world.worldId()));
+    }
+
+    private void applyBatch(ReplicationFrame.Batch batch) {
+        List<ReplicationCodec.SequencedEvent> events =
+                ReplicationCodec.decodeBatch(world.worldId(), batch.firstSequence(), batch.payload());
+
+        synchronized (world) {
+            for (ReplicationCodec.SequencedEvent sequenced : events) {
+                if (sequenced.sequence() >= nextSequence) {
+                    world.apply(sequenced.event());
+                }
+            }
+        }
+
+        nextSequence = batch.endSequence();
+    }
+
+    private void applySnapshot(ReplicationFrame.Snapshot snapshot) {
+        if (nextSequence != UNSYNCED && snapshot.nextSequence() < nextSequence) {
+            return;
+        }
+
+        ReplicationCodec.SnapshotContents contents = ReplicationCodec.decodeSnapshot(world.worldId(), snapshot.payload());
+
+        synchronized (world) {
+            world.clear();
+            contents.chunks().forEach(world.chunk()::claim);
+            contents.areas().forEach(world.area()::add);
+            contents.plots().forEach(world.plot()::add);
+        }
+
+        nextSequence = snapshot.nextSequence();
+        snapshots++;
+    }
+}
@@ -0,0 +1,31 @@
+package com.huskydreaming.claims.replication;
+
+import java.util.Objects;
+import java.util.UUID;
+
+// Unit shipped from a leader to its followers. Payloads are produced by ReplicationCodec.
+public sealed interface ReplicationFrame permits ReplicationFrame.Batch, ReplicationFrame.Snapshot {
+
+    UUID worldId();
+
+    // Events for feed sequences [firstSequence, endSequence); sequences of other worlds are skipped.
+    record Batch(UUID worldId, long firstSequence, long endSequence, byte[] payload) implements ReplicationFrame {
+
+        public Batch {
+            Objects.requireNonNull(worldId, "worldId");
+            Objects.requireNonNull(payload, "payload");
+            if (firstSequence < 0) throw new IllegalArgumentException("firstSequence < 0");
+            if (endSequence < firstSequence) throw new IllegalArgumentException("endSequence < firstSequence");
+        }
+    }
+
+    // Full world state; replaying from nextSequence on top of it converges with the leader.
+    record Snapshot(UUID worldId, long nextSequence, byte[] payload) implements ReplicationFrame {
+
+        public Snapshot {
+            Objects.requireNonNull(worldId, "worldId");
+            Objects.requireNonNull(payload, "payload");
+            if (nextSequence < 0) throw new IllegalArgumentException("nextSequence < 0");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.huskydreaming.claims.replication;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.feed.ClaimFeedSubscriber;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+// Ships a world's change feed to followers as sequenced binary batches. Sequences are the
+// feed's own, so a batch lost to a feed overrun shows up as a gap and followers catch up
+// from a snapshot.
+public final class ReplicationLeader implements ClaimFeedSubscriber, SnapshotSource {
+
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    private final WorldClaims world;
+    private final ReplicationTransport transport;
+    private final ClaimFeedCursor cursor;
+    private final int batchSize;
+
+    private final List<ReplicationCodec.SequencedEvent> batch = new ArrayList<>();
+
+    private boolean overrun;
+
+    public ReplicationLeader(WorldClaims world, ReplicationTransport transport) {
+        this(world, transport, DEFAULT_BATCH_SIZE);
+    }
+
+    public ReplicationLeader(WorldClaims world, ReplicationTransport transport, int batchSize) {
+        this.world = Objects.requireNonNull(world, "world");
+        this.transport = Objects.requireNonNull(transport, "transport");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize < 1");
+        }
+
+        this.batchSize = batchSize;
+        this.cursor = world.feed().cursor();
+    }
+
+    public UUID worldId() {
+        return world.worldId();
+    }
+
+    public long nextSequence() {
+        return cursor.nextSequence();
+    }
+
+    // Sends everything published since the last call and returns the number of frames shipped.
+    public synchronized int ship() {
+        int frames = 0;
+        int drained;
+        do {
+            // An overrun drain can return nothing while events are still readable past the gap.
+            overrun = false;
+            drained = cursor.drain(this, batchSize);
+            if (drained > 0) frames++;
+        } while (drained > 0 || overrun);
+        return frames;
+    }
+
+    @Override
+    public void onBatch(long firstSequence, List<ClaimEvent> events) {
+        batch.clear();
+        for (int i = 0; i < events.size(); i++) {
+            ClaimEvent event = events.get(i);
+            if (event.worldId().equals(world.worldId())) {
+                batch.add(new ReplicationCodec.SequencedEvent(firstSequence + i, event));
+            }
+        }
+
+        byte[] payload = ReplicationCodec.encodeBatch(firstSequence, batch);
+        transport.send(new ReplicationFrame.Batch(world.worldId(), firstSequence, firstSequence + events.size(), payload));
+    }
+
+    @Override
+    public void onOverrun(long lostFromSequence, long resumeSequence) {
+        overrun = true;
+    }
+
+    // Taken under the world monitor so ClaimMutationQueue batches and pager sweeps cannot
+    // interleave. allClaims() also reads paged-out regions, so a paged leader ships every claim.
+    // Events from nextSequence on may already be reflected; followers replay them idempotently.
+    @Override
+    public ReplicationFrame.Snapshot requestSnapshot(UUID worldId) {
+        if (!world.worldId().equals(worldId)) {
+            throw new IllegalArgumentException("Leader does not replicate world " + worldId);
+        }
+
+        synchronized (world) {
+            long nextSequence = world.feed().headSequence();
+            byte[] payload = ReplicationCodec.encodeSnapshot(
+                    world.chunk().allClaims(),
+                    world.area().allClaims(),
+                    world.plot().allClaims()
+            );
+            return new ReplicationFrame.Snapshot(worldId, nextSequence, payload);
+        }
+    }
+}
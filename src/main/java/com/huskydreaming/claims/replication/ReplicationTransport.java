@@ -0,0 +1,7 @@
+package com.huskydreaming.claims.replication;
+
+@FunctionalInterface
+public interface ReplicationTransport {
+
+    void send(ReplicationFrame frame);
+}
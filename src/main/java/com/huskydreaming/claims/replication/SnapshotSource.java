@@ -0,0 +1,9 @@
+package com.huskydreaming.claims.replication;
+
+import java.util.UUID;
+
+@FunctionalInterface
+public interface SnapshotSource {
+
+    ReplicationFrame.Snapshot requestSnapshot(UUID worldId);
+}
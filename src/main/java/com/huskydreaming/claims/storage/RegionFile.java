@@ -0,0 +1,138 @@
+package com.huskydreaming.claims.storage;
+
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// One file per region holding every claim that touches it. Areas and plots spanning several
+// regions are stored in each of them, so loading a single region is enough to answer any
+// lookup inside it.
+public final class RegionFile {
+
+    private static final int MAGIC = 0x41524347;
+
+    private static final Pattern NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.claims");
+
+    private RegionFile() {}
+
+    public record Contents(UUID worldId, List<ChunkClaim> chunks, List<AreaClaim> areas, List<PlotClaim> plots) {
+
+        public Contents {
+            Objects.requireNonNull(worldId, "worldId");
+            chunks = List.copyOf(chunks);
+            areas = List.copyOf(areas);
+            plots = List.copyOf(plots);
+        }
+
+        public boolean isEmpty() {
+            return chunks.isEmpty() && areas.isEmpty() && plots.isEmpty();
+        }
+    }
+
+    public static Path path(Path directory, long regionKey) {
+        return directory.resolve("r." + SpatialGrid.unpackX(regionKey) + "." + SpatialGrid.unpackZ(regionKey) + ".claims");
+    }
+
+    public static Set<Long> scan(Path directory) throws IOException {
+        Set<Long> out = new HashSet<>();
+        if (!Files.isDirectory(directory)) {
+            return out;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "r.*.claims")) {
+            for (Path file : stream) {
+                Matcher matcher = NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    out.add(SpatialGrid.pack(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            }
+        }
+        return out;
+    }
+
+    public static void write(Path file, Contents contents) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(contents, "contents");
+
+        if (contents.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        ByteBuffer out = ByteBuffer.allocate(maxSize(contents));
+        out.putInt(MAGIC);
+        ClaimCodec.writeHeader(out);
+        ClaimCodec.writeUuid(out, contents.worldId());
+
+        ClaimCodec.writeChunkBatch(out, contents.chunks());
+
+        ClaimCodec.writeVarLong(out, contents.areas().size());
+        for (AreaClaim claim : contents.areas()) ClaimCodec.writeArea(out, claim);
+
+        ClaimCodec.writeVarLong(out, contents.plots().size());
+        for (PlotClaim plot : contents.plots()) ClaimCodec.writePlot(out, plot);
+
+        out.flip();
+
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static Contents read(Path file) throws IOException {
+        Objects.requireNonNull(file, "file");
+
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.remaining() < Integer.BYTES || in.getInt() != MAGIC) {
+                throw new IOException("Not a claim region file: " + file);
+            }
+
+            int version = ClaimCodec.readHeader(in);
+            UUID worldId = ClaimCodec.readUuid(in);
+
+            List<ChunkClaim> chunks = ClaimCodec.readChunkBatch(in, worldId, version);
+
+            int areaCount = ClaimCodec.readCount(in);
+            List<AreaClaim> areas = new ArrayList<>(areaCount);
+            for (int i = 0; i < areaCount; i++) areas.add(ClaimCodec.readArea(in, worldId));
+
+            int plotCount = ClaimCodec.readCount(in);
+            List<PlotClaim> plots = new ArrayList<>(plotCount);
+            for (int i = 0; i < plotCount; i++) plots.add(ClaimCodec.readPlot(in, worldId));
+
+            return new Contents(worldId, chunks, areas, plots);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt claim region file: " + file, e);
+        }
+    }
+
+    private static int maxSize(Contents contents) {
+        int size = Integer.BYTES + 1 + 16 + 2 * 5 + ClaimCodec.maxChunkBatchSize(contents.chunks());
+        for (AreaClaim claim : contents.areas()) size += ClaimCodec.maxSize(claim);
+        for (PlotClaim plot : contents.plots()) size += ClaimCodec.maxSize(plot);
+        return size;
+    }
+}
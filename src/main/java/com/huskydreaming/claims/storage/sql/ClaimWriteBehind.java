@@ -0,0 +1,149 @@
+package com.huskydreaming.claims.storage.sql;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.feed.ClaimFeedSubscriber;
+import com.huskydreaming.claims.helpers.PeriodicTask;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+
+// Follows a world's change feed and writes it to SQL in the background. Pending writes are
+// keyed by claim id, so a claim mutated many times between flushes costs one row write.
+public final class ClaimWriteBehind implements ClaimFeedSubscriber, AutoCloseable {
+
+    private static final int DRAIN_BATCH = 1024;
+
+    private final WorldClaims world;
+    private final SqlClaimStore store;
+    private final ClaimFeedCursor cursor;
+    private final PeriodicTask task;
+
+    private final Map<UUID, SqlWrite> pending = new LinkedHashMap<>();
+    private final Set<ClaimType> cleared = EnumSet.noneOf(ClaimType.class);
+
+    private boolean resync;
+    private long received;
+    private long written;
+
+    public ClaimWriteBehind(WorldClaims world, SqlClaimStore store) {
+        this(world, store, null);
+    }
+
+    public ClaimWriteBehind(WorldClaims world, SqlClaimStore store, Duration interval) {
+        this.world = Objects.requireNonNull(world, "world");
+        this.store = Objects.requireNonNull(store, "store");
+        this.cursor = world.feed().cursor();
+        this.task = new PeriodicTask("claims-sql-" + world.worldId(), interval);
+        task.start(this::flush);
+    }
+
+    // Drains the feed and writes everything pending in one transaction. On failure the
+    // pending writes are kept and retried by the next flush.
+    public synchronized int flush() throws SQLException {
+        while (cursor.drain(this, DRAIN_BATCH) > 0) {
+        }
+
+        try {
+            if (resync) {
+                store.replaceAll(world);
+                resync = false;
+                task.succeeded();
+                return world.chunk().allClaims().size() + world.area().allClaims().size() + world.plot().allClaims().size();
+            }
+
+            if (pending.isEmpty() && cleared.isEmpty()) {
+                return 0;
+            }
+
+            List<SqlWrite> writes = List.copyOf(pending.values());
+            store.write(world.worldId(), cleared, writes);
+
+            pending.clear();
+            cleared.clear();
+            written += writes.size();
+            task.succeeded();
+            return writes.size();
+        } catch (SQLException | RuntimeException e) {
+            task.failed(e);
+            throw e;
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // Feed events seen versus rows written; the difference is what coalescing saved.
+    public synchronized long receivedCount() {
+        return received;
+    }
+
+    public synchronized long writtenCount() {
+        return written;
+    }
+
+    public Optional<Exception> lastFailure() {
+        return task.lastFailure();
+    }
+
+    @Override
+    public void onBatch(long firstSequence, List<ClaimEvent> events) {
+        for (ClaimEvent event : events) {
+            if (event.worldId().equals(world.worldId())) {
+                received++;
+                apply(event);
+            }
+        }
+    }
+
+    // Events were lost, so the next flush rewrites the world from memory.
+    @Override
+    public void onOverrun(long lostFromSequence, long resumeSequence) {
+        pending.clear();
+        cleared.clear();
+        resync = true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        task.close();
+        flush();
+    }
+
+    private void apply(ClaimEvent event) {
+        switch (event) {
+            case ClaimEvent.ChunkClaimed e -> pending.put(e.claim().id(), new SqlWrite.UpsertChunk(e.claim()));
+            case ClaimEvent.ChunkUnclaimed e -> pending.put(e.claim().id(), new SqlWrite.Delete(ClaimType.CHUNK, e.claim().id()));
+            case ClaimEvent.ChunksClaimed e -> e.claims().forEach(claim -> pending.put(claim.id(), new SqlWrite.UpsertChunk(claim)));
+            case ClaimEvent.ChunksUnclaimed e -> e.claims().forEach(claim -> pending.put(claim.id(), new SqlWrite.Delete(ClaimType.CHUNK, claim.id())));
+            case ClaimEvent.AreaAdded e -> pending.put(e.claim().id(), new SqlWrite.UpsertArea(e.claim()));
+            case ClaimEvent.AreaRemoved e -> pending.put(e.claim().id(), new SqlWrite.Delete(ClaimType.AREA, e.claim().id()));
+            case ClaimEvent.AreaResized e -> pending.put(e.claim().id(), new SqlWrite.UpsertArea(e.claim()));
+            case ClaimEvent.PlotAdded e -> pending.put(e.plot().id(), new SqlWrite.UpsertPlot(e.plot()));
+            case ClaimEvent.PlotResized e -> pending.put(e.plot().id(), new SqlWrite.UpsertPlot(e.plot()));
+            case ClaimEvent.PlotRemoved e -> pending.put(e.plot().id(), new SqlWrite.Delete(ClaimType.PLOT, e.plot().id()));
+            case ClaimEvent.PermissionsChanged e -> {
+                // A permission change on an already removed claim must not bring its row back.
+                if (pending.get(e.claim().id()) instanceof SqlWrite.Delete) return;
+                pending.put(e.claim().id(), upsert(e.claim()));
+            }
+            case ClaimEvent.ClaimsCleared e -> {
+                pending.values().removeIf(write -> write.type() == e.type());
+                cleared.add(e.type());
+            }
+        }
+    }
+
+    private static SqlWrite upsert(ResolvedClaim claim) {
+        return switch (claim) {
+            case ResolvedClaim.Chunk chunk -> new SqlWrite.UpsertChunk(chunk.unwrap());
+            case ResolvedClaim.Area area -> new SqlWrite.UpsertArea(area.unwrap());
+            case ResolvedClaim.Plot plot -> new SqlWrite.UpsertPlot(plot.unwrap());
+        };
+    }
+}
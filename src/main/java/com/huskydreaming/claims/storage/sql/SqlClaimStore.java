@@ -0,0 +1,389 @@
+package com.huskydreaming.claims.storage.sql;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.jfr.ClaimBulkEvent;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.*;
+import java.util.*;
+
+// JDBC backend for all three claim types. Every write goes through one transaction with
+// batched prepared statements; loading streams rows straight into the world indexes.
+public final class SqlClaimStore {
+
+    public static final String DEFAULT_TABLE_PREFIX = "atlas_";
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    private static final int FETCH_SIZE = 1024;
+
+    private static final String[] CHUNK_COLUMNS = {
+            "id", "world_id", "owner_id", "chunk_x", "chunk_z", "permissions"
+    };
+    private static final String[] AREA_COLUMNS = {
+            "id", "world_id", "owner_id", "min_x", "min_y", "min_z", "max_x", "max_y", "max_z", "priority", "permissions",
+            "outline"
+    };
+    private static final String[] PLOT_COLUMNS = {
+            "id", "world_id", "owner_id", "min_x", "min_y", "min_z", "max_x", "max_y", "max_z", "priority",
+            "parent_type", "parent_id", "permissions"
+    };
+
+    private final DataSource dataSource;
+    private final SqlDialect dialect;
+    private final int batchSize;
+
+    private final String chunkTable;
+    private final String areaTable;
+    private final String plotTable;
+
+    public SqlClaimStore(DataSource dataSource, SqlDialect dialect) {
+        this(dataSource, dialect, DEFAULT_TABLE_PREFIX, DEFAULT_BATCH_SIZE);
+    }
+
+    public SqlClaimStore(DataSource dataSource, SqlDialect dialect, String tablePrefix, int batchSize) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this.dialect = Objects.requireNonNull(dialect, "dialect");
+        Objects.requireNonNull(tablePrefix, "tablePrefix");
+        if (!tablePrefix.matches("[A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid table prefix: " + tablePrefix);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize < 1");
+        }
+
+        this.batchSize = batchSize;
+        this.chunkTable = tablePrefix + "chunk_claims";
+        this.areaTable = tablePrefix + "area_claims";
+        this.plotTable = tablePrefix + "plot_claims";
+    }
+
+    public void createSchema() throws SQLException {
+        String binary = dialect.binaryType();
+        String bounds = "min_x INT NOT NULL, min_y INT NOT NULL, min_z INT NOT NULL, "
+                + "max_x INT NOT NULL, max_y INT NOT NULL, max_z INT NOT NULL, ";
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + chunkTable + " ("
+                    + "id CHAR(36) PRIMARY KEY, world_id CHAR(36) NOT NULL, owner_id CHAR(36) NOT NULL, "
+                    + "chunk_x INT NOT NULL, chunk_z INT NOT NULL, permissions " + binary + ")");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + areaTable + " ("
+                    + "id CHAR(36) PRIMARY KEY, world_id CHAR(36) NOT NULL, owner_id CHAR(36) NOT NULL, "
+                    + bounds + "priority INT NOT NULL, permissions " + binary + ", outline " + dialect.largeBinaryType() + ")");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + plotTable + " ("
+                    + "id CHAR(36) PRIMARY KEY, world_id CHAR(36) NOT NULL, owner_id CHAR(36) NOT NULL, "
+                    + bounds + "priority INT NOT NULL, parent_type VARCHAR(8) NOT NULL, parent_id CHAR(36) NOT NULL, "
+                    + "permissions " + binary + ")");
+
+            // Area tables created before polygon claims lack the outline column.
+            if (!hasColumn(statement, areaTable, "outline")) {
+                statement.execute("ALTER TABLE " + areaTable + " ADD COLUMN outline " + dialect.largeBinaryType());
+            }
+
+            for (String table : List.of(chunkTable, areaTable, plotTable)) {
+                try {
+                    statement.execute(dialect.createIndex(table + "_world", table, "world_id"));
+                } catch (SQLException e) {
+                    if (!dialect.isDuplicateIndex(e)) throw e;
+                }
+            }
+        }
+    }
+
+    // Parents are loaded before plots so plot containment checks pass. Rows go through the
+    // regular add paths and publish feed events; start write-behind after loading.
+    public int load(WorldClaims world) throws SQLException {
+        Objects.requireNonNull(world, "world");
+
+        ClaimBulkEvent event = new ClaimBulkEvent();
+        event.begin();
+
+        UUID worldId = world.worldId();
+        int loaded = 0;
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (ResultSet rows = select(connection, chunkTable, CHUNK_COLUMNS, worldId)) {
+                while (rows.next()) {
+                    ChunkClaim claim = new ChunkClaim(
+                            uuid(rows, "id"), worldId, uuid(rows, "owner_id"),
+                            new ChunkPosition(rows.getInt("chunk_x"), rows.getInt("chunk_z")),
+                            permissions(rows)
+                    );
+                    if (world.chunk().claim(claim)) loaded++;
+                }
+            }
+
+            try (ResultSet rows = select(connection, areaTable, AREA_COLUMNS, worldId)) {
+                while (rows.next()) {
+                    AreaClaim claim = new AreaClaim(
+                            uuid(rows, "id"), worldId, uuid(rows, "owner_id"),
+                            bounds(rows), permissions(rows), rows.getInt("priority"), outline(rows)
+                    );
+                    if (world.area().add(claim)) loaded++;
+                }
+            }
+
+            try (ResultSet rows = select(connection, plotTable, PLOT_COLUMNS, worldId)) {
+                while (rows.next()) {
+                    PlotClaim plot = new PlotClaim(
+                            uuid(rows, "id"), worldId, uuid(rows, "owner_id"),
+                            bounds(rows), permissions(rows), rows.getInt("priority"),
+                            ClaimType.valueOf(rows.getString("parent_type")), uuid(rows, "parent_id")
+                    );
+                    if (world.plot().add(plot)) loaded++;
+                }
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.describe(worldId, ClaimBulkEvent.SQL_LOAD, loaded, 0);
+            event.commit();
+        }
+        return loaded;
+    }
+
+    // Replaces everything stored for the world with its current state. allClaims() also reads
+    // regions a pager has written out, so rows of unloaded claims are rewritten, not dropped.
+    public void replaceAll(WorldClaims world) throws SQLException {
+        Objects.requireNonNull(world, "world");
+
+        ClaimBulkEvent event = new ClaimBulkEvent();
+        event.begin();
+
+        List<SqlWrite> writes = new ArrayList<>();
+        world.chunk().allClaims().forEach(claim -> writes.add(new SqlWrite.UpsertChunk(claim)));
+        world.area().allClaims().forEach(claim -> writes.add(new SqlWrite.UpsertArea(claim)));
+        world.plot().allClaims().forEach(plot -> writes.add(new SqlWrite.UpsertPlot(plot)));
+
+        write(world.worldId(), EnumSet.allOf(ClaimType.class), writes);
+
+        if (event.shouldCommit()) {
+            event.describe(world.worldId(), ClaimBulkEvent.SQL_REPLACE, writes.size(), 0);
+            event.commit();
+        }
+    }
+
+    void write(UUID worldId, Set<ClaimType> cleared, Collection<SqlWrite> writes) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                for (ClaimType type : cleared) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "DELETE FROM " + table(type) + " WHERE world_id = ?")) {
+                        statement.setString(1, worldId.toString());
+                        statement.executeUpdate();
+                    }
+                }
+
+                try (Batch chunks = new Batch(connection, dialect.upsert(chunkTable, "id", CHUNK_COLUMNS));
+                     Batch areas = new Batch(connection, dialect.upsert(areaTable, "id", AREA_COLUMNS));
+                     Batch plots = new Batch(connection, dialect.upsert(plotTable, "id", PLOT_COLUMNS));
+                     Batch chunkDeletes = new Batch(connection, "DELETE FROM " + chunkTable + " WHERE id = ?");
+                     Batch areaDeletes = new Batch(connection, "DELETE FROM " + areaTable + " WHERE id = ?");
+                     Batch plotDeletes = new Batch(connection, "DELETE FROM " + plotTable + " WHERE id = ?")) {
+
+                    for (SqlWrite write : writes) {
+                        switch (write) {
+                            case SqlWrite.UpsertChunk w -> bindChunk(chunks.next(), w.claim());
+                            case SqlWrite.UpsertArea w -> bindArea(areas.next(), w.claim());
+                            case SqlWrite.UpsertPlot w -> bindPlot(plots.next(), w.plot());
+                            case SqlWrite.Delete w -> {
+                                Batch batch = switch (w.type()) {
+                                    case CHUNK -> chunkDeletes;
+                                    case AREA -> areaDeletes;
+                                    case PLOT -> plotDeletes;
+                                };
+                                batch.next().setString(1, w.id().toString());
+                            }
+                        }
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private String table(ClaimType type) {
+        return switch (type) {
+            case CHUNK -> chunkTable;
+            case AREA -> areaTable;
+            case PLOT -> plotTable;
+        };
+    }
+
+    private ResultSet select(Connection connection, String table, String[] columns, UUID worldId) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                "SELECT " + String.join(", ", columns) + " FROM " + table + " WHERE world_id = ?",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+        );
+        statement.closeOnCompletion();
+        statement.setFetchSize(FETCH_SIZE);
+        statement.setString(1, worldId.toString());
+        return statement.executeQuery();
+    }
+
+    private static void bindChunk(PreparedStatement statement, ChunkClaim claim) throws SQLException {
+        statement.setString(1, claim.id().toString());
+        statement.setString(2, claim.worldId().toString());
+        statement.setString(3, claim.ownerId().toString());
+        statement.setInt(4, claim.chunkPosition().x());
+        statement.setInt(5, claim.chunkPosition().z());
+        setPermissions(statement, 6, claim.permissions());
+    }
+
+    private static void bindArea(PreparedStatement statement, AreaClaim claim) throws SQLException {
+        statement.setString(1, claim.id().toString());
+        statement.setString(2, claim.worldId().toString());
+        statement.setString(3, claim.ownerId().toString());
+        setBounds(statement, 4, claim.bounds());
+        statement.setInt(10, claim.priority());
+        setPermissions(statement, 11, claim.permissions());
+        setOutline(statement, 12, claim.outline());
+    }
+
+    private static void bindPlot(PreparedStatement statement, PlotClaim plot) throws SQLException {
+        statement.setString(1, plot.id().toString());
+        statement.setString(2, plot.worldId().toString());
+        statement.setString(3, plot.ownerId().toString());
+        setBounds(statement, 4, plot.bounds());
+        statement.setInt(10, plot.priority());
+        statement.setString(11, plot.parentClaimType().name());
+        statement.setString(12, plot.parentClaimId().toString());
+        setPermissions(statement, 13, plot.permissions());
+    }
+
+    private static void setBounds(PreparedStatement statement, int index, BoundingBox bounds) throws SQLException {
+        statement.setInt(index, bounds.minX());
+        statement.setInt(index + 1, bounds.minY());
+        statement.setInt(index + 2, bounds.minZ());
+        statement.setInt(index + 3, bounds.maxX());
+        statement.setInt(index + 4, bounds.maxY());
+        statement.setInt(index + 5, bounds.maxZ());
+    }
+
+    // Allow bits as BitSet bytes. Layers that inherit flags write both words of the 64 flag
+    // registry at full width instead, which older rows of at most eight bytes never match.
+    private static void setPermissions(PreparedStatement statement, int index, ClaimPermissions permissions) throws SQLException {
+        if (permissions == null) {
+            statement.setNull(index, Types.VARBINARY);
+        } else if (permissions.inheritedWordCount() == 0) {
+            statement.setBytes(index, permissions.toBitSet().toByteArray());
+        } else {
+            ByteBuffer out = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            out.putLong(permissions.word(0)).putLong(permissions.inheritedWord(0));
+            statement.setBytes(index, out.array());
+        }
+    }
+
+    // Codec encoding, null for plain boxes.
+    private static void setOutline(PreparedStatement statement, int index, BlockPolygon outline) throws SQLException {
+        if (outline == null) {
+            statement.setNull(index, Types.VARBINARY);
+            return;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(ClaimCodec.maxSize(outline));
+        ClaimCodec.writeOutline(out, outline);
+        statement.setBytes(index, Arrays.copyOf(out.array(), out.position()));
+    }
+
+    private static boolean hasColumn(Statement statement, String table, String column) throws SQLException {
+        try (ResultSet rows = statement.executeQuery("SELECT * FROM " + table + " WHERE 1 = 0")) {
+            ResultSetMetaData metaData = rows.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (metaData.getColumnName(i).equalsIgnoreCase(column)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static UUID uuid(ResultSet rows, String column) throws SQLException {
+        return UUID.fromString(rows.getString(column).trim());
+    }
+
+    private static BoundingBox bounds(ResultSet rows) throws SQLException {
+        return new BoundingBox(
+                rows.getInt("min_x"), rows.getInt("min_y"), rows.getInt("min_z"),
+                rows.getInt("max_x"), rows.getInt("max_y"), rows.getInt("max_z")
+        );
+    }
+
+    private static BlockPolygon outline(ResultSet rows) throws SQLException {
+        byte[] bytes = rows.getBytes("outline");
+        return bytes == null ? null : ClaimCodec.readOutline(ByteBuffer.wrap(bytes));
+    }
+
+    private static ClaimPermissions permissions(ResultSet rows) throws SQLException {
+        byte[] bytes = rows.getBytes("permissions");
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != 2 * Long.BYTES) {
+            return new ClaimPermissions(BitSet.valueOf(bytes));
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        return new ClaimPermissions(BitSet.valueOf(new long[]{in.getLong()}), BitSet.valueOf(new long[]{in.getLong()}));
+    }
+
+    // Prepared lazily and flushed every batchSize rows, so unused statements cost nothing.
+    private final class Batch implements AutoCloseable {
+
+        private final Connection connection;
+        private final String sql;
+
+        private PreparedStatement statement;
+        private int pending;
+
+        private Batch(Connection connection, String sql) {
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        // Returns the statement with the previous row added; callers bind the next one.
+        PreparedStatement next() throws SQLException {
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+            } else {
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (statement == null) {
+                return;
+            }
+
+            try {
+                statement.addBatch();
+                statement.executeBatch();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.huskydreaming.claims.storage.sql;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public enum SqlDialect {
+    H2,
+    SQLITE,
+    POSTGRESQL,
+    MYSQL;
+
+    private static final int MYSQL_DUPLICATE_KEY_NAME = 1061;
+
+    String upsert(String table, String key, String... columns) {
+        Objects.requireNonNull(table, "table");
+        Objects.requireNonNull(key, "key");
+
+        String columnList = String.join(", ", columns);
+        String placeholders = Arrays.stream(columns).map(column -> "?").collect(Collectors.joining(", "));
+
+        return switch (this) {
+            case H2 -> "MERGE INTO " + table + " (" + columnList + ") KEY (" + key + ") VALUES (" + placeholders + ")";
+            case SQLITE, POSTGRESQL -> "INSERT INTO " + table + " (" + columnList + ") VALUES (" + placeholders + ")"
+                    + " ON CONFLICT (" + key + ") DO UPDATE SET " + assignments(key, columns, "EXCLUDED.%s");
+            case MYSQL -> "INSERT INTO " + table + " (" + columnList + ") VALUES (" + placeholders + ")"
+                    + " ON DUPLICATE KEY UPDATE " + assignments(key, columns, "VALUES(%s)");
+        };
+    }
+
+    String binaryType() {
+        return switch (this) {
+            case H2, MYSQL -> "VARBINARY(1024)";
+            case SQLITE -> "BLOB";
+            case POSTGRESQL -> "BYTEA";
+        };
+    }
+
+    // MySQL has no IF NOT EXISTS for indexes, so callers skip its duplicate key name error instead.
+    String createIndex(String index, String table, String column) {
+        Objects.requireNonNull(index, "index");
+        Objects.requireNonNull(table, "table");
+        Objects.requireNonNull(column, "column");
+
+        return switch (this) {
+            case H2, SQLITE, POSTGRESQL -> "CREATE INDEX IF NOT EXISTS " + index + " ON " + table + " (" + column + ")";
+            case MYSQL -> "CREATE INDEX " + index + " ON " + table + " (" + column + ")";
+        };
+    }
+
+    boolean isDuplicateIndex(SQLException exception) {
+        return this == MYSQL && exception.getErrorCode() == MYSQL_DUPLICATE_KEY_NAME;
+    }
+
+    // Room for the largest polygon outline.
+    String largeBinaryType() {
+        return switch (this) {
+            case H2 -> "VARBINARY(32768)";
+            case SQLITE, MYSQL -> "BLOB";
+            case POSTGRESQL -> "BYTEA";
+        };
+    }
+
+    private static String assignments(String key, String[] columns, String source) {
+        return Arrays.stream(columns)
+                .filter(column -> !column.equals(key))
+                .map(column -> column + " = " + source.formatted(column))
+                .collect(Collectors.joining(", "));
+    }
+}
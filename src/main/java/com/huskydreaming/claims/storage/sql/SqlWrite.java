@@ -0,0 +1,41 @@
+package com.huskydreaming.claims.storage.sql;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+
+import java.util.UUID;
+
+// Latest pending state of one claim row. Upserts serialize permissions when written, not when queued.
+sealed interface SqlWrite permits SqlWrite.UpsertChunk, SqlWrite.UpsertArea, SqlWrite.UpsertPlot, SqlWrite.Delete {
+
+    ClaimType type();
+
+    record UpsertChunk(ChunkClaim claim) implements SqlWrite {
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.CHUNK;
+        }
+    }
+
+    record UpsertArea(AreaClaim claim) implements SqlWrite {
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.AREA;
+        }
+    }
+
+    record UpsertPlot(PlotClaim plot) implements SqlWrite {
+
+        @Override
+        public ClaimType type() {
+            return ClaimType.PLOT;
+        }
+    }
+
+    record Delete(ClaimType type, UUID id) implements SqlWrite {
+    }
+}
@@ -0,0 +1,200 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// A recorded workload: the world's starting contents, its mutations in feed order, and one
+// stream of queries per recording thread.
+//
+// File layout: magic, codec header, world id, then length-prefixed blocks. A block is a
+// snapshot, a batch of mutations, or a run of calls from one thread. Mutations and calls carry
+// their own times as deltas from the previous one in the block.
+public final class ClaimTrace {
+
+    static final int MAGIC = 0x41435452;
+
+    static final int SNAPSHOT = 0;
+    static final int MUTATIONS = 1;
+    static final int CALLS = 2;
+
+    static final int LOOKUP = 0;
+    static final int CHECK = 1;
+    static final int PAIR = 2;
+    static final int NEIGHBOURS = 3;
+    static final int DEFINE_PLAYER = 4;
+    static final int DEFINE_FLAG = 5;
+
+    private final UUID worldId;
+    private final List<TraceOp> mutations;
+    private final List<List<TraceOp>> streams;
+
+    private ClaimTrace(UUID worldId, List<TraceOp> mutations, List<List<TraceOp>> streams) {
+        this.worldId = worldId;
+        this.mutations = List.copyOf(mutations);
+        this.streams = streams.stream().map(List::copyOf).toList();
+    }
+
+    public static ClaimTrace read(Path file) throws IOException {
+        Objects.requireNonNull(file, "file");
+
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.remaining() < Integer.BYTES || in.getInt() != MAGIC) {
+                throw new IOException("Not a claim trace: " + file);
+            }
+
+            int version = ClaimCodec.readHeader(in);
+            UUID worldId = ClaimCodec.readUuid(in);
+
+            Reader reader = new Reader(worldId, version);
+            while (in.hasRemaining()) {
+                // A recorder killed mid-write leaves a torn last block; keep what came before.
+                long length = ClaimCodec.readVarLong(in);
+                if (length < 0 || length > in.remaining()) {
+                    break;
+                }
+
+                ByteBuffer block = in.slice(in.position(), (int) length);
+                in.position(in.position() + (int) length);
+                reader.block(block);
+            }
+
+            List<List<TraceOp>> streams = new ArrayList<>(reader.streams.values());
+            return new ClaimTrace(worldId, reader.mutations, streams);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt claim trace: " + file, e);
+        }
+    }
+
+    public UUID worldId() {
+        return worldId;
+    }
+
+    // Snapshots and mutations in the order the world went through them.
+    public List<TraceOp> mutations() {
+        return mutations;
+    }
+
+    public List<List<TraceOp>> streams() {
+        return streams;
+    }
+
+    public long callCount() {
+        long count = 0;
+        for (List<TraceOp> stream : streams) count += stream.size();
+        return count;
+    }
+
+    // Nanoseconds from the start of recording to the last recorded operation.
+    public long duration() {
+        long last = 0;
+        for (List<TraceOp> stream : streams) {
+            if (!stream.isEmpty()) last = Math.max(last, stream.get(stream.size() - 1).time());
+        }
+        if (!mutations.isEmpty()) last = Math.max(last, mutations.get(mutations.size() - 1).time());
+        return last;
+    }
+
+    private static final class Reader {
+
+        private final UUID worldId;
+        private final int version;
+
+        private final List<TraceOp> mutations = new ArrayList<>();
+        private final Map<Integer, List<TraceOp>> streams = new TreeMap<>();
+        private final Map<Integer, UUID> players = new HashMap<>();
+        private final Map<Integer, ClaimFlag> flags = new HashMap<>();
+
+        Reader(UUID worldId, int version) {
+            this.worldId = worldId;
+            this.version = version;
+        }
+
+        void block(ByteBuffer in) {
+            if (!in.hasRemaining()) {
+                throw new IllegalArgumentException("Empty block");
+            }
+
+            int kind = Byte.toUnsignedInt(in.get());
+            switch (kind) {
+                case SNAPSHOT -> snapshot(in);
+                case MUTATIONS -> mutations(in);
+                case CALLS -> calls(in);
+                default -> throw new IllegalArgumentException("Unknown block kind " + kind);
+            }
+        }
+
+        private void snapshot(ByteBuffer in) {
+            long time = ClaimCodec.readVarLong(in);
+            List<ChunkClaim> chunks = ClaimCodec.readChunkBatch(in, worldId, version);
+
+            int areaCount = ClaimCodec.readCount(in);
+            List<AreaClaim> areas = new ArrayList<>(areaCount);
+            for (int i = 0; i < areaCount; i++) areas.add(ClaimCodec.readArea(in, worldId));
+
+            int plotCount = ClaimCodec.readCount(in);
+            List<PlotClaim> plots = new ArrayList<>(plotCount);
+            for (int i = 0; i < plotCount; i++) plots.add(ClaimCodec.readPlot(in, worldId));
+
+            mutations.add(new TraceOp.Snapshot(time, chunks, areas, plots));
+        }
+
+        private void mutations(ByteBuffer in) {
+            long time = ClaimCodec.readVarLong(in);
+            int count = ClaimCodec.readCount(in);
+            for (int i = 0; i < count; i++) {
+                time += ClaimCodec.readVarLong(in);
+                mutations.add(new TraceOp.Mutation(time, ClaimCodec.readEvent(in, worldId)));
+            }
+        }
+
+        private void calls(ByteBuffer in) {
+            int streamId = ClaimCodec.readVarInt(in);
+            long time = ClaimCodec.readVarLong(in);
+            List<TraceOp> stream = streams.computeIfAbsent(streamId, id -> new ArrayList<>());
+
+            while (in.hasRemaining()) {
+                int tag = Byte.toUnsignedInt(in.get());
+                if (tag == DEFINE_PLAYER) {
+                    players.put(ClaimCodec.readVarInt(in), ClaimCodec.readUuid(in));
+                    continue;
+                }
+                if (tag == DEFINE_FLAG) {
+                    flags.put(ClaimCodec.readVarInt(in), new ClaimFlag(ClaimCodec.readString(in)));
+                    continue;
+                }
+
+                time += ClaimCodec.readVarLong(in);
+                long duration = ClaimCodec.readVarLong(in);
+                stream.add(switch (tag) {
+                    case LOOKUP -> new TraceOp.Lookup(time, duration, position(in));
+                    case CHECK -> {
+                        UUID playerId = players.get(ClaimCodec.readVarInt(in));
+                        ClaimFlag flag = flags.get(ClaimCodec.readVarInt(in));
+                        if (flag == null) {
+                            throw new IllegalArgumentException("Flag used before its definition");
+                        }
+                        yield new TraceOp.Check(time, duration, playerId, flag, position(in));
+                    }
+                    case PAIR -> new TraceOp.Pair(time, duration, position(in), position(in));
+                    case NEIGHBOURS -> new TraceOp.Neighbours(time, duration, position(in));
+                    default -> throw new IllegalArgumentException("Unknown call tag " + tag);
+                });
+            }
+        }
+
+        private static BlockPosition position(ByteBuffer in) {
+            return new BlockPosition(ClaimCodec.readVarInt(in), ClaimCodec.readVarInt(in), ClaimCodec.readVarInt(in));
+        }
+    }
+}
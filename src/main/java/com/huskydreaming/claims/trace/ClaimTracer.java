@@ -0,0 +1,19 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+
+// Receives the queries a WorldClaims answers. sample() is asked first, so a tracer that
+// skips a call costs the caller no clock reads.
+public interface ClaimTracer {
+
+    boolean sample();
+
+    void lookup(BlockPosition position, long startNanos, long durationNanos);
+
+    void check(int playerRef, ClaimFlag flag, BlockPosition position, long startNanos, long durationNanos);
+
+    void pair(BlockPosition a, BlockPosition b, long startNanos, long durationNanos);
+
+    void neighbours(BlockPosition center, long startNanos, long durationNanos);
+}
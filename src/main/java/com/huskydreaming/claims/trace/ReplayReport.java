@@ -0,0 +1,68 @@
+package com.huskydreaming.claims.trace;
+
+import java.util.*;
+
+// Outcome of one replay: per operation kind, the latencies measured now next to the ones
+// recorded in production.
+public record ReplayReport(
+        int threads,
+        long elapsedNanos,
+        Map<TraceOp.Kind, Latencies> replayed,
+        Map<TraceOp.Kind, Latencies> recorded
+) {
+
+    public ReplayReport {
+        replayed = Collections.unmodifiableMap(new EnumMap<>(replayed));
+        recorded = Collections.unmodifiableMap(new EnumMap<>(recorded));
+    }
+
+    public long operations() {
+        long total = 0;
+        for (Latencies latencies : replayed.values()) total += latencies.count();
+        return total;
+    }
+
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : operations() * 1e9 / elapsedNanos;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%d operations on %d threads in %.3f s: %.0f ops/s%n",
+                operations(), threads, elapsedNanos / 1e9, throughput()));
+        out.append(String.format(Locale.ROOT, "%-11s %10s %9s %9s %9s %9s %9s   %s%n",
+                "kind", "count", "p50 ns", "p90 ns", "p99 ns", "p99.9 ns", "max ns", "recorded p50/p99 ns"));
+
+        for (Map.Entry<TraceOp.Kind, Latencies> entry : replayed.entrySet()) {
+            Latencies now = entry.getValue();
+            Latencies then = recorded.get(entry.getKey());
+            out.append(String.format(Locale.ROOT, "%-11s %10d %9d %9d %9d %9d %9d   %s%n",
+                    entry.getKey().name().toLowerCase(Locale.ROOT), now.count(), now.p50(), now.p90(), now.p99(), now.p999(), now.max(),
+                    then == null ? "-" : then.p50() + "/" + then.p99()));
+        }
+        return out.toString();
+    }
+
+    public record Latencies(long count, long p50, long p90, long p99, long p999, long max) {
+
+        // Sorts the samples in place.
+        public static Latencies of(long[] samples, int count) {
+            if (count == 0) {
+                return new Latencies(0, 0, 0, 0, 0, 0);
+            }
+
+            Arrays.sort(samples, 0, count);
+            return new Latencies(count,
+                    percentile(samples, count, 0.50),
+                    percentile(samples, count, 0.90),
+                    percentile(samples, count, 0.99),
+                    percentile(samples, count, 0.999),
+                    samples[count - 1]);
+        }
+
+        private static long percentile(long[] sorted, int count, double quantile) {
+            int index = (int) Math.ceil(quantile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
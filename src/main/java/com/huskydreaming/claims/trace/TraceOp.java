@@ -0,0 +1,92 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+
+import java.util.List;
+import java.util.UUID;
+
+// One recorded operation. Times are nanoseconds since recording started; durations are what
+// the call took when it was recorded.
+public sealed interface TraceOp permits
+        TraceOp.Lookup,
+        TraceOp.Check,
+        TraceOp.Pair,
+        TraceOp.Neighbours,
+        TraceOp.Mutation,
+        TraceOp.Snapshot {
+
+    enum Kind {
+        LOOKUP,
+        CHECK,
+        PAIR,
+        NEIGHBOURS,
+        MUTATION,
+        SNAPSHOT
+    }
+
+    long time();
+
+    Kind kind();
+
+    record Lookup(long time, long duration, BlockPosition position) implements TraceOp {
+
+        @Override
+        public Kind kind() {
+            return Kind.LOOKUP;
+        }
+    }
+
+    // playerId is null when the player was unknown to the dictionary at the time.
+    record Check(long time, long duration, UUID playerId, ClaimFlag flag, BlockPosition position) implements TraceOp {
+
+        @Override
+        public Kind kind() {
+            return Kind.CHECK;
+        }
+    }
+
+    record Pair(long time, long duration, BlockPosition a, BlockPosition b) implements TraceOp {
+
+        @Override
+        public Kind kind() {
+            return Kind.PAIR;
+        }
+    }
+
+    record Neighbours(long time, long duration, BlockPosition center) implements TraceOp {
+
+        @Override
+        public Kind kind() {
+            return Kind.NEIGHBOURS;
+        }
+    }
+
+    record Mutation(long time, ClaimEvent event) implements TraceOp {
+
+        @Override
+        public Kind kind() {
+            return Kind.MUTATION;
+        }
+    }
+
+    // The world's full contents: written when recording starts and again after the recorder
+    // fell behind the change feed.
+    record Snapshot(long time, List<ChunkClaim> chunks, List<AreaClaim> areas, List<PlotClaim> plots) implements TraceOp {
+
+        public Snapshot {
+            chunks = List.copyOf(chunks);
+            areas = List.copyOf(areas);
+            plots = List.copyOf(plots);
+        }
+
+        @Override
+        public Kind kind() {
+            return Kind.SNAPSHOT;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.registry.UuidDictionary;
+
+final class TraceOps {
+
+    private TraceOps() {}
+
+    // Returns something derived from the result so the call cannot be optimised away.
+    static long execute(WorldClaims world, TraceOp op) {
+        return switch (op) {
+            case TraceOp.Lookup lookup -> world.getClaimAt(lookup.position()).isPresent() ? 1 : 0;
+            case TraceOp.Check check -> {
+                boolean allowed = check.playerId() == null
+                        ? world.canPerformAction(UuidDictionary.ABSENT, check.position(), check.flag())
+                        : world.canPerformAction(check.playerId(), check.position(), check.flag());
+                yield allowed ? 1 : 0;
+            }
+            case TraceOp.Pair pair -> world.sameClaim(pair.a(), pair.b()) ? 1 : 0;
+            case TraceOp.Neighbours neighbours -> world.sameClaimNeighbours(neighbours.center());
+            case TraceOp.Mutation mutation -> {
+                synchronized (world) {
+                    world.apply(mutation.event());
+                }
+                yield 0;
+            }
+            case TraceOp.Snapshot snapshot -> {
+                apply(world, snapshot);
+                yield 0;
+            }
+        };
+    }
+
+    static void apply(WorldClaims world, TraceOp.Snapshot snapshot) {
+        synchronized (world) {
+            world.clear();
+            snapshot.chunks().forEach(world.chunk()::claim);
+            snapshot.areas().forEach(world.area()::add);
+            snapshot.plots().forEach(world.plot()::add);
+        }
+    }
+
+    static long recordedDuration(TraceOp op) {
+        return switch (op) {
+            case TraceOp.Lookup lookup -> lookup.duration();
+            case TraceOp.Check check -> check.duration();
+            case TraceOp.Pair pair -> pair.duration();
+            case TraceOp.Neighbours neighbours -> neighbours.duration();
+            case TraceOp.Mutation mutation -> 0;
+            case TraceOp.Snapshot snapshot -> 0;
+        };
+    }
+}
@@ -0,0 +1,457 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.feed.ClaimFeedSubscriber;
+import com.huskydreaming.claims.helpers.PeriodicTask;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import com.huskydreaming.claims.registry.UuidDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Records the queries a world answers and the changes it goes through into a ClaimTrace
+// file. Each calling thread appends to its own buffer; full buffers are handed to a writer
+// thread, which also follows the change feed for mutations. Queries pay for two clock reads
+// and a few varints only when sampled.
+public final class TraceRecorder implements ClaimTracer, AutoCloseable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private static final Duration DEFAULT_INTERVAL = Duration.ofMillis(100);
+
+    // Tag, time delta, duration and two positions.
+    private static final int MAX_CALL_SIZE = 1 + 10 + 10 + 6 * 5;
+    private static final int MAX_PLAYER_DEFINITION_SIZE = 1 + 5 + 16;
+
+    private final WorldClaims world;
+    private final FileChannel channel;
+    private final int sampleEvery;
+    private final int blockSize;
+    private final long origin = System.nanoTime();
+
+    private final ThreadLocal<Stream> streams = ThreadLocal.withInitial(this::newStream);
+    private final List<Stream> allStreams = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextStream = new AtomicInteger();
+    private final Deque<ByteBuffer> completed = new ConcurrentLinkedDeque<>();
+
+    private final PeriodicTask task;
+    private final LongAdder calls = new LongAdder();
+
+    private ClaimFeedCursor cursor;
+    private long bytesWritten;
+    private boolean torn;
+    private long mutations;
+    private long snapshots;
+
+    private volatile boolean closed;
+
+    public TraceRecorder(WorldClaims world, Path file) throws IOException {
+        this(world, file, 1);
+    }
+
+    public TraceRecorder(WorldClaims world, Path file, int sampleEvery) throws IOException {
+        this(world, file, sampleEvery, DEFAULT_BLOCK_SIZE, DEFAULT_INTERVAL);
+    }
+
+    public TraceRecorder(WorldClaims world, Path file, int sampleEvery, int blockSize, Duration interval) throws IOException {
+        this.world = Objects.requireNonNull(world, "world");
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(interval, "interval");
+
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery < 1");
+        }
+        if (blockSize < 1024) {
+            throw new IllegalArgumentException("blockSize < 1024");
+        }
+        // Before the file is opened, so a bad interval leaves an existing trace alone.
+        this.task = new PeriodicTask("claims-trace-" + world.worldId(), interval);
+
+        this.sampleEvery = sampleEvery;
+        this.blockSize = blockSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + 16);
+        header.putInt(ClaimTrace.MAGIC);
+        ClaimCodec.writeHeader(header);
+        ClaimCodec.writeUuid(header, world.worldId());
+        header.flip();
+        write(header);
+
+        synchronized (this) {
+            writeBlock(snapshot());
+            snapshots++;
+        }
+
+        task.start(this::drain);
+        world.tracer(this);
+    }
+
+    @Override
+    public boolean sample() {
+        if (closed) {
+            return false;
+        }
+        if (sampleEvery == 1) {
+            return true;
+        }
+        return ++streams.get().sampleCounter % sampleEvery == 0;
+    }
+
+    @Override
+    public void lookup(BlockPosition position, long startNanos, long durationNanos) {
+        Stream stream = streams.get();
+        synchronized (stream) {
+            ByteBuffer out = stream.begin(MAX_CALL_SIZE, time(startNanos));
+            if (out == null) return;
+
+            stream.call(out, ClaimTrace.LOOKUP, time(startNanos), durationNanos);
+            writePosition(out, position);
+        }
+        calls.increment();
+    }
+
+    @Override
+    public void check(int playerRef, ClaimFlag flag, BlockPosition position, long startNanos, long durationNanos) {
+        int flagIndex = ClaimFlagRegistry.indexOf(flag);
+
+        Stream stream = streams.get();
+        synchronized (stream) {
+            boolean definePlayer = playerRef != UuidDictionary.ABSENT && !stream.players.get(playerRef);
+            boolean defineFlag = !stream.flags.get(flagIndex);
+
+            int needed = MAX_CALL_SIZE
+                    + (definePlayer ? MAX_PLAYER_DEFINITION_SIZE : 0)
+                    + (defineFlag ? 1 + 5 + ClaimCodec.maxSize(flag.id()) : 0);
+            ByteBuffer out = stream.begin(needed, time(startNanos));
+            if (out == null) return;
+
+            // Dictionary refs only mean something inside this process, so the trace carries
+            // the UUID and flag id the first time a stream uses them.
+            if (definePlayer) {
+                out.put((byte) ClaimTrace.DEFINE_PLAYER);
+                ClaimCodec.writeVarInt(out, playerRef);
+                ClaimCodec.writeUuid(out, UuidDictionary.uuid(playerRef));
+                stream.players.set(playerRef);
+            }
+            if (defineFlag) {
+                out.put((byte) ClaimTrace.DEFINE_FLAG);
+                ClaimCodec.writeVarInt(out, flagIndex);
+                ClaimCodec.writeString(out, flag.id());
+                stream.flags.set(flagIndex);
+            }
+
+            stream.call(out, ClaimTrace.CHECK, time(startNanos), durationNanos);
+            ClaimCodec.writeVarInt(out, playerRef);
+            ClaimCodec.writeVarInt(out, flagIndex);
+            writePosition(out, position);
+        }
+        calls.increment();
+    }
+
+    @Override
+    public void pair(BlockPosition a, BlockPosition b, long startNanos, long durationNanos) {
+        Stream stream = streams.get();
+        synchronized (stream) {
+            ByteBuffer out = stream.begin(MAX_CALL_SIZE, time(startNanos));
+            if (out == null) return;
+
+            stream.call(out, ClaimTrace.PAIR, time(startNanos), durationNanos);
+            writePosition(out, a);
+            writePosition(out, b);
+        }
+        calls.increment();
+    }
+
+    @Override
+    public void neighbours(BlockPosition center, long startNanos, long durationNanos) {
+        Stream stream = streams.get();
+        synchronized (stream) {
+            ByteBuffer out = stream.begin(MAX_CALL_SIZE, time(startNanos));
+            if (out == null) return;
+
+            stream.call(out, ClaimTrace.NEIGHBOURS, time(startNanos), durationNanos);
+            writePosition(out, center);
+        }
+        calls.increment();
+    }
+
+    // Writes every full buffer and the mutations published since the last drain. Mutations and
+    // snapshots are queued behind earlier blocks, so they reach the file in feed order, and a
+    // block that fails to write goes back to the head of the queue for the next drain.
+    public synchronized void drain() throws IOException {
+        MutationCollector collector = new MutationCollector();
+        int drained;
+        do {
+            // An overrun drain can return nothing while events are still readable past the gap.
+            collector.overrunPending = false;
+            drained = cursor.drain(collector, 1024);
+        } while (drained > 0 || collector.overrunPending);
+
+        List<ClaimEvent> events = collector.events;
+        if (!events.isEmpty()) {
+            int capacity = 1 + 10 + 5;
+            for (ClaimEvent event : events) capacity += 10 + ClaimCodec.maxSize(event);
+
+            // Each mutation carries the time it was published, not the time of this drain.
+            long lastTime = time(collector.times[0]);
+            ByteBuffer out = ByteBuffer.allocate(capacity);
+            out.put((byte) ClaimTrace.MUTATIONS);
+            ClaimCodec.writeVarLong(out, lastTime);
+            ClaimCodec.writeVarLong(out, events.size());
+            for (int i = 0; i < events.size(); i++) {
+                long time = time(collector.times[i]);
+                ClaimCodec.writeVarLong(out, Math.max(0L, time - lastTime));
+                ClaimCodec.writeEvent(out, events.get(i));
+                lastTime = Math.max(lastTime, time);
+            }
+            out.flip();
+
+            completed.add(out);
+            mutations += events.size();
+        }
+
+        // Events were lost, so replays restart from the world as it is now.
+        if (collector.overrun) {
+            completed.add(snapshot());
+            snapshots++;
+        }
+
+        ByteBuffer block;
+        while ((block = completed.poll()) != null) {
+            try {
+                writeBlock(block);
+            } catch (IOException e) {
+                completed.addFirst(block);
+                throw e;
+            }
+        }
+    }
+
+    public long recordedCalls() {
+        return calls.sum();
+    }
+
+    public synchronized long recordedMutations() {
+        return mutations;
+    }
+
+    public synchronized long snapshotCount() {
+        return snapshots;
+    }
+
+    public synchronized long bytesWritten() {
+        return bytesWritten;
+    }
+
+    // Failure of the last scheduled drain; its block stays queued for the next one.
+    public Optional<Exception> lastFailure() {
+        return task.lastFailure();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        world.tracer(null);
+
+        task.close();
+
+        for (Stream stream : allStreams) {
+            synchronized (stream) {
+                stream.complete();
+            }
+        }
+
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private ByteBuffer snapshot() {
+        List<ChunkClaim> chunks;
+        List<AreaClaim> areas;
+        List<PlotClaim> plots;
+
+        // Same as a replication snapshot: contents and the cursor position are taken together.
+        synchronized (world) {
+            chunks = List.copyOf(world.chunk().allClaims());
+            areas = List.copyOf(world.area().allClaims());
+            plots = List.copyOf(world.plot().allClaims());
+            cursor = world.feed().cursor();
+        }
+
+        int capacity = 1 + 10 + ClaimCodec.maxChunkBatchSize(chunks) + 2 * 5;
+        for (AreaClaim claim : areas) capacity += ClaimCodec.maxSize(claim);
+        for (PlotClaim plot : plots) capacity += ClaimCodec.maxSize(plot);
+
+        ByteBuffer out = ByteBuffer.allocate(capacity);
+        out.put((byte) ClaimTrace.SNAPSHOT);
+        ClaimCodec.writeVarLong(out, time(System.nanoTime()));
+        ClaimCodec.writeChunkBatch(out, chunks);
+        ClaimCodec.writeVarLong(out, areas.size());
+        for (AreaClaim claim : areas) ClaimCodec.writeArea(out, claim);
+        ClaimCodec.writeVarLong(out, plots.size());
+        for (PlotClaim plot : plots) ClaimCodec.writePlot(out, plot);
+        out.flip();
+        return out;
+    }
+
+    // The length and body go out in one gathered write. A failure can still leave part of the
+    // block behind, which would misframe every later block, so the next write first cuts the
+    // file back to the end of the last complete block.
+    private void writeBlock(ByteBuffer block) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(10);
+        ClaimCodec.writeVarLong(length, block.remaining());
+        length.flip();
+
+        int start = block.position();
+        long size = length.remaining() + block.remaining();
+        ByteBuffer[] buffers = {length, block};
+        try {
+            if (torn) {
+                channel.truncate(bytesWritten);
+                channel.position(bytesWritten);
+                torn = false;
+            }
+            while (block.hasRemaining()) {
+                channel.write(buffers);
+            }
+        } catch (IOException e) {
+            torn = true;
+            block.position(start);
+            throw e;
+        }
+        bytesWritten += size;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+
+    private long time(long nanos) {
+        return Math.max(0L, nanos - origin);
+    }
+
+    private Stream newStream() {
+        Stream stream = new Stream(nextStream.getAndIncrement());
+        allStreams.add(stream);
+        return stream;
+    }
+
+    private static void writePosition(ByteBuffer out, BlockPosition position) {
+        ClaimCodec.writeVarInt(out, position.x());
+        ClaimCodec.writeVarInt(out, position.y());
+        ClaimCodec.writeVarInt(out, position.z());
+    }
+
+    private final class Stream {
+
+        private final int id;
+        private final BitSet players = new BitSet();
+        private final BitSet flags = new BitSet();
+
+        private ByteBuffer buffer;
+        private long lastTime;
+        private int sampleCounter;
+
+        Stream(int id) {
+            this.id = id;
+        }
+
+        // Returns a buffer with room for the record, starting a new block when needed, or
+        // null once the recorder is closed.
+        ByteBuffer begin(int needed, long time) {
+            if (closed) {
+                return null;
+            }
+
+            if (buffer != null && buffer.remaining() >= needed) {
+                return buffer;
+            }
+
+            complete();
+            buffer = ByteBuffer.allocate(Math.max(blockSize, needed + 32));
+            buffer.put((byte) ClaimTrace.CALLS);
+            ClaimCodec.writeVarInt(buffer, id);
+            ClaimCodec.writeVarLong(buffer, time);
+            lastTime = time;
+            return buffer;
+        }
+
+        void call(ByteBuffer out, int tag, long time, long duration) {
+            out.put((byte) tag);
+            ClaimCodec.writeVarLong(out, Math.max(0L, time - lastTime));
+            ClaimCodec.writeVarLong(out, Math.max(0L, duration));
+            lastTime = Math.max(lastTime, time);
+        }
+
+        void complete() {
+            if (buffer != null) {
+                buffer.flip();
+                completed.add(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+    private final class MutationCollector implements ClaimFeedSubscriber {
+
+        private final List<ClaimEvent> events = new ArrayList<>();
+        private long[] times = new long[16];
+        private boolean overrun;
+        private boolean overrunPending;
+
+        // Cursors deliver publish times; a batch handed over without them is stamped on arrival.
+        @Override
+        public void onBatch(long firstSequence, List<ClaimEvent> batch) {
+            long[] arrived = new long[batch.size()];
+            Arrays.fill(arrived, System.nanoTime());
+            onBatch(firstSequence, batch, arrived);
+        }
+
+        @Override
+        public void onBatch(long firstSequence, List<ClaimEvent> batch, long[] publishedNanos) {
+            for (int i = 0; i < batch.size(); i++) {
+                ClaimEvent event = batch.get(i);
+                if (!event.worldId().equals(world.worldId())) continue;
+
+                if (events.size() == times.length) {
+                    times = Arrays.copyOf(times, times.length * 2);
+                }
+                times[events.size()] = publishedNanos[i];
+                events.add(event);
+            }
+        }
+
+        @Override
+        public void onOverrun(long lostFromSequence, long resumeSequence) {
+            events.clear();
+            overrun = true;
+            overrunPending = true;
+        }
+    }
+}
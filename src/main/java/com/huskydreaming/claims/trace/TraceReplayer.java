@@ -0,0 +1,218 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.claims.RegionPager;
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives a recorded trace against a WorldClaims. Recorded call streams are spread over the
+// worker threads; mutations run on a thread of their own in recorded order. With a speed
+// above zero operations are paced to their recorded times divided by it, otherwise they
+// run back to back.
+public final class TraceReplayer {
+
+    private static final String USAGE =
+            "usage: TraceReplayer <trace> [--threads n] [--speed x] [--pager dir] [--resident regions]";
+
+    private final ClaimTrace trace;
+
+    public TraceReplayer(ClaimTrace trace) {
+        this.trace = Objects.requireNonNull(trace, "trace");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Path file = Path.of(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        double speed = 0;
+        Path pagerDirectory = null;
+        int resident = RegionPager.DEFAULT_MAX_RESIDENT_REGIONS;
+
+        for (int i = 1; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--speed" -> speed = Double.parseDouble(value);
+                case "--pager" -> pagerDirectory = Path.of(value);
+                case "--resident" -> resident = Integer.parseInt(value);
+                default -> {
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+            i++;
+        }
+
+        ClaimTrace trace = ClaimTrace.read(file);
+        System.out.printf("%s: %d calls in %d streams, %d mutations, %.1f s recorded%n",
+                file, trace.callCount(), trace.streams().size(), trace.mutations().size(), trace.duration() / 1e9);
+
+        WorldClaims world = new WorldClaims(trace.worldId());
+        RegionPager pager = pagerDirectory == null ? null : new RegionPager(world, pagerDirectory, resident);
+        try {
+            System.out.print(new TraceReplayer(trace).replay(world, threads, speed).format());
+        } finally {
+            if (pager != null) pager.close();
+        }
+    }
+
+    public ReplayReport replay(WorldClaims world, int threads, double speed) throws InterruptedException {
+        Objects.requireNonNull(world, "world");
+
+        if (!world.worldId().equals(trace.worldId())) {
+            throw new IllegalArgumentException("Trace was recorded for another world");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1");
+        }
+        if (speed < 0 || Double.isNaN(speed)) {
+            throw new IllegalArgumentException("speed < 0");
+        }
+
+        // The starting snapshot is loaded up front so it does not count as replayed work.
+        List<TraceOp> mutations = trace.mutations();
+        int firstMutation = 0;
+        if (!mutations.isEmpty() && mutations.get(0) instanceof TraceOp.Snapshot snapshot) {
+            TraceOps.apply(world, snapshot);
+            firstMutation = 1;
+        }
+
+        List<List<TraceOp>> work = new ArrayList<>();
+        for (int i = 0; i < threads; i++) work.add(new ArrayList<>());
+        for (int i = 0; i < trace.streams().size(); i++) {
+            List<TraceOp> stream = trace.streams().get(i);
+            work.get(i % threads).addAll(stream);
+            for (TraceOp op : stream) {
+                if (op instanceof TraceOp.Check check) ClaimFlagRegistry.register(check.flag());
+            }
+        }
+        for (List<TraceOp> ops : work) ops.sort(Comparator.comparingLong(TraceOp::time));
+        work.add(mutations.subList(firstMutation, mutations.size()));
+
+        CountDownLatch start = new CountDownLatch(1);
+        Worker[] workers = new Worker[work.size()];
+        Thread[] running = new Thread[work.size()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(world, work.get(i), speed, start);
+            running[i] = new Thread(workers[i], "claims-replay-" + i);
+            running[i].start();
+        }
+
+        long begin = System.nanoTime();
+        for (Worker worker : workers) worker.begin = begin;
+        start.countDown();
+        for (Thread thread : running) thread.join();
+        long elapsed = System.nanoTime() - begin;
+
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw new IllegalStateException("Replay failed", worker.failure);
+            }
+        }
+
+        return new ReplayReport(threads, elapsed, merge(workers), recorded());
+    }
+
+    private Map<TraceOp.Kind, ReplayReport.Latencies> merge(Worker[] workers) {
+        Map<TraceOp.Kind, ReplayReport.Latencies> out = new EnumMap<>(TraceOp.Kind.class);
+        for (TraceOp.Kind kind : TraceOp.Kind.values()) {
+            int count = 0;
+            for (Worker worker : workers) count += worker.counts[kind.ordinal()];
+            if (count == 0) continue;
+
+            long[] samples = new long[count];
+            int offset = 0;
+            for (Worker worker : workers) {
+                int n = worker.counts[kind.ordinal()];
+                System.arraycopy(worker.samples[kind.ordinal()], 0, samples, offset, n);
+                offset += n;
+            }
+            out.put(kind, ReplayReport.Latencies.of(samples, count));
+        }
+        return out;
+    }
+
+    private Map<TraceOp.Kind, ReplayReport.Latencies> recorded() {
+        Map<TraceOp.Kind, long[]> samples = new EnumMap<>(TraceOp.Kind.class);
+        Map<TraceOp.Kind, Integer> counts = new EnumMap<>(TraceOp.Kind.class);
+        for (List<TraceOp> stream : trace.streams()) {
+            for (TraceOp op : stream) {
+                long duration = TraceOps.recordedDuration(op);
+                long[] kindSamples = samples.computeIfAbsent(op.kind(), kind -> new long[16]);
+                int count = counts.getOrDefault(op.kind(), 0);
+                if (count == kindSamples.length) {
+                    kindSamples = Arrays.copyOf(kindSamples, count * 2);
+                    samples.put(op.kind(), kindSamples);
+                }
+                kindSamples[count] = duration;
+                counts.put(op.kind(), count + 1);
+            }
+        }
+
+        Map<TraceOp.Kind, ReplayReport.Latencies> out = new EnumMap<>(TraceOp.Kind.class);
+        samples.forEach((kind, values) -> out.put(kind, ReplayReport.Latencies.of(values, counts.get(kind))));
+        return out;
+    }
+
+    private static final class Worker implements Runnable {
+
+        private final WorldClaims world;
+        private final List<TraceOp> ops;
+        private final double speed;
+        private final CountDownLatch start;
+
+        private final long[][] samples = new long[TraceOp.Kind.values().length][];
+        private final int[] counts = new int[TraceOp.Kind.values().length];
+
+        private volatile long begin;
+        private volatile Throwable failure;
+        private long sink;
+
+        Worker(WorldClaims world, List<TraceOp> ops, double speed, CountDownLatch start) {
+            this.world = world;
+            this.ops = ops;
+            this.speed = speed;
+            this.start = start;
+
+            for (TraceOp op : ops) counts[op.kind().ordinal()]++;
+            for (int i = 0; i < samples.length; i++) samples[i] = new long[counts[i]];
+            Arrays.fill(counts, 0);
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                for (TraceOp op : ops) {
+                    if (speed > 0) {
+                        long due = begin + (long) (op.time() / speed);
+                        long wait;
+                        while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+                    }
+
+                    long before = System.nanoTime();
+                    sink += TraceOps.execute(world, op);
+                    long took = System.nanoTime() - before;
+
+                    int kind = op.kind().ordinal();
+                    samples[kind][counts[kind]++] = took;
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.model.positions.ChunkShape;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkChunkClaimsTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID otherId = UUID.randomUUID();
+
+    private static final List<Supplier<ChunkClaimStore>> STORES = List.of(ChunkClaimStore::onHeap, ChunkClaimStore::offHeap);
+
+    @Test
+    void bulkClaimIsAllOrNothing() {
+        for (Supplier<ChunkClaimStore> store : STORES) {
+            WorldClaims world = new WorldClaims(worldId, new ClaimChangeFeed(), store.get());
+            ChunkClaims chunks = world.chunk();
+            ClaimFeedCursor cursor = world.feed().cursor();
+
+            assertTrue(chunks.claim(otherId, new ChunkPosition(10, 10), new ClaimPermissions()));
+            assertFalse(chunks.claim(ownerId, ChunkShape.rectangle(new ChunkPosition(0, 0), new ChunkPosition(19, 19)), new ClaimPermissions()));
+            assertEquals(1, chunks.allClaims().size());
+            assertEquals(0, chunks.countOwned(ownerId));
+
+            assertTrue(chunks.claim(ownerId, ChunkShape.rectangle(new ChunkPosition(20, 0), new ChunkPosition(39, 19)), new ClaimPermissions()));
+            assertEquals(400, chunks.countOwned(ownerId));
+            assertEquals(401, chunks.allClaims().size());
+            assertEquals(ownerId, chunks.getAt(new ChunkPosition(39, 19)).ownerId());
+
+            List<ClaimEvent> events = drain(cursor);
+            assertEquals(2, events.size());
+            assertEquals(400, assertInstanceOf(ClaimEvent.ChunksClaimed.class, events.get(1)).claims().size());
+            world.unload();
+        }
+    }
+
+    @Test
+    void bulkUnclaimRequiresOwnershipOfEveryChunk() {
+        for (Supplier<ChunkClaimStore> store : STORES) {
+            WorldClaims world = new WorldClaims(worldId, new ClaimChangeFeed(), store.get());
+            ChunkClaims chunks = world.chunk();
+            ChunkShape circle = ChunkShape.radius(new ChunkPosition(0, 0), 8);
+            assertTrue(chunks.claim(ownerId, circle, new ClaimPermissions()));
+            assertTrue(chunks.unclaim(new ChunkPosition(0, 0)));
+            assertTrue(chunks.claim(otherId, new ChunkPosition(0, 0), new ClaimPermissions()));
+
+            ChunkClaim parent = chunks.getAt(new ChunkPosition(3, 3));
+            BoundingBox inside = parent.chunkPosition().bounds();
+            assertTrue(world.plot().add(new PlotClaim(worldId, ownerId, new BoundingBox(inside.minX(), 0, inside.minZ(), inside.minX() + 4, 4, inside.minZ() + 4),
+                    new ClaimPermissions(), 0, ClaimType.CHUNK, parent.id())));
+
+            int owned = chunks.countOwned(ownerId);
+            assertFalse(chunks.unclaim(ownerId, circle));
+            assertEquals(owned, chunks.countOwned(ownerId));
+
+            ClaimFeedCursor cursor = world.feed().cursor();
+            assertTrue(chunks.unclaim(ownerId, ChunkShape.rectangle(new ChunkPosition(1, 1), new ChunkPosition(4, 4))));
+            assertEquals(owned - 16, chunks.countOwned(ownerId));
+            assertNull(chunks.getAt(new ChunkPosition(3, 3)));
+            assertTrue(world.plot().allClaims().isEmpty(), "plots go with their chunk");
+            assertFalse(chunks.unclaim(ownerId, ChunkShape.rectangle(new ChunkPosition(1, 1), new ChunkPosition(1, 1))));
+
+            List<ClaimEvent> events = drain(cursor);
+            assertEquals(16, assertInstanceOf(ClaimEvent.ChunksUnclaimed.class, events.get(0)).claims().size());
+            world.unload();
+        }
+    }
+
+    @Test
+    void pagedBulkCallsReleaseTheirRegions() {
+        WorldClaims world = new WorldClaims(worldId);
+        ChunkShape strip = ChunkShape.rectangle(new ChunkPosition(0, 0), new ChunkPosition(20, 0));
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            long writes = world.writes();
+            assertTrue(world.chunk().claim(ownerId, strip, new ClaimPermissions()));
+            assertEquals(writes + 1, world.writes());
+            pager.maintain();
+            assertEquals(1, pager.residentRegions());
+
+            assertTrue(world.chunk().unclaim(ownerId, strip));
+            assertEquals(writes + 2, world.writes());
+            pager.maintain();
+            assertEquals(1, pager.residentRegions());
+            assertEquals(0, world.chunk().countOwned(ownerId));
+        }
+    }
+
+    @Test
+    void bulkEventsReplayThroughCodec() {
+        WorldClaims leader = new WorldClaims(worldId);
+        WorldClaims follower = new WorldClaims(worldId, new ClaimChangeFeed(), ChunkClaimStore.offHeap());
+        ClaimFeedCursor cursor = leader.feed().cursor();
+
+        ChunkShape polygon = ChunkShape.polygon(List.of(new ChunkPosition(0, 0), new ChunkPosition(30, 5), new ChunkPosition(10, 40)));
+        assertTrue(leader.chunk().claim(ownerId, polygon, new ClaimPermissions()));
+        assertTrue(leader.chunk().unclaim(ownerId, ChunkShape.rectangle(new ChunkPosition(10, 10), new ChunkPosition(12, 12))));
+
+        for (ClaimEvent event : drain(cursor)) {
+            ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxSize(event));
+            ClaimCodec.writeEvent(buffer, event);
+            follower.apply(ClaimCodec.readEvent(buffer.flip(), worldId));
+        }
+
+        assertEquals(polygon.keys().length - 9, follower.chunk().countOwned(ownerId));
+        for (ChunkClaim claim : leader.chunk().allClaims()) {
+            assertEquals(claim.id(), follower.chunk().getAt(claim.chunkPosition()).id());
+        }
+        follower.unload();
+    }
+
+    private static List<ClaimEvent> drain(ClaimFeedCursor cursor) {
+        List<ClaimEvent> out = new ArrayList<>();
+        cursor.drain((first, events) -> out.addAll(events), 1_000);
+        return out;
+    }
+}
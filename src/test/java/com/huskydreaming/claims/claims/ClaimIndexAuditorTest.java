@@ -0,0 +1,137 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.claims.ClaimAuditReport.Issue;
+import com.huskydreaming.claims.claims.ClaimAuditReport.Problem;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimIndexAuditorTest {
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void consistentWorldsAuditClean() {
+        WorldClaims world = new WorldClaims(worldId);
+        Random random = new Random(48);
+
+        int claims = 0;
+        for (int i = 0; i < 60; i++) {
+            int x = random.nextInt(4000) - 2000;
+            int z = random.nextInt(4000) - 2000;
+            AreaClaim area = i % 3 == 0
+                    ? AreaClaim.polygon(worldId, ownerId, BlockPolygon.of(List.of(corner(x, z), corner(x + 90, z), corner(x, z + 70))), 0, 64, new ClaimPermissions(), 0)
+                    : new AreaClaim(worldId, ownerId, new BoundingBox(x, 0, z, x + 50, 64, z + 40), new ClaimPermissions(), 0);
+            if (!world.area().add(area)) continue;
+
+            claims++;
+            if (world.plot().add(plot(ClaimType.AREA, area.id(), new BoundingBox(x + 1, 0, z + 1, x + 9, 10, z + 9)))) claims++;
+        }
+        for (int i = 0; i < 100; i++) {
+            ChunkPosition chunk = new ChunkPosition(random.nextInt(200), random.nextInt(200));
+            if (!world.chunk().claim(UUID.randomUUID(), chunk, new ClaimPermissions())) continue;
+
+            ChunkClaim parent = world.chunk().getAt(chunk);
+            BoundingBox inside = new BoundingBox(chunk.minBlockX(), 0, chunk.minBlockZ(), chunk.minBlockX() + 7, 10, chunk.minBlockZ() + 7);
+            if (world.plot().add(plot(ClaimType.CHUNK, parent.id(), inside))) claims++;
+        }
+
+        try (ClaimIndexAuditor auditor = new ClaimIndexAuditor(world, 3)) {
+            ClaimAuditReport report = auditor.audit();
+            assertTrue(report.isClean(), () -> report.issues().toString());
+            assertEquals(claims, report.claimsChecked());
+            assertTrue(report.bucketsChecked() > claims);
+
+            ClaimAuditReport starved = auditor.audit(Duration.ZERO, false);
+            assertFalse(starved.complete());
+            assertTrue(starved.issues().isEmpty());
+        }
+    }
+
+    @Test
+    void confirmedProblemsAreReportedAndRepaired() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        AreaClaim box = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 63, 64, 63), new ClaimPermissions(), 0);
+        AreaClaim triangle = AreaClaim.polygon(worldId, ownerId,
+                BlockPolygon.of(List.of(corner(100, 0), corner(164, 0), corner(100, 64))), 0, 64, new ClaimPermissions(), 0);
+        assertTrue(world.area().add(box));
+        assertTrue(world.area().add(triangle));
+        assertTrue(world.chunk().claim(ownerId, new ChunkPosition(10, 10), new ClaimPermissions()));
+
+        Map<Long, ClaimBucket<AreaClaim>> cells = field(world.area().index(), "buckets");
+        long missing = SpatialGrid.cellKeyFromBlock(16, 16);
+        long stale = SpatialGrid.cellKeyFromBlock(500, 500);
+        long partial = SpatialGrid.cellKeyFromBlock(128, 32);
+        cells.computeIfPresent(missing, (key, bucket) -> bucket.without(box));
+        cells.put(stale, ClaimBucket.of(box));
+        cells.computeIfPresent(partial, (key, bucket) -> bucket.replace(triangle, triangle, false));
+
+        Map<Integer, Set<Long>> owners = field(field(world.chunk(), "claims"), "ownerKeys");
+        owners.clear();
+
+        // Pager restores skip validation, which is how bad data from disk gets in.
+        AreaClaim overlapping = new AreaClaim(worldId, ownerId, new BoundingBox(60, 0, 60, 70, 64, 70), new ClaimPermissions(), 0);
+        PlotClaim orphan = plot(ClaimType.AREA, UUID.randomUUID(), new BoundingBox(1000, 0, 1000, 1010, 10, 1010));
+        assertTrue(world.area().restore(overlapping));
+        assertTrue(world.plot().restore(orphan));
+
+        try (ClaimIndexAuditor auditor = new ClaimIndexAuditor(world)) {
+            ClaimAuditReport report = auditor.audit();
+            assertEquals(Set.of(
+                    new Issue(Problem.MISSING_ENTRY, ClaimType.AREA, box.id(), null, missing),
+                    new Issue(Problem.STALE_ENTRY, ClaimType.AREA, box.id(), null, stale),
+                    new Issue(Problem.WRONG_COVERAGE, ClaimType.AREA, triangle.id(), null, partial),
+                    new Issue(Problem.OWNER_INDEX, ClaimType.CHUNK, ownerId, null, world.chunk().getAt(new ChunkPosition(10, 10)).ownerRef()),
+                    new Issue(Problem.ORPHAN_PLOT, ClaimType.PLOT, orphan.id(), orphan.parentClaimId(), 0)
+            ), report.issues().stream().filter(issue -> issue.problem() != Problem.OVERLAP).collect(Collectors.toSet()));
+
+            List<Issue> overlaps = report.issues().stream().filter(issue -> issue.problem() == Problem.OVERLAP).toList();
+            assertEquals(1, overlaps.size());
+            assertEquals(Set.of(box.id(), overlapping.id()), Set.of(overlaps.get(0).id(), overlaps.get(0).other()));
+
+            ClaimAuditReport repaired = auditor.audit(null, true);
+            assertEquals(5, repaired.repaired());
+
+            ClaimAuditReport after = auditor.audit();
+            assertEquals(List.of(Problem.OVERLAP), after.issues().stream().map(Issue::problem).toList());
+        }
+
+        assertSame(box, world.area().getAt(new BlockPosition(16, 10, 16)));
+        assertNull(cells.get(stale));
+        assertTrue(cells.get(partial).isPartial(triangle));
+        assertEquals(1, world.chunk().countOwned(ownerId));
+        assertNull(world.plot().getById(orphan.id()));
+    }
+
+    private PlotClaim plot(ClaimType parentType, UUID parentId, BoundingBox bounds) {
+        return new PlotClaim(worldId, ownerId, bounds, new ClaimPermissions(), 0, parentType, parentId);
+    }
+
+    private static BlockPosition corner(int x, int z) {
+        return new BlockPosition(x, 0, z);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T field(Object owner, String name) throws ReflectiveOperationException {
+        Field field = owner.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(owner);
+    }
+}
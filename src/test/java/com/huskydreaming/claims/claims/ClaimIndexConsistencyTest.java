@@ -0,0 +1,370 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.BlockFace;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Differential suite: drives WorldClaims and a brute-force reference with the same random
+// operations and compares every index. Scale with -Datlas.consistency.operations=<n>.
+class ClaimIndexConsistencyTest {
+
+    private static final int OPERATIONS = Integer.getInteger("atlas.consistency.operations", 200_000);
+    private static final int WINDOW = 2048;
+    private static final int[] WINDOW_ORIGINS = {
+            -WINDOW / 2,
+            Integer.MAX_VALUE - WINDOW + 1,
+            Integer.MIN_VALUE
+    };
+    private static final int MAX_CLAIMS = 120;
+
+    @Test
+    void areaLookupFindsClaimsFarFromOrigin() {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        AreaClaim claim = new AreaClaim(world.worldId(), UUID.randomUUID(),
+                new BoundingBox(10_000, 0, -10_000, 10_020, 64, -9_980), new ClaimPermissions(), 0);
+
+        assertTrue(world.area().add(claim));
+        assertSame(claim, world.area().getAt(new BlockPosition(10_010, 32, -9_990)));
+        assertNull(world.area().getAt(new BlockPosition(10_021, 32, -9_990)));
+    }
+
+    @Test
+    void areaLookupAtIntegerExtremes() {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        AreaClaim top = new AreaClaim(world.worldId(), UUID.randomUUID(),
+                new BoundingBox(Integer.MAX_VALUE - 5, 0, Integer.MAX_VALUE - 5, Integer.MAX_VALUE, 10, Integer.MAX_VALUE),
+                new ClaimPermissions(), 0);
+        AreaClaim bottom = new AreaClaim(world.worldId(), UUID.randomUUID(),
+                new BoundingBox(Integer.MIN_VALUE, 0, Integer.MIN_VALUE, Integer.MIN_VALUE + 5, 10, Integer.MIN_VALUE + 5),
+                new ClaimPermissions(), 0);
+
+        assertTrue(world.area().add(top));
+        assertTrue(world.area().add(bottom));
+
+        assertSame(top, world.area().getAt(new BlockPosition(Integer.MAX_VALUE, 5, Integer.MAX_VALUE)));
+        assertSame(bottom, world.area().getAt(new BlockPosition(Integer.MIN_VALUE, 5, Integer.MIN_VALUE)));
+        assertNull(world.area().getAt(new BlockPosition(Integer.MIN_VALUE, 5, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void randomOperationsMatchReferenceNearOrigin() {
+        runDifferential(1L, 0);
+    }
+
+    @Test
+    void randomOperationsMatchReferenceNearPositiveLimit() {
+        runDifferential(2L, 1);
+    }
+
+    @Test
+    void randomOperationsMatchReferenceNearNegativeLimit() {
+        runDifferential(3L, 2);
+    }
+
+    private void runDifferential(long seed, int window) {
+        Random random = new Random(seed);
+        UUID worldId = UUID.randomUUID();
+
+        WorldClaims world = new WorldClaims(worldId);
+        ReferenceWorldClaims reference = new ReferenceWorldClaims(worldId);
+        Generator generator = new Generator(random, worldId, WINDOW_ORIGINS[window]);
+
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            String context = "seed " + seed + " op " + operation;
+            int roll = random.nextInt(100);
+
+            if (roll < 15) {
+                if (reference.areas.size() < MAX_CLAIMS) {
+                    AreaClaim claim = generator.area();
+                    assertEquals(reference.addArea(claim), world.area().add(claim), context + " addArea");
+                }
+            } else if (roll < 22) {
+                AreaClaim claim = pick(random, reference.areas, generator::area);
+                assertEquals(reference.removeArea(claim), world.area().remove(claim), context + " removeArea");
+            } else if (roll < 40) {
+                if (reference.chunks.size() < MAX_CLAIMS) {
+                    ChunkClaim claim = generator.chunk();
+                    assertEquals(reference.claimChunk(claim), world.chunk().claim(claim), context + " claimChunk");
+                }
+            } else if (roll < 48) {
+                ChunkPosition position = random.nextBoolean() && !reference.chunks.isEmpty()
+                        ? reference.chunks.get(random.nextInt(reference.chunks.size())).chunkPosition()
+                        : generator.chunk().chunkPosition();
+                assertEquals(reference.unclaimChunk(position), world.chunk().unclaim(position), context + " unclaim");
+            } else if (roll < 68) {
+                if (reference.plots.size() < MAX_CLAIMS) {
+                    PlotClaim plot = generator.plot(reference);
+                    assertEquals(reference.addPlot(plot), world.plot().add(plot), context + " addPlot");
+                }
+            } else if (roll < 76) {
+                PlotClaim plot = pick(random, reference.plots, () -> generator.plot(reference));
+                assertEquals(reference.removePlot(plot), world.plot().remove(plot), context + " removePlot");
+            } else if (roll < 82) {
+                AreaClaim claim = pick(random, reference.areas, generator::area);
+                BoundingBox bounds = claim.isPolygon() ? generator.move(claim.bounds()) : generator.reshape(claim.bounds());
+                assertEquals(reference.resizeArea(claim, bounds), world.area().resize(claim, bounds), context + " resizeArea");
+            } else if (roll < 87) {
+                PlotClaim plot = pick(random, reference.plots, () -> generator.plot(reference));
+                BoundingBox bounds = generator.reshape(plot.bounds());
+                assertEquals(reference.resizePlot(plot, bounds), world.plot().resize(plot, bounds), context + " resizePlot");
+            } else if (roll < 88) {
+                world.clear();
+                reference.areas.clear();
+                reference.chunks.clear();
+                reference.plots.clear();
+            }
+
+            for (int query = 0; query < 4; query++) {
+                assertLookupsMatch(world, reference, generator.position(reference), context);
+            }
+            assertPairsMatch(world, reference, generator.position(reference), generator.position(reference), context);
+
+            if (operation % 5_000 == 0) {
+                assertContentsMatch(world, reference, generator, context);
+            }
+        }
+
+        assertContentsMatch(world, reference, generator, "seed " + seed + " final");
+    }
+
+    private static void assertLookupsMatch(WorldClaims world, ReferenceWorldClaims reference, BlockPosition position, String context) {
+        String where = context + " at " + position;
+
+        assertEquals(reference.areaAt(position), world.area().getAt(position), where + " area");
+        assertEquals(reference.plotAt(position), world.plot().getAt(position), where + " plot");
+        assertEquals(reference.chunkAt(ChunkPosition.fromBlock(position)), world.chunk().getAt(position), where + " chunk");
+        assertEquals(reference.claimAt(position), world.getClaimAt(position), where + " world");
+    }
+
+    private static void assertPairsMatch(WorldClaims world, ReferenceWorldClaims reference, BlockPosition position, BlockPosition other, String context) {
+        String where = context + " at " + position;
+        Optional<UUID> claim = reference.claimAt(position).map(ResolvedClaim::id);
+
+        assertEquals(claim.equals(reference.claimAt(other).map(ResolvedClaim::id)), world.sameClaim(position, other), where + " pair " + other);
+
+        int mask = world.sameClaimNeighbours(position);
+        for (BlockFace face : BlockFace.values()) {
+            BlockPosition neighbour = face.relative(position);
+            boolean expected = claim.equals(reference.claimAt(neighbour).map(ResolvedClaim::id));
+            assertEquals(expected, face.in(mask), where + " neighbour " + face);
+            assertEquals(expected, world.sameClaim(position, neighbour), where + " pair " + face);
+        }
+    }
+
+    private static void assertContentsMatch(WorldClaims world, ReferenceWorldClaims reference, Generator generator, String context) {
+        assertEquals(Set.copyOf(reference.areas), Set.copyOf(world.area().allClaims()), context + " areas");
+        assertEquals(Set.copyOf(reference.chunks), Set.copyOf(world.chunk().allClaims()), context + " chunks");
+        assertEquals(Set.copyOf(reference.plots), Set.copyOf(world.plot().allClaims()), context + " plots");
+
+        for (UUID ownerId : generator.owners) {
+            assertEquals(reference.countOwned(ownerId), world.chunk().countOwned(ownerId), context + " countOwned");
+        }
+
+        for (AreaClaim area : reference.areas) {
+            assertEquals(Set.copyOf(childrenOf(reference, area.id())), Set.copyOf(world.plot().childrenOf(area.id())),
+                    context + " children");
+        }
+    }
+
+    private static List<PlotClaim> childrenOf(ReferenceWorldClaims reference, UUID parentId) {
+        List<PlotClaim> children = new ArrayList<>();
+        for (PlotClaim plot : reference.plots) {
+            if (plot.parentClaimId().equals(parentId)) children.add(plot);
+        }
+        return children;
+    }
+
+    private static <T> T pick(Random random, List<T> existing, java.util.function.Supplier<T> fresh) {
+        if (existing.isEmpty() || random.nextInt(8) == 0) {
+            return fresh.get();
+        }
+        return existing.get(random.nextInt(existing.size()));
+    }
+
+    private static final class Generator {
+
+        private final Random random;
+        private final UUID worldId;
+        private final int origin;
+        private final List<UUID> owners = new ArrayList<>();
+
+        Generator(Random random, UUID worldId, int origin) {
+            this.random = random;
+            this.worldId = worldId;
+            this.origin = origin;
+
+            for (int i = 0; i < 4; i++) {
+                owners.add(UUID.randomUUID());
+            }
+        }
+
+        AreaClaim area() {
+            if (random.nextInt(3) == 0) {
+                return polygonArea();
+            }
+            return new AreaClaim(worldId, owner(), box(1 + random.nextInt(96), 1 + random.nextInt(96)),
+                    new ClaimPermissions(), random.nextInt(3));
+        }
+
+        // A star-shaped outline: corners at sorted angles around the center, so edges never cross.
+        private AreaClaim polygonArea() {
+            while (true) {
+                int size = 4 + random.nextInt(93);
+                int minX = coordinate(size + 1);
+                int minZ = coordinate(size + 1);
+                double half = size / 2.0;
+
+                int count = 3 + random.nextInt(6);
+                double[] angles = new double[count];
+                for (int i = 0; i < count; i++) angles[i] = random.nextDouble() * 2 * Math.PI;
+                Arrays.sort(angles);
+
+                List<BlockPosition> corners = new ArrayList<>(count);
+                for (double angle : angles) {
+                    double radius = half * (0.3 + 0.7 * random.nextDouble());
+                    corners.add(new BlockPosition(
+                            minX + (int) Math.round(half + radius * Math.cos(angle)), 0,
+                            minZ + (int) Math.round(half + radius * Math.sin(angle))));
+                }
+
+                try {
+                    int minY = random.nextInt(200);
+                    return AreaClaim.polygon(worldId, owner(), BlockPolygon.of(corners), minY, minY + random.nextInt(56),
+                            new ClaimPermissions(), random.nextInt(3));
+                } catch (IllegalArgumentException degenerate) {
+                    // Collinear corners; draw again.
+                }
+            }
+        }
+
+        ChunkClaim chunk() {
+            int chunkX = Math.floorDiv(coordinate(1), 32);
+            int chunkZ = Math.floorDiv(coordinate(1), 32);
+            return new ChunkClaim(worldId, owner(), new ChunkPosition(chunkX, chunkZ), new ClaimPermissions());
+        }
+
+        PlotClaim plot(ReferenceWorldClaims reference) {
+            int roll = random.nextInt(10);
+
+            if (roll < 5 && !reference.areas.isEmpty()) {
+                AreaClaim parent = reference.areas.get(random.nextInt(reference.areas.size()));
+                BoundingBox bounds = random.nextInt(6) == 0 ? box(8, 8) : inside(parent.bounds());
+                return new PlotClaim(worldId, owner(), bounds, new ClaimPermissions(), random.nextInt(3),
+                        ClaimType.AREA, parent.id());
+            }
+
+            if (roll < 9 && !reference.chunks.isEmpty()) {
+                ChunkPosition chunk = reference.chunks.get(random.nextInt(reference.chunks.size())).chunkPosition();
+                BoundingBox column = new BoundingBox(chunk.minBlockX(), 0, chunk.minBlockZ(), chunk.maxBlockX(), 255, chunk.maxBlockZ());
+                BoundingBox bounds = random.nextInt(6) == 0 ? box(40, 40) : inside(column);
+                ChunkClaim parent = reference.chunkAt(chunk);
+                return new PlotClaim(worldId, owner(), bounds, new ClaimPermissions(), random.nextInt(3),
+                        ClaimType.CHUNK, parent.id());
+            }
+
+            ClaimType type = random.nextBoolean() ? ClaimType.AREA : ClaimType.CHUNK;
+            return new PlotClaim(worldId, owner(), box(8, 8), new ClaimPermissions(), 0, type, UUID.randomUUID());
+        }
+
+        BlockPosition position(ReferenceWorldClaims reference) {
+            int roll = random.nextInt(4);
+            if (roll == 0 && !reference.areas.isEmpty()) {
+                return inside(reference.areas.get(random.nextInt(reference.areas.size())).bounds(), 2);
+            }
+            if (roll == 1 && !reference.plots.isEmpty()) {
+                return inside(reference.plots.get(random.nextInt(reference.plots.size())).bounds(), 2);
+            }
+            return new BlockPosition(coordinate(1), random.nextInt(256), coordinate(1));
+        }
+
+        private BoundingBox box(int sizeX, int sizeZ) {
+            int minX = coordinate(sizeX);
+            int minZ = coordinate(sizeZ);
+            int minY = random.nextInt(200);
+            int maxY = minY + random.nextInt(56);
+            return new BoundingBox(minX, minY, minZ, minX + sizeX - 1, maxY, minZ + sizeZ - 1);
+        }
+
+        // Moves the box or drags some of its faces by a few blocks, staying inside the window.
+        BoundingBox reshape(BoundingBox box) {
+            int span = random.nextBoolean() ? 4 : 24;
+            if (random.nextBoolean()) {
+                int dx = clampedShift(box.minX(), box.maxX(), random.nextInt(2 * span + 1) - span);
+                int dz = clampedShift(box.minZ(), box.maxZ(), random.nextInt(2 * span + 1) - span);
+                return box.translate(dx, random.nextInt(9) - 4, dz);
+            }
+
+            int minX = clampedAdd(box.minX(), drag(span)), maxX = clampedAdd(box.maxX(), drag(span));
+            int minZ = clampedAdd(box.minZ(), drag(span)), maxZ = clampedAdd(box.maxZ(), drag(span));
+            minX = Math.max(origin, minX);
+            minZ = Math.max(origin, minZ);
+            maxX = Math.min(origin + WINDOW - 1, Math.max(minX, maxX));
+            maxZ = Math.min(origin + WINDOW - 1, Math.max(minZ, maxZ));
+            return new BoundingBox(Math.min(minX, maxX), box.minY(), Math.min(minZ, maxZ), maxX, Math.max(box.minY(), box.maxY() + drag(span)), maxZ);
+        }
+
+        // Polygon claims only move; their far corners sit one block past the last column.
+        BoundingBox move(BoundingBox box) {
+            int span = random.nextBoolean() ? 4 : 24;
+            int dx = clampedShift(box.minX(), box.maxX() + 1, random.nextInt(2 * span + 1) - span);
+            int dz = clampedShift(box.minZ(), box.maxZ() + 1, random.nextInt(2 * span + 1) - span);
+            return box.translate(dx, random.nextInt(9) - 4, dz);
+        }
+
+        private int drag(int span) {
+            return random.nextInt(3) == 0 ? 0 : random.nextInt(2 * span + 1) - span;
+        }
+
+        private int clampedShift(int min, int max, int delta) {
+            long low = (long) origin - min;
+            long high = (long) origin + WINDOW - 1 - max;
+            return (int) Math.max(low, Math.min(high, delta));
+        }
+
+        private BoundingBox inside(BoundingBox outer) {
+            int minX = between(outer.minX(), outer.maxX());
+            int minY = between(outer.minY(), outer.maxY());
+            int minZ = between(outer.minZ(), outer.maxZ());
+            return new BoundingBox(minX, minY, minZ,
+                    between(minX, outer.maxX()), between(minY, outer.maxY()), between(minZ, outer.maxZ()));
+        }
+
+        // Samples around the box, spilling up to margin blocks past its faces when that stays in range.
+        private BlockPosition inside(BoundingBox box, int margin) {
+            return new BlockPosition(
+                    between(clampedAdd(box.minX(), -margin), clampedAdd(box.maxX(), margin)),
+                    between(box.minY() - margin, box.maxY() + margin),
+                    between(clampedAdd(box.minZ(), -margin), clampedAdd(box.maxZ(), margin)));
+        }
+
+        private int coordinate(int size) {
+            return origin + random.nextInt(WINDOW - size + 1);
+        }
+
+        private int between(int min, int max) {
+            return (int) (min + (long) (random.nextDouble() * ((long) max - min + 1)));
+        }
+
+        private UUID owner() {
+            return owners.get(random.nextInt(owners.size()));
+        }
+
+        private static int clampedAdd(int value, int delta) {
+            long result = (long) value + delta;
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, result));
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimIndexTunerTest {
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void migrationKeepsEveryClaimAndTheWritesMadeDuringIt() {
+        WorldClaims world = new WorldClaims(worldId);
+        List<AreaClaim> areas = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            int x = i * 100;
+            AreaClaim area = i % 2 == 0
+                    ? AreaClaim.polygon(worldId, ownerId, BlockPolygon.of(List.of(corner(x, 0), corner(x + 90, 0), corner(x, 70))), 0, 64, new ClaimPermissions(), 0)
+                    : new AreaClaim(worldId, ownerId, new BoundingBox(x, 0, 0, x + 50, 64, 40), new ClaimPermissions(), 0);
+            assertTrue(world.area().add(area));
+            areas.add(area);
+        }
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(101, 0, 1, 109, 10, 9), new ClaimPermissions(), 0, ClaimType.AREA, areas.get(1).id());
+        assertTrue(world.plot().add(plot));
+
+        AreaClaim removed = areas.get(3);
+        AreaClaim resized = areas.get(5);
+        AreaClaim added = new AreaClaim(worldId, ownerId, new BoundingBox(2000, 0, 0, 2040, 64, 40), new ClaimPermissions(), 0);
+        ScriptedIndex<AreaClaim> target = new ScriptedIndex<>(ClaimIndex.areaGrid(64), () -> {
+            assertTrue(world.area().remove(removed));
+            assertNotNull(world.area().resize(resized, resized.bounds().translate(0, 0, 500)));
+            assertTrue(world.area().add(added));
+        });
+
+        assertEquals("grid-8", world.area().indexName());
+        assertTrue(world.area().migrate(target));
+        assertTrue(target.fired);
+        assertEquals("grid-64", world.area().indexName());
+        assertTrue(world.plot().migrate(ClaimIndex.plotGrid(8)));
+
+        assertNull(world.area().getAt(new BlockPosition(310, 10, 10)));
+        assertNull(world.area().getAt(new BlockPosition(510, 10, 10)));
+        assertEquals(resized.id(), world.area().getAt(new BlockPosition(510, 10, 510)).id());
+        assertEquals(added, world.area().getAt(new BlockPosition(2020, 10, 20)));
+        assertEquals(plot, world.plot().getAt(new BlockPosition(105, 5, 5)));
+        assertEquals(Set.of(plot), world.plot().intersecting(new BoundingBox(0, 0, 0, 1000, 64, 1000)));
+
+        // Polygon coverage is folded into the coarse squares, so lookups still follow the outline.
+        for (AreaClaim area : world.area().allClaims()) {
+            BoundingBox bounds = area.bounds();
+            for (int x = bounds.minX() - 2; x <= bounds.maxX() + 2; x += 3) {
+                for (int z = bounds.minZ() - 2; z <= bounds.maxZ() + 2; z += 3) {
+                    BlockPosition position = new BlockPosition(x, 10, z);
+                    assertEquals(area.contains(position), area.equals(world.area().getAt(position)), position::toString);
+                }
+            }
+        }
+
+        try (ClaimIndexAuditor auditor = new ClaimIndexAuditor(world)) {
+            ClaimAuditReport report = auditor.audit();
+            assertTrue(report.isClean(), () -> report.issues().toString());
+        }
+        assertEquals(world.area().allClaims().size(), world.footprint().areas().claims());
+    }
+
+    @Test
+    void tunerFollowsClaimSizeAndWorkload() {
+        WorldClaims large = new WorldClaims(worldId);
+        List<AreaClaim> fields = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int x = (i % 8) * 600;
+            int z = (i / 8) * 600;
+            AreaClaim field = new AreaClaim(worldId, ownerId, new BoundingBox(x, 0, z, x + 399, 64, z + 399), new ClaimPermissions(), 0);
+            assertTrue(large.area().add(field));
+            fields.add(field);
+        }
+
+        try (ClaimIndexTuner tuner = new ClaimIndexTuner(large)) {
+            ClaimIndexReport idle = tuner.tune();
+            assertFalse(idle.areas().migrated(), "no workload since the tuner started");
+            assertEquals(400, idle.areas().medianSpan());
+
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < fields.size(); i++) {
+                    fields.set(i, large.area().move(fields.get(i), 0, 0, round % 2 == 0 ? 8 : -8));
+                }
+            }
+
+            ClaimIndexReport report = tuner.tune();
+            assertTrue(report.areas().migrated(), report::toString);
+            assertEquals("grid-8", report.areas().engine());
+            assertEquals(report.areas().chosen(), large.area().indexName());
+            assertNotEquals("grid-8", large.area().indexName());
+            assertFalse(report.plots().migrated());
+            assertEquals(fields.get(7), large.area().getAt(new BlockPosition(4200 + 10, 5, 10)));
+        }
+
+        WorldClaims dense = new WorldClaims(UUID.randomUUID());
+        for (int x = 0; x < 600; x += 6) {
+            for (int z = 0; z < 600; z += 6) {
+                assertTrue(dense.area().add(new AreaClaim(dense.worldId(), ownerId, new BoundingBox(x, 0, z, x + 3, 64, z + 3), new ClaimPermissions(), 0)));
+            }
+        }
+        assertTrue(dense.area().migrate(ClaimIndex.areaGrid(128)));
+
+        try (ClaimIndexTuner tuner = new ClaimIndexTuner(dense)) {
+            Random random = new Random(50);
+            for (int i = 0; i < 20_000; i++) {
+                dense.area().getAt(new BlockPosition(random.nextInt(600), 10, random.nextInt(600)));
+            }
+
+            ClaimIndexReport report = tuner.tune();
+            assertTrue(report.areas().migrated(), report::toString);
+            assertEquals("grid-8", dense.area().indexName());
+            assertNotNull(dense.area().getAt(new BlockPosition(7, 10, 7)));
+            assertNull(dense.area().getAt(new BlockPosition(5, 10, 5)));
+        }
+    }
+
+    @Test
+    void overlappingWritersRacingEachOtherAdmitOnlyOne() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        AreaClaim parent = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 1000, 500, 64, 1500), new ClaimPermissions(), 0);
+        AreaClaim moving = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 500, 30, 64, 530), new ClaimPermissions(), 0);
+        PlotClaim movingPlot = new PlotClaim(worldId, ownerId, new BoundingBox(0, 0, 1400, 20, 10, 1420), new ClaimPermissions(), 0, ClaimType.AREA, parent.id());
+        assertTrue(world.area().add(parent));
+        assertTrue(world.area().add(moving));
+        assertTrue(world.plot().add(movingPlot));
+
+        // Each writer waits between its overlap check and its index write until the other one gets
+        // there too, or until it is clear that the other one is being kept out.
+        CountDownLatch[] meeting = new CountDownLatch[1];
+        Runnable meet = () -> {
+            CountDownLatch latch = meeting[0];
+            if (latch == null) return;
+
+            latch.countDown();
+            try {
+                latch.await(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        assertTrue(world.area().migrate(new ScriptedIndex<>(ClaimIndex.areaGrid(8), () -> {}).beforeWrite(meet)));
+        assertTrue(world.plot().migrate(new ScriptedIndex<>(ClaimIndex.plotGrid(32), () -> {}).beforeWrite(meet)));
+
+        BoundingBox first = new BoundingBox(100, 0, 0, 130, 64, 30);
+        BoundingBox second = new BoundingBox(200, 0, 0, 230, 64, 30);
+        BoundingBox firstPlot = new BoundingBox(100, 0, 1100, 120, 10, 1120);
+        BoundingBox secondPlot = new BoundingBox(200, 0, 1100, 220, 10, 1120);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            assertEquals(1, race(pool, meeting,
+                    () -> world.area().add(new AreaClaim(worldId, ownerId, first, new ClaimPermissions(), 0)),
+                    () -> world.area().add(new AreaClaim(worldId, ownerId, first.translate(5, 0, 5), new ClaimPermissions(), 0))));
+            assertEquals(1, race(pool, meeting,
+                    () -> world.area().add(new AreaClaim(worldId, ownerId, second, new ClaimPermissions(), 0)),
+                    () -> world.area().resize(moving, second.translate(5, 0, 5)) != null));
+            assertEquals(1, race(pool, meeting,
+                    () -> world.plot().add(new PlotClaim(worldId, ownerId, firstPlot, new ClaimPermissions(), 0, ClaimType.AREA, parent.id())),
+                    () -> world.plot().add(new PlotClaim(worldId, ownerId, firstPlot.translate(5, 0, 5), new ClaimPermissions(), 0, ClaimType.AREA, parent.id()))));
+            assertEquals(1, race(pool, meeting,
+                    () -> world.plot().add(new PlotClaim(worldId, ownerId, secondPlot, new ClaimPermissions(), 0, ClaimType.AREA, parent.id())),
+                    () -> world.plot().resize(movingPlot, secondPlot.translate(5, 0, 5)) != null));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, world.area().intersecting(first).size());
+        assertEquals(1, world.area().intersecting(second).size());
+        assertEquals(1, world.plot().intersecting(firstPlot).size());
+        assertEquals(1, world.plot().intersecting(secondPlot).size());
+    }
+
+    // Starts both writers behind a fresh meeting and counts the ones that succeeded.
+    private static int race(ExecutorService pool, CountDownLatch[] meeting, Callable<Boolean> a, Callable<Boolean> b) throws Exception {
+        meeting[0] = new CountDownLatch(2);
+        Future<Boolean> first = pool.submit(a);
+        Future<Boolean> second = pool.submit(b);
+
+        int succeeded = (first.get(10, TimeUnit.SECONDS) ? 1 : 0) + (second.get(10, TimeUnit.SECONDS) ? 1 : 0);
+        meeting[0] = null;
+        return succeeded;
+    }
+
+    private static BlockPosition corner(int x, int z) {
+        return new BlockPosition(x, 0, z);
+    }
+
+    // A third-party engine in miniature: delegates to a grid and writes to the world on its
+    // first add, which lands while the migration is still building.
+    private static final class ScriptedIndex<T extends BoundedClaim> implements ClaimIndex<T> {
+
+        private final ClaimIndex<T> delegate;
+        private final Runnable script;
+        private boolean fired;
+        private Runnable beforeWrite = () -> {};
+
+        private ScriptedIndex(ClaimIndex<T> delegate, Runnable script) {
+            this.delegate = delegate;
+            this.script = script;
+        }
+
+        // Runs before every add or move, after the writer has checked for overlaps.
+        private ScriptedIndex<T> beforeWrite(Runnable beforeWrite) {
+            this.beforeWrite = beforeWrite;
+            return this;
+        }
+
+        @Override
+        public String name() {
+            return delegate.name();
+        }
+
+        @Override
+        public long keyAt(int blockX, int blockZ) {
+            return delegate.keyAt(blockX, blockZ);
+        }
+
+        @Override
+        public long[] keys(BoundingBox bounds) {
+            return delegate.keys(bounds);
+        }
+
+        @Override
+        public Set<Long> keys() {
+            return delegate.keys();
+        }
+
+        @Override
+        public ClaimBucket<T> bucket(long key) {
+            return delegate.bucket(key);
+        }
+
+        @Override
+        public int coverage(T claim, long key) {
+            return delegate.coverage(claim, key);
+        }
+
+        @Override
+        public void add(T claim) {
+            beforeWrite.run();
+            delegate.add(claim);
+            if (!fired) {
+                fired = true;
+                script.run();
+            }
+        }
+
+        @Override
+        public boolean remove(T claim) {
+            return delegate.remove(claim);
+        }
+
+        @Override
+        public void move(T claim, T moved) {
+            beforeWrite.run();
+            delegate.move(claim, moved);
+        }
+
+        @Override
+        public void repair(long key, UUID id, T current) {
+            delegate.repair(key, id, current);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public long buckets() {
+            return delegate.buckets();
+        }
+
+        @Override
+        public long entries() {
+            return delegate.entries();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimMemoryBudgetTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void footprintFollowsTheIndexes() {
+        UUID worldId = UUID.randomUUID();
+        WorldClaims world = new WorldClaims(worldId);
+        assertEquals(0, world.footprint().heapBytes());
+
+        AreaClaim box = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 63, 64, 63), new ClaimPermissions(), 0);
+        AreaClaim triangle = AreaClaim.polygon(worldId, ownerId,
+                BlockPolygon.of(List.of(corner(100, 0), corner(164, 0), corner(100, 64))), 0, 64, new ClaimPermissions(), 0);
+        assertTrue(world.area().add(box));
+        assertTrue(world.area().add(triangle));
+        assertTrue(world.plot().add(new PlotClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 40, 10, 10), new ClaimPermissions(), 0, ClaimType.AREA, box.id())));
+
+        ClaimFootprint footprint = world.footprint();
+        assertEquals(2, footprint.areas().claims());
+        assertEquals(64 + triangle.outline().coveredCells(), footprint.areas().entries());
+        assertEquals(footprint.areas().entries(), footprint.areas().buckets());
+        assertEquals(1, footprint.plots().claims());
+        assertEquals(2, footprint.plots().entries());
+
+        AreaClaim moved = world.area().resize(box, new BoundingBox(0, 0, 0, 79, 64, 63));
+        assertNotNull(moved);
+        assertEquals(80 + triangle.outline().coveredCells(), world.footprint().areas().entries());
+        assertTrue(world.footprint().areas().heapBytes() > footprint.areas().heapBytes());
+
+        assertTrue(world.area().remove(moved));
+        assertTrue(world.area().remove(triangle));
+        assertEquals(new ClaimFootprint.Structure(0, 0, 0, 0), world.footprint().areas());
+        assertEquals(new ClaimFootprint.Structure(0, 0, 0, 0), world.footprint().plots());
+    }
+
+    @Test
+    void chunkClaimsMoveOffHeapWithoutLosingAnything() {
+        UUID worldId = UUID.randomUUID();
+        WorldClaims world = new WorldClaims(worldId);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(world.chunk().claim(ownerId, new ChunkPosition(i, -i), new ClaimPermissions()));
+        }
+
+        ClaimFootprint onHeap = world.footprint();
+        assertEquals(500, onHeap.chunks().claims());
+        assertEquals(0, onHeap.offHeapBytes());
+
+        assertTrue(world.moveChunksOffHeap());
+        assertFalse(world.moveChunksOffHeap());
+
+        ClaimFootprint offHeap = world.footprint();
+        assertEquals(500, offHeap.chunks().claims());
+        assertTrue(offHeap.chunks().heapBytes() < onHeap.chunks().heapBytes() / 10);
+        assertTrue(offHeap.offHeapBytes() > 0);
+
+        assertEquals(ownerId, world.chunk().getAt(new ChunkPosition(7, -7)).ownerId());
+        assertEquals(500, world.chunk().countOwned(ownerId));
+        assertThrows(IllegalStateException.class, () -> world.chunk().getAt(new ChunkPosition(7, -7)).permissions().replace(new BitSet()));
+        assertTrue(world.chunk().unclaim(new ChunkPosition(7, -7)));
+        assertTrue(world.chunk().claim(ownerId, new ChunkPosition(1000, 0), new ClaimPermissions()));
+        assertEquals(500, world.chunk().countOwned(ownerId));
+    }
+
+    @Test
+    void movedHeapStoreForwardsPermissionWriteBacks() {
+        HeapChunkClaimStore heap = new HeapChunkClaimStore();
+        ChunkClaim claim = new ChunkClaim(UUID.randomUUID(), ownerId, new ChunkPosition(4, 4), new ClaimPermissions());
+        long key = SpatialGrid.chunkKey(claim.chunkPosition());
+        assertTrue(heap.insert(key, claim));
+
+        ChunkClaimStore target = ChunkClaimStore.offHeap();
+        heap.moveTo(target);
+
+        // A writer that read the claim before the move edits the heap record and writes it back there.
+        BitSet bits = BitSet.valueOf(new long[]{0b110L});
+        claim.permissions().replace(bits);
+        heap.permissionsChanged(key, claim);
+
+        assertEquals(bits, target.get(key).permissions().toBitSet());
+        target.close();
+    }
+
+    @Test
+    void enforceEscalatesUntilBackUnderTheBudget() {
+        WorldClaims paged = new WorldClaims(UUID.randomUUID());
+        WorldClaims busy = new WorldClaims(UUID.randomUUID());
+        WorldClaims idle = new WorldClaims(UUID.randomUUID());
+        for (int i = 0; i < 400; i++) {
+            paged.chunk().claim(ownerId, new ChunkPosition(i * 20, 0), new ClaimPermissions());
+            busy.chunk().claim(ownerId, new ChunkPosition(i, 0), new ClaimPermissions());
+            idle.chunk().claim(ownerId, new ChunkPosition(0, i), new ClaimPermissions());
+        }
+        paged.moveChunksOffHeap();
+        paged.area().add(new AreaClaim(paged.worldId(), ownerId, new BoundingBox(0, 0, 0, 5000, 64, 500), new ClaimPermissions(), 0));
+
+        List<WorldClaims> unloaded = new ArrayList<>();
+        try (RegionPager pager = new RegionPager(paged, directory, 64, Runnable::run)) {
+            long total = paged.footprint().heapBytes() + busy.footprint().heapBytes() + idle.footprint().heapBytes();
+
+            try (ClaimMemoryBudget roomy = new ClaimMemoryBudget(total * 2, unloaded::add)) {
+                roomy.register(paged);
+                roomy.register(busy);
+                assertFalse(roomy.enforce().acted());
+            }
+
+            try (ClaimMemoryBudget tight = new ClaimMemoryBudget(1, Duration.ZERO, unloaded::add, null)) {
+                tight.register(paged);
+                tight.register(idle);
+                tight.register(busy);
+                busy.chunk().claim(ownerId, new ChunkPosition(-1, -1), new ClaimPermissions());
+
+                int resident = pager.residentRegions();
+                ClaimBudgetReport report = tight.enforce();
+
+                assertEquals(resident / 2, pager.residentRegions());
+                assertEquals(resident - resident / 2, report.regionsEvicted());
+                assertEquals(List.of(idle.worldId(), busy.worldId()), report.movedOffHeap(), "least recently active first");
+                assertEquals(3, report.unloaded().size());
+                assertEquals(List.of(paged, idle, busy), unloaded);
+                assertEquals(0, report.heapBytesAfter());
+                assertEquals(0, tight.heapBytes());
+            }
+        }
+    }
+
+    @Test
+    void activeWorldsAreNeverUnloaded() {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        world.area().add(new AreaClaim(world.worldId(), ownerId, new BoundingBox(0, 0, 0, 100, 64, 100), new ClaimPermissions(), 0));
+
+        List<WorldClaims> unloaded = new ArrayList<>();
+        try (ClaimMemoryBudget budget = new ClaimMemoryBudget(1, Duration.ofHours(1), unloaded::add, null)) {
+            budget.register(world);
+            budget.markActive(world.worldId());
+
+            ClaimBudgetReport report = budget.enforce();
+            assertEquals(List.of(world.worldId()), report.movedOffHeap());
+            assertTrue(report.unloaded().isEmpty());
+            assertTrue(unloaded.isEmpty());
+            assertTrue(report.heapBytesAfter() > 1);
+            assertNotNull(world.area().getAt(new BlockPosition(50, 10, 50)));
+        }
+    }
+
+    @Test
+    void writesToOtherWorldsOnASharedFeedLeaveIdleWorldsIdle() {
+        ClaimChangeFeed feed = new ClaimChangeFeed();
+        WorldClaims busy = new WorldClaims(UUID.randomUUID(), feed);
+        WorldClaims idle = new WorldClaims(UUID.randomUUID(), feed);
+        for (WorldClaims world : List.of(busy, idle)) {
+            world.area().add(new AreaClaim(world.worldId(), ownerId, new BoundingBox(0, 0, 0, 100, 64, 100), new ClaimPermissions(), 0));
+        }
+
+        List<WorldClaims> unloaded = new ArrayList<>();
+        try (ClaimMemoryBudget budget = new ClaimMemoryBudget(1, Duration.ofNanos(1), unloaded::add, null)) {
+            budget.register(busy);
+            budget.register(idle);
+            busy.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+
+            ClaimBudgetReport report = budget.enforce();
+            assertEquals(List.of(idle.worldId()), report.unloaded());
+            assertEquals(List.of(idle), unloaded);
+        }
+    }
+
+    private static BlockPosition corner(int x, int z) {
+        return new BlockPosition(x, 0, z);
+    }
+}
@@ -0,0 +1,104 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.helpers.AreaClaimHelper;
+import com.huskydreaming.claims.model.mutations.ClaimMutation;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimMutationQueueTest {
+
+    @Test
+    void appliesMutationsInSubmissionOrder() throws Exception {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        UUID ownerId = UUID.randomUUID();
+        ChunkPosition chunk = new ChunkPosition(3, -4);
+
+        try (ClaimMutationQueue queue = new ClaimMutationQueue(world, 4)) {
+            CompletableFuture<Boolean> first = queue.submit(ClaimMutation.claimChunk(ownerId, chunk, new ClaimPermissions()));
+            CompletableFuture<Boolean> second = queue.submit(ClaimMutation.claimChunk(UUID.randomUUID(), chunk, new ClaimPermissions()));
+            CompletableFuture<Boolean> third = queue.submit(ClaimMutation.unclaimChunk(chunk));
+
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertFalse(second.get(5, TimeUnit.SECONDS));
+            assertTrue(third.get(5, TimeUnit.SECONDS));
+        }
+
+        assertFalse(world.chunk().isClaimed(chunk));
+        assertEquals(0, world.chunk().countOwned(ownerId));
+    }
+
+    @Test
+    void burstFromManyThreadsIsAppliedExactlyOnce() throws Exception {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        UUID ownerId = UUID.randomUUID();
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        try (ClaimMutationQueue queue = new ClaimMutationQueue(world, 32)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    List<ClaimMutation> mutations = new ArrayList<>();
+                    for (int i = 0; i < 500; i++) {
+                        mutations.add(ClaimMutation.claimChunk(ownerId, new ChunkPosition(i, 0), new ClaimPermissions()));
+                    }
+                    List<CompletableFuture<Boolean>> submitted = queue.submitAll(mutations);
+                    synchronized (futures) {
+                        futures.addAll(submitted);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            int accepted = 0;
+            for (CompletableFuture<Boolean> future : futures) {
+                if (future.get(5, TimeUnit.SECONDS)) accepted++;
+            }
+
+            assertEquals(500, accepted);
+        }
+
+        assertEquals(500, world.chunk().countOwned(ownerId));
+    }
+
+    @Test
+    void invalidMutationCompletesExceptionallyWithoutStoppingTheBatch() throws Exception {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        AreaClaim foreign = AreaClaimHelper.areaClaim(0, 0, 0, 10, 10, 10);
+        AreaClaim local = AreaClaimHelper.areaClaim(world.worldId(), 0, 0, 0, 10, 10, 10);
+
+        try (ClaimMutationQueue queue = new ClaimMutationQueue(world)) {
+            CompletableFuture<Boolean> rejected = queue.submit(ClaimMutation.addArea(foreign));
+            CompletableFuture<Boolean> accepted = queue.submit(ClaimMutation.addArea(local));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            assertTrue(accepted.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void submitAfterCloseFails() {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        ClaimMutationQueue queue = new ClaimMutationQueue(world);
+        queue.close();
+
+        CompletableFuture<Boolean> future = queue.submit(ClaimMutation.unclaimChunk(new ChunkPosition(0, 0)));
+        assertTrue(future.isCompletedExceptionally());
+    }
+}
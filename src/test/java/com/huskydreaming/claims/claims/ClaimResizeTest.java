@@ -0,0 +1,108 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimResizeTest {
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final WorldClaims world = new WorldClaims(worldId);
+
+    @Test
+    void areaResizeChecksOnlyOtherClaimsAndKeepsIdentity() {
+        AreaClaim area = area(0, 0, 31, 31);
+        AreaClaim neighbour = area(64, 0, 95, 31);
+        assertTrue(world.area().add(area));
+        assertTrue(world.area().add(neighbour));
+
+        assertNull(world.area().resize(area, new BoundingBox(0, 0, 0, 64, 64, 31)), "would overlap the neighbour");
+        assertSame(area, world.area().getById(area.id()));
+
+        AreaClaim grown = world.area().resize(area, new BoundingBox(-16, 0, 0, 63, 64, 31));
+        assertNotNull(grown);
+        assertEquals(area.id(), grown.id());
+        assertSame(area.permissions(), grown.permissions());
+        assertSame(grown, world.area().getAt(new BlockPosition(-16, 5, 5)));
+        assertSame(grown, world.area().getAt(new BlockPosition(63, 5, 5)));
+        assertNull(world.area().resize(area, new BoundingBox(0, 0, 0, 8, 8, 8)), "stale copy is rejected");
+
+        AreaClaim moved = world.area().move(grown, 0, 0, 200);
+        assertNotNull(moved);
+        assertNull(world.area().getAt(new BlockPosition(0, 5, 5)));
+        assertSame(moved, world.area().getAt(new BlockPosition(-16, 5, 200)));
+        assertEquals(1, world.area().intersecting(moved.bounds()).size());
+    }
+
+    @Test
+    void plotsConstrainTheirParentAndStayInsideIt() {
+        AreaClaim area = area(0, 0, 63, 63);
+        assertTrue(world.area().add(area));
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(40, 0, 40, 47, 8, 47), new ClaimPermissions(), 0, ClaimType.AREA, area.id());
+        PlotClaim other = new PlotClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 7, 8, 7), new ClaimPermissions(), 0, ClaimType.AREA, area.id());
+        assertTrue(world.plot().add(plot));
+        assertTrue(world.plot().add(other));
+
+        assertNull(world.area().resize(area, new BoundingBox(0, 0, 0, 39, 64, 63)), "plot would stick out");
+        assertNull(world.plot().resize(plot, new BoundingBox(40, 0, 40, 70, 8, 47)), "outside the parent");
+        assertNull(world.plot().move(plot, -36, 0, -36), "onto the other plot");
+
+        PlotClaim moved = world.plot().move(plot, -20, 0, -20);
+        assertNotNull(moved);
+        assertSame(moved, world.plot().getAt(new BlockPosition(20, 4, 20)));
+        assertNull(world.plot().getAt(new BlockPosition(45, 4, 45)));
+        assertTrue(world.plot().childrenOf(area.id()).contains(moved));
+        assertFalse(world.plot().childrenOf(area.id()).contains(plot));
+
+        assertNotNull(world.area().resize(area, new BoundingBox(0, 0, 0, 39, 64, 63)));
+        assertTrue(world.area().remove(world.area().getById(area.id())));
+        assertTrue(world.plot().allClaims().isEmpty());
+    }
+
+    @Test
+    void resizeEventsReplayOnAnotherWorld() {
+        WorldClaims follower = new WorldClaims(worldId);
+        ClaimFeedCursor cursor = world.feed().cursor();
+
+        AreaClaim area = area(0, 0, 31, 31);
+        assertTrue(world.area().add(area));
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 3, 3, 3), new ClaimPermissions(), 0, ClaimType.AREA, area.id());
+        assertTrue(world.plot().add(plot));
+        AreaClaim resized = world.area().resize(area, new BoundingBox(0, 0, 0, 100, 64, 100));
+        PlotClaim moved = world.plot().move(plot, 50, 0, 50);
+
+        List<ClaimEvent> events = new ArrayList<>();
+        cursor.drain((first, batch) -> events.addAll(batch), 100);
+        assertInstanceOf(ClaimEvent.AreaResized.class, events.get(2));
+        assertInstanceOf(ClaimEvent.PlotResized.class, events.get(3));
+
+        for (ClaimEvent event : events) {
+            ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxSize(event));
+            ClaimCodec.writeEvent(buffer, event);
+            follower.apply(ClaimCodec.readEvent(buffer.flip(), worldId));
+        }
+
+        assertEquals(resized.bounds(), follower.area().getById(area.id()).bounds());
+        assertEquals(moved.bounds(), follower.plot().getById(plot.id()).bounds());
+        assertEquals(plot.id(), follower.plot().getAt(new BlockPosition(51, 1, 51)).id());
+    }
+
+    private AreaClaim area(int minX, int minZ, int maxX, int maxZ) {
+        return new AreaClaim(worldId, ownerId, new BoundingBox(minX, 0, minZ, maxX, 64, maxZ), new ClaimPermissions(), 0);
+    }
+}
@@ -0,0 +1,198 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimRole;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import com.huskydreaming.claims.registry.UuidDictionary;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EffectivePermissionsTest {
+
+    private static ClaimFlag BUILD;
+    private static ClaimFlag BREAK;
+    private static ClaimFlag PVP;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID visitorId = UUID.randomUUID();
+    private final WorldClaims world = new WorldClaims(worldId);
+
+    @BeforeAll
+    static void registerFlags() {
+        BUILD = ClaimFlagRegistry.register("build");
+        BREAK = ClaimFlagRegistry.register("break");
+        PVP = ClaimFlagRegistry.register("pvp");
+    }
+
+    @Test
+    void unclaimedLandFollowsWorldDefaults() {
+        BlockPosition wild = new BlockPosition(5_000, 64, 5_000);
+        assertTrue(world.canPerformAction(visitorId, wild, BUILD));
+
+        world.permissions().denyByDefault(BUILD);
+        assertFalse(world.canPerformAction(visitorId, wild, BUILD));
+        assertTrue(world.canPerformAction(visitorId, wild, BREAK));
+
+        world.permissions().allowByDefault(BUILD);
+        assertTrue(world.canPerformAction(visitorId, wild, BUILD));
+    }
+
+    @Test
+    void plotsInheritFromTheirParentAndRecompileWhenItChanges() {
+        ClaimPermissions areaPermissions = new ClaimPermissions();
+        areaPermissions.allow(BUILD);
+        areaPermissions.inherit(PVP);
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 63, 128, 63), areaPermissions, 0);
+        assertTrue(world.area().add(area));
+
+        ClaimPermissions plotPermissions = new ClaimPermissions();
+        plotPermissions.inherit(BUILD);
+        plotPermissions.inherit(PVP);
+        plotPermissions.allow(BREAK);
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(8, 0, 8, 15, 32, 15), plotPermissions, 0, ClaimType.AREA, area.id());
+        assertTrue(world.plot().add(plot));
+
+        BlockPosition inPlot = new BlockPosition(10, 10, 10);
+        BlockPosition inArea = new BlockPosition(40, 10, 40);
+        assertTrue(world.canPerformAction(visitorId, inPlot, BUILD));
+        assertTrue(world.canPerformAction(visitorId, inPlot, BREAK));
+        assertFalse(world.canPerformAction(visitorId, inArea, BREAK));
+        assertTrue(world.canPerformAction(visitorId, inPlot, PVP), "area and plot both defer to the world");
+
+        world.updatePermissions(ResolvedClaim.of(area), permissions -> permissions.deny(BUILD));
+        long compiled = world.permissions().compilations();
+        assertFalse(world.canPerformAction(visitorId, inPlot, BUILD));
+        assertFalse(world.canPerformAction(visitorId, inArea, BUILD));
+
+        world.permissions().denyByDefault(PVP);
+        assertFalse(world.canPerformAction(visitorId, inPlot, PVP));
+        assertTrue(world.permissions().compilations() > compiled);
+
+        long settled = world.permissions().compilations();
+        for (int i = 0; i < 100; i++) {
+            world.canPerformAction(visitorId, inPlot, BREAK);
+            world.canPerformAction(visitorId, inArea, BREAK);
+        }
+        assertEquals(settled, world.permissions().compilations());
+    }
+
+    @Test
+    void roleOverridesApplyOnTopOfClaimLayers() {
+        UUID memberId = UUID.randomUUID();
+        int memberRef = UuidDictionary.intern(memberId);
+        ChunkPosition chunk = new ChunkPosition(3, 3);
+        assertTrue(world.chunk().claim(ownerId, chunk, new ClaimPermissions()));
+        BlockPosition inside = new BlockPosition(100, 64, 100);
+
+        world.permissions().roleResolver((claim, playerRef) -> playerRef == memberRef
+                ? ClaimRole.MEMBER
+                : ClaimRoleResolver.OWNER_ONLY.roleOf(claim, playerRef));
+
+        assertTrue(world.canPerformAction(ownerId, inside, PVP));
+        assertFalse(world.canPerformAction(memberId, inside, BUILD));
+
+        world.permissions().allowForRole(ClaimRole.MEMBER, BUILD);
+        world.permissions().denyForRole(ClaimRole.OWNER, PVP);
+        assertTrue(world.canPerformAction(memberId, inside, BUILD));
+        assertFalse(world.canPerformAction(visitorId, inside, BUILD));
+        assertFalse(world.canPerformAction(ownerId, inside, PVP));
+
+        world.permissions().clearRoleOverride(ClaimRole.MEMBER, BUILD);
+        assertFalse(world.canPerformAction(memberId, inside, BUILD));
+
+        ResolvedClaim claim = world.getClaimAt(inside).orElseThrow();
+        long expected = 1L << ClaimFlagRegistry.indexOf(BUILD);
+        world.updatePermissions(claim, permissions -> permissions.allow(BUILD));
+        assertEquals(expected, world.permissions().mask(world.getClaimAt(inside).orElseThrow(), ClaimRole.VISITOR) & expected);
+    }
+
+    @Test
+    void offHeapChunkClaimsKeepInheritedFlags() {
+        WorldClaims offHeap = new WorldClaims(worldId, new ClaimChangeFeed(), ChunkClaimStore.offHeap());
+        ClaimPermissions permissions = new ClaimPermissions();
+        permissions.inherit(BUILD);
+        assertTrue(offHeap.chunk().claim(ownerId, new ChunkPosition(0, 0), permissions));
+
+        BlockPosition inside = new BlockPosition(1, 1, 1);
+        assertTrue(offHeap.canPerformAction(visitorId, inside, BUILD));
+        offHeap.permissions().denyByDefault(BUILD);
+        assertFalse(offHeap.canPerformAction(visitorId, inside, BUILD));
+        assertTrue(offHeap.chunk().getAt(new ChunkPosition(0, 0)).permissions().inherits(BUILD));
+        offHeap.unload();
+    }
+
+    @Test
+    void offHeapChunkClaimsCompileOncePerChange() {
+        WorldClaims offHeap = new WorldClaims(worldId, new ClaimChangeFeed(), ChunkClaimStore.offHeap());
+        ClaimPermissions permissions = new ClaimPermissions();
+        permissions.allow(BUILD);
+        assertTrue(offHeap.chunk().claim(ownerId, new ChunkPosition(0, 0), permissions));
+
+        BlockPosition inside = new BlockPosition(1, 1, 1);
+        assertTrue(offHeap.canPerformAction(visitorId, inside, BUILD));
+        long settled = offHeap.permissions().compilations();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(offHeap.canPerformAction(visitorId, inside, BUILD));
+        }
+        assertEquals(settled, offHeap.permissions().compilations());
+
+        offHeap.updatePermissions(offHeap.getClaimAt(inside).orElseThrow(), layer -> layer.deny(BUILD));
+        assertFalse(offHeap.canPerformAction(visitorId, inside, BUILD));
+        settled = offHeap.permissions().compilations();
+        for (int i = 0; i < 100; i++) {
+            assertFalse(offHeap.canPerformAction(visitorId, inside, BUILD));
+        }
+        assertEquals(settled, offHeap.permissions().compilations());
+        offHeap.unload();
+    }
+
+    @Test
+    void plotsFollowAParentEditedInPlace() {
+        ClaimPermissions areaPermissions = new ClaimPermissions();
+        areaPermissions.allow(BUILD);
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 63, 128, 63), areaPermissions, 0);
+        assertTrue(world.area().add(area));
+
+        ClaimPermissions plotPermissions = new ClaimPermissions();
+        plotPermissions.inherit(BUILD);
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(8, 0, 8, 15, 32, 15), plotPermissions, 0, ClaimType.AREA, area.id());
+        assertTrue(world.plot().add(plot));
+
+        BlockPosition inPlot = new BlockPosition(10, 10, 10);
+        assertTrue(world.canPerformAction(visitorId, inPlot, BUILD));
+
+        // Bypasses updatePermissions, so only the parent tag on the plot's masks catches it.
+        areaPermissions.deny(BUILD);
+        assertFalse(world.canPerformAction(visitorId, inPlot, BUILD));
+    }
+
+    @Test
+    void replacingALayerDropsInheritedFlags() {
+        ClaimPermissions permissions = new ClaimPermissions();
+        permissions.inherit(BUILD);
+        int version = permissions.version();
+
+        BitSet bits = new BitSet();
+        bits.set(ClaimFlagRegistry.indexOf(BREAK));
+        permissions.replace(bits);
+
+        assertFalse(permissions.inherits(BUILD));
+        assertTrue(permissions.allows(BREAK));
+        assertEquals(version + 1, permissions.version());
+    }
+}
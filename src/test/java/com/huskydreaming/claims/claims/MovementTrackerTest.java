@@ -0,0 +1,172 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimTransition;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementTrackerTest {
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID playerId = UUID.randomUUID();
+
+    @Test
+    void randomWalksMatchDirectLookups() {
+        WorldClaims world = new WorldClaims(worldId);
+        MovementTracker tracker = new MovementTracker(world);
+
+        List<ClaimTransition> transitions = new ArrayList<>();
+        tracker.listener(transitions::add);
+
+        Random random = new Random(23);
+        for (int i = 0; i < 150; i++) {
+            world.chunk().claim(UUID.randomUUID(), new ChunkPosition(random.nextInt(20) - 10, random.nextInt(20) - 10), new ClaimPermissions());
+        }
+        List<AreaClaim> areas = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            int x = random.nextInt(600) - 300, y = random.nextInt(40), z = random.nextInt(600) - 300;
+            AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(x, y, z, x + random.nextInt(30), y + random.nextInt(20), z + random.nextInt(30)), new ClaimPermissions(), 0);
+            if (world.area().add(area)) {
+                areas.add(area);
+                BoundingBox bounds = area.bounds();
+                world.plot().add(new PlotClaim(worldId, ownerId, new BoundingBox(bounds.minX(), bounds.minY(), bounds.minZ(),
+                        bounds.minX() + 3, bounds.maxY(), bounds.minZ() + 3), new ClaimPermissions(), 0, ClaimType.AREA, area.id()));
+            }
+        }
+
+        UUID[] players = new UUID[40];
+        int[][] positions = new int[players.length][3];
+        for (int p = 0; p < players.length; p++) {
+            players[p] = UUID.randomUUID();
+            positions[p] = new int[]{random.nextInt(600) - 300, random.nextInt(40), random.nextInt(600) - 300};
+        }
+
+        for (int step = 0; step < 20_000; step++) {
+            int p = random.nextInt(players.length);
+            int[] at = positions[p];
+            at[random.nextInt(3)] += random.nextInt(3) - 1;
+
+            BlockPosition position = new BlockPosition(at[0], at[1], at[2]);
+            Optional<ResolvedClaim> before = tracker.current(players[p]);
+            Optional<ClaimTransition> transition = tracker.move(players[p], position);
+
+            Optional<UUID> expected = world.getClaimAt(position).map(ResolvedClaim::id);
+            assertEquals(expected, tracker.current(players[p]).map(ResolvedClaim::id));
+            assertEquals(!before.map(ResolvedClaim::id).equals(expected), transition.isPresent());
+
+            if (step % 500 == 0) {
+                world.chunk().unclaim(new ChunkPosition(random.nextInt(20) - 10, random.nextInt(20) - 10));
+                if (!areas.isEmpty()) world.area().remove(areas.remove(random.nextInt(areas.size())));
+            }
+        }
+
+        assertEquals(20_000, tracker.moveCount());
+        assertTrue(tracker.resolutionCount() < tracker.moveCount() / 2, "cache hit rate too low: " + tracker.resolutionCount());
+        assertFalse(transitions.isEmpty());
+    }
+
+    @Test
+    void stayingInsideAChunkSkipsLookupsUntilTheFeedMoves() {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+        MovementTracker tracker = new MovementTracker(world);
+
+        ClaimTransition entered = tracker.move(playerId, new BlockPosition(1, 64, 1)).orElseThrow();
+        assertTrue(entered.left().isEmpty());
+        assertEquals(world.chunk().getAt(new ChunkPosition(0, 0)).id(), entered.entered().orElseThrow().id());
+
+        for (int i = 0; i < 31; i++) {
+            assertTrue(tracker.move(playerId, new BlockPosition(i, 10 + i, 31 - i)).isEmpty());
+        }
+        assertEquals(1, tracker.resolutionCount());
+
+        world.chunk().unclaim(new ChunkPosition(0, 0));
+        ClaimTransition left = tracker.move(playerId, new BlockPosition(5, 64, 5)).orElseThrow();
+        assertTrue(left.entered().isEmpty());
+        assertEquals(2, tracker.resolutionCount());
+    }
+
+    @Test
+    void writesToOtherWorldsOnASharedFeedKeepTheCache() {
+        ClaimChangeFeed feed = new ClaimChangeFeed();
+        WorldClaims world = new WorldClaims(worldId, feed);
+        WorldClaims other = new WorldClaims(UUID.randomUUID(), feed);
+        world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+        MovementTracker tracker = new MovementTracker(world);
+
+        tracker.move(playerId, new BlockPosition(1, 64, 1));
+        for (int i = 0; i < 10; i++) {
+            other.chunk().claim(ownerId, new ChunkPosition(i, i), new ClaimPermissions());
+            tracker.move(playerId, new BlockPosition(2 + i, 64, 2));
+        }
+        assertEquals(1, tracker.resolutionCount());
+
+        world.updatePermissions(tracker.current(playerId).orElseThrow(), permissions -> {});
+        tracker.move(playerId, new BlockPosition(1, 64, 1));
+        assertEquals(2, tracker.resolutionCount());
+    }
+
+    @Test
+    void volumesNearbyNarrowTheCachedScope() {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(0, 60, 0, 3, 70, 3), new ClaimPermissions(), 0);
+        assertTrue(world.area().add(area));
+        MovementTracker tracker = new MovementTracker(world);
+
+        // The area's cell is exact per block, so climbing out of it leaves the area.
+        assertEquals(area.id(), tracker.move(playerId, new BlockPosition(1, 65, 1)).orElseThrow().to().id());
+        ClaimTransition transition = tracker.move(playerId, new BlockPosition(1, 71, 1)).orElseThrow();
+        assertEquals(area.id(), transition.from().id());
+        assertEquals(world.chunk().getAt(new ChunkPosition(0, 0)).id(), transition.to().id());
+
+        // Other cells of the same chunk are cached per cell.
+        tracker.move(playerId, new BlockPosition(20, 64, 20));
+        long resolutions = tracker.resolutionCount();
+        tracker.move(playerId, new BlockPosition(23, 0, 16));
+        assertEquals(resolutions, tracker.resolutionCount());
+        tracker.move(playerId, new BlockPosition(24, 0, 16));
+        assertEquals(resolutions + 1, tracker.resolutionCount());
+    }
+
+    @Test
+    void plotElsewhereInTheChunkPinsTheScopeToTheBlock() {
+        // Chunk (5, 5) spans cells 20..23, so a probe by cell key would look at other chunks.
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(ownerId, new ChunkPosition(5, 5), new ClaimPermissions());
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(160, 0, 160, 163, 64, 163), new ClaimPermissions(), 0,
+                ClaimType.CHUNK, world.chunk().getAt(new ChunkPosition(5, 5)).id());
+        assertTrue(world.plot().add(plot));
+        MovementTracker tracker = new MovementTracker(world);
+
+        tracker.move(playerId, new BlockPosition(180, 10, 180));
+        ClaimTransition entered = tracker.move(playerId, new BlockPosition(161, 10, 161)).orElseThrow();
+        assertEquals(plot.id(), entered.to().id());
+        assertEquals(2, tracker.resolutionCount());
+    }
+
+    @Test
+    void removingAPlayerLeavesItsClaim() {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+        MovementTracker tracker = new MovementTracker(world);
+
+        tracker.move(playerId, new BlockPosition(1, 64, 1));
+        ClaimTransition left = tracker.remove(playerId).orElseThrow();
+        assertTrue(left.entered().isEmpty());
+        assertEquals(0, tracker.trackedPlayers());
+        assertTrue(tracker.remove(playerId).isEmpty());
+    }
+}
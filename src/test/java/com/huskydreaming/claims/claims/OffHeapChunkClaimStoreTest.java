@@ -0,0 +1,154 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.feed.ClaimFeedCursor;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.UuidDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapChunkClaimStoreTest {
+
+    private final UUID worldId = UUID.randomUUID();
+
+    @Test
+    void randomOperationsMatchHeapStore() {
+        Random random = new Random(41);
+        ChunkClaimStore heap = ChunkClaimStore.onHeap();
+        ChunkClaimStore offHeap = ChunkClaimStore.offHeap(0);
+        List<UUID> owners = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<ChunkClaim> inserted = new ArrayList<>();
+
+        for (int operation = 0; operation < 60_000; operation++) {
+            String context = "op " + operation;
+            long key = SpatialGrid.chunkKey(random.nextInt(80) - 40, random.nextInt(80) - 40);
+            int roll = random.nextInt(10);
+
+            if (roll < 5) {
+                ChunkClaim claim = random.nextInt(10) == 0 && !inserted.isEmpty()
+                        ? inserted.get(random.nextInt(inserted.size()))
+                        : claim(key, owners.get(random.nextInt(owners.size())), random);
+                long at = SpatialGrid.chunkKey(claim.chunkPosition());
+                assertEquals(heap.insert(at, claim), offHeap.insert(at, claim), context + " insert");
+                inserted.add(claim);
+            } else if (roll < 8) {
+                assertEquals(describe(heap.remove(key)), describe(offHeap.remove(key)), context + " remove");
+            } else if (roll < 9 && !inserted.isEmpty()) {
+                ChunkClaim claim = inserted.get(random.nextInt(inserted.size()));
+                long at = SpatialGrid.chunkKey(claim.chunkPosition());
+                assertEquals(heap.remove(at, claim.id()), offHeap.remove(at, claim.id()), context + " evict");
+            } else {
+                assertEquals(describe(heap.get(key)), describe(offHeap.get(key)), context + " get");
+                assertEquals(heap.contains(key), offHeap.contains(key), context + " contains");
+            }
+
+            if (!inserted.isEmpty()) {
+                UUID id = inserted.get(random.nextInt(inserted.size())).id();
+                assertEquals(describe(heap.getById(id)), describe(offHeap.getById(id)), context + " getById");
+            }
+
+            if (operation % 2_000 == 0) {
+                assertEquals(heap.size(), offHeap.size(), context + " size");
+                assertEquals(heap.ids(), offHeap.ids(), context + " ids");
+                assertEquals(describeAll(heap.all()), describeAll(offHeap.all()), context + " all");
+                for (UUID owner : owners) {
+                    int ownerRef = UuidDictionary.lookup(owner);
+                    assertEquals(heap.countOwned(ownerRef), offHeap.countOwned(ownerRef), context + " countOwned");
+                }
+            }
+        }
+
+        offHeap.close();
+    }
+
+    @Test
+    void permissionsSurviveInlineSpilledAndMissing() {
+        ChunkClaimStore store = ChunkClaimStore.offHeap();
+        BitSet wide = new BitSet();
+        wide.set(3);
+        wide.set(200);
+
+        ChunkClaim inline = new ChunkClaim(worldId, UUID.randomUUID(), new ChunkPosition(0, 0), new ClaimPermissions(BitSet.valueOf(new long[]{5L | 1L << 63}), BitSet.valueOf(new long[]{2L})));
+        ChunkClaim spilled = new ChunkClaim(worldId, UUID.randomUUID(), new ChunkPosition(1, 0), new ClaimPermissions(wide));
+        ChunkClaim missing = new ChunkClaim(worldId, UUID.randomUUID(), new ChunkPosition(2, 0), null);
+
+        for (ChunkClaim claim : List.of(inline, spilled, missing)) {
+            assertTrue(store.insert(SpatialGrid.chunkKey(claim.chunkPosition()), claim));
+            assertEquals(describe(claim), describe(store.get(SpatialGrid.chunkKey(claim.chunkPosition()))));
+        }
+
+        ChunkClaim copy = store.get(SpatialGrid.chunkKey(spilled.chunkPosition()));
+        assertThrows(IllegalStateException.class, () -> copy.permissions().replace(BitSet.valueOf(new long[]{9L})));
+        assertEquals(wide, store.get(SpatialGrid.chunkKey(spilled.chunkPosition())).permissions().toBitSet());
+
+        ChunkClaim edited = new ChunkClaim(copy.id(), copy.worldRef(), copy.ownerRef(), copy.chunkPosition(),
+                new ClaimPermissions(BitSet.valueOf(new long[]{9L})));
+        store.permissionsChanged(SpatialGrid.chunkKey(spilled.chunkPosition()), edited);
+        assertEquals(BitSet.valueOf(new long[]{9L}), store.get(SpatialGrid.chunkKey(spilled.chunkPosition())).permissions().toBitSet());
+
+        store.close();
+    }
+
+    @Test
+    void worldWritesPermissionChangesBack() {
+        WorldClaims world = new WorldClaims(worldId, new ClaimChangeFeed(), ChunkClaimStore.offHeap());
+        ChunkPosition position = new ChunkPosition(-3, 7);
+        assertTrue(world.chunk().claim(UUID.randomUUID(), position, new ClaimPermissions()));
+
+        BitSet bits = BitSet.valueOf(new long[]{0b1010L});
+        ChunkClaim stored = world.chunk().getAt(position);
+        assertThrows(IllegalStateException.class, () -> stored.permissions().replace(bits));
+
+        ClaimFeedCursor cursor = world.feed().cursor();
+        world.updatePermissions(ResolvedClaim.of(stored), permissions -> permissions.replace(bits));
+
+        assertEquals(bits, world.chunk().getAt(position).permissions().toBitSet());
+        assertEquals(1, cursor.drain((first, events) -> {
+            ClaimEvent.PermissionsChanged changed = assertInstanceOf(ClaimEvent.PermissionsChanged.class, events.get(0));
+            assertEquals(bits, changed.claim().permissions().toBitSet());
+        }, 10));
+        world.unload();
+    }
+
+    @Test
+    void closedStoreRejectsCalls() {
+        ChunkClaims chunks = new ChunkClaims(worldId, ChunkClaimStore.offHeap());
+        ChunkPosition position = new ChunkPosition(5, 5);
+        assertTrue(chunks.claim(UUID.randomUUID(), position, new ClaimPermissions()));
+        assertTrue(chunks.isClaimed(position));
+
+        chunks.close();
+        chunks.close();
+
+        assertThrows(IllegalStateException.class, () -> chunks.getAt(position));
+        assertThrows(IllegalStateException.class, () -> chunks.claim(UUID.randomUUID(), new ChunkPosition(6, 5), new ClaimPermissions()));
+        assertThrows(IllegalStateException.class, chunks::allClaims);
+    }
+
+    private ChunkClaim claim(long key, UUID ownerId, Random random) {
+        ClaimPermissions permissions = new ClaimPermissions(BitSet.valueOf(new long[]{random.nextLong()}));
+        return new ChunkClaim(worldId, ownerId, new ChunkPosition(SpatialGrid.unpackX(key), SpatialGrid.unpackZ(key)), permissions);
+    }
+
+    private static Set<String> describeAll(Collection<ChunkClaim> claims) {
+        Set<String> out = new HashSet<>();
+        for (ChunkClaim claim : claims) out.add(describe(claim));
+        return out;
+    }
+
+    // Off-heap reads return fresh records, so claims are compared by value.
+    private static String describe(ChunkClaim claim) {
+        if (claim == null) return "none";
+        ClaimPermissions permissions = claim.permissions();
+        String bits = permissions == null ? null : permissions.toBitSet() + "/" + permissions.inheritedBits();
+        return claim.id() + " " + claim.worldRef() + " " + claim.ownerRef() + " " + claim.chunkPosition() + " " + bits;
+    }
+}
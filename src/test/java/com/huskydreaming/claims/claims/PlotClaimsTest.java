@@ -0,0 +1,113 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlotClaimsTest {
+
+    private final WorldClaims world = new WorldClaims(UUID.randomUUID());
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void plotMustReferenceAnExistingParent() {
+        PlotClaim orphan = plot(new BoundingBox(0, 0, 0, 4, 4, 4), ClaimType.AREA, UUID.randomUUID());
+
+        assertFalse(world.plot().add(orphan));
+        assertNull(world.plot().getAt(new BlockPosition(1, 1, 1)));
+    }
+
+    @Test
+    void plotMustLieInsideItsAreaParent() {
+        AreaClaim area = area(new BoundingBox(0, 0, 0, 40, 40, 40));
+        assertTrue(world.area().add(area));
+
+        PlotClaim inside = plot(new BoundingBox(2, 2, 2, 10, 10, 10), ClaimType.AREA, area.id());
+        PlotClaim poking = plot(new BoundingBox(30, 0, 30, 41, 5, 35), ClaimType.AREA, area.id());
+
+        assertTrue(world.plot().add(inside));
+        assertFalse(world.plot().add(poking));
+        assertEquals(Set.of(inside), Set.copyOf(world.plot().childrenOf(area.id())));
+    }
+
+    @Test
+    void plotMustLieInsideItsChunkParent() {
+        assertTrue(world.chunk().claim(ownerId, new ChunkPosition(-1, 0), new ClaimPermissions()));
+        ChunkClaim chunk = world.chunk().getAt(new ChunkPosition(-1, 0));
+
+        PlotClaim inside = plot(new BoundingBox(-32, 0, 0, -1, 64, 31), ClaimType.CHUNK, chunk.id());
+        PlotClaim crossing = plot(new BoundingBox(-2, 0, 0, 1, 64, 4), ClaimType.CHUNK, chunk.id());
+        PlotClaim wrongType = plot(new BoundingBox(-20, 0, 0, -10, 64, 4), ClaimType.AREA, chunk.id());
+
+        assertTrue(world.plot().add(inside));
+        assertFalse(world.plot().add(crossing));
+        assertFalse(world.plot().add(wrongType));
+    }
+
+    @Test
+    void removingAreaParentCascadesToItsPlots() {
+        AreaClaim area = area(new BoundingBox(0, 0, 0, 63, 40, 63));
+        AreaClaim other = area(new BoundingBox(100, 0, 100, 140, 40, 140));
+        assertTrue(world.area().add(area));
+        assertTrue(world.area().add(other));
+
+        PlotClaim first = plot(new BoundingBox(0, 0, 0, 10, 10, 10), ClaimType.AREA, area.id());
+        PlotClaim second = plot(new BoundingBox(40, 0, 40, 50, 10, 50), ClaimType.AREA, area.id());
+        PlotClaim survivor = plot(new BoundingBox(100, 0, 100, 110, 10, 110), ClaimType.AREA, other.id());
+        assertTrue(world.plot().add(first));
+        assertTrue(world.plot().add(second));
+        assertTrue(world.plot().add(survivor));
+
+        assertTrue(world.area().remove(area));
+
+        assertNull(world.plot().getById(first.id()));
+        assertNull(world.plot().getById(second.id()));
+        assertNull(world.plot().getAt(new BlockPosition(5, 5, 5)));
+        assertTrue(world.plot().childrenOf(area.id()).isEmpty());
+        assertSame(survivor, world.plot().getAt(new BlockPosition(105, 5, 105)));
+    }
+
+    @Test
+    void unclaimingChunkParentCascadesToItsPlots() {
+        ChunkPosition chunkPosition = new ChunkPosition(2, 2);
+        assertTrue(world.chunk().claim(ownerId, chunkPosition, new ClaimPermissions()));
+        ChunkClaim chunk = world.chunk().getAt(chunkPosition);
+
+        PlotClaim plot = plot(new BoundingBox(64, 0, 64, 70, 10, 70), ClaimType.CHUNK, chunk.id());
+        assertTrue(world.plot().add(plot));
+
+        assertTrue(world.chunk().unclaim(chunkPosition));
+
+        assertNull(world.plot().getById(plot.id()));
+        assertNull(world.plot().getAt(new BlockPosition(65, 5, 65)));
+    }
+
+    @Test
+    void claimIdsAreStableAndUnique() {
+        AreaClaim area = area(new BoundingBox(0, 0, 0, 10, 10, 10));
+        assertTrue(world.area().add(area));
+        assertFalse(world.area().add(new AreaClaim(area.id(), world.worldId(), ownerId,
+                new BoundingBox(500, 0, 500, 510, 10, 510), new ClaimPermissions(), 0)));
+
+        assertSame(area, world.area().getById(area.id()));
+    }
+
+    private AreaClaim area(BoundingBox bounds) {
+        return new AreaClaim(world.worldId(), ownerId, bounds, new ClaimPermissions(), 0);
+    }
+
+    private PlotClaim plot(BoundingBox bounds, ClaimType parentType, UUID parentId) {
+        return new PlotClaim(world.worldId(), ownerId, bounds, new ClaimPermissions(), 0, parentType, parentId);
+    }
+}
@@ -0,0 +1,110 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.codec.ClaimCodec;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.ClaimBucket;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolygonAreaClaimsTest {
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+    private final WorldClaims world = new WorldClaims(worldId);
+
+    @Test
+    void lookupsFollowTheOutlineAndSkipUncoveredCells() {
+        // Lower-left triangle of a 64 x 64 square.
+        AreaClaim triangle = polygon(0, 0, 64, 0, 0, 64);
+        assertTrue(world.area().add(triangle));
+
+        assertSame(triangle, world.area().getAt(new BlockPosition(2, 10, 2)));
+        assertSame(triangle, world.area().getAt(new BlockPosition(0, 10, 62)));
+        assertNull(world.area().getAt(new BlockPosition(63, 10, 63)));
+        assertNull(world.area().getAt(new BlockPosition(40, 10, 40)));
+        assertNull(world.area().getAt(new BlockPosition(2, 200, 2)));
+
+        ClaimBucket<AreaClaim> full = world.area().bucketAt(0, 0);
+        ClaimBucket<AreaClaim> partial = world.area().bucketAt(28, 32);
+        assertFalse(full.isPartial(triangle));
+        assertTrue(partial.isPartial(triangle));
+        assertNull(world.area().bucketAt(60, 60), "cells past the diagonal are never indexed");
+
+        for (int x = 0; x < 64; x++) {
+            for (int z = 0; z < 64; z++) {
+                AreaClaim expected = x + z < 63 ? triangle : null;
+                assertSame(expected, world.area().getAt(new BlockPosition(x, 10, z)), x + ", " + z);
+            }
+        }
+    }
+
+    @Test
+    void overlapChecksUseTheOutlineNotTheBoundingBox() {
+        AreaClaim lower = polygon(0, 0, 64, 0, 0, 64);
+        AreaClaim upper = polygon(64, 0, 64, 64, 0, 64);
+        assertTrue(world.area().add(lower));
+        assertTrue(world.area().add(upper), "triangles share a bounding box but not a block");
+
+        assertSame(upper, world.area().getAt(new BlockPosition(63, 10, 63)));
+        assertSame(lower, world.area().getAt(new BlockPosition(0, 10, 0)));
+
+        AreaClaim box = new AreaClaim(worldId, ownerId, new BoundingBox(60, 0, 60, 70, 20, 70), new ClaimPermissions(), 0);
+        assertFalse(world.area().add(box));
+        AreaClaim outside = new AreaClaim(worldId, ownerId, new BoundingBox(64, 0, 0, 70, 20, 70), new ClaimPermissions(), 0);
+        assertTrue(world.area().add(outside));
+
+        assertNull(world.area().move(upper, 1, 0, 0), "would run into the box");
+        AreaClaim lowered = world.area().move(lower, 0, -100, 0);
+        assertNotNull(lowered);
+        assertNotNull(world.area().move(upper, 0, 0, 5), "the lower triangle moved out of the way");
+        assertThrows(IllegalArgumentException.class, () -> world.area().resize(lowered, new BoundingBox(0, -100, 0, 80, -80, 63)));
+    }
+
+    @Test
+    void plotsMustFitInsideTheOutline() {
+        AreaClaim triangle = polygon(0, 0, 64, 0, 0, 64);
+        assertTrue(world.area().add(triangle));
+
+        assertTrue(world.plot().add(plot(triangle, new BoundingBox(2, 0, 2, 20, 10, 20))));
+        assertFalse(world.plot().add(plot(triangle, new BoundingBox(40, 0, 40, 50, 10, 50))), "inside the box, outside the triangle");
+
+        assertNull(world.area().move(triangle, 15, 0, 0), "the plot would leave the outline");
+        assertNotNull(world.area().move(triangle, -2, 0, -2));
+    }
+
+    @Test
+    void outlinesSurviveTheCodec() {
+        AreaClaim triangle = polygon(-1_000, 7, -900, 7, -1_000, 120);
+
+        ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxSize(triangle));
+        ClaimCodec.writeArea(buffer, triangle);
+        buffer.flip();
+
+        AreaClaim decoded = ClaimCodec.readArea(buffer, worldId);
+        assertEquals(triangle.outline(), decoded.outline());
+        assertEquals(triangle.bounds(), decoded.bounds());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private AreaClaim polygon(int... corners) {
+        List<BlockPosition> vertices = new ArrayList<>();
+        for (int i = 0; i < corners.length; i += 2) vertices.add(new BlockPosition(corners[i], 0, corners[i + 1]));
+        return AreaClaim.polygon(worldId, ownerId, BlockPolygon.of(vertices), 0, 64, new ClaimPermissions(), 0);
+    }
+
+    private PlotClaim plot(AreaClaim parent, BoundingBox bounds) {
+        return new PlotClaim(worldId, ownerId, bounds, new ClaimPermissions(), 0, ClaimType.AREA, parent.id());
+    }
+}
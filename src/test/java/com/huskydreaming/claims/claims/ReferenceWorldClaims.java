@@ -0,0 +1,217 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Brute-force model of WorldClaims: plain lists, every query is a linear scan.
+final class ReferenceWorldClaims {
+
+    final UUID worldId;
+
+    final List<AreaClaim> areas = new ArrayList<>();
+    final List<ChunkClaim> chunks = new ArrayList<>();
+    final List<PlotClaim> plots = new ArrayList<>();
+
+    ReferenceWorldClaims(UUID worldId) {
+        this.worldId = worldId;
+    }
+
+    boolean addArea(AreaClaim claim) {
+        for (AreaClaim existing : areas) {
+            if (existing.id().equals(claim.id()) || overlap(existing, claim)) {
+                return false;
+            }
+        }
+        areas.add(claim);
+        return true;
+    }
+
+    boolean removeArea(AreaClaim claim) {
+        if (!areas.remove(claim)) {
+            return false;
+        }
+        plots.removeIf(plot -> plot.parentClaimId().equals(claim.id()));
+        return true;
+    }
+
+    AreaClaim resizeArea(AreaClaim claim, BoundingBox bounds) {
+        int index = areas.indexOf(claim);
+        if (index < 0) {
+            return null;
+        }
+
+        AreaClaim resized = claim.withBounds(bounds);
+        for (AreaClaim existing : areas) {
+            if (!existing.id().equals(claim.id()) && overlap(existing, resized)) return null;
+        }
+        for (PlotClaim plot : plots) {
+            if (plot.parentClaimId().equals(claim.id()) && !covers(resized, plot.bounds())) return null;
+        }
+
+        areas.set(index, resized);
+        return resized;
+    }
+
+    boolean claimChunk(ChunkClaim claim) {
+        for (ChunkClaim existing : chunks) {
+            if (existing.id().equals(claim.id()) || existing.chunkPosition().equals(claim.chunkPosition())) {
+                return false;
+            }
+        }
+        chunks.add(claim);
+        return true;
+    }
+
+    boolean unclaimChunk(ChunkPosition position) {
+        ChunkClaim claim = chunkAt(position);
+        if (claim == null) {
+            return false;
+        }
+        chunks.remove(claim);
+        plots.removeIf(plot -> plot.parentClaimId().equals(claim.id()));
+        return true;
+    }
+
+    boolean addPlot(PlotClaim plot) {
+        boolean inside = false;
+        if (plot.parentClaimType() == ClaimType.AREA) {
+            for (AreaClaim area : areas) {
+                if (area.id().equals(plot.parentClaimId())) {
+                    inside = covers(area, plot.bounds());
+                }
+            }
+        } else if (plot.parentClaimType() == ClaimType.CHUNK) {
+            for (ChunkClaim chunk : chunks) {
+                if (chunk.id().equals(plot.parentClaimId())) {
+                    inside = chunk.chunkPosition().contains(plot.bounds());
+                }
+            }
+        }
+
+        if (!inside) {
+            return false;
+        }
+
+        for (PlotClaim existing : plots) {
+            if (existing.id().equals(plot.id()) || existing.bounds().intersects(plot.bounds())) {
+                return false;
+            }
+        }
+        plots.add(plot);
+        return true;
+    }
+
+    boolean removePlot(PlotClaim plot) {
+        return plots.remove(plot);
+    }
+
+    PlotClaim resizePlot(PlotClaim plot, BoundingBox bounds) {
+        int index = plots.indexOf(plot);
+        if (index < 0) {
+            return null;
+        }
+
+        PlotClaim resized = new PlotClaim(plot.id(), plot.worldRef(), plot.ownerRef(), bounds, plot.permissions(),
+                plot.priority(), plot.parentClaimType(), plot.parentClaimId());
+        plots.remove(index);
+        if (!addPlot(resized)) {
+            plots.add(index, plot);
+            return null;
+        }
+
+        plots.remove(resized);
+        plots.add(index, resized);
+        return resized;
+    }
+
+    AreaClaim areaAt(BlockPosition position) {
+        AreaClaim best = null;
+        for (AreaClaim claim : areas) {
+            if (claim.contains(position) && (best == null || claim.priority() > best.priority())) {
+                best = claim;
+            }
+        }
+        return best;
+    }
+
+    PlotClaim plotAt(BlockPosition position) {
+        PlotClaim best = null;
+        for (PlotClaim plot : plots) {
+            if (plot.contains(position) && (best == null || plot.priority() > best.priority())) {
+                best = plot;
+            }
+        }
+        return best;
+    }
+
+    ChunkClaim chunkAt(ChunkPosition position) {
+        for (ChunkClaim claim : chunks) {
+            if (claim.chunkPosition().equals(position)) {
+                return claim;
+            }
+        }
+        return null;
+    }
+
+    Optional<ResolvedClaim> claimAt(BlockPosition position) {
+        PlotClaim plot = plotAt(position);
+        if (plot != null) return Optional.of(ResolvedClaim.of(plot));
+
+        AreaClaim area = areaAt(position);
+        if (area != null) return Optional.of(ResolvedClaim.of(area));
+
+        ChunkClaim chunk = chunkAt(ChunkPosition.fromBlock(position));
+        if (chunk != null) return Optional.of(ResolvedClaim.of(chunk));
+
+        return Optional.empty();
+    }
+
+    // Column by column, so polygon outlines are compared block for block. Long counters, as
+    // boxes may end at Integer.MAX_VALUE.
+    private static boolean overlap(AreaClaim a, AreaClaim b) {
+        if (!a.bounds().intersects(b.bounds())) {
+            return false;
+        }
+
+        int y = Math.max(a.bounds().minY(), b.bounds().minY());
+        for (long x = Math.max(a.bounds().minX(), b.bounds().minX()); x <= Math.min(a.bounds().maxX(), b.bounds().maxX()); x++) {
+            for (long z = Math.max(a.bounds().minZ(), b.bounds().minZ()); z <= Math.min(a.bounds().maxZ(), b.bounds().maxZ()); z++) {
+                BlockPosition column = new BlockPosition((int) x, y, (int) z);
+                if (a.contains(column) && b.contains(column)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean covers(AreaClaim area, BoundingBox box) {
+        if (!area.bounds().contains(box)) {
+            return false;
+        }
+
+        for (long x = box.minX(); x <= box.maxX(); x++) {
+            for (long z = box.minZ(); z <= box.maxZ(); z++) {
+                if (!area.contains(new BlockPosition((int) x, box.minY(), (int) z))) return false;
+            }
+        }
+        return true;
+    }
+
+    int countOwned(UUID ownerId) {
+        int count = 0;
+        for (ChunkClaim claim : chunks) {
+            if (claim.ownerId().equals(ownerId)) count++;
+        }
+        return count;
+    }
+}
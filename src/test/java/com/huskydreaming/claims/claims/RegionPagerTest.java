@@ -0,0 +1,243 @@
+package com.huskydreaming.claims.claims;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionPagerTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void lookupsStayExactAfterEviction() {
+        WorldClaims world = new WorldClaims(worldId);
+        ReferenceWorldClaims reference = new ReferenceWorldClaims(worldId);
+
+        try (RegionPager pager = new RegionPager(world, directory, 2, Runnable::run)) {
+            Random random = new Random(7);
+            for (int i = 0; i < 400; i++) {
+                ChunkPosition chunk = new ChunkPosition(random.nextInt(200) - 100, random.nextInt(200) - 100);
+                UUID owner = UUID.randomUUID();
+                if (world.chunk().claim(owner, chunk, new ClaimPermissions())) {
+                    reference.claimChunk(world.chunk().getAt(chunk));
+                }
+                pager.maintain();
+            }
+
+            // Spans four regions, so it must survive until all of them are evicted.
+            AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(-40, 0, -40, 40, 64, 40), new ClaimPermissions(), 0);
+            if (world.area().add(area)) reference.addArea(area);
+
+            PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(-8, 0, -8, 8, 16, 8),
+                    new ClaimPermissions(), 0, ClaimType.AREA, area.id());
+            if (world.plot().add(plot)) reference.addPlot(plot);
+
+            pager.maintain();
+            assertTrue(pager.residentRegions() <= 2);
+
+            for (int i = 0; i < 5_000; i++) {
+                BlockPosition position = new BlockPosition(random.nextInt(7000) - 3500, random.nextInt(64), random.nextInt(7000) - 3500);
+                assertEquals(reference.claimAt(position).map(ResolvedClaim::id), world.getClaimAt(position).map(ResolvedClaim::id), position.toString());
+                if (i % 16 == 0) pager.maintain();
+            }
+
+            assertEquals(Optional.of(plot.id()), world.getClaimAt(new BlockPosition(0, 4, 0)).map(ResolvedClaim::id));
+        }
+    }
+
+    @Test
+    void claimsReloadIntoFreshWorld() {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+        world.chunk().claim(ownerId, new ChunkPosition(-500, 900), new ClaimPermissions());
+
+        ClaimFlag flag = ClaimFlagRegistry.register("build");
+        ResolvedClaim far = world.getClaimAt(new BlockPosition(-500 * 32, 0, 900 * 32)).orElseThrow();
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            world.updatePermissions(far, permissions -> permissions.allow(flag));
+            pager.maintain();
+            assertEquals(1, pager.residentRegions());
+        }
+
+        WorldClaims reloaded = new WorldClaims(worldId);
+        try (RegionPager pager = new RegionPager(reloaded, directory, 4, Runnable::run)) {
+            assertEquals(0, pager.residentRegions());
+            assertEquals(2, reloaded.chunk().allClaims().size());
+            assertEquals(0, pager.residentRegions());
+
+            ResolvedClaim loaded = reloaded.getClaimAt(new BlockPosition(-500 * 32 + 3, 70, 900 * 32 + 3)).orElseThrow();
+            assertEquals(far.id(), loaded.id());
+            assertEquals(ownerId, loaded.ownerId());
+            assertTrue(loaded.permissions().allows(flag));
+            assertTrue(pager.isResident(SpatialGrid.regionKeyFromChunk(-500, 900)));
+            assertFalse(pager.isResident(SpatialGrid.regionKeyFromChunk(0, 0)));
+        }
+    }
+
+    @Test
+    void writesFaultInTouchedRegionsForOverlapChecks() {
+        WorldClaims world = new WorldClaims(worldId);
+        AreaClaim first = new AreaClaim(worldId, ownerId, new BoundingBox(1000, 0, 1000, 1100, 10, 1100), new ClaimPermissions(), 0);
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            assertTrue(world.area().add(first));
+            world.chunk().claim(ownerId, new ChunkPosition(-100, -100), new ClaimPermissions());
+            pager.maintain();
+            assertFalse(pager.isResident(SpatialGrid.regionKeyFromBlock(1000, 1000)));
+
+            AreaClaim overlapping = new AreaClaim(worldId, ownerId, new BoundingBox(1050, 5, 1050, 1060, 20, 1060), new ClaimPermissions(), 0);
+            assertFalse(world.area().add(overlapping));
+            assertEquals(first.bounds(), world.area().getById(first.id()).bounds());
+
+            // The caller's instance still removes the reloaded claim.
+            assertTrue(world.area().remove(first));
+            assertNull(world.area().getById(first.id()));
+        }
+    }
+
+    @Test
+    void queriesSeeClaimsInPagedOutRegions() {
+        WorldClaims world = new WorldClaims(worldId);
+        ChunkClaim near = new ChunkClaim(worldId, ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            assertTrue(world.chunk().claim(near));
+            // Spans two regions, both of which end up paged out.
+            AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(5000, 0, 500, 5100, 10, 520), new ClaimPermissions(), 0);
+            assertTrue(world.area().add(area));
+            assertTrue(world.chunk().claim(ownerId, new ChunkPosition(-300, -300), new ClaimPermissions()));
+            pager.maintain();
+
+            long first = SpatialGrid.regionKeyFromChunk(0, 0);
+            assertFalse(pager.isResident(first));
+            assertEquals(1, pager.residentRegions());
+
+            assertEquals(2, world.chunk().countOwned(ownerId));
+            assertEquals(2, world.chunk().allClaims().size());
+            assertEquals(1, world.area().allClaims().size());
+            assertEquals(1, world.chunk().intersecting(new BoundingBox(0, 0, 0, 40, 10, 40)).size());
+            assertEquals(Set.of(area.id()), world.area().intersecting(area.bounds()).stream().map(AreaClaim::id).collect(Collectors.toSet()));
+            assertFalse(pager.isResident(first));
+
+            ChunkClaim faulted = world.chunk().getById(near.id());
+            assertEquals(near.id(), faulted.id());
+            assertTrue(pager.isResident(first));
+            assertSame(faulted, world.chunk().getAt(new ChunkPosition(0, 0)));
+            assertEquals(area.bounds(), world.area().getById(area.id()).bounds());
+            assertNull(world.area().getById(UUID.randomUUID()));
+        }
+    }
+
+    @Test
+    void clearingOneTypeReachesPagedOutRegions() {
+        WorldClaims world = new WorldClaims(worldId);
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(5000, 0, 500, 5100, 10, 520), new ClaimPermissions(), 0);
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(5010, 0, 505, 5020, 10, 515),
+                new ClaimPermissions(), 0, ClaimType.AREA, area.id());
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            assertTrue(world.area().add(area));
+            assertTrue(world.plot().add(plot));
+            assertTrue(world.chunk().claim(ownerId, new ChunkPosition(156, 15), new ClaimPermissions()));
+            assertTrue(world.chunk().claim(ownerId, new ChunkPosition(-300, -300), new ClaimPermissions()));
+            pager.maintain();
+            assertFalse(pager.isResident(SpatialGrid.regionKeyFromBlock(5000, 500)));
+
+            world.area().clear();
+
+            assertTrue(world.area().allClaims().isEmpty());
+            assertTrue(world.plot().allClaims().isEmpty());
+            assertEquals(2, world.chunk().allClaims().size());
+            assertEquals(ClaimType.CHUNK, world.getClaimAt(new BlockPosition(5010, 5, 510)).orElseThrow().type());
+        }
+
+        WorldClaims reloaded = new WorldClaims(worldId);
+        try (RegionPager pager = new RegionPager(reloaded, directory, 4, Runnable::run)) {
+            assertEquals(ClaimType.CHUNK, reloaded.getClaimAt(new BlockPosition(5010, 5, 510)).orElseThrow().type());
+            assertTrue(reloaded.area().allClaims().isEmpty());
+            assertTrue(reloaded.plot().allClaims().isEmpty());
+            assertEquals(2, reloaded.chunk().countOwned(ownerId));
+            assertTrue(pager.isResident(SpatialGrid.regionKeyFromBlock(5010, 510)));
+        }
+    }
+
+    @Test
+    void sweepsLeaveRegionsPinnedByAWrite() {
+        WorldClaims world = new WorldClaims(worldId);
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(10, 0, 10, 20, 10, 20), new ClaimPermissions(), 0);
+        AreaClaim moved;
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            assertTrue(world.area().add(area));
+            world.chunk().claim(ownerId, new ChunkPosition(100, 100), new ClaimPermissions());
+
+            // The sweep lands between the write faulting its regions in and indexing the move.
+            int[] swept = new int[1];
+            world.area().resizeGuard(resized -> {
+                swept[0] = pager.maintain();
+                return true;
+            });
+            moved = world.area().move(area, SpatialGrid.REGION_SIZE, 0, 0);
+
+            assertNotNull(moved);
+            assertEquals(1, swept[0]);
+            assertTrue(pager.isResident(SpatialGrid.regionKeyFromBlock(moved.bounds().minX(), moved.bounds().minZ())));
+        }
+
+        WorldClaims reloaded = new WorldClaims(worldId);
+        try (RegionPager pager = new RegionPager(reloaded, directory, 4, Runnable::run)) {
+            assertNull(reloaded.area().getAt(new BlockPosition(15, 5, 15)));
+            AreaClaim loaded = reloaded.area().getAt(new BlockPosition(SpatialGrid.REGION_SIZE + 15, 5, 15));
+            assertEquals(moved.id(), loaded.id());
+            assertEquals(moved.bounds(), loaded.bounds());
+            assertTrue(pager.isResident(SpatialGrid.regionKeyFromBlock(loaded.bounds().minX(), loaded.bounds().minZ())));
+        }
+    }
+
+    @Test
+    void clearDeletesRegionFiles() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+            world.chunk().claim(ownerId, new ChunkPosition(100, 100), new ClaimPermissions());
+            pager.flush();
+
+            try (var files = Files.list(directory)) {
+                assertEquals(2, files.count());
+            }
+
+            world.clear();
+            assertTrue(world.getClaimAt(new BlockPosition(1, 1, 1)).isEmpty());
+        }
+
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.huskydreaming.claims.codec;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimCodecTest {
+
+    private static final int ITERATIONS = Integer.getInteger("atlas.codec.iterations", 20_000);
+
+    private final UUID worldId = UUID.randomUUID();
+
+    @Test
+    void recordsRoundTrip() {
+        Random random = new Random(11);
+        for (int i = 0; i < ITERATIONS; i++) {
+            ChunkClaim chunk = new ChunkClaim(UUID.randomUUID(), worldId, UUID.randomUUID(),
+                    new ChunkPosition(coordinate(random), coordinate(random)), permissions(random));
+            AreaClaim area = new AreaClaim(UUID.randomUUID(), worldId, UUID.randomUUID(),
+                    bounds(random), permissions(random), coordinate(random));
+            PlotClaim plot = new PlotClaim(UUID.randomUUID(), worldId, UUID.randomUUID(), bounds(random),
+                    permissions(random), coordinate(random), ClaimType.values()[random.nextInt(3)], UUID.randomUUID());
+
+            ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxSize(chunk) + ClaimCodec.maxSize(area) + ClaimCodec.maxSize(plot));
+            ClaimCodec.writeChunk(buffer, chunk);
+            ClaimCodec.writeArea(buffer, area);
+            ClaimCodec.writePlot(buffer, plot);
+            buffer.flip();
+
+            assertSameChunk(chunk, ClaimCodec.readChunk(buffer, worldId));
+
+            AreaClaim decodedArea = ClaimCodec.readArea(buffer, worldId);
+            assertEquals(area.id(), decodedArea.id());
+            assertEquals(area.ownerId(), decodedArea.ownerId());
+            assertEquals(area.bounds(), decodedArea.bounds());
+            assertEquals(area.priority(), decodedArea.priority());
+            assertSamePermissions(area.permissions(), decodedArea.permissions());
+
+            PlotClaim decodedPlot = ClaimCodec.readPlot(buffer, worldId);
+            assertEquals(plot.id(), decodedPlot.id());
+            assertEquals(plot.bounds(), decodedPlot.bounds());
+            assertEquals(plot.priority(), decodedPlot.priority());
+            assertEquals(plot.parentClaimType(), decodedPlot.parentClaimType());
+            assertEquals(plot.parentClaimId(), decodedPlot.parentClaimId());
+            assertSamePermissions(plot.permissions(), decodedPlot.permissions());
+
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void chunkBatchesRoundTripInKeyOrder() {
+        Random random = new Random(13);
+        for (int i = 0; i < 200; i++) {
+            Map<ChunkPosition, ChunkClaim> claims = new HashMap<>();
+            int size = random.nextInt(300);
+            for (int j = 0; j < size; j++) {
+                ChunkPosition position = new ChunkPosition(coordinate(random), coordinate(random));
+                claims.put(position, new ChunkClaim(UUID.randomUUID(), worldId, UUID.randomUUID(), position, permissions(random)));
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxChunkBatchSize(claims.values()));
+            ClaimCodec.writeChunkBatch(buffer, claims.values());
+            buffer.flip();
+
+            List<ChunkClaim> decoded = ClaimCodec.readChunkBatch(buffer, worldId);
+            assertEquals(claims.size(), decoded.size());
+            for (ChunkClaim claim : decoded) {
+                assertSameChunk(claims.get(claim.chunkPosition()), claim);
+            }
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void versionOneChunkBatchesUsePackedKeys() {
+        ChunkPosition[] positions = {new ChunkPosition(-5, 9), new ChunkPosition(3, -2)};
+        UUID ownerId = UUID.randomUUID();
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ClaimCodec.writeVarLong(buffer, positions.length);
+        long previous = 0L;
+        for (ChunkPosition position : positions) {
+            long key = SpatialGrid.chunkKey(position);
+            ClaimCodec.writeVarLong(buffer, key - previous);
+            previous = key;
+
+            ClaimCodec.writeVarLong(buffer, 2 * 16 + 1);
+            ClaimCodec.writeUuid(buffer, UUID.randomUUID());
+            ClaimCodec.writeUuid(buffer, ownerId);
+            ClaimCodec.writePermissions(buffer, null);
+        }
+        buffer.flip();
+
+        List<ChunkClaim> decoded = ClaimCodec.readChunkBatch(buffer, worldId, 1);
+        assertEquals(List.of(positions), decoded.stream().map(ChunkClaim::chunkPosition).toList());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void readersSkipFieldsAppendedByNewerWriters() {
+        ChunkClaim claim = new ChunkClaim(UUID.randomUUID(), worldId, UUID.randomUUID(), new ChunkPosition(-3, 7), null);
+
+        ByteBuffer body = ByteBuffer.allocate(64);
+        ClaimCodec.writeUuid(body, claim.id());
+        ClaimCodec.writeUuid(body, claim.ownerId());
+        ClaimCodec.writeVarInt(body, -3);
+        ClaimCodec.writeVarInt(body, 7);
+        ClaimCodec.writePermissions(body, null);
+        body.put(new byte[]{1, 2, 3});
+        body.flip();
+
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        ClaimCodec.writeVarLong(buffer, body.remaining());
+        buffer.put(body);
+        buffer.put((byte) 42);
+        buffer.flip();
+
+        assertSameChunk(claim, ClaimCodec.readChunk(buffer, worldId));
+        assertEquals(42, buffer.get());
+    }
+
+    @Test
+    void longRecordsWidenTheirLengthPrefix() {
+        ClaimPermissions permissions = new ClaimPermissions(BitSet.valueOf(new long[]{1L, 2L, 3L, 4L, 5L, 6L, 7L, -1L, -1L, -1L, -1L, -1L}));
+        AreaClaim area = new AreaClaim(UUID.randomUUID(), worldId, UUID.randomUUID(),
+                new BoundingBox(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE),
+                permissions, Integer.MIN_VALUE);
+
+        ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxSize(area));
+        ClaimCodec.writeArea(buffer, area);
+        buffer.flip();
+
+        AreaClaim decoded = ClaimCodec.readArea(buffer, worldId);
+        assertEquals(area.bounds(), decoded.bounds());
+        assertEquals(area.priority(), decoded.priority());
+        assertSamePermissions(permissions, decoded.permissions());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void corruptInputFailsWithIllegalArgument() {
+        Random random = new Random(17);
+        for (int i = 0; i < ITERATIONS; i++) {
+            PlotClaim plot = new PlotClaim(UUID.randomUUID(), worldId, UUID.randomUUID(), bounds(random),
+                    permissions(random), 0, ClaimType.AREA, UUID.randomUUID());
+
+            ByteBuffer buffer = ByteBuffer.allocate(ClaimCodec.maxSize(plot));
+            ClaimCodec.writePlot(buffer, plot);
+            buffer.flip();
+
+            byte[] bytes = Arrays.copyOf(buffer.array(), buffer.limit());
+            int length = random.nextInt(bytes.length + 1);
+            if (random.nextBoolean() && length > 0) {
+                bytes[random.nextInt(length)] ^= (byte) (1 << random.nextInt(8));
+            }
+
+            ByteBuffer corrupt = ByteBuffer.wrap(bytes, 0, length);
+            try {
+                ClaimCodec.readPlot(corrupt, worldId);
+            } catch (IllegalArgumentException expected) {
+                // Truncated or flipped input is rejected, never read past the buffer.
+            }
+        }
+    }
+
+    private static void assertSameChunk(ChunkClaim expected, ChunkClaim actual) {
+        assertEquals(expected.id(), actual.id());
+        assertEquals(expected.ownerId(), actual.ownerId());
+        assertEquals(expected.chunkPosition(), actual.chunkPosition());
+        assertSamePermissions(expected.permissions(), actual.permissions());
+    }
+
+    private static void assertSamePermissions(ClaimPermissions expected, ClaimPermissions actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertEquals(expected.toBitSet(), actual.toBitSet());
+            assertEquals(expected.inheritedBits(), actual.inheritedBits());
+        }
+    }
+
+    private static int coordinate(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(64) - 32;
+            case 1 -> random.nextInt(1 << 20) - (1 << 19);
+            case 2 -> random.nextBoolean() ? Integer.MIN_VALUE + random.nextInt(4) : Integer.MAX_VALUE - random.nextInt(4);
+            default -> random.nextInt();
+        };
+    }
+
+    private static BoundingBox bounds(Random random) {
+        int x1 = coordinate(random), x2 = coordinate(random);
+        int y1 = coordinate(random), y2 = coordinate(random);
+        int z1 = coordinate(random), z2 = coordinate(random);
+        return new BoundingBox(Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2), Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2));
+    }
+
+    private static ClaimPermissions permissions(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> null;
+            case 1 -> new ClaimPermissions();
+            case 2 -> {
+                long inherited = random.nextLong();
+                yield new ClaimPermissions(BitSet.valueOf(new long[]{random.nextLong() & ~inherited}), BitSet.valueOf(new long[]{inherited}));
+            }
+            default -> {
+                long[] words = new long[1 + random.nextInt(3)];
+                for (int i = 0; i < words.length; i++) words[i] = random.nextLong();
+                yield new ClaimPermissions(BitSet.valueOf(words));
+            }
+        };
+    }
+}
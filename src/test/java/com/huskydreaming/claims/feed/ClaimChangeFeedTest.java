@@ -0,0 +1,132 @@
+package com.huskydreaming.claims.feed;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.events.ClaimEvent;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.helpers.AreaClaimHelper;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimChangeFeedTest {
+
+    @Test
+    void worldClaimsPublishesTypedEventsInOrder() {
+        WorldClaims world = new WorldClaims(UUID.randomUUID());
+        ClaimFeedCursor cursor = world.feed().cursor();
+
+        UUID ownerId = UUID.randomUUID();
+        ChunkPosition chunk = new ChunkPosition(1, 2);
+        AreaClaim area = AreaClaimHelper.areaClaim(world.worldId(), 100, 0, 100, 120, 10, 120);
+
+        assertTrue(world.chunk().claim(ownerId, chunk, new ClaimPermissions()));
+        assertFalse(world.chunk().claim(ownerId, chunk, new ClaimPermissions()));
+        assertTrue(world.area().add(area));
+        world.updatePermissions(world.getClaimAt(new BlockPosition(40, 0, 70)).orElseThrow(), permissions -> {});
+        assertTrue(world.area().remove(area));
+        assertTrue(world.chunk().unclaim(chunk));
+
+        List<ClaimEvent> received = new ArrayList<>();
+        int drained = cursor.drain((first, events) -> {
+            assertEquals(0, first);
+            received.addAll(events);
+        }, 64);
+
+        assertEquals(5, drained);
+        assertInstanceOf(ClaimEvent.ChunkClaimed.class, received.get(0));
+        assertInstanceOf(ClaimEvent.AreaAdded.class, received.get(1));
+        ClaimEvent.PermissionsChanged changed = assertInstanceOf(ClaimEvent.PermissionsChanged.class, received.get(2));
+        assertInstanceOf(ResolvedClaim.Chunk.class, changed.claim());
+        assertInstanceOf(ClaimEvent.AreaRemoved.class, received.get(3));
+        assertInstanceOf(ClaimEvent.ChunkUnclaimed.class, received.get(4));
+        assertEquals(0, cursor.lag());
+    }
+
+    @Test
+    void drainDeliversInBoundedBatches() {
+        ClaimChangeFeed feed = new ClaimChangeFeed(64);
+        UUID worldId = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            feed.publish(new ClaimEvent.ClaimsCleared(worldId, ClaimType.CHUNK));
+        }
+
+        ClaimFeedCursor cursor = feed.cursor(0);
+        List<Long> firsts = new ArrayList<>();
+        while (cursor.drain((first, events) -> firsts.add(first), 4) > 0) {
+            // keep draining
+        }
+
+        assertEquals(List.of(0L, 4L, 8L), firsts);
+        assertEquals(10, cursor.nextSequence());
+    }
+
+    @Test
+    void slowCursorIsOverrunInsteadOfBlockingPublisher() {
+        ClaimChangeFeed feed = new ClaimChangeFeed(8);
+        UUID worldId = UUID.randomUUID();
+        ClaimFeedCursor cursor = feed.cursor();
+
+        for (int i = 0; i < 20; i++) {
+            feed.publish(new ClaimEvent.ClaimsCleared(worldId, ClaimType.AREA));
+        }
+
+        long[] overrun = new long[2];
+        cursor.drain(new ClaimFeedSubscriber() {
+            @Override
+            public void onBatch(long firstSequence, List<ClaimEvent> events) {
+                fail("Overrun cursor must not receive stale events");
+            }
+
+            @Override
+            public void onOverrun(long lostFromSequence, long resumeSequence) {
+                overrun[0] = lostFromSequence;
+                overrun[1] = resumeSequence;
+            }
+        }, 16);
+
+        assertEquals(0, overrun[0]);
+        assertEquals(12, overrun[1]);
+
+        List<Long> firsts = new ArrayList<>();
+        assertEquals(8, cursor.drain((first, events) -> firsts.add(first), 16));
+        assertEquals(List.of(12L), firsts);
+    }
+
+    @Test
+    void concurrentPublishersNeverLoseOrDuplicateSequences() throws InterruptedException {
+        ClaimChangeFeed feed = new ClaimChangeFeed(1 << 16);
+        UUID worldId = UUID.randomUUID();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    feed.publish(new ClaimEvent.ClaimsCleared(worldId, ClaimType.PLOT));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ClaimFeedCursor cursor = feed.cursor(0);
+        int total = 0;
+        int drained;
+        while ((drained = cursor.drain((first, events) -> {}, 1024)) > 0) {
+            total += drained;
+        }
+
+        assertEquals(40_000, total);
+    }
+}
@@ -0,0 +1,122 @@
+package com.huskydreaming.claims.helpers;
+
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimBucketTest {
+
+    private final UUID worldId = UUID.randomUUID();
+
+    @Test
+    void stackedClaimsArePartitionedByY() {
+        ClaimBucket<AreaClaim> bucket = null;
+        List<AreaClaim> floors = new ArrayList<>();
+
+        for (int floor = 0; floor < 64; floor++) {
+            AreaClaim claim = claim(new BoundingBox(0, floor * 4, 0, 7, floor * 4 + 3, 7), 0);
+            floors.add(claim);
+            bucket = bucket == null ? ClaimBucket.of(claim) : bucket.with(claim);
+        }
+
+        assertTrue(bucket.isVerticallyPartitioned());
+        for (int floor = 0; floor < 64; floor++) {
+            assertSame(floors.get(floor), bucket.find(new BlockPosition(3, floor * 4 + 2, 3)));
+        }
+
+        assertNull(bucket.find(new BlockPosition(3, -1, 3)));
+        assertNull(bucket.find(new BlockPosition(3, 256, 3)));
+    }
+
+    @Test
+    void overlappingColumnsAreNotPartitioned() {
+        ClaimBucket<AreaClaim> bucket = null;
+        for (int i = 0; i < 16; i++) {
+            AreaClaim claim = claim(new BoundingBox(i, -64, 0, i, 320, 0), 0);
+            bucket = bucket == null ? ClaimBucket.of(claim) : bucket.with(claim);
+        }
+
+        assertFalse(bucket.isVerticallyPartitioned());
+        assertEquals(16, bucket.size());
+    }
+
+    @Test
+    void findMatchesLinearScanForRandomBuckets() {
+        Random random = new Random(7);
+
+        for (int round = 0; round < 200; round++) {
+            List<AreaClaim> claims = new ArrayList<>();
+            ClaimBucket<AreaClaim> bucket = null;
+
+            int size = 1 + random.nextInt(40);
+            for (int i = 0; i < size; i++) {
+                int minY = random.nextInt(300) - 64;
+                int minX = random.nextInt(8);
+                AreaClaim claim = claim(new BoundingBox(minX, minY, 0, minX + random.nextInt(8), minY + random.nextInt(12), 7),
+                        random.nextInt(4));
+                claims.add(claim);
+                bucket = bucket == null ? ClaimBucket.of(claim) : bucket.with(claim);
+            }
+
+            if (random.nextBoolean()) {
+                AreaClaim removed = claims.remove(random.nextInt(claims.size()));
+                bucket = bucket.without(removed);
+            }
+
+            for (int probe = 0; probe < 200; probe++) {
+                BlockPosition position = new BlockPosition(random.nextInt(10), random.nextInt(400) - 80, random.nextInt(8));
+                AreaClaim expected = null;
+                for (AreaClaim claim : claims) {
+                    if (claim.contains(position) && (expected == null || claim.priority() > expected.priority())) {
+                        expected = claim;
+                    }
+                }
+
+                AreaClaim actual = bucket == null ? null : bucket.find(position);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertNotNull(actual);
+                    assertEquals(expected.priority(), actual.priority());
+                    assertTrue(actual.contains(position));
+                }
+            }
+        }
+    }
+
+    @Test
+    void highestPriorityWinsAndTiesKeepInsertionOrder() {
+        AreaClaim low = claim(new BoundingBox(0, 0, 0, 7, 10, 7), 1);
+        AreaClaim firstHigh = claim(new BoundingBox(0, 0, 0, 3, 10, 3), 5);
+        AreaClaim secondHigh = claim(new BoundingBox(0, 0, 0, 3, 10, 3), 5);
+
+        ClaimBucket<AreaClaim> bucket = ClaimBucket.of(low).with(firstHigh).with(secondHigh);
+
+        assertEquals(List.of(firstHigh, secondHigh, low), bucket.claims());
+        assertSame(firstHigh, bucket.find(new BlockPosition(1, 5, 1)));
+        assertSame(low, bucket.find(new BlockPosition(6, 5, 6)));
+        assertSame(secondHigh, bucket.without(firstHigh).find(new BlockPosition(1, 5, 1)));
+    }
+
+    @Test
+    void withoutLastClaimEmptiesBucket() {
+        AreaClaim claim = claim(new BoundingBox(0, 0, 0, 1, 1, 1), 0);
+        ClaimBucket<AreaClaim> bucket = ClaimBucket.of(claim);
+
+        assertSame(bucket, bucket.without(claim(new BoundingBox(0, 0, 0, 1, 1, 1), 0)));
+        assertNull(bucket.without(claim));
+    }
+
+    private AreaClaim claim(BoundingBox bounds, int priority) {
+        return new AreaClaim(worldId, UUID.randomUUID(), bounds, new ClaimPermissions(), priority);
+    }
+}
@@ -0,0 +1,59 @@
+package com.huskydreaming.claims.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeriodicTaskTest {
+
+    @Test
+    void failedRunsAreKeptUntilOneSucceeds() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch retried = new CountDownLatch(1);
+        PeriodicTask task = new PeriodicTask("periodic-task-test", Duration.ofMillis(1));
+        Exception[] seen = new Exception[1];
+
+        task.start(() -> {
+            if (runs.incrementAndGet() == 1) {
+                throw new IOException("disk full");
+            }
+            if (retried.getCount() > 0) {
+                seen[0] = task.lastFailure().orElse(null);
+                retried.countDown();
+            }
+        });
+
+        assertTrue(retried.await(10, TimeUnit.SECONDS));
+        task.close();
+
+        assertInstanceOf(IOException.class, seen[0]);
+        assertTrue(task.lastFailure().isEmpty());
+    }
+
+    @Test
+    void withoutAnIntervalNothingIsScheduled() {
+        PeriodicTask task = new PeriodicTask("periodic-task-test", null);
+        task.start(() -> fail("ran"));
+        assertTrue(task.lastFailure().isEmpty());
+        task.close();
+
+        assertThrows(IllegalArgumentException.class, () -> new PeriodicTask("periodic-task-test", Duration.ZERO));
+    }
+
+    @Test
+    void ownerRunsAreReportedLikeScheduledOnes() {
+        PeriodicTask task = new PeriodicTask("periodic-task-test", null);
+
+        task.failed(new IOException("disk full"));
+        assertInstanceOf(IOException.class, task.lastFailure().orElseThrow());
+
+        task.succeeded();
+        assertTrue(task.lastFailure().isEmpty());
+    }
+}
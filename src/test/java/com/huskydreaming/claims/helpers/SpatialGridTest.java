@@ -0,0 +1,109 @@
+package com.huskydreaming.claims.helpers;
+
+import com.huskydreaming.claims.helpers.SpatialGrid.KeyRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridTest {
+
+    @Test
+    void mortonKeysRoundTrip() {
+        Random random = new Random(5);
+        int[] extremes = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+
+        for (int x : extremes) {
+            for (int z : extremes) {
+                long key = SpatialGrid.mortonKey(x, z);
+                assertEquals(x, SpatialGrid.mortonX(key));
+                assertEquals(z, SpatialGrid.mortonZ(key));
+            }
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            int x = random.nextInt();
+            int z = random.nextInt();
+            long key = SpatialGrid.mortonKey(x, z);
+            assertEquals(x, SpatialGrid.mortonX(key));
+            assertEquals(z, SpatialGrid.mortonZ(key));
+        }
+
+        assertEquals(Long.MIN_VALUE, SpatialGrid.mortonKey(Integer.MIN_VALUE, Integer.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, SpatialGrid.mortonKey(Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void mortonKeysAreMonotoneInBothAxes() {
+        Random random = new Random(6);
+        for (int i = 0; i < 100_000; i++) {
+            int x = random.nextInt(), z = random.nextInt();
+            int dx = random.nextInt(1000), dz = random.nextInt(1000);
+            if (x > Integer.MAX_VALUE - dx || z > Integer.MAX_VALUE - dz) continue;
+
+            assertTrue(SpatialGrid.mortonKey(x, z) <= SpatialGrid.mortonKey(x + dx, z + dz));
+        }
+    }
+
+    @Test
+    void rangesCoverRectanglesExactlyWhenTheBudgetAllows() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            int minX = random.nextInt(200) - 100, minZ = random.nextInt(200) - 100;
+            int maxX = minX + random.nextInt(40), maxZ = minZ + random.nextInt(40);
+
+            List<KeyRange> ranges = SpatialGrid.mortonRanges(minX, minZ, maxX, maxZ, 10_000);
+            assertSortedAndDisjoint(ranges);
+
+            long covered = 0;
+            for (KeyRange range : ranges) {
+                covered += range.max() - range.min() + 1;
+                for (long key = range.min(); key <= range.max(); key++) {
+                    int x = SpatialGrid.mortonX(key), z = SpatialGrid.mortonZ(key);
+                    assertTrue(x >= minX && x <= maxX && z >= minZ && z <= maxZ, "key outside rectangle");
+                }
+            }
+            assertEquals((long) (maxX - minX + 1) * (maxZ - minZ + 1), covered);
+        }
+    }
+
+    @Test
+    void tightBudgetsStillCoverEveryPoint() {
+        Random random = new Random(8);
+        for (int i = 0; i < 500; i++) {
+            int minX = random.nextInt(), minZ = random.nextInt();
+            int maxX = (int) Math.min(Integer.MAX_VALUE, (long) minX + random.nextInt(300));
+            int maxZ = (int) Math.min(Integer.MAX_VALUE, (long) minZ + random.nextInt(300));
+            int budget = 1 + random.nextInt(8);
+
+            List<KeyRange> ranges = SpatialGrid.mortonRanges(minX, minZ, maxX, maxZ, budget);
+            assertTrue(ranges.size() <= budget);
+            assertSortedAndDisjoint(ranges);
+
+            for (int j = 0; j < 200; j++) {
+                int x = minX + random.nextInt(maxX - minX + 1);
+                int z = minZ + random.nextInt(maxZ - minZ + 1);
+                long key = SpatialGrid.mortonKey(x, z);
+                assertTrue(ranges.stream().anyMatch(range -> range.contains(key)), "point not covered");
+            }
+        }
+    }
+
+    @Test
+    void wholePlaneIsOneRange() {
+        List<KeyRange> ranges = SpatialGrid.mortonRanges(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 4);
+        assertEquals(List.of(new KeyRange(Long.MIN_VALUE, Long.MAX_VALUE)), ranges);
+
+        // An aligned quadrant is a single range as well.
+        assertEquals(1, SpatialGrid.mortonRanges(0, 0, 15, 15, 1).size());
+        assertEquals(1, SpatialGrid.mortonRanges(-16, -16, -1, -1, 1).size());
+    }
+
+    private static void assertSortedAndDisjoint(List<KeyRange> ranges) {
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i - 1).max() < ranges.get(i).min(), "ranges overlap or are unsorted");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.huskydreaming.claims.jfr;
+
+import com.huskydreaming.claims.claims.RegionPager;
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimEventsTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void recordsLookupsAddsAndBulkOperations() throws Exception {
+        ClaimFlag build = ClaimFlagRegistry.register("build");
+        WorldClaims world = new WorldClaims(worldId);
+        List<RecordedEvent> events;
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ClaimLookupEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(ClaimAddEvent.class);
+            recording.enable(ClaimBulkEvent.class);
+            recording.start();
+
+            try (RegionPager pager = new RegionPager(world, directory.resolve("regions"), 1, Runnable::run)) {
+                AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 39, 64, 15), new ClaimPermissions(), 0);
+                assertTrue(world.area().add(area));
+                assertFalse(world.area().add(area));
+                assertFalse(world.plot().add(new PlotClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 40, 8, 4),
+                        new ClaimPermissions(), 0, ClaimType.AREA, area.id())));
+
+                world.getClaimAt(new BlockPosition(1, 1, 1));
+                world.canPerformAction(UUID.randomUUID(), new BlockPosition(2, 2, 2), build);
+
+                world.chunk().claim(ownerId, new ChunkPosition(100, 100), new ClaimPermissions());
+                pager.maintain();
+                world.getClaimAt(new BlockPosition(1, 1, 1));
+            }
+
+            recording.stop();
+            Path file = directory.resolve("claims.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        List<RecordedEvent> lookups = named(events, "atlas.ClaimLookup");
+        assertTrue(lookups.size() >= 3);
+        RecordedEvent check = lookups.stream()
+                .filter(event -> event.getString("operation").equals(ClaimLookupEvent.CAN_PERFORM_ACTION))
+                .findFirst().orElseThrow();
+        assertEquals("AREA", check.getString("claimType"));
+        assertFalse(check.getBoolean("allowed"));
+        assertEquals(2, check.getInt("x"));
+
+        List<RecordedEvent> adds = named(events, "atlas.ClaimAdd");
+        assertEquals(3, adds.size());
+        assertEquals(10L, adds.get(0).getLong("touchedCells"));
+        assertTrue(adds.get(0).getBoolean("added"));
+        assertFalse(adds.get(1).getBoolean("added"));
+        assertEquals("PLOT", adds.get(2).getString("claimType"));
+        assertEquals(2L, adds.get(2).getLong("touchedCells"));
+
+        List<String> bulk = named(events, "atlas.ClaimBulkOperation").stream().map(event -> event.getString("operation")).toList();
+        assertTrue(bulk.contains(ClaimBulkEvent.REGION_SWEEP));
+        assertTrue(bulk.contains(ClaimBulkEvent.REGION_LOAD));
+        assertTrue(bulk.contains(ClaimBulkEvent.REGION_FLUSH));
+        events.forEach(event -> {
+            if (event.getEventType().getName().startsWith("atlas.")) assertEquals(worldId.toString(), event.getString("world"));
+        });
+    }
+
+    @Test
+    void slowLookupThresholdFiltersFastCalls() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        List<RecordedEvent> events;
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ClaimLookupEvent.class).withThreshold(Duration.ofSeconds(10));
+            recording.start();
+            for (int i = 0; i < 1_000; i++) world.getClaimAt(new BlockPosition(i, 0, i));
+            recording.stop();
+
+            Path file = directory.resolve("threshold.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        assertTrue(named(events, "atlas.ClaimLookup").isEmpty());
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+}
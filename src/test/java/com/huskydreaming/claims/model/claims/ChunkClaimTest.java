@@ -5,6 +5,7 @@ import com.huskydreaming.claims.model.flags.ClaimPermissions;
 import com.huskydreaming.claims.model.positions.BlockPosition;
 import com.huskydreaming.claims.model.positions.ChunkPosition;
 import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import com.huskydreaming.claims.registry.UuidDictionary;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -117,4 +118,25 @@ class ChunkClaimTest {
         assertFalse(claim.can(nonOwnerId, EXPLOSIONS));
         assertFalse(claim.can(nonOwnerId, PROJECTILES));
     }
+
+    @Test
+    void ownerIsStoredAsDictionaryReference() {
+        UUID worldId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+
+        ChunkClaim claim = new ChunkClaim(
+                worldId,
+                ownerId,
+                new ChunkPosition(0, 0),
+                new ClaimPermissions()
+        );
+
+        assertEquals(UuidDictionary.lookup(ownerId), claim.ownerRef());
+        assertEquals(ownerId, claim.ownerId());
+        assertEquals(worldId, claim.worldId());
+
+        assertTrue(claim.can(claim.ownerRef(), BUILD));
+        assertFalse(claim.can(UuidDictionary.intern(UUID.randomUUID()), BUILD));
+        assertFalse(claim.can(UuidDictionary.ABSENT, BUILD));
+    }
 }
@@ -0,0 +1,101 @@
+package com.huskydreaming.claims.model.positions;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockPolygonTest {
+
+    @Test
+    void squareCoversItsBlocksAndClassifiesCells() {
+        BlockPolygon square = BlockPolygon.of(List.of(corner(0, 0), corner(20, 0), corner(20, 20), corner(0, 20)));
+
+        assertEquals(new BoundingBox(0, 5, 0, 19, 9, 19), square.bounds(5, 9));
+        assertTrue(square.contains(0, 0));
+        assertTrue(square.contains(19, 19));
+        assertFalse(square.contains(20, 5));
+        assertFalse(square.contains(-1, 5));
+
+        assertEquals(BlockPolygon.FULL, square.coverage(0, 0));
+        assertEquals(BlockPolygon.FULL, square.coverage(1, 1));
+        assertEquals(BlockPolygon.PARTIAL, square.coverage(2, 0));
+        assertEquals(BlockPolygon.OUTSIDE, square.coverage(3, 0));
+        assertEquals(BlockPolygon.OUTSIDE, square.coverage(-1, 0));
+        assertTrue(square.containsAll(0, 0, 19, 19));
+        assertFalse(square.containsAll(0, 0, 20, 19));
+    }
+
+    @Test
+    void coverageAndContainsMatchCenterSampling() {
+        Random random = new Random(46);
+        for (int round = 0; round < 300; round++) {
+            List<BlockPosition> corners = new ArrayList<>();
+            for (int i = 0; i < 3 + random.nextInt(7); i++) corners.add(corner(random.nextInt(80) - 40, random.nextInt(80) - 40));
+
+            BlockPolygon polygon;
+            try {
+                polygon = BlockPolygon.of(corners);
+            } catch (IllegalArgumentException degenerate) {
+                continue;
+            }
+
+            for (int cellZ = -6; cellZ < 6; cellZ++) {
+                for (int cellX = -6; cellX < 6; cellX++) {
+                    int covered = 0;
+                    for (int z = cellZ * SpatialGrid.CELL_SIZE; z < (cellZ + 1) * SpatialGrid.CELL_SIZE; z++) {
+                        for (int x = cellX * SpatialGrid.CELL_SIZE; x < (cellX + 1) * SpatialGrid.CELL_SIZE; x++) {
+                            boolean expected = inside(corners, x + 0.5, z + 0.5);
+                            assertEquals(expected, polygon.contains(x, z), "round " + round + " at " + x + ", " + z);
+                            if (expected) covered++;
+                        }
+                    }
+
+                    int expected = covered == 0 ? BlockPolygon.OUTSIDE : covered == 64 ? BlockPolygon.FULL : BlockPolygon.PARTIAL;
+                    assertEquals(expected, polygon.coverage(cellX, cellZ), "round " + round + " cell " + cellX + ", " + cellZ);
+                }
+            }
+        }
+    }
+
+    @Test
+    void translateMovesEveryVertex() {
+        BlockPolygon triangle = BlockPolygon.of(List.of(corner(0, 0), corner(30, 0), corner(0, 30)));
+        BlockPolygon moved = triangle.translate(-100, 7);
+
+        assertEquals(BlockPolygon.of(List.of(corner(-100, 7), corner(-70, 7), corner(-100, 37))), moved);
+        for (int x = -5; x < 35; x++) {
+            for (int z = -5; z < 35; z++) {
+                assertEquals(triangle.contains(x, z), moved.contains(x - 100, z + 7));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> triangle.translate(Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    void rejectsDegenerateOutlines() {
+        assertThrows(IllegalArgumentException.class, () -> BlockPolygon.of(List.of(corner(0, 0), corner(5, 5))));
+        assertThrows(IllegalArgumentException.class, () -> BlockPolygon.of(List.of(corner(0, 0), corner(5, 0), corner(9, 0))));
+        assertThrows(IllegalArgumentException.class, () -> BlockPolygon.of(List.of(corner(0, 0), corner(1 << 20, 0), corner(0, 1 << 20))));
+    }
+
+    private static BlockPosition corner(int x, int z) {
+        return new BlockPosition(x, 0, z);
+    }
+
+    private static boolean inside(List<BlockPosition> corners, double x, double z) {
+        boolean inside = false;
+        for (int i = 0, j = corners.size() - 1; i < corners.size(); j = i++) {
+            BlockPosition a = corners.get(i);
+            BlockPosition b = corners.get(j);
+            if ((a.z() > z) != (b.z() > z) && x < (double) (b.x() - a.x()) * (z - a.z()) / (b.z() - a.z()) + a.x()) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,97 @@
+package com.huskydreaming.claims.model.positions;
+
+import com.huskydreaming.claims.helpers.SpatialGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkShapeTest {
+
+    @Test
+    void rectangleCoversEveryChunkOnceWhateverTheCornerOrder() {
+        ChunkShape shape = ChunkShape.rectangle(new ChunkPosition(3, -2), new ChunkPosition(-1, 4));
+        long[] keys = shape.keys();
+
+        assertEquals(5 * 7, keys.length);
+        assertEquals(keys.length, distinct(keys).size());
+        assertTrue(distinct(keys).contains(SpatialGrid.chunkKey(-1, -2)));
+        assertTrue(distinct(keys).contains(SpatialGrid.chunkKey(3, 4)));
+        assertEquals(new ChunkPosition(-1, -2), shape.min());
+        assertEquals(-1 * SpatialGrid.CHUNK_SIZE, shape.bounds().minX());
+        assertEquals(4 * SpatialGrid.CHUNK_SIZE + SpatialGrid.CHUNK_SIZE - 1, shape.bounds().maxZ());
+    }
+
+    @Test
+    void radiusMatchesDistanceTest() {
+        for (int radius = 0; radius <= 40; radius++) {
+            ChunkPosition center = new ChunkPosition(radius * 7 - 100, 13 - radius);
+            Set<Long> expected = new HashSet<>();
+            for (int dz = -radius; dz <= radius; dz++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (dx * dx + dz * dz <= radius * radius) expected.add(SpatialGrid.chunkKey(center.x() + dx, center.z() + dz));
+                }
+            }
+
+            long[] keys = ChunkShape.radius(center, radius).keys();
+            assertEquals(expected.size(), keys.length, "radius " + radius);
+            assertEquals(expected, distinct(keys), "radius " + radius);
+        }
+    }
+
+    @Test
+    void polygonMatchesCenterSampling() {
+        ChunkShape square = ChunkShape.polygon(List.of(new ChunkPosition(0, 0), new ChunkPosition(4, 0), new ChunkPosition(4, 4), new ChunkPosition(0, 4)));
+        assertEquals(16, square.keys().length);
+        assertEquals(new ChunkPosition(3, 3), square.max());
+
+        Random random = new Random(44);
+        for (int round = 0; round < 200; round++) {
+            List<ChunkPosition> vertices = new ArrayList<>();
+            for (int i = 0; i < 3 + random.nextInt(6); i++) vertices.add(new ChunkPosition(random.nextInt(60) - 30, random.nextInt(60) - 30));
+            ChunkShape shape = ChunkShape.polygon(vertices);
+
+            Set<Long> expected = new HashSet<>();
+            for (int z = -31; z <= 31; z++) {
+                for (int x = -31; x <= 31; x++) {
+                    if (inside(vertices, x + 0.5, z + 0.5)) expected.add(SpatialGrid.chunkKey(x, z));
+                }
+            }
+
+            long[] keys = shape.keys();
+            assertEquals(expected.size(), keys.length, "round " + round);
+            assertEquals(expected, distinct(keys), "round " + round);
+        }
+    }
+
+    @Test
+    void rejectsInvalidAndOversizedShapes() {
+        assertThrows(IllegalArgumentException.class, () -> ChunkShape.radius(new ChunkPosition(0, 0), -1));
+        assertThrows(IllegalArgumentException.class, () -> ChunkShape.radius(new ChunkPosition(0, 0), 1_000));
+        assertThrows(IllegalArgumentException.class, () -> ChunkShape.polygon(List.of(new ChunkPosition(0, 0), new ChunkPosition(1, 1))));
+        assertThrows(IllegalArgumentException.class, () -> ChunkShape.rectangle(new ChunkPosition(0, 0), new ChunkPosition(2_000, 2_000)));
+    }
+
+    private static Set<Long> distinct(long[] keys) {
+        Set<Long> out = new HashSet<>();
+        for (long key : keys) out.add(key);
+        return out;
+    }
+
+    private static boolean inside(List<ChunkPosition> vertices, double x, double z) {
+        boolean inside = false;
+        for (int i = 0, j = vertices.size() - 1; i < vertices.size(); j = i++) {
+            ChunkPosition a = vertices.get(i);
+            ChunkPosition b = vertices.get(j);
+            if ((a.z() > z) != (b.z() > z) && x < (double) (b.x() - a.x()) * (z - a.z()) / (b.z() - a.z()) + a.x()) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,84 @@
+package com.huskydreaming.claims.registry;
+
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidDictionaryTest {
+
+    @Test
+    void internIsStableAndReversible() {
+        UUID uuid = UUID.randomUUID();
+        int id = UuidDictionary.intern(uuid);
+
+        assertEquals(id, UuidDictionary.intern(new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())));
+        assertEquals(id, UuidDictionary.lookup(uuid));
+        assertEquals(uuid, UuidDictionary.uuid(id));
+    }
+
+    @Test
+    void lookupDoesNotIntern() {
+        UUID uuid = UUID.randomUUID();
+        int size = UuidDictionary.size();
+
+        assertEquals(UuidDictionary.ABSENT, UuidDictionary.lookup(uuid));
+        assertEquals(size, UuidDictionary.size());
+    }
+
+    @Test
+    void parentClaimIdsAreNotInterned() {
+        UUID worldId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+        UuidDictionary.intern(worldId);
+        UuidDictionary.intern(ownerId);
+        int size = UuidDictionary.size();
+
+        UUID parentId = UUID.randomUUID();
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 4, 4, 4), new ClaimPermissions(), 0, ClaimType.AREA, parentId);
+
+        assertEquals(parentId, plot.parentClaimId());
+        assertEquals(UuidDictionary.ABSENT, UuidDictionary.lookup(parentId));
+        assertEquals(size, UuidDictionary.size());
+    }
+
+    @Test
+    void unknownIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> UuidDictionary.uuid(-1));
+        assertThrows(IllegalArgumentException.class, () -> UuidDictionary.uuid(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void concurrentInternAssignsOneDenseIdPerUuid() throws InterruptedException {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+
+        Map<UUID, Integer> seen = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (UUID uuid : uuids) {
+                    int id = UuidDictionary.intern(uuid);
+                    Integer previous = seen.putIfAbsent(uuid, id);
+                    if (previous != null) assertEquals(previous, id);
+                    assertEquals(uuid, UuidDictionary.uuid(id));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(uuids.size(), new HashSet<>(seen.values()).size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.huskydreaming.claims.render;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimTileRendererTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID red = UUID.randomUUID();
+    private final UUID blue = UUID.randomUUID();
+    private final Map<UUID, Integer> colors = Map.of(red, 0xFFFF0000, blue, 0xFF0000FF);
+
+    @Test
+    void zoomZeroTilesColourEachBlockByOwner() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(red, new ChunkPosition(0, 0), new ClaimPermissions());
+        // Lower-left triangle of a 64 x 64 square at 100, 100.
+        BlockPolygon triangle = BlockPolygon.of(List.of(corner(100, 100), corner(164, 100), corner(100, 164)));
+        world.area().add(AreaClaim.polygon(worldId, blue, triangle, 0, 64, new ClaimPermissions(), 0));
+
+        try (ClaimTileRenderer renderer = renderer(world, TileFormat.RAW, 1)) {
+            assertEquals(1, renderer.render());
+
+            int[] pixels = TileFormat.RAW.read(renderer.path(new TileKey(0, 0, 0)));
+            assertEquals(0xFFFF0000, pixel(pixels, 0, 0));
+            assertEquals(0xFFFF0000, pixel(pixels, 31, 31));
+            assertEquals(0, pixel(pixels, 32, 0));
+            for (int x = 100; x < 164; x++) {
+                for (int z = 100; z < 164; z++) {
+                    int expected = triangle.contains(x, z) ? 0xFF0000FF : 0;
+                    assertEquals(expected, pixel(pixels, x, z), x + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void changesOnlyRedrawTheTilesUnderThem() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(red, new ChunkPosition(0, 0), new ClaimPermissions());
+        world.chunk().claim(blue, new ChunkPosition(10, 10), new ClaimPermissions());
+
+        try (ClaimTileRenderer renderer = renderer(world, TileFormat.RAW, 3)) {
+            // Two zoom 0 tiles sharing one zoom 1 and one zoom 2 ancestor.
+            assertEquals(4, renderer.render());
+            assertEquals(0, renderer.render());
+
+            world.chunk().claim(red, new ChunkPosition(1, 0), new ClaimPermissions());
+            assertEquals(1, renderer.dirtyCount());
+            long written = renderer.tilesWritten();
+            assertEquals(3, renderer.render());
+            assertEquals(written + 3, renderer.tilesWritten());
+
+            // The untouched sibling is read back from disk to rebuild the ancestors.
+            int[] top = TileFormat.RAW.read(renderer.path(new TileKey(2, 0, 0)));
+            assertEquals(0xFF0000FF, pixel(top, 320 / 4, 320 / 4));
+            assertEquals(0xFFFF0000, pixel(top, 63 / 4, 0));
+
+            world.chunk().unclaim(new ChunkPosition(10, 10));
+            renderer.render();
+            assertFalse(Files.exists(renderer.path(new TileKey(0, 1, 1))));
+            assertTrue(Files.exists(renderer.path(new TileKey(1, 0, 0))));
+            assertEquals(0, pixel(TileFormat.RAW.read(renderer.path(new TileKey(2, 0, 0))), 320 / 4, 320 / 4));
+        }
+    }
+
+    @Test
+    void lowerZoomsKeepOwnerColoursAndStaleTilesAreRemovedOnRestart() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        world.chunk().claim(red, new ChunkPosition(-1, -1), new ClaimPermissions());
+
+        try (ClaimTileRenderer renderer = renderer(world, TileFormat.PNG, 4)) {
+            renderer.render();
+
+            // Chunk -1, -1 is the bottom-right corner of the tiles left of and above the origin.
+            int[] zoomOne = TileFormat.PNG.read(renderer.path(new TileKey(1, -1, -1)));
+            assertEquals(0xFFFF0000, pixel(zoomOne, 255, 255));
+            assertEquals(0xFFFF0000, pixel(zoomOne, 240, 240));
+            assertEquals(0, pixel(zoomOne, 239, 255));
+
+            int[] zoomThree = TileFormat.PNG.read(renderer.path(new TileKey(3, -1, -1)));
+            assertEquals(0xFFFF0000, pixel(zoomThree, 252, 252));
+            assertEquals(0, pixel(zoomThree, 251, 255));
+        }
+
+        WorldClaims restarted = new WorldClaims(worldId);
+        try (ClaimTileRenderer renderer = renderer(restarted, TileFormat.PNG, 4)) {
+            assertEquals(4, renderer.render());
+            for (int zoom = 0; zoom < 4; zoom++) {
+                assertFalse(Files.exists(renderer.path(new TileKey(zoom, -1, -1))));
+            }
+        }
+    }
+
+    private ClaimTileRenderer renderer(WorldClaims world, TileFormat format, int zoomLevels) {
+        return new ClaimTileRenderer(world, directory, format, zoomLevels, colors::get, null);
+    }
+
+    private static int pixel(int[] pixels, int x, int z) {
+        return pixels[z * TileKey.TILE_SIZE + x];
+    }
+
+    private static BlockPosition corner(int x, int z) {
+        return new BlockPosition(x, 0, z);
+    }
+}
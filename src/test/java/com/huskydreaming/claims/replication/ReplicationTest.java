@@ -0,0 +1,200 @@
+package com.huskydreaming.claims.replication;
+
+import com.huskydreaming.claims.claims.RegionPager;
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.BoundedClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+
+    private static final ClaimFlag BUILD = ClaimFlagRegistry.register("build");
+
+    private final UUID worldId = UUID.randomUUID();
+
+    @Test
+    void followersConvergeWithLeader() {
+        WorldClaims leaderWorld = new WorldClaims(worldId);
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationLeader leader = new ReplicationLeader(leaderWorld, transport, 16);
+
+        WorldClaims followerWorld = new WorldClaims(worldId);
+        ReplicationFollower follower = new ReplicationFollower(followerWorld, leader);
+        transport.connect(follower);
+
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            mutate(leaderWorld, random, 50);
+            leader.ship();
+            assertSameClaims(leaderWorld, followerWorld);
+        }
+
+        assertEquals(1, follower.snapshotsApplied());
+        assertEquals(leader.nextSequence(), follower.nextSequence());
+    }
+
+    @Test
+    void duplicateFramesAreIgnored() {
+        WorldClaims leaderWorld = new WorldClaims(worldId);
+        List<ReplicationFrame> sent = new ArrayList<>();
+        ReplicationLeader leader = new ReplicationLeader(leaderWorld, sent::add, 4);
+
+        WorldClaims followerWorld = new WorldClaims(worldId);
+        ReplicationFollower follower = new ReplicationFollower(followerWorld, leader);
+        follower.catchUp();
+
+        mutate(leaderWorld, new Random(5), 40);
+        leader.ship();
+
+        for (ReplicationFrame frame : sent) {
+            follower.receive(frame);
+            follower.receive(frame);
+        }
+        sent.forEach(follower::receive);
+
+        assertSameClaims(leaderWorld, followerWorld);
+        assertEquals(1, follower.snapshotsApplied());
+    }
+
+    @Test
+    void gapTriggersSnapshotCatchUp() {
+        WorldClaims leaderWorld = new WorldClaims(worldId, new ClaimChangeFeed(16));
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationLeader leader = new ReplicationLeader(leaderWorld, transport, 8);
+
+        WorldClaims followerWorld = new WorldClaims(worldId);
+        ReplicationFollower follower = new ReplicationFollower(followerWorld, leader);
+        transport.connect(follower);
+
+        Random random = new Random(9);
+        mutate(leaderWorld, random, 10);
+        leader.ship();
+
+        // Overruns the leader's feed, so the next batch starts past the follower's sequence.
+        mutate(leaderWorld, random, 100);
+        leader.ship();
+        mutate(leaderWorld, random, 5);
+        leader.ship();
+
+        assertSameClaims(leaderWorld, followerWorld);
+        assertEquals(2, follower.snapshotsApplied());
+    }
+
+    @Test
+    void permissionChangesReplicate() {
+        WorldClaims leaderWorld = new WorldClaims(worldId);
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationLeader leader = new ReplicationLeader(leaderWorld, transport);
+
+        WorldClaims followerWorld = new WorldClaims(worldId);
+        ReplicationFollower follower = new ReplicationFollower(followerWorld, leader);
+        transport.connect(follower);
+        follower.catchUp();
+
+        leaderWorld.chunk().claim(UUID.randomUUID(), new ChunkPosition(4, 4), new ClaimPermissions());
+        ResolvedClaim claim = leaderWorld.getClaimAt(new BlockPosition(130, 0, 130)).orElseThrow();
+        leaderWorld.updatePermissions(claim, permissions -> permissions.allow(BUILD));
+        leader.ship();
+
+        assertTrue(followerWorld.getClaimAt(new BlockPosition(130, 0, 130)).orElseThrow().permissions().allows(BUILD));
+    }
+
+    @Test
+    void pagedWorldsReplicateClaimsOfUnloadedRegions(@TempDir Path directory) {
+        UUID ownerId = UUID.randomUUID();
+        WorldClaims leaderWorld = new WorldClaims(worldId);
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationLeader leader = new ReplicationLeader(leaderWorld, transport);
+
+        WorldClaims followerWorld = new WorldClaims(worldId);
+        ReplicationFollower follower = new ReplicationFollower(followerWorld, leader);
+        transport.connect(follower);
+
+        try (RegionPager leaderPager = new RegionPager(leaderWorld, directory.resolve("leader"), 1, Runnable::run);
+             RegionPager followerPager = new RegionPager(followerWorld, directory.resolve("follower"), 1, Runnable::run)) {
+            ChunkClaim near = new ChunkClaim(worldId, ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+            AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(5000, 0, 500, 5100, 10, 520), new ClaimPermissions(), 0);
+            assertTrue(leaderWorld.chunk().claim(near));
+            assertTrue(leaderWorld.area().add(area));
+            assertTrue(leaderWorld.chunk().claim(ownerId, new ChunkPosition(-300, -300), new ClaimPermissions()));
+            leaderPager.maintain();
+            assertEquals(1, leaderPager.residentRegions());
+
+            // The snapshot has to include the regions the leader has paged out.
+            follower.catchUp();
+            assertSameClaims(leaderWorld, followerWorld);
+
+            // Events for claims the follower has paged out still apply.
+            followerPager.maintain();
+            assertEquals(1, followerPager.residentRegions());
+            assertTrue(leaderWorld.chunk().unclaim(near.chunkPosition()));
+            assertTrue(leaderWorld.area().remove(area));
+            leader.ship();
+
+            assertSameClaims(leaderWorld, followerWorld);
+            assertEquals(1, followerWorld.chunk().countOwned(ownerId));
+        }
+    }
+
+    private static void mutate(WorldClaims world, Random random, int operations) {
+        UUID worldId = world.worldId();
+        for (int i = 0; i < operations; i++) {
+            UUID ownerId = UUID.randomUUID();
+            switch (random.nextInt(6)) {
+                case 0, 1 -> world.chunk().claim(ownerId, new ChunkPosition(random.nextInt(20), random.nextInt(20)), new ClaimPermissions());
+                case 2 -> world.chunk().unclaim(new ChunkPosition(random.nextInt(20), random.nextInt(20)));
+                case 3 -> {
+                    int x = 1000 + random.nextInt(20) * 64;
+                    world.area().add(new AreaClaim(worldId, ownerId, new BoundingBox(x, 0, 0, x + 40, 64, 40), new ClaimPermissions(), 0));
+                }
+                case 4 -> {
+                    List<AreaClaim> areas = new ArrayList<>(world.area().allClaims());
+                    if (areas.isEmpty()) continue;
+                    AreaClaim parent = areas.get(random.nextInt(areas.size()));
+                    int x = parent.bounds().minX() + random.nextInt(30);
+                    world.plot().add(new PlotClaim(worldId, ownerId, new BoundingBox(x, 0, 0, x + 5, 10, 5),
+                            new ClaimPermissions(), 0, ClaimType.AREA, parent.id()));
+                }
+                case 5 -> {
+                    List<AreaClaim> areas = new ArrayList<>(world.area().allClaims());
+                    if (!areas.isEmpty()) world.area().remove(areas.get(random.nextInt(areas.size())));
+                }
+            }
+        }
+    }
+
+    private static void assertSameClaims(WorldClaims expected, WorldClaims actual) {
+        assertEquals(chunkKeys(expected), chunkKeys(actual));
+        assertEquals(ids(expected.area().allClaims()), ids(actual.area().allClaims()));
+        assertEquals(ids(expected.plot().allClaims()), ids(actual.plot().allClaims()));
+    }
+
+    private static Map<ChunkPosition, UUID> chunkKeys(WorldClaims world) {
+        Map<ChunkPosition, UUID> out = new HashMap<>();
+        world.chunk().allClaims().forEach(claim -> out.put(claim.chunkPosition(), claim.id()));
+        return out;
+    }
+
+    private static Set<UUID> ids(Collection<? extends BoundedClaim> claims) {
+        Set<UUID> out = new HashSet<>();
+        claims.forEach(claim -> out.add(claim.id()));
+        return out;
+    }
+}
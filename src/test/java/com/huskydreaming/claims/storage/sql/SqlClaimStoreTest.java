@@ -0,0 +1,198 @@
+package com.huskydreaming.claims.storage.sql;
+
+import com.huskydreaming.claims.claims.RegionPager;
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.enumeration.ClaimType;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.PlotClaim;
+import com.huskydreaming.claims.model.claims.ResolvedClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPolygon;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlClaimStoreTest {
+
+    private static final ClaimFlag BUILD = ClaimFlagRegistry.register("build");
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+
+    private JdbcDataSource dataSource;
+    private SqlClaimStore store;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        store = new SqlClaimStore(dataSource, SqlDialect.H2, SqlClaimStore.DEFAULT_TABLE_PREFIX, 4);
+        store.createSchema();
+    }
+
+    @Test
+    void writeBehindRoundTripsAllClaimTypes() throws SQLException {
+        WorldClaims world = new WorldClaims(worldId);
+        ClaimWriteBehind writeBehind = new ClaimWriteBehind(world, store);
+
+        for (int x = 0; x < 10; x++) {
+            world.chunk().claim(ownerId, new ChunkPosition(x, -x), new ClaimPermissions());
+        }
+
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(1000, 0, 1000, 1100, 64, 1100), new ClaimPermissions(), 3);
+        assertTrue(world.area().add(area));
+
+        PlotClaim plot = new PlotClaim(worldId, ownerId, new BoundingBox(1010, 0, 1010, 1020, 16, 1020),
+                new ClaimPermissions(), 1, ClaimType.AREA, area.id());
+        assertTrue(world.plot().add(plot));
+        world.updatePermissions(ResolvedClaim.of(plot), permissions -> permissions.allow(BUILD));
+
+        assertEquals(12, writeBehind.flush());
+
+        WorldClaims loaded = new WorldClaims(worldId);
+        assertEquals(12, store.load(loaded));
+
+        assertEquals(10, loaded.chunk().allClaims().size());
+        assertEquals(3, loaded.area().getById(area.id()).priority());
+
+        PlotClaim loadedPlot = loaded.plot().getById(plot.id());
+        assertEquals(plot.bounds(), loadedPlot.bounds());
+        assertEquals(area.id(), loadedPlot.parentClaimId());
+        assertTrue(loadedPlot.allows(BUILD));
+        assertEquals(plot.id(), loaded.getClaimAt(new BlockPosition(1015, 5, 1015)).orElseThrow().id());
+    }
+
+    @Test
+    void polygonOutlinesRoundTripAndOldTablesGainTheColumn() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE atlas_area_claims DROP COLUMN outline");
+        }
+        store.createSchema();
+
+        WorldClaims world = new WorldClaims(worldId);
+        ClaimWriteBehind writeBehind = new ClaimWriteBehind(world, store);
+        BlockPolygon outline = BlockPolygon.of(List.of(new BlockPosition(0, 0, 0), new BlockPosition(90, 0, 10), new BlockPosition(30, 0, 70)));
+        AreaClaim polygon = AreaClaim.polygon(worldId, ownerId, outline, 0, 64, new ClaimPermissions(), 1);
+        AreaClaim box = new AreaClaim(worldId, ownerId, new BoundingBox(200, 0, 200, 220, 64, 220), new ClaimPermissions(), 0);
+        assertTrue(world.area().add(polygon));
+        assertTrue(world.area().add(box));
+        writeBehind.flush();
+
+        WorldClaims loaded = new WorldClaims(worldId);
+        assertEquals(2, store.load(loaded));
+        assertEquals(outline, loaded.area().getById(polygon.id()).outline());
+        assertNull(loaded.area().getById(box.id()).outline());
+        assertNull(loaded.area().getAt(new BlockPosition(85, 5, 60)));
+    }
+
+    @Test
+    void repeatedMutationsCoalesceIntoOneRowWrite() throws SQLException {
+        WorldClaims world = new WorldClaims(worldId);
+        ClaimWriteBehind writeBehind = new ClaimWriteBehind(world, store);
+
+        world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+        ResolvedClaim claim = world.getClaimAt(new BlockPosition(1, 1, 1)).orElseThrow();
+        for (int i = 0; i < 50; i++) {
+            boolean allow = i % 2 == 0;
+            world.updatePermissions(claim, permissions -> {
+                if (allow) permissions.allow(BUILD);
+                else permissions.deny(BUILD);
+            });
+        }
+
+        world.chunk().claim(ownerId, new ChunkPosition(5, 5), new ClaimPermissions());
+        world.chunk().unclaim(new ChunkPosition(5, 5));
+
+        assertEquals(2, writeBehind.flush());
+        assertEquals(53, writeBehind.receivedCount());
+        assertEquals(1, count("atlas_chunk_claims"));
+
+        WorldClaims loaded = new WorldClaims(worldId);
+        store.load(loaded);
+        assertFalse(loaded.chunk().getAt(new ChunkPosition(0, 0)).permissions().allows(BUILD));
+    }
+
+    @Test
+    void removalsAndClearsDeleteRows() throws SQLException {
+        WorldClaims world = new WorldClaims(worldId);
+        ClaimWriteBehind writeBehind = new ClaimWriteBehind(world, store);
+
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(0, 0, 0, 40, 40, 40), new ClaimPermissions(), 0);
+        world.area().add(area);
+        world.plot().add(new PlotClaim(worldId, ownerId, new BoundingBox(1, 1, 1, 4, 4, 4),
+                new ClaimPermissions(), 0, ClaimType.AREA, area.id()));
+        world.chunk().claim(ownerId, new ChunkPosition(9, 9), new ClaimPermissions());
+        writeBehind.flush();
+
+        world.area().remove(area);
+        writeBehind.flush();
+        assertEquals(0, count("atlas_area_claims"));
+        assertEquals(0, count("atlas_plot_claims"));
+
+        world.chunk().clear();
+        world.chunk().claim(ownerId, new ChunkPosition(1, 1), new ClaimPermissions());
+        writeBehind.flush();
+        assertEquals(1, count("atlas_chunk_claims"));
+    }
+
+    @Test
+    void replaceAllKeepsClaimsOfPagedOutRegions(@TempDir Path directory) throws SQLException {
+        WorldClaims world = new WorldClaims(worldId);
+        AreaClaim area = new AreaClaim(worldId, ownerId, new BoundingBox(5000, 0, 500, 5100, 10, 520), new ClaimPermissions(), 0);
+
+        try (RegionPager pager = new RegionPager(world, directory, 1, Runnable::run)) {
+            world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+            assertTrue(world.area().add(area));
+            world.chunk().claim(ownerId, new ChunkPosition(-300, -300), new ClaimPermissions());
+            pager.maintain();
+            assertEquals(1, pager.residentRegions());
+
+            store.replaceAll(world);
+        }
+
+        WorldClaims loaded = new WorldClaims(worldId);
+        assertEquals(3, store.load(loaded));
+        assertEquals(2, loaded.chunk().countOwned(ownerId));
+        assertEquals(area.bounds(), loaded.area().getById(area.id()).bounds());
+    }
+
+    @Test
+    void overrunFallsBackToFullRewrite() throws SQLException {
+        WorldClaims world = new WorldClaims(worldId, new ClaimChangeFeed(8));
+        ClaimWriteBehind writeBehind = new ClaimWriteBehind(world, store);
+
+        for (int x = 0; x < 20; x++) {
+            world.chunk().claim(ownerId, new ChunkPosition(x, 0), new ClaimPermissions());
+        }
+        world.chunk().unclaim(new ChunkPosition(0, 0));
+
+        writeBehind.flush();
+        assertEquals(19, count("atlas_chunk_claims"));
+    }
+
+    private int count(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE world_id = '" + worldId + "'")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+}
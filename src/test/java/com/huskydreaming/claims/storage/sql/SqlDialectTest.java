@@ -0,0 +1,33 @@
+package com.huskydreaming.claims.storage.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlDialectTest {
+
+    @Test
+    void indexDdlMatchesEachDialect() {
+        for (SqlDialect dialect : new SqlDialect[]{SqlDialect.H2, SqlDialect.SQLITE, SqlDialect.POSTGRESQL}) {
+            assertEquals("CREATE INDEX IF NOT EXISTS claims_chunk_claims_world ON claims_chunk_claims (world_id)",
+                    dialect.createIndex("claims_chunk_claims_world", "claims_chunk_claims", "world_id"), dialect.name());
+        }
+
+        // MySQL rejects IF NOT EXISTS on indexes.
+        assertEquals("CREATE INDEX claims_chunk_claims_world ON claims_chunk_claims (world_id)",
+                SqlDialect.MYSQL.createIndex("claims_chunk_claims_world", "claims_chunk_claims", "world_id"));
+    }
+
+    @Test
+    void onlyMySqlDuplicateKeyNamesCountAsExistingIndexes() {
+        SQLException duplicate = new SQLException("Duplicate key name 'claims_chunk_claims_world'", "42000", 1061);
+        SQLException other = new SQLException("Table 'claims_chunk_claims' doesn't exist", "42S02", 1146);
+
+        assertTrue(SqlDialect.MYSQL.isDuplicateIndex(duplicate));
+        assertFalse(SqlDialect.MYSQL.isDuplicateIndex(other));
+        assertFalse(SqlDialect.H2.isDuplicateIndex(duplicate));
+        assertFalse(SqlDialect.POSTGRESQL.isDuplicateIndex(duplicate));
+    }
+}
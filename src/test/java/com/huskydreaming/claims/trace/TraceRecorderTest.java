@@ -0,0 +1,189 @@
+package com.huskydreaming.claims.trace;
+
+import com.huskydreaming.claims.claims.WorldClaims;
+import com.huskydreaming.claims.feed.ClaimChangeFeed;
+import com.huskydreaming.claims.model.claims.AreaClaim;
+import com.huskydreaming.claims.model.claims.ChunkClaim;
+import com.huskydreaming.claims.model.flags.ClaimFlag;
+import com.huskydreaming.claims.model.flags.ClaimPermissions;
+import com.huskydreaming.claims.model.positions.BlockPosition;
+import com.huskydreaming.claims.model.positions.BoundingBox;
+import com.huskydreaming.claims.model.positions.ChunkPosition;
+import com.huskydreaming.claims.registry.ClaimFlagRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceRecorderTest {
+
+    private static final Duration MANUAL = Duration.ofHours(1);
+    private static final ClaimFlag BUILD = ClaimFlagRegistry.register("trace-test-build");
+
+    @TempDir
+    Path directory;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final UUID ownerId = UUID.randomUUID();
+
+    @Test
+    void replayRebuildsTheRecordedWorld() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        for (int i = 0; i < 20; i++) {
+            world.chunk().claim(ownerId, new ChunkPosition(i, -i), new ClaimPermissions());
+        }
+
+        Path file = directory.resolve("world.trace");
+        TraceRecorder recorder = new TraceRecorder(world, file, 1, 1024, MANUAL);
+
+        Thread[] threads = new Thread[3];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                UUID playerId = UUID.randomUUID();
+                for (int i = 0; i < 2_000; i++) {
+                    BlockPosition position = new BlockPosition(random.nextInt(800) - 100, random.nextInt(128), random.nextInt(800) - 700);
+                    switch (i % 4) {
+                        case 0 -> world.getClaimAt(position);
+                        case 1 -> world.canPerformAction(i % 8 == 1 ? ownerId : playerId, position, BUILD);
+                        case 2 -> world.sameClaim(position, new BlockPosition(position.x() + 1, position.y(), position.z()));
+                        default -> world.sameClaimNeighbours(position);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        Random random = new Random(99);
+        for (int i = 0; i < 200; i++) {
+            world.chunk().claim(ownerId, new ChunkPosition(random.nextInt(30), -random.nextInt(30)), new ClaimPermissions());
+            if (i % 10 == 0) world.chunk().unclaim(new ChunkPosition(random.nextInt(30), -random.nextInt(30)));
+            if (i % 50 == 0) {
+                world.area().add(new AreaClaim(worldId, ownerId, new BoundingBox(i * 4, 0, -i * 4, i * 4 + 3, 64, -i * 4 + 3), new ClaimPermissions(), 0));
+            }
+            if (i % 20 == 0) recorder.drain();
+        }
+
+        for (Thread thread : threads) thread.join();
+        recorder.close();
+
+        assertEquals(6_000, recorder.recordedCalls());
+        assertEquals(1, recorder.snapshotCount());
+
+        ClaimTrace trace = ClaimTrace.read(file);
+        assertEquals(worldId, trace.worldId());
+        assertEquals(6_000, trace.callCount());
+        assertEquals(3, trace.streams().size());
+        assertInstanceOf(TraceOp.Snapshot.class, trace.mutations().get(0));
+        assertEquals(recorder.recordedMutations(), trace.mutations().size() - 1);
+
+        Map<TraceOp.Kind, Long> kinds = trace.streams().stream().flatMap(List::stream)
+                .collect(Collectors.groupingBy(TraceOp::kind, Collectors.counting()));
+        assertEquals(Map.of(TraceOp.Kind.LOOKUP, 1_500L, TraceOp.Kind.CHECK, 1_500L, TraceOp.Kind.PAIR, 1_500L, TraceOp.Kind.NEIGHBOURS, 1_500L), kinds);
+
+        WorldClaims replayed = new WorldClaims(worldId);
+        ReplayReport report = new TraceReplayer(trace).replay(replayed, 2, 0);
+
+        assertEquals(6_000 + trace.mutations().size() - 1, report.operations());
+        assertEquals(ids(world.chunk().allClaims()), ids(replayed.chunk().allClaims()));
+        assertEquals(world.area().allClaims().size(), replayed.area().allClaims().size());
+        assertTrue(report.format().contains("lookup"));
+    }
+
+    @Test
+    void samplingRecordsEveryNthCall() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        Path file = directory.resolve("sampled.trace");
+
+        try (TraceRecorder recorder = new TraceRecorder(world, file, 10, TraceRecorder.DEFAULT_BLOCK_SIZE, MANUAL)) {
+            for (int i = 0; i < 1_000; i++) {
+                world.getClaimAt(new BlockPosition(i, 0, i));
+            }
+            assertEquals(100, recorder.recordedCalls());
+        }
+
+        assertEquals(100, ClaimTrace.read(file).callCount());
+
+        // Closing detaches the recorder.
+        world.getClaimAt(new BlockPosition(0, 0, 0));
+        assertEquals(100, ClaimTrace.read(file).callCount());
+    }
+
+    @Test
+    void fallingBehindTheFeedWritesAFreshSnapshot() throws Exception {
+        WorldClaims world = new WorldClaims(worldId, new ClaimChangeFeed(16));
+        Path file = directory.resolve("overrun.trace");
+
+        try (TraceRecorder recorder = new TraceRecorder(world, file, 1, TraceRecorder.DEFAULT_BLOCK_SIZE, MANUAL)) {
+            for (int i = 0; i < 100; i++) {
+                world.chunk().claim(ownerId, new ChunkPosition(i, 0), new ClaimPermissions());
+            }
+            recorder.drain();
+            assertEquals(2, recorder.snapshotCount());
+        }
+
+        ClaimTrace trace = ClaimTrace.read(file);
+        WorldClaims replayed = new WorldClaims(worldId);
+        new TraceReplayer(trace).replay(replayed, 1, 0);
+        assertEquals(ids(world.chunk().allClaims()), ids(replayed.chunk().allClaims()));
+    }
+
+    @Test
+    void mutationsKeepTheirPublishTimes() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        Path file = directory.resolve("timed.trace");
+
+        try (TraceRecorder recorder = new TraceRecorder(world, file, 1, TraceRecorder.DEFAULT_BLOCK_SIZE, MANUAL)) {
+            world.chunk().claim(ownerId, new ChunkPosition(0, 0), new ClaimPermissions());
+            world.getClaimAt(new BlockPosition(1, 0, 1));
+            world.chunk().claim(ownerId, new ChunkPosition(1, 0), new ClaimPermissions());
+            world.getClaimAt(new BlockPosition(17, 0, 1));
+            assertEquals(2, recorder.recordedCalls());
+        }
+
+        // Both mutations are drained only on close, after both calls.
+        ClaimTrace trace = ClaimTrace.read(file);
+        List<TraceOp> mutations = trace.mutations();
+        List<TraceOp> calls = trace.streams().get(0);
+        assertEquals(3, mutations.size());
+        assertEquals(2, calls.size());
+        assertTrue(mutations.get(1).time() <= calls.get(0).time());
+        assertTrue(calls.get(0).time() <= mutations.get(2).time());
+        assertTrue(mutations.get(2).time() <= calls.get(1).time());
+    }
+
+    @Test
+    void tornTailIsIgnored() throws Exception {
+        WorldClaims world = new WorldClaims(worldId);
+        Path file = directory.resolve("torn.trace");
+
+        try (TraceRecorder recorder = new TraceRecorder(world, file, 1, 1024, MANUAL)) {
+            for (int i = 0; i < 500; i++) {
+                world.getClaimAt(new BlockPosition(i, 0, i));
+            }
+            assertEquals(500, recorder.recordedCalls());
+        }
+
+        long complete = ClaimTrace.read(file).callCount();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 7);
+        }
+
+        long truncated = ClaimTrace.read(file).callCount();
+        assertTrue(truncated > 0 && truncated < complete);
+    }
+
+    private static Set<UUID> ids(Collection<ChunkClaim> claims) {
+        Set<UUID> ids = new HashSet<>();
+        for (ChunkClaim claim : claims) ids.add(claim.id());
+        return ids;
+    }
+}